@@ -0,0 +1,50 @@
+package org.pancakelab.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Runs the benchmarks selected on the command line (all of them by default) with the GC profiler, once on
+ * a single thread and once on as many threads as there are processors, so every report shows the uncontended
+ * and the contended cost together with the allocation rate.
+ * <br/>
+ * Accepts the usual JMH command line options; an explicit {@code -t} runs only the given number of threads.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar [regexp] [JMH options]
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+        if (commandLineOptions.shouldList()) {
+            new Runner(commandLineOptions).list();
+            return;
+        }
+        int[] threadCounts = commandLineOptions.getThreads().hasValue()
+                ? new int[]{commandLineOptions.getThreads().get()}
+                : new int[]{1, Runtime.getRuntime().availableProcessors()};
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.pancakelab.benchmark;
+
+import org.pancakelab.model.pancake.Ingredient;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixtures shared by the benchmarks.
+ */
+final class BenchmarkSupport {
+
+    static final String DARK_CHOCOLATE_PANCAKE_DESCRIPTION = "Delicious pancake with dark chocolate!";
+    static final List<Ingredient> CUSTOM_INGREDIENTS =
+            List.of(Ingredient.MILK_CHOCOLATE, Ingredient.WHIPPED_CREAM, Ingredient.HAZELNUTS);
+    static final Clock CLOCK = Clock.fixed(Instant.parse("2024-01-01T08:00:00Z"), ZoneOffset.UTC);
+
+    // held strongly, a logger which is only configured and then dropped loses its level
+    private static final Logger APPLICATION_LOGGER = Logger.getLogger("org.pancakelab");
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Every order change is logged at INFO level, which would make the benchmarks measure the console.
+     */
+    static void quietLogging() {
+        APPLICATION_LOGGER.setLevel(Level.WARNING);
+    }
+}
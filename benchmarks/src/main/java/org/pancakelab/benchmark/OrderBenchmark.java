@@ -0,0 +1,106 @@
+package org.pancakelab.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Life cycle of a single order: creation, changing its lines, state transitions and reading it back.
+ * <br/>
+ * Every thread works on its own order, except for the {@code shared} benchmarks, which make all threads
+ * contend for the lock of one order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBenchmark {
+
+    private final Address address = new Address(1, 1);
+    private Pancake pancake;
+    private Order order;
+    private PancakeService pancakeService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        PancakeMenu pancakeMenu = new PancakeMenu();
+        pancake = pancakeMenu.findPancakeByDescription(BenchmarkSupport.DARK_CHOCOLATE_PANCAKE_DESCRIPTION)
+                .orElseThrow();
+        pancakeService = new PancakeService(new InMemoryOrderRepository(), pancakeMenu);
+        order = new Order(address, BenchmarkSupport.CLOCK);
+        order.addPancake(pancake, 2);
+        order.addPancake(new Pancake(BenchmarkSupport.CUSTOM_INGREDIENTS), 1);
+        order.addPancake(new Pancake(List.of(BenchmarkSupport.CUSTOM_INGREDIENTS.get(0))), 3);
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return new Order(address, BenchmarkSupport.CLOCK);
+    }
+
+    @Benchmark
+    public Order addAndRemovePancake() {
+        order.addPancake(pancake, 1);
+        order.removePancake(pancake, 1);
+        return order;
+    }
+
+    @Benchmark
+    public Order addAndRemovePancakeShared(SharedOrder sharedOrder) {
+        sharedOrder.order.addPancake(pancake, 1);
+        sharedOrder.order.removePancake(pancake, 1);
+        return sharedOrder.order;
+    }
+
+    @Benchmark
+    public Order stateTransitions() {
+        Order newOrder = new Order(address, BenchmarkSupport.CLOCK);
+        newOrder.addPancake(pancake, 1);
+        newOrder.markCompleted();
+        newOrder.markPrepared();
+        newOrder.markDelivered();
+        return newOrder;
+    }
+
+    @Benchmark
+    public Map<Pancake, Integer> getPancakes() {
+        return order.getPancakes();
+    }
+
+    @Benchmark
+    public Map<Pancake, Integer> getPancakesShared(SharedOrder sharedOrder) {
+        return sharedOrder.order.getPancakes();
+    }
+
+    @Benchmark
+    public Map<String, Integer> viewOrder() {
+        return pancakeService.viewOrder(order);
+    }
+
+    /**
+     * One order for all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedOrder {
+
+        private Order order;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.quietLogging();
+            order = new Order(new Address(1, 1), BenchmarkSupport.CLOCK);
+            order.addPancake(new Pancake(BenchmarkSupport.CUSTOM_INGREDIENTS), 1);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.pancakelab.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.model.pancake.PancakeMenu;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Menu lookups and construction of custom pancakes, the two ways a pancake gets into an order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PancakeMenuBenchmark {
+
+    private PancakeMenu pancakeMenu;
+    // built at run time so the lookups hash the string like a request would
+    private String knownDescription;
+    private String unknownDescription;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        pancakeMenu = new PancakeMenu();
+        knownDescription = new String(BenchmarkSupport.DARK_CHOCOLATE_PANCAKE_DESCRIPTION.toCharArray());
+        unknownDescription = "Delicious pancake with mustard!";
+    }
+
+    @Benchmark
+    public Optional<Pancake> findPancakeByDescription() {
+        return pancakeMenu.findPancakeByDescription(knownDescription);
+    }
+
+    @Benchmark
+    public Optional<Pancake> findMissingPancakeByDescription() {
+        return pancakeMenu.findPancakeByDescription(unknownDescription);
+    }
+
+    @Benchmark
+    public Pancake createCustomPancake() {
+        return new Pancake(BenchmarkSupport.CUSTOM_INGREDIENTS);
+    }
+}
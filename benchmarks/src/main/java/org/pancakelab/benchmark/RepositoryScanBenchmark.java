@@ -0,0 +1,79 @@
+package org.pancakelab.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.repository.event.OrderChangeStream;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries of the in-memory repository over a growing number of stored orders, a third of them in each of
+ * the NEW, COMPLETED and PREPARED states, spread over 50 buildings of 100 rooms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RepositoryScanBenchmark {
+
+    private static final int BUILDINGS = 50;
+    private static final int ROOMS = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    private int orderCount;
+
+    private InMemoryOrderRepository orderRepository;
+    private final Address address = new Address(7, 42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        // delivers synchronously, the stream has no subscribers
+        orderRepository = new InMemoryOrderRepository(new OrderChangeStream(Runnable::run, 256, 1024));
+        Pancake pancake = new Pancake(BenchmarkSupport.CUSTOM_INGREDIENTS);
+        for (int i = 0; i < orderCount; i++) {
+            Order order = new Order(new Address(1 + i % BUILDINGS, 1 + (i / BUILDINGS) % ROOMS),
+                    BenchmarkSupport.CLOCK);
+            order.addPancake(pancake, 1);
+            if (i % 3 != 0) {
+                order.markCompleted();
+            }
+            if (i % 3 == 2) {
+                order.markPrepared();
+            }
+            orderRepository.saveOrder(order);
+        }
+    }
+
+    @Benchmark
+    public List<Order> findCompletedOrders() {
+        return orderRepository.findCompletedOrders();
+    }
+
+    @Benchmark
+    public List<Order> findOldestCompletedOrders() {
+        return orderRepository.findOldestCompletedOrders(16);
+    }
+
+    @Benchmark
+    public List<Order> findOrdersByAddress() {
+        return orderRepository.findOrdersByAddress(address);
+    }
+
+    @Benchmark
+    public List<Order> findOrdersByBuildings() {
+        return orderRepository.findOrdersByBuildings(1, 5);
+    }
+
+    @Benchmark
+    public long countCompletedOrders() {
+        return orderRepository.countOrders(OrderProcessingState.COMPLETED);
+    }
+}
@@ -0,0 +1,86 @@
+package org.pancakelab.loadgen;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Random distribution of non-negative whole numbers, used for think times and order sizes.
+ * <br/>
+ * Parsed from {@code const:N}, {@code uniform:MIN:MAX}, {@code exp:MEAN} or {@code geometric:MEAN}.
+ * A geometric distribution never samples less than 1.
+ */
+@FunctionalInterface
+public interface Distribution {
+
+    long sample(RandomGenerator random);
+
+    static Distribution constant(long value) {
+        requireNonNegative(value);
+        return random -> value;
+    }
+
+    static Distribution uniform(long min, long max) {
+        requireNonNegative(min);
+        if (max < min) {
+            throw new IllegalArgumentException("Maximum " + max + " is less than minimum " + min);
+        }
+        return random -> random.nextLong(min, max + 1);
+    }
+
+    static Distribution exponential(double mean) {
+        requireNonNegative(mean);
+        return random -> Math.round(random.nextExponential() * mean);
+    }
+
+    static Distribution geometric(double mean) {
+        if (mean < 1) {
+            throw new IllegalArgumentException("Mean of a geometric distribution must be at least 1");
+        }
+        double p = 1 / mean;
+        return random -> mean == 1 ? 1 : 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    /**
+     * @param specification the distribution in one of the formats listed above
+     * @return the distribution
+     * @throws IllegalArgumentException if the specification is malformed
+     */
+    static Distribution parse(String specification) {
+        String[] tokens = specification.split(":");
+        try {
+            return switch (tokens[0]) {
+                case "const" -> {
+                    requireArguments(specification, tokens, 1);
+                    yield constant(Long.parseLong(tokens[1]));
+                }
+                case "uniform" -> {
+                    requireArguments(specification, tokens, 2);
+                    yield uniform(Long.parseLong(tokens[1]), Long.parseLong(tokens[2]));
+                }
+                case "exp" -> {
+                    requireArguments(specification, tokens, 1);
+                    yield exponential(Double.parseDouble(tokens[1]));
+                }
+                case "geometric" -> {
+                    requireArguments(specification, tokens, 1);
+                    yield geometric(Double.parseDouble(tokens[1]));
+                }
+                default -> throw new IllegalArgumentException("Unknown distribution '" + specification + "'");
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in distribution '" + specification + "'", e);
+        }
+    }
+
+    private static void requireArguments(String specification, String[] tokens, int count) {
+        if (tokens.length != count + 1) {
+            throw new IllegalArgumentException("Distribution '" + specification + "' needs " + count +
+                    " argument(s)");
+        }
+    }
+
+    private static void requireNonNegative(double value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Distribution parameter cannot be negative: " + value);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.pancakelab.loadgen;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+import org.pancakelab.service.Result;
+import org.pancakelab.service.delivery.DeliveryBatch;
+import org.pancakelab.service.delivery.DeliveryDispatcher;
+import org.pancakelab.service.kitchen.CookingBatch;
+import org.pancakelab.service.kitchen.KitchenPlanner;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Simulates rush hour in the Dojo against an in-memory {@link PancakeService}: disciples create, fill and complete
+ * or cancel orders, chefs cook completed orders in griddle batches and couriers deliver prepared orders in
+ * building batches. Every simulated person runs on its own virtual thread.
+ * <br/>
+ * Prints throughput, latency percentiles per operation and the lead time of delivered orders, from creation to
+ * delivery. Failed requests, e.g. orders cancelled while a disciple was still adding pancakes, are counted per
+ * status.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.pancakelab.loadgen.LoadGenerator [--name=value ...]
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String[] MENU = {
+            "Delicious pancake with dark chocolate!",
+            "Delicious pancake with dark chocolate, whipped cream, hazelnuts!",
+            "Delicious pancake with dark chocolate, whipped cream!",
+            "Delicious pancake with milk chocolate, hazelnuts!",
+            "Delicious pancake with milk chocolate!"
+    };
+
+    // held strongly, a logger which is only configured and then dropped loses its level
+    private static final Logger APPLICATION_LOGGER = Logger.getLogger("org.pancakelab");
+
+    private final WorkloadConfig config;
+    private final Clock clock = Clock.systemUTC();
+    private final PancakeService pancakeService;
+    private final KitchenPlanner kitchenPlanner;
+    private final DeliveryDispatcher deliveryDispatcher;
+    private final WorkloadStats stats = new WorkloadStats();
+    private volatile long deadlineNanos;
+
+    LoadGenerator(WorkloadConfig config) {
+        this.config = config;
+        OrderRepository orderRepository = new InMemoryOrderRepository();
+        this.pancakeService = PancakeService.builder(orderRepository, new PancakeMenu()).withClock(clock).build();
+        this.kitchenPlanner = new KitchenPlanner(orderRepository, config.griddleCapacity());
+        this.deliveryDispatcher = new DeliveryDispatcher(orderRepository, config.deliveryBatch(),
+                config.deliveryWait(), clock);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        WorkloadConfig config;
+        try {
+            config = WorkloadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(WorkloadConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        APPLICATION_LOGGER.setLevel(Level.WARNING);
+        new LoadGenerator(config).run();
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf("Running %d disciples, %d chefs and %d couriers for %d s%n", config.disciples(),
+                config.chefs(), config.couriers(), config.duration().toSeconds());
+        long startNanos = System.nanoTime();
+        deadlineNanos = startNanos + config.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.disciples(); i++) {
+                executor.execute(this::runDisciple);
+            }
+            for (int i = 0; i < config.chefs(); i++) {
+                executor.execute(this::runChef);
+            }
+            for (int i = 0; i < config.couriers(); i++) {
+                executor.execute(this::runCourier);
+            }
+        }
+        stats.print(Duration.ofNanos(System.nanoTime() - startNanos), System.out);
+    }
+
+    private void runDisciple() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int building = 1 + random.nextInt(config.buildings());
+        int room = 1 + random.nextInt(config.rooms());
+        while (isRunning()) {
+            think(config.thinkTimeMillis().sample(random));
+            long start = System.nanoTime();
+            Result<Order> created = pancakeService.tryCreateOrder(building, room);
+            stats.record(Operation.CREATE_ORDER, start, created);
+            if (!created.isOk()) {
+                continue;
+            }
+            Order order = created.getValue();
+            long lines = Math.max(1, config.orderSize().sample(random));
+            for (long line = 0; line < lines && isRunning(); line++) {
+                think(config.thinkTimeMillis().sample(random));
+                int count = (int) Math.max(1, config.pancakesPerLine().sample(random));
+                start = System.nanoTime();
+                Result<Void> added = pancakeService.tryAddPancakeToOrder(order, MENU[random.nextInt(MENU.length)],
+                        count);
+                stats.record(Operation.ADD_PANCAKE, start, added);
+            }
+            think(config.thinkTimeMillis().sample(random));
+            if (random.nextDouble() < config.cancelRatio()) {
+                start = System.nanoTime();
+                Result<Void> cancelled = pancakeService.tryCancelOrder(order);
+                stats.record(Operation.CANCEL_ORDER, start, cancelled);
+                if (cancelled.isOk()) {
+                    stats.recordCancellation();
+                }
+            } else {
+                start = System.nanoTime();
+                stats.record(Operation.COMPLETE_ORDER, start, pancakeService.tryCompleteOrder(order));
+            }
+        }
+    }
+
+    private void runChef() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (isRunning()) {
+            long start = System.nanoTime();
+            Optional<CookingBatch> batch = kitchenPlanner.nextBatch();
+            if (batch.isEmpty()) {
+                think(config.idleMillis());
+                continue;
+            }
+            think(config.cookTimeMillis().sample(random));
+            kitchenPlanner.completeBatch(batch.get());
+            stats.record(Operation.COOK_BATCH, start);
+        }
+    }
+
+    private void runCourier() {
+        while (isRunning()) {
+            long start = System.nanoTime();
+            Optional<DeliveryBatch> batch = deliveryDispatcher.nextBatch();
+            if (batch.isEmpty()) {
+                think(config.idleMillis());
+                continue;
+            }
+            List<Order> orders = batch.get().orders();
+            Map<UUID, Result<Void>> results = pancakeService.deliverOrders(orders.stream().map(Order::getId).toList());
+            stats.record(Operation.DELIVER_BATCH, start);
+            Instant deliveredAt = clock.instant();
+            for (Order order : orders) {
+                Result<Void> result = results.get(order.getId());
+                stats.recordOutcome(Operation.DELIVER_BATCH, result);
+                if (result.isOk()) {
+                    stats.recordDelivery(Duration.between(order.getCreatedAt(), deliveredAt));
+                }
+            }
+        }
+    }
+
+    private boolean isRunning() {
+        return System.nanoTime() < deadlineNanos;
+    }
+
+    private static void think(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.pancakelab.loadgen;
+
+/**
+ * Operations issued by the simulated roles, each with its own latency histogram.
+ */
+enum Operation {
+    CREATE_ORDER,
+    ADD_PANCAKE,
+    COMPLETE_ORDER,
+    CANCEL_ORDER,
+    COOK_BATCH,
+    DELIVER_BATCH
+}
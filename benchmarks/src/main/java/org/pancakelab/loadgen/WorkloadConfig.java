@@ -0,0 +1,113 @@
+package org.pancakelab.loadgen;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Populations and behaviour of the simulated roles.
+ *
+ * @param disciples       number of disciples creating, filling and completing or cancelling orders
+ * @param chefs           number of chefs cooking batches of completed orders
+ * @param couriers        number of couriers delivering batches of prepared orders
+ * @param duration        how long the load is generated
+ * @param thinkTimeMillis pause of a disciple between two requests
+ * @param orderSize       number of pancake lines a disciple adds to an order
+ * @param pancakesPerLine number of pancakes added with a single request
+ * @param cancelRatio     share of orders the disciples cancel instead of completing, between 0 and 1
+ * @param buildings       number of buildings the disciples live in
+ * @param rooms           number of rooms per building
+ * @param cookTimeMillis  time a chef spends on a batch
+ * @param griddleCapacity number of pancakes a chef cooks in one batch
+ * @param deliveryBatch   number of orders which makes a delivery batch full
+ * @param deliveryWait    time an order may wait for its delivery batch to fill up
+ * @param idleMillis      pause of a chef or courier who found nothing to do
+ */
+record WorkloadConfig(int disciples, int chefs, int couriers, Duration duration,
+                      Distribution thinkTimeMillis, Distribution orderSize, Distribution pancakesPerLine,
+                      double cancelRatio, int buildings, int rooms,
+                      Distribution cookTimeMillis, int griddleCapacity, int deliveryBatch, Duration deliveryWait,
+                      long idleMillis) {
+
+    private static final Set<String> KNOWN_OPTIONS = Set.of("disciples", "chefs", "couriers", "duration", "think",
+            "order-size", "pancakes", "cancel-ratio", "buildings", "rooms", "cook", "griddle", "delivery-batch",
+            "delivery-wait", "idle");
+
+    static final String USAGE = """
+            Options, all of them optional:
+              --disciples=N            disciples (default 200)
+              --chefs=N                chefs (default 8)
+              --couriers=N             couriers (default 8)
+              --duration=SECONDS       run time (default 30)
+              --think=DISTRIBUTION     disciple think time in ms (default exp:50)
+              --order-size=DISTRIBUTION pancake lines per order (default geometric:2)
+              --pancakes=DISTRIBUTION  pancakes per line (default uniform:1:3)
+              --cancel-ratio=R         share of cancelled orders (default 0.1)
+              --buildings=N            buildings (default 20)
+              --rooms=N                rooms per building (default 50)
+              --cook=DISTRIBUTION      cooking time of a batch in ms (default uniform:5:20)
+              --griddle=N              pancakes per cooking batch (default 12)
+              --delivery-batch=N       orders per delivery batch (default 10)
+              --delivery-wait=MILLIS   longest wait for a delivery batch to fill up (default 200)
+              --idle=MILLIS            pause of an idle chef or courier (default 5)
+            Distributions: const:N, uniform:MIN:MAX, exp:MEAN, geometric:MEAN
+            """;
+
+    WorkloadConfig {
+        if (disciples <= 0 || chefs <= 0 || couriers <= 0) {
+            throw new IllegalArgumentException("Every role needs at least one member");
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        if (cancelRatio < 0 || cancelRatio > 1) {
+            throw new IllegalArgumentException("Cancel ratio must be between 0 and 1");
+        }
+        if (buildings <= 0 || rooms <= 0 || griddleCapacity <= 0 || deliveryBatch <= 0 || idleMillis < 0) {
+            throw new IllegalArgumentException("Buildings, rooms, griddle capacity and delivery batch must be " +
+                    "positive, idle time cannot be negative");
+        }
+    }
+
+    /**
+     * @param args command line options in the {@code --name=value} format, see {@link #USAGE}
+     * @return configuration with the defaults for the missing options
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    static WorkloadConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Option '" + arg + "' is not in the --name=value format");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        try {
+            WorkloadConfig config = new WorkloadConfig(
+                    Integer.parseInt(options.getOrDefault("disciples", "200")),
+                    Integer.parseInt(options.getOrDefault("chefs", "8")),
+                    Integer.parseInt(options.getOrDefault("couriers", "8")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))),
+                    Distribution.parse(options.getOrDefault("think", "exp:50")),
+                    Distribution.parse(options.getOrDefault("order-size", "geometric:2")),
+                    Distribution.parse(options.getOrDefault("pancakes", "uniform:1:3")),
+                    Double.parseDouble(options.getOrDefault("cancel-ratio", "0.1")),
+                    Integer.parseInt(options.getOrDefault("buildings", "20")),
+                    Integer.parseInt(options.getOrDefault("rooms", "50")),
+                    Distribution.parse(options.getOrDefault("cook", "uniform:5:20")),
+                    Integer.parseInt(options.getOrDefault("griddle", "12")),
+                    Integer.parseInt(options.getOrDefault("delivery-batch", "10")),
+                    Duration.ofMillis(Long.parseLong(options.getOrDefault("delivery-wait", "200"))),
+                    Long.parseLong(options.getOrDefault("idle", "5")));
+            options.keySet().removeAll(KNOWN_OPTIONS);
+            if (!options.isEmpty()) {
+                throw new IllegalArgumentException("Unknown option(s) " + options.keySet());
+            }
+            return config;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage(), e);
+        }
+    }
+}
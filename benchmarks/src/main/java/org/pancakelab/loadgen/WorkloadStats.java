@@ -0,0 +1,86 @@
+package org.pancakelab.loadgen;
+
+import org.pancakelab.metrics.LatencyHistogram;
+import org.pancakelab.service.Result;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes collected from all simulated roles.
+ * <br/>
+ * Thread-safe.
+ */
+class WorkloadStats {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999, 1};
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LatencyHistogram leadTimes = new LatencyHistogram();
+    private final LongAdder deliveredOrders = new LongAdder();
+    private final LongAdder cancelledOrders = new LongAdder();
+
+    WorkloadStats() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    void record(Operation operation, long startNanos, Result<?> result) {
+        record(operation, startNanos);
+        recordOutcome(operation, result);
+    }
+
+    void record(Operation operation, long startNanos) {
+        latencies.get(operation).record(System.nanoTime() - startNanos);
+    }
+
+    void recordOutcome(Operation operation, Result<?> result) {
+        if (!result.isOk()) {
+            failures.computeIfAbsent(operation + " " + result.getStatus(), key -> new LongAdder()).increment();
+        }
+    }
+
+    void recordDelivery(Duration leadTime) {
+        leadTimes.record(leadTime.toNanos());
+        deliveredOrders.increment();
+    }
+
+    void recordCancellation() {
+        cancelledOrders.increment();
+    }
+
+    void print(Duration elapsed, PrintStream out) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("%nRun time %.1f s, %d orders delivered (%.1f/s), %d cancelled%n", seconds,
+                deliveredOrders.sum(), deliveredOrders.sum() / seconds, cancelledOrders.sum());
+
+        out.printf("%n%-15s %10s %10s %10s %10s %10s %10s %10s%n", "operation (us)", "count", "ops/s",
+                "p50", "p90", "p99", "p99.9", "max");
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            printRow(out, entry.getKey().name(), entry.getValue(), seconds, 1e3);
+        }
+        printRow(out, "LEAD_TIME (ms)", leadTimes, seconds, 1e6);
+
+        if (!failures.isEmpty()) {
+            out.printf("%nFailures%n");
+            failures.forEach((failure, count) -> out.printf("  %-40s %10d%n", failure, count.sum()));
+        }
+    }
+
+    private static void printRow(PrintStream out, String name, LatencyHistogram histogram, double seconds,
+                                 double unitNanos) {
+        long count = histogram.count();
+        out.printf("%-15s %10d %10.1f", name, count, count / seconds);
+        for (double quantile : QUANTILES) {
+            out.printf(" %10.1f", histogram.valueAt(quantile) / unitNanos);
+        }
+        out.println();
+    }
+}
@@ -0,0 +1,99 @@
+package org.pancakelab.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch whose counts halve every epoch, so estimates follow recent traffic rather than all-time totals.
+ * <br/>
+ * Every counter packs the epoch it was last updated in (top 32 bits) with its count (low 32 bits). A counter is
+ * halved once per elapsed epoch when it is next touched, so decay costs nothing up front and an update stays a
+ * handful of compare-and-set operations on {@value #DEPTH} counters, whatever the number of counted keys.
+ * Estimates never undercount the decayed count of a key and overcount it by about {@code e / width} of the decayed
+ * total with high probability. The stored epoch wraps after 2^32 epochs, so a counter untouched for that long would
+ * count again; epochs have to be long enough for that never to happen, see {@link #MIN_EPOCH_MILLIS}.
+ * <br/>
+ * Thread-safe and lock-free.
+ */
+class DecayingCountMinSketch {
+
+    static final int DEPTH = 4;
+    // 2^32 epochs of a second are more than a century
+    static final long MIN_EPOCH_MILLIS = 1000;
+
+    private static final int EPOCH_BITS = 32;
+    private static final int COUNT_BITS = 64 - EPOCH_BITS;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long EPOCH_MASK = (1L << EPOCH_BITS) - 1;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final AtomicLongArray counters;
+    private final int widthMask;
+
+    /**
+     * @param width number of counters per row, rounded up to a power of two
+     */
+    DecayingCountMinSketch(int width) {
+        if (width <= 0 || width > 1 << 24) {
+            throw new IllegalArgumentException("Width must be between 1 and 2^24");
+        }
+        int roundedWidth = Integer.highestOneBit(width - 1) << 1;
+        this.widthMask = Math.max(roundedWidth, 1) - 1;
+        this.counters = new AtomicLongArray(DEPTH * (widthMask + 1));
+    }
+
+    /**
+     * @param key   hash of the counted key
+     * @param count number of occurrences to add
+     * @param epoch current epoch, never decreasing
+     * @return estimated decayed count of the key including the added occurrences
+     */
+    long add(long key, long count, long epoch) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(row, key);
+            long current;
+            long updated;
+            do {
+                current = counters.get(index);
+                updated = pack(Math.min(decayedCount(current, epoch) + count, COUNT_MASK), epoch);
+            } while (!counters.compareAndSet(index, current, updated));
+            estimate = Math.min(estimate, updated & COUNT_MASK);
+        }
+        return estimate;
+    }
+
+    /**
+     * @param key   hash of the counted key
+     * @param epoch current epoch
+     * @return estimated decayed count of the key
+     */
+    long estimate(long key, long epoch) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, decayedCount(counters.get(indexOf(row, key)), epoch));
+        }
+        return estimate;
+    }
+
+    private int indexOf(int row, long key) {
+        return row * (widthMask + 1) + (int) (mix(key ^ SEEDS[row]) & widthMask);
+    }
+
+    private static long decayedCount(long counter, long epoch) {
+        long elapsedEpochs = (epoch - (counter >>> COUNT_BITS)) & EPOCH_MASK;
+        return elapsedEpochs >= COUNT_BITS ? 0 : (counter & COUNT_MASK) >>> elapsedEpochs;
+    }
+
+    private static long pack(long count, long epoch) {
+        return (epoch & EPOCH_MASK) << COUNT_BITS | count;
+    }
+
+    // finalizer of SplitMix64, spreads similar keys over the whole row
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,104 @@
+package org.pancakelab.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded set of the keys with the highest estimated counts seen so far, the candidates for a top-N report.
+ * <br/>
+ * A key which is already tracked costs a single lookup. A new key replaces the weakest candidate only if its
+ * estimate beats the admission threshold, i.e. the weakest estimate found by the previous replacement, decayed
+ * since, and only if no other thread is replacing a candidate at that moment: a busy replacement is skipped
+ * instead of waited for, the key gets another chance with its next occurrence. Filling up the free places takes
+ * the same lock, so concurrent new keys never push the set over its capacity.
+ * <br/>
+ * Thread-safe.
+ */
+class HeavyHitters<K> {
+
+    private final int capacity;
+    private final Set<K> candidates = ConcurrentHashMap.newKeySet();
+    private final Lock replacementLock = new ReentrantLock();
+    private volatile long admissionThreshold;
+    private volatile long admissionThresholdEpoch;
+
+    /**
+     * @param capacity maximum number of tracked keys
+     */
+    HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param key      the counted key
+     * @param estimate estimated count of the key
+     * @param epoch    current epoch of the counts, see {@link DecayingCountMinSketch}
+     * @param counts   source of the current estimates of the tracked keys
+     */
+    void offer(K key, long estimate, long epoch, Counts<K> counts) {
+        if (candidates.contains(key)) {
+            return;
+        }
+        boolean isFull = candidates.size() >= capacity;
+        if (isFull && estimate <= decayedAdmissionThreshold(epoch) || !replacementLock.tryLock()) {
+            return;
+        }
+        try {
+            if (candidates.size() < capacity) {
+                candidates.add(key);
+                return;
+            }
+            K weakest = null;
+            long weakestCount = Long.MAX_VALUE;
+            long secondWeakestCount = Long.MAX_VALUE;
+            for (K candidate : candidates) {
+                long count = counts.count(candidate, epoch);
+                if (count < weakestCount) {
+                    secondWeakestCount = weakestCount;
+                    weakestCount = count;
+                    weakest = candidate;
+                } else if (count < secondWeakestCount) {
+                    secondWeakestCount = count;
+                }
+            }
+            if (weakest != null && estimate > weakestCount) {
+                candidates.remove(weakest);
+                candidates.add(key);
+                admissionThreshold = Math.min(secondWeakestCount, estimate);
+            } else {
+                admissionThreshold = weakestCount;
+            }
+            admissionThresholdEpoch = epoch;
+        } finally {
+            replacementLock.unlock();
+        }
+    }
+
+    // the threshold decays along with the counts it was taken from
+    private long decayedAdmissionThreshold(long epoch) {
+        long elapsedEpochs = epoch - admissionThresholdEpoch;
+        return elapsedEpochs >= Long.SIZE ? 0 : admissionThreshold >>> Math.max(elapsedEpochs, 0);
+    }
+
+    /**
+     * @return the tracked keys, in no particular order
+     */
+    List<K> getCandidates() {
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * Source of estimated counts, given the epoch rather than capturing it so that offering a key does not allocate.
+     */
+    interface Counts<K> {
+
+        long count(K key, long epoch);
+    }
+}
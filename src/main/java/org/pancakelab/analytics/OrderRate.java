@@ -0,0 +1,32 @@
+package org.pancakelab.analytics;
+
+import java.time.Duration;
+
+/**
+ * Orders of a building created and completed within a sliding window.
+ *
+ * @param window          the window the orders were counted in
+ * @param createdOrders   number of orders created within the window
+ * @param completedOrders number of orders completed within the window
+ * @param coveredTime     time the orders were actually counted over, up to the duration of the window
+ */
+public record OrderRate(RateWindow window, long createdOrders, long completedOrders, Duration coveredTime) {
+
+    /**
+     * @return average number of orders created per minute within the covered time
+     */
+    public double createdPerMinute() {
+        return perMinute(createdOrders);
+    }
+
+    /**
+     * @return average number of orders completed per minute within the covered time
+     */
+    public double completedPerMinute() {
+        return perMinute(completedOrders);
+    }
+
+    private double perMinute(long orders) {
+        return orders * 60_000.0 / coveredTime.toMillis();
+    }
+}
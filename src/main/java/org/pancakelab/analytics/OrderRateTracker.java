@@ -0,0 +1,143 @@
+package org.pancakelab.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Orders created and completed per building over the last 1, 5 and 15 minutes, for capacity planning.
+ * <br/>
+ * Every building has two rings of {@value #BUCKET_SECONDS}-second buckets covering the longest window, one for
+ * created and one for completed orders, so memory per building is constant and a query sums a few dozen buckets
+ * instead of looking at any order. Every bucket packs the number of the time slot it counts (top 40 bits) with its
+ * count (low 24 bits): a bucket still holding an old slot is reset by the first update in its new slot, with the
+ * same compare-and-set that counts the order. Windows are aligned to buckets, so a window covers its duration
+ * minus up to one bucket; rates report the time actually covered and average over it.
+ * <br/>
+ * Thread-safe and lock-free.
+ */
+public class OrderRateTracker {
+
+    static final int BUCKET_SECONDS = 10;
+
+    private static final long BUCKET_MILLIS = BUCKET_SECONDS * 1000L;
+    private static final int BUCKETS =
+            (int) (RateWindow.FIFTEEN_MINUTES.getDuration().toSeconds() / BUCKET_SECONDS);
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final Clock clock;
+    private final ConcurrentMap<Integer, BuildingRates> buildings = new ConcurrentHashMap<>();
+
+    /**
+     * @param clock clock deciding which bucket an order falls into
+     */
+    public OrderRateTracker(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * @param building building number of the created order
+     */
+    public void recordCreated(int building) {
+        increment(ratesOf(building).created, currentSlot());
+    }
+
+    /**
+     * @param building building number of the completed order
+     */
+    public void recordCompleted(int building) {
+        increment(ratesOf(building).completed, currentSlot());
+    }
+
+    /**
+     * @param building building number of the orders
+     * @param window   the window to count orders in
+     * @return orders of the building created and completed within the window, none for an unknown building
+     */
+    public OrderRate getRate(int building, RateWindow window) {
+        long now = clock.millis();
+        long slot = slotAt(now);
+        Duration coveredTime = coveredTime(now, slot, window);
+        BuildingRates rates = buildings.get(building);
+        if (rates == null) {
+            return new OrderRate(window, 0, 0, coveredTime);
+        }
+        return new OrderRate(window, sum(rates.created, slot, window), sum(rates.completed, slot, window),
+                coveredTime);
+    }
+
+    /**
+     * @param window the window to count orders in
+     * @return orders created and completed within the window by building number, for every building which has
+     * ever had an order
+     */
+    public Map<Integer, OrderRate> getRates(RateWindow window) {
+        long now = clock.millis();
+        long slot = slotAt(now);
+        Duration coveredTime = coveredTime(now, slot, window);
+        Map<Integer, OrderRate> rates = new TreeMap<>();
+        buildings.forEach((building, buildingRates) -> rates.put(building, new OrderRate(window,
+                sum(buildingRates.created, slot, window), sum(buildingRates.completed, slot, window), coveredTime)));
+        return rates;
+    }
+
+    private BuildingRates ratesOf(int building) {
+        BuildingRates rates = buildings.get(building);
+        return rates != null ? rates : buildings.computeIfAbsent(building, key -> new BuildingRates());
+    }
+
+    private long currentSlot() {
+        return slotAt(clock.millis());
+    }
+
+    private static long slotAt(long millis) {
+        return Math.floorDiv(millis, BUCKET_MILLIS);
+    }
+
+    // the whole buckets of the window before the current one, plus the part of the current one which has passed
+    private static Duration coveredTime(long now, long currentSlot, RateWindow window) {
+        long windowBuckets = window.getDuration().toSeconds() / BUCKET_SECONDS;
+        return Duration.ofMillis((windowBuckets - 1) * BUCKET_MILLIS + now - currentSlot * BUCKET_MILLIS);
+    }
+
+    private static void increment(AtomicLongArray buckets, long slot) {
+        int index = Math.floorMod(slot, BUCKETS);
+        long current;
+        long updated;
+        do {
+            current = buckets.get(index);
+            long count = slotOf(current) == slot ? current & COUNT_MASK : 0;
+            updated = slot << COUNT_BITS | Math.min(count + 1, COUNT_MASK);
+        } while (!buckets.compareAndSet(index, current, updated));
+    }
+
+    private static long sum(AtomicLongArray buckets, long currentSlot, RateWindow window) {
+        long windowBuckets = window.getDuration().toSeconds() / BUCKET_SECONDS;
+        long sum = 0;
+        for (long slot = currentSlot - windowBuckets + 1; slot <= currentSlot; slot++) {
+            long bucket = buckets.get(Math.floorMod(slot, BUCKETS));
+            if (slotOf(bucket) == slot) {
+                sum += bucket & COUNT_MASK;
+            }
+        }
+        return sum;
+    }
+
+    private static long slotOf(long bucket) {
+        return bucket >>> COUNT_BITS;
+    }
+
+    private static class BuildingRates {
+
+        private final AtomicLongArray created = new AtomicLongArray(BUCKETS);
+        private final AtomicLongArray completed = new AtomicLongArray(BUCKETS);
+    }
+}
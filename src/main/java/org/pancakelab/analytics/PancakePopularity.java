@@ -0,0 +1,192 @@
+package org.pancakelab.analytics;
+
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Trending pancakes and ingredients, overall and per building, e.g. custom pancakes worth promoting to the menu.
+ * <br/>
+ * Counts live in one count-min sketch shared by all buildings, so memory stays bounded however many different
+ * pancakes are ordered: a fixed sketch plus a fixed number of top candidates overall and per building. Counts halve
+ * every half-life, so pancakes which used to be popular make way for new favourites. Recording an ordered pancake
+ * updates a few sketch counters per ingredient with compare-and-set and never waits for a lock.
+ * <br/>
+ * Thread-safe.
+ */
+public class PancakePopularity {
+
+    public static final Duration DEFAULT_HALF_LIFE = Duration.ofHours(1);
+    public static final int DEFAULT_SKETCH_WIDTH = 4096;
+    public static final int DEFAULT_TRACKED_ITEMS = 32;
+
+    private static final long OVERALL = 0;
+    private static final long PANCAKE_KEY = 1;
+    private static final long INGREDIENT_KEY = 2;
+
+    private final Clock clock;
+    private final long halfLifeMillis;
+    private final int trackedItems;
+    private final DecayingCountMinSketch sketch;
+    private final Tracker overall;
+    private final ConcurrentMap<Integer, Tracker> buildings = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a tracker with the {@link #DEFAULT_HALF_LIFE default half-life}, sketch width and number of tracked
+     * top items.
+     *
+     * @param clock clock deciding when counts decay
+     */
+    public PancakePopularity(Clock clock) {
+        this(clock, DEFAULT_HALF_LIFE, DEFAULT_SKETCH_WIDTH, DEFAULT_TRACKED_ITEMS);
+    }
+
+    /**
+     * @param clock        clock deciding when counts decay
+     * @param halfLife     time after which a count weighs half as much, at least a second
+     * @param sketchWidth  counters per sketch row, more counters make estimates more accurate
+     * @param trackedItems number of top pancakes and ingredients tracked overall and per building, the largest
+     *                     top-N which can be reported
+     */
+    public PancakePopularity(Clock clock, Duration halfLife, int sketchWidth, int trackedItems) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        if (halfLife == null || halfLife.toMillis() < DecayingCountMinSketch.MIN_EPOCH_MILLIS) {
+            throw new IllegalArgumentException("Half-life must be at least a second");
+        }
+        this.clock = clock;
+        this.halfLifeMillis = halfLife.toMillis();
+        this.trackedItems = trackedItems;
+        this.sketch = new DecayingCountMinSketch(sketchWidth);
+        this.overall = new Tracker(OVERALL, trackedItems);
+    }
+
+    /**
+     * Records pancakes added to an order.
+     *
+     * @param building building number of the order
+     * @param pancake  the added pancake
+     * @param count    number of added pancakes
+     */
+    public void record(int building, Pancake pancake, int count) {
+        if (count <= 0) {
+            return;
+        }
+        long epoch = currentEpoch();
+        Tracker buildingTracker = buildings.get(building);
+        if (buildingTracker == null) {
+            buildingTracker = buildings.computeIfAbsent(building, key -> new Tracker(key + 1L, trackedItems));
+        }
+        overall.record(pancake, count, epoch);
+        buildingTracker.record(pancake, count, epoch);
+    }
+
+    /**
+     * @param limit maximum number of pancakes to report
+     * @return the most popular pancakes recently, most popular first
+     */
+    public List<Popularity<Pancake>> getTopPancakes(int limit) {
+        return overall.topPancakes(limit, currentEpoch());
+    }
+
+    /**
+     * @param building building number of the orders
+     * @param limit    maximum number of pancakes to report
+     * @return the most popular pancakes of the building recently, most popular first
+     */
+    public List<Popularity<Pancake>> getTopPancakes(int building, int limit) {
+        Tracker tracker = buildings.get(building);
+        return tracker == null ? List.of() : tracker.topPancakes(limit, currentEpoch());
+    }
+
+    /**
+     * @param limit maximum number of ingredients to report
+     * @return the most popular ingredients recently, most popular first
+     */
+    public List<Popularity<Ingredient>> getTopIngredients(int limit) {
+        return overall.topIngredients(limit, currentEpoch());
+    }
+
+    /**
+     * @param building building number of the orders
+     * @param limit    maximum number of ingredients to report
+     * @return the most popular ingredients of the building recently, most popular first
+     */
+    public List<Popularity<Ingredient>> getTopIngredients(int building, int limit) {
+        Tracker tracker = buildings.get(building);
+        return tracker == null ? List.of() : tracker.topIngredients(limit, currentEpoch());
+    }
+
+    private long currentEpoch() {
+        return clock.millis() / halfLifeMillis;
+    }
+
+    private static <T> List<Popularity<T>> top(List<T> candidates, HeavyHitters.Counts<T> counts, int limit,
+                                                long epoch) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        return candidates.stream()
+                .map(candidate -> new Popularity<>(candidate, counts.count(candidate, epoch)))
+                .filter(popularity -> popularity.count() > 0)
+                .sorted(Comparator.comparingLong(Popularity<T>::count).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Top candidates of one scope, overall or a building, whose counts are kept in the shared sketch under keys
+     * salted with the scope.
+     */
+    private class Tracker {
+
+        private final long scope;
+        private final HeavyHitters<Pancake> pancakes;
+        private final HeavyHitters<Ingredient> ingredients;
+        private final HeavyHitters.Counts<Pancake> pancakeCounts;
+        private final HeavyHitters.Counts<Ingredient> ingredientCounts;
+
+        Tracker(long scope, int trackedItems) {
+            this.scope = scope;
+            this.pancakes = new HeavyHitters<>(trackedItems);
+            this.ingredients = new HeavyHitters<>(trackedItems);
+            this.pancakeCounts = (pancake, epoch) -> sketch.estimate(pancakeKey(pancake), epoch);
+            this.ingredientCounts = (ingredient, epoch) -> sketch.estimate(ingredientKey(ingredient), epoch);
+        }
+
+        void record(Pancake pancake, int count, long epoch) {
+            long pancakeEstimate = sketch.add(pancakeKey(pancake), count, epoch);
+            pancakes.offer(pancake, pancakeEstimate, epoch, pancakeCounts);
+            List<Ingredient> pancakeIngredients = pancake.getIngredients();
+            for (int i = 0, size = pancakeIngredients.size(); i < size; i++) {
+                Ingredient ingredient = pancakeIngredients.get(i);
+                long ingredientEstimate = sketch.add(ingredientKey(ingredient), count, epoch);
+                ingredients.offer(ingredient, ingredientEstimate, epoch, ingredientCounts);
+            }
+        }
+
+        List<Popularity<Pancake>> topPancakes(int limit, long epoch) {
+            return top(pancakes.getCandidates(), pancakeCounts, limit, epoch);
+        }
+
+        List<Popularity<Ingredient>> topIngredients(int limit, long epoch) {
+            return top(ingredients.getCandidates(), ingredientCounts, limit, epoch);
+        }
+
+        private long pancakeKey(Pancake pancake) {
+            // the ingredient list rather than the pancake, whose hash code boxes its fields into an array
+            return (scope << 34) ^ (PANCAKE_KEY << 32) ^ (pancake.getIngredients().hashCode() & 0xFFFFFFFFL);
+        }
+
+        private long ingredientKey(Ingredient ingredient) {
+            return (scope << 34) ^ (INGREDIENT_KEY << 32) ^ ingredient.ordinal();
+        }
+    }
+}
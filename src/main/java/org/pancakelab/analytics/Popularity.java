@@ -0,0 +1,10 @@
+package org.pancakelab.analytics;
+
+/**
+ * Estimated recent popularity of a pancake or an ingredient.
+ *
+ * @param item  the pancake or ingredient
+ * @param count estimated number of recently ordered pancakes, with older orders weighing less
+ */
+public record Popularity<T>(T item, long count) {
+}
@@ -0,0 +1,22 @@
+package org.pancakelab.analytics;
+
+import java.time.Duration;
+
+/**
+ * Sliding windows over which {@link OrderRateTracker} reports order rates.
+ */
+public enum RateWindow {
+    ONE_MINUTE(Duration.ofMinutes(1)),
+    FIVE_MINUTES(Duration.ofMinutes(5)),
+    FIFTEEN_MINUTES(Duration.ofMinutes(15));
+
+    private final Duration duration;
+
+    RateWindow(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
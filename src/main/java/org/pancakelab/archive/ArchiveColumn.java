@@ -0,0 +1,15 @@
+package org.pancakelab.archive;
+
+/**
+ * Columns stored for every archived order. A scan reads only the columns it has been asked for.
+ * <br/>
+ * The ordinal of a column is part of the archive file format, new columns must be added at the end.
+ */
+public enum ArchiveColumn {
+    ORDER_ID,
+    ARCHIVED_AT,
+    STATE,
+    BUILDING,
+    ROOM,
+    PANCAKES
+}
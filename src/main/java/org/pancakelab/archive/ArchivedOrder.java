@@ -0,0 +1,57 @@
+package org.pancakelab.archive;
+
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.util.UUID;
+
+/**
+ * Read-only view of a single archived order produced by {@link OrderArchive#scan}.
+ * <br/>
+ * The view is reused between rows, so it is only valid inside the callback it was passed to.
+ * Only the columns requested for the scan can be read, other getters throw {@link IllegalStateException}.
+ */
+public interface ArchivedOrder {
+
+    /**
+     * @return the unique identifier of the archived order
+     */
+    UUID getOrderId();
+
+    /**
+     * @return the time the order was archived, in milliseconds since the epoch
+     */
+    long getArchivedAt();
+
+    /**
+     * @return the final processing state of the order, either delivered or cancelled
+     */
+    OrderProcessingState getState();
+
+    /**
+     * @return the building number of the delivery address
+     */
+    int getBuilding();
+
+    /**
+     * @return the room number of the delivery address
+     */
+    int getRoom();
+
+    /**
+     * @return the number of distinct pancakes in the order
+     */
+    int getPancakeCount();
+
+    /**
+     * @param index index of the order line, from 0 to {@link #getPancakeCount()} exclusive
+     * @return the pancake of the given order line
+     */
+    Pancake getPancake(int index);
+
+    /**
+     * @param index index of the order line, from 0 to {@link #getPancakeCount()} exclusive
+     * @return the quantity of the given order line
+     */
+    int getQuantity(int index);
+}
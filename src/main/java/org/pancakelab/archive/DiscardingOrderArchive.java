@@ -0,0 +1,24 @@
+package org.pancakelab.archive;
+
+import org.pancakelab.model.order.Order;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+final class DiscardingOrderArchive implements OrderArchive {
+
+    static final DiscardingOrderArchive INSTANCE = new DiscardingOrderArchive();
+
+    private DiscardingOrderArchive() {
+    }
+
+    @Override
+    public void archive(Order order) {
+        // just do nothing
+    }
+
+    @Override
+    public void scan(Set<ArchiveColumn> columns, Consumer<ArchivedOrder> consumer) {
+        // nothing is archived
+    }
+}
@@ -0,0 +1,41 @@
+package org.pancakelab.archive;
+
+import org.pancakelab.model.order.Order;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Append-only storage for orders that have left the order repository, i.e. delivered and cancelled orders.
+ */
+public interface OrderArchive {
+
+    /**
+     * Appends a finished order to the archive.
+     *
+     * @param order the delivered or cancelled order, must not be null
+     * @throws IllegalArgumentException if the order is neither delivered nor cancelled
+     */
+    void archive(Order order);
+
+    /**
+     * Reads all archived orders in the order they were archived.
+     *
+     * @param columns  the columns needed by the caller, other columns are not read
+     * @param consumer callback invoked for every archived order
+     */
+    void scan(Set<ArchiveColumn> columns, Consumer<ArchivedOrder> consumer);
+
+    /**
+     * Writes orders the archive still buffers to its storage. Does nothing for an archive which does not buffer.
+     */
+    default void flush() {
+    }
+
+    /**
+     * @return an archive which discards all orders
+     */
+    static OrderArchive discarding() {
+        return DiscardingOrderArchive.INSTANCE;
+    }
+}
@@ -0,0 +1,109 @@
+package org.pancakelab.archive.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Low-level encoding helpers used by the columnar archive format.
+ * <br/>
+ * Integers are stored as variable-length quantities (7 bits per byte, high bit means "more bytes follow"),
+ * signed values are zigzag-encoded first so that small negative deltas stay short.
+ */
+final class ColumnCodec {
+
+    private ColumnCodec() {
+    }
+
+    /**
+     * Growable byte sink for a single column section.
+     * <br/>
+     * Not thread-safe.
+     */
+    static final class Sink {
+
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void writeLong(long value) {
+            ensureCapacity(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        void writeSink(Sink other) {
+            ensureCapacity(other.size);
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTo(ByteBuffer target) {
+            target.put(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int additionalBytes) {
+            if (size + additionalBytes > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additionalBytes));
+            }
+        }
+    }
+
+    static long readVarLong(ByteBuffer source) {
+        long result = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = source.get();
+            result |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return result;
+    }
+
+    static int readVarInt(ByteBuffer source) {
+        return Math.toIntExact(readVarLong(source));
+    }
+
+    static long readZigZag(ByteBuffer source) {
+        long encoded = readVarLong(source);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    static String readString(ByteBuffer source) {
+        int length = readVarInt(source);
+        String value = new String(source.array(), source.arrayOffset() + source.position(), length,
+                StandardCharsets.UTF_8);
+        source.position(source.position() + length);
+        return value;
+    }
+}
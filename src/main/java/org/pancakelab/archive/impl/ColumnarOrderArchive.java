@@ -0,0 +1,650 @@
+package org.pancakelab.archive.impl;
+
+import org.pancakelab.archive.ArchiveColumn;
+import org.pancakelab.archive.ArchivedOrder;
+import org.pancakelab.archive.OrderArchive;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Archive that stores finished orders in a local append-only file using a columnar layout.
+ * <br/>
+ * Orders are buffered in memory and written as blocks of up to {@code blockSize} orders. Inside a block
+ * every {@link ArchiveColumn} is a separate length-prefixed section, so a scan skips the bytes of the columns
+ * it doesn't need. Timestamps are delta-encoded, states, addresses and pancakes are dictionary-encoded and
+ * all integers are written as variable-length quantities.
+ * <br/>
+ * A full block is encoded and written by a background writer thread, so archiving an order only buffers it and
+ * never waits for the file unless the writer is {@value #MAX_QUEUED_BLOCKS} blocks behind. Buffered orders are not
+ * visible to {@link #scan} until their block is written, either because the block is full or because
+ * {@link #flush()} or {@link #close()} has been called. A failed write is logged and reported once, by the next
+ * flush; later blocks are written as usual.
+ * <br/>
+ * Blocks are appended one after another, so a crash can only cut off the last block. Opening the archive truncates
+ * the file back to the end of the last complete block; the orders of the cut off block are lost.
+ * <br/>
+ * Thread-safe.
+ */
+public class ColumnarOrderArchive implements OrderArchive, AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(ColumnarOrderArchive.class.getName());
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    public static final int MAX_QUEUED_BLOCKS = 4;
+
+    private static final int MAGIC = 0x504C4152; // "PLAR"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int BLOCK_HEADER_SIZE = Integer.BYTES + 1;
+    private static final int SECTION_HEADER_SIZE = 1 + Integer.BYTES;
+    private static final ArchiveColumn[] COLUMNS = ArchiveColumn.values();
+
+    private final Path file;
+    private final int blockSize;
+    private final Clock clock;
+    private final FileChannel channel;
+    private final ExecutorService writer;
+    private List<ArchivedRow> pendingRows;
+    // written by the writer thread only, once a block is complete in the file
+    private volatile long persistedSize;
+    private final AtomicReference<UncheckedIOException> writeFailure = new AtomicReference<>();
+
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Opens an archive file with default block size and system clock, creating the file if it doesn't exist.
+     *
+     * @param file path of the archive file
+     * @throws UncheckedIOException if the file cannot be opened or is not an order archive
+     */
+    public ColumnarOrderArchive(Path file) {
+        this(file, DEFAULT_BLOCK_SIZE, Clock.systemUTC());
+    }
+
+    /**
+     * Opens an archive file, creating it if it doesn't exist.
+     *
+     * @param file      path of the archive file
+     * @param blockSize maximum number of orders per block
+     * @param clock     clock used to timestamp archived orders
+     * @throws IllegalArgumentException if the block size is less than or equal to zero
+     * @throws UncheckedIOException     if the file cannot be opened or is not an order archive
+     */
+    public ColumnarOrderArchive(Path file, int blockSize, Clock clock) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be greater than zero");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.file = file;
+        this.blockSize = blockSize;
+        this.clock = clock;
+        this.pendingRows = new ArrayList<>(blockSize);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                writeFileHeader();
+            } else {
+                verifyFileHeader();
+                recoverBlocks(fileSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open order archive " + file, e);
+        }
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_BLOCKS), ColumnarOrderArchive::newWriterThread,
+                ColumnarOrderArchive::awaitQueueSpace);
+    }
+
+    @Override
+    public void archive(Order order) {
+        OrderProcessingState state = order.getOrderProcessingState();
+        if (state != OrderProcessingState.DELIVERED && state != OrderProcessingState.CANCELLED) {
+            throw new IllegalArgumentException("Only delivered or cancelled orders can be archived");
+        }
+        ArchivedRow row = new ArchivedRow(order.getId(), clock.millis(), state, order.getDeliveryAddress(),
+                order.getPancakes());
+
+        lock.lock();
+        try {
+            pendingRows.add(row);
+            if (pendingRows.size() >= blockSize) {
+                // submitted under the lock, so blocks are written in the order they were filled
+                List<ArchivedRow> rows = takePendingRows();
+                writer.execute(() -> writeBlock(rows));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void scan(Set<ArchiveColumn> columns, Consumer<ArchivedOrder> consumer) {
+        long scanLimit = persistedSize;
+        BlockCursor cursor = new BlockCursor(columns);
+        long position = FILE_HEADER_SIZE;
+        try {
+            while (position < scanLimit) {
+                position = cursor.readBlock(position);
+                for (int row = 0; row < cursor.rowCount; row++) {
+                    cursor.row = row;
+                    consumer.accept(cursor);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read order archive " + file, e);
+        }
+    }
+
+    /**
+     * Writes buffered orders to the archive file and forces them to the storage device. Waits for the writer
+     * to write every block filled before.
+     *
+     * @throws UncheckedIOException if the orders or a block filled since the last flush cannot be written
+     */
+    @Override
+    public void flush() {
+        Future<?> written;
+        lock.lock();
+        try {
+            List<ArchivedRow> rows = takePendingRows();
+            written = writer.submit(() -> {
+                writeBlock(rows);
+                force();
+            });
+        } finally {
+            lock.unlock();
+        }
+        try {
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException("Interrupted while flushing order archive " + file,
+                    new InterruptedIOException());
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("Cannot flush order archive " + file, new IOException(e.getCause()));
+        }
+        UncheckedIOException failure = writeFailure.getAndSet(null);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            writer.shutdown();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close order archive " + file, e);
+            }
+        }
+    }
+
+    // --- Writing
+
+    private void writeFileHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+        writeFully(header, 0);
+        persistedSize = FILE_HEADER_SIZE;
+    }
+
+    // cuts off a block which was being written when the process stopped
+    private void recoverBlocks(long fileSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Math.max(BLOCK_HEADER_SIZE, SECTION_HEADER_SIZE));
+        long position = FILE_HEADER_SIZE;
+        long blockEnd;
+        while (position < fileSize && (blockEnd = blockEnd(position, fileSize, header)) > 0) {
+            position = blockEnd;
+        }
+        if (position < fileSize) {
+            long completeSize = position;
+            logger.warning(() -> "Truncating incomplete block of order archive " + file + " from " + fileSize +
+                    " to " + completeSize + " bytes.");
+            channel.truncate(completeSize);
+            channel.force(false);
+        }
+        persistedSize = position;
+    }
+
+    /**
+     * @return end of the block starting at the position, or -1 if the file ends before it or it is not a block
+     */
+    private long blockEnd(long position, long fileSize, ByteBuffer header) throws IOException {
+        if (position + BLOCK_HEADER_SIZE > fileSize) {
+            return -1;
+        }
+        header.clear().limit(BLOCK_HEADER_SIZE);
+        readFully(header, position);
+        int rowCount = header.getInt();
+        int sectionCount = header.get();
+        if (rowCount <= 0 || sectionCount <= 0 || sectionCount > COLUMNS.length) {
+            return -1;
+        }
+        position += BLOCK_HEADER_SIZE;
+        for (int i = 0; i < sectionCount; i++) {
+            if (position + SECTION_HEADER_SIZE > fileSize) {
+                return -1;
+            }
+            header.clear().limit(SECTION_HEADER_SIZE);
+            readFully(header, position);
+            int column = header.get();
+            int sectionLength = header.getInt();
+            position += SECTION_HEADER_SIZE;
+            if (column < 0 || column >= COLUMNS.length || sectionLength < 0 || position + sectionLength > fileSize) {
+                return -1;
+            }
+            position += sectionLength;
+        }
+        return position;
+    }
+
+    private void verifyFileHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        readFully(header, 0);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not an order archive of version " + VERSION);
+        }
+    }
+
+    // called under the lock
+    private List<ArchivedRow> takePendingRows() {
+        List<ArchivedRow> rows = pendingRows;
+        pendingRows = new ArrayList<>(blockSize);
+        return rows;
+    }
+
+    // called by the writer thread only
+    private void writeBlock(List<ArchivedRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int rowCount = rows.size();
+        ColumnCodec.Sink[] sections = new ColumnCodec.Sink[COLUMNS.length];
+        sections[ArchiveColumn.ORDER_ID.ordinal()] = encodeOrderIds(rows);
+        sections[ArchiveColumn.ARCHIVED_AT.ordinal()] = encodeArchivedAt(rows);
+        sections[ArchiveColumn.STATE.ordinal()] = encodeDictionary(rows, row -> row.state().name(),
+                ColumnCodec.Sink::writeString);
+        sections[ArchiveColumn.BUILDING.ordinal()] = encodeDictionary(rows, row -> row.address().building(),
+                (sink, building) -> sink.writeVarInt(building));
+        sections[ArchiveColumn.ROOM.ordinal()] = encodeDictionary(rows, row -> row.address().room(),
+                (sink, room) -> sink.writeVarInt(room));
+        sections[ArchiveColumn.PANCAKES.ordinal()] = encodePancakes(rows);
+
+        int blockLength = BLOCK_HEADER_SIZE;
+        for (ColumnCodec.Sink section : sections) {
+            blockLength += SECTION_HEADER_SIZE + section.size();
+        }
+        ByteBuffer block = ByteBuffer.allocate(blockLength);
+        block.putInt(rowCount).put((byte) sections.length);
+        for (int column = 0; column < sections.length; column++) {
+            block.put((byte) column).putInt(sections[column].size());
+            sections[column].writeTo(block);
+        }
+        block.flip();
+
+        try {
+            writeFully(block, persistedSize);
+        } catch (IOException e) {
+            logger.severe(() -> "Lost block of " + rowCount + " order(s), cannot write to order archive " + file +
+                    ": " + e.getMessage());
+            writeFailure.set(new UncheckedIOException("Cannot write to order archive " + file, e));
+            discardPartialBlock();
+            return;
+        }
+        persistedSize += blockLength;
+        logger.fine(() -> "Archived block of " + rowCount + " order(s) to " + file + ".");
+    }
+
+    // called by the writer thread only
+    private void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            writeFailure.set(new UncheckedIOException("Cannot flush order archive " + file, e));
+        }
+    }
+
+    // called by the writer thread only, so the next block does not leave a tail of this one behind
+    private void discardPartialBlock() {
+        try {
+            channel.truncate(persistedSize);
+        } catch (IOException e) {
+            logger.warning(() -> "Cannot truncate order archive " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Thread newWriterThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "order-archive-writer");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // makes a producer wait while the writer is too far behind instead of dropping the block
+    private static void awaitQueueSpace(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Order archive is closed");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the order archive writer", e);
+        }
+    }
+
+    private static ColumnCodec.Sink encodeOrderIds(List<ArchivedRow> rows) {
+        ColumnCodec.Sink sink = new ColumnCodec.Sink();
+        for (ArchivedRow row : rows) {
+            sink.writeLong(row.orderId().getMostSignificantBits());
+            sink.writeLong(row.orderId().getLeastSignificantBits());
+        }
+        return sink;
+    }
+
+    private static ColumnCodec.Sink encodeArchivedAt(List<ArchivedRow> rows) {
+        ColumnCodec.Sink sink = new ColumnCodec.Sink();
+        long previous = 0;
+        for (ArchivedRow row : rows) {
+            sink.writeZigZag(row.archivedAt() - previous);
+            previous = row.archivedAt();
+        }
+        return sink;
+    }
+
+    private static <T> ColumnCodec.Sink encodeDictionary(List<ArchivedRow> rows,
+                                                         Function<ArchivedRow, T> valueExtractor,
+                                                         DictionaryEntryWriter<? super T> entryWriter) {
+        Map<T, Integer> dictionary = new LinkedHashMap<>();
+        int[] indexes = new int[rows.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = dictionary.computeIfAbsent(valueExtractor.apply(rows.get(i)), value -> dictionary.size());
+        }
+
+        ColumnCodec.Sink sink = new ColumnCodec.Sink();
+        sink.writeVarLong(dictionary.size());
+        for (T value : dictionary.keySet()) {
+            entryWriter.write(sink, value);
+        }
+        for (int index : indexes) {
+            sink.writeVarLong(index);
+        }
+        return sink;
+    }
+
+    private static ColumnCodec.Sink encodePancakes(List<ArchivedRow> rows) {
+        Map<Pancake, Integer> dictionary = new LinkedHashMap<>();
+        ColumnCodec.Sink lines = new ColumnCodec.Sink();
+        for (ArchivedRow row : rows) {
+            lines.writeVarLong(row.pancakes().size());
+            for (Map.Entry<Pancake, Integer> line : row.pancakes().entrySet()) {
+                lines.writeVarLong(dictionary.computeIfAbsent(line.getKey(), pancake -> dictionary.size()));
+                lines.writeVarLong(line.getValue());
+            }
+        }
+
+        ColumnCodec.Sink sink = new ColumnCodec.Sink();
+        sink.writeVarLong(dictionary.size());
+        for (Pancake pancake : dictionary.keySet()) {
+            sink.writeVarLong(pancake.getIngredients().size());
+            for (Ingredient ingredient : pancake.getIngredients()) {
+                sink.writeString(ingredient.name());
+            }
+        }
+        sink.writeSink(lines);
+        return sink;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of order archive " + file);
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    @FunctionalInterface
+    private interface DictionaryEntryWriter<T> {
+        void write(ColumnCodec.Sink sink, T value);
+    }
+
+    private record ArchivedRow(UUID orderId, long archivedAt, OrderProcessingState state, Address address,
+                               Map<Pancake, Integer> pancakes) {
+    }
+
+    // --- Reading
+
+    /**
+     * Decodes the requested columns of one block at a time and exposes them row by row.
+     */
+    private final class BlockCursor implements ArchivedOrder {
+
+        private final Set<ArchiveColumn> columns;
+        private final ByteBuffer headerBuffer = ByteBuffer.allocate(Math.max(BLOCK_HEADER_SIZE, SECTION_HEADER_SIZE));
+
+        private int rowCount;
+        private int row;
+        private long[] mostSignificantBits;
+        private long[] leastSignificantBits;
+        private long[] archivedAt;
+        private OrderProcessingState[] states;
+        private int[] buildings;
+        private int[] rooms;
+        private int[] lineOffsets;
+        private Pancake[] linePancakes;
+        private int[] lineQuantities;
+
+        private BlockCursor(Set<ArchiveColumn> columns) {
+            this.columns = columns.isEmpty() ? EnumSet.noneOf(ArchiveColumn.class) : EnumSet.copyOf(columns);
+        }
+
+        private long readBlock(long position) throws IOException {
+            ByteBuffer header = readHeader(position, BLOCK_HEADER_SIZE);
+            rowCount = header.getInt();
+            int sectionCount = header.get();
+            position += BLOCK_HEADER_SIZE;
+
+            for (int i = 0; i < sectionCount; i++) {
+                ByteBuffer sectionHeader = readHeader(position, SECTION_HEADER_SIZE);
+                ArchiveColumn column = COLUMNS[sectionHeader.get()];
+                int sectionLength = sectionHeader.getInt();
+                position += SECTION_HEADER_SIZE;
+
+                if (columns.contains(column)) {
+                    ByteBuffer section = ByteBuffer.allocate(sectionLength);
+                    readFully(section, position);
+                    decodeSection(column, section);
+                }
+                position += sectionLength;
+            }
+            return position;
+        }
+
+        private ByteBuffer readHeader(long position, int length) throws IOException {
+            headerBuffer.clear().limit(length);
+            readFully(headerBuffer, position);
+            return headerBuffer;
+        }
+
+        private void decodeSection(ArchiveColumn column, ByteBuffer section) {
+            switch (column) {
+                case ORDER_ID -> {
+                    mostSignificantBits = new long[rowCount];
+                    leastSignificantBits = new long[rowCount];
+                    for (int i = 0; i < rowCount; i++) {
+                        mostSignificantBits[i] = section.getLong();
+                        leastSignificantBits[i] = section.getLong();
+                    }
+                }
+                case ARCHIVED_AT -> {
+                    archivedAt = new long[rowCount];
+                    long previous = 0;
+                    for (int i = 0; i < rowCount; i++) {
+                        previous += ColumnCodec.readZigZag(section);
+                        archivedAt[i] = previous;
+                    }
+                }
+                case STATE -> {
+                    OrderProcessingState[] dictionary = new OrderProcessingState[ColumnCodec.readVarInt(section)];
+                    for (int i = 0; i < dictionary.length; i++) {
+                        dictionary[i] = OrderProcessingState.valueOf(ColumnCodec.readString(section));
+                    }
+                    states = new OrderProcessingState[rowCount];
+                    for (int i = 0; i < rowCount; i++) {
+                        states[i] = dictionary[ColumnCodec.readVarInt(section)];
+                    }
+                }
+                case BUILDING -> buildings = decodeIntDictionary(section);
+                case ROOM -> rooms = decodeIntDictionary(section);
+                case PANCAKES -> decodePancakes(section);
+            }
+        }
+
+        private int[] decodeIntDictionary(ByteBuffer section) {
+            int[] dictionary = new int[ColumnCodec.readVarInt(section)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = ColumnCodec.readVarInt(section);
+            }
+            int[] values = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                values[i] = dictionary[ColumnCodec.readVarInt(section)];
+            }
+            return values;
+        }
+
+        private void decodePancakes(ByteBuffer section) {
+            Pancake[] dictionary = new Pancake[ColumnCodec.readVarInt(section)];
+            for (int i = 0; i < dictionary.length; i++) {
+                List<Ingredient> ingredients = new ArrayList<>();
+                for (int ingredientCount = ColumnCodec.readVarInt(section); ingredientCount > 0; ingredientCount--) {
+                    ingredients.add(Ingredient.valueOf(ColumnCodec.readString(section)));
+                }
+                dictionary[i] = new Pancake(ingredients);
+            }
+
+            lineOffsets = new int[rowCount + 1];
+            int[] pancakeIndexes = new int[Math.max(16, rowCount)];
+            int[] quantities = new int[pancakeIndexes.length];
+            int lineCount = 0;
+            for (int i = 0; i < rowCount; i++) {
+                lineOffsets[i] = lineCount;
+                for (int rowLines = ColumnCodec.readVarInt(section); rowLines > 0; rowLines--) {
+                    if (lineCount == pancakeIndexes.length) {
+                        pancakeIndexes = Arrays.copyOf(pancakeIndexes, lineCount * 2);
+                        quantities = Arrays.copyOf(quantities, lineCount * 2);
+                    }
+                    pancakeIndexes[lineCount] = ColumnCodec.readVarInt(section);
+                    quantities[lineCount] = ColumnCodec.readVarInt(section);
+                    lineCount++;
+                }
+            }
+            lineOffsets[rowCount] = lineCount;
+
+            linePancakes = new Pancake[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                linePancakes[i] = dictionary[pancakeIndexes[i]];
+            }
+            lineQuantities = quantities;
+        }
+
+        private void checkRequested(ArchiveColumn column) {
+            if (!columns.contains(column)) {
+                throw new IllegalStateException("Column " + column + " was not requested for this scan");
+            }
+        }
+
+        @Override
+        public UUID getOrderId() {
+            checkRequested(ArchiveColumn.ORDER_ID);
+            return new UUID(mostSignificantBits[row], leastSignificantBits[row]);
+        }
+
+        @Override
+        public long getArchivedAt() {
+            checkRequested(ArchiveColumn.ARCHIVED_AT);
+            return archivedAt[row];
+        }
+
+        @Override
+        public OrderProcessingState getState() {
+            checkRequested(ArchiveColumn.STATE);
+            return states[row];
+        }
+
+        @Override
+        public int getBuilding() {
+            checkRequested(ArchiveColumn.BUILDING);
+            return buildings[row];
+        }
+
+        @Override
+        public int getRoom() {
+            checkRequested(ArchiveColumn.ROOM);
+            return rooms[row];
+        }
+
+        @Override
+        public int getPancakeCount() {
+            checkRequested(ArchiveColumn.PANCAKES);
+            return lineOffsets[row + 1] - lineOffsets[row];
+        }
+
+        @Override
+        public Pancake getPancake(int index) {
+            return linePancakes[lineIndex(index)];
+        }
+
+        @Override
+        public int getQuantity(int index) {
+            return lineQuantities[lineIndex(index)];
+        }
+
+        private int lineIndex(int index) {
+            if (index < 0 || index >= getPancakeCount()) {
+                throw new IndexOutOfBoundsException("Order line " + index + " doesn't exist");
+            }
+            return lineOffsets[row] + index;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.pancakelab.inventory;
+
+import org.pancakelab.inventory.exception.OutOfStockException;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.Ingredient;
+
+/**
+ * Stock of ingredients the kitchen cooks with.
+ * <br/>
+ * Ingredients of an order are reserved when the order is completed, so the kitchen never accepts an order
+ * it cannot cook. The reservation is released if the order does not go ahead, or consumed once the order
+ * has been delivered.
+ */
+public interface IngredientInventory {
+
+    /**
+     * Reserves the ingredients of all pancakes of the order. Reserving an order twice reserves it once.
+     *
+     * @param order the order to reserve ingredients for
+     * @return true if the ingredients have been reserved by this call, false if they were reserved before
+     * @throws OutOfStockException if one of the ingredients is not in stock, nothing is reserved then
+     */
+    boolean reserve(Order order);
+
+    /**
+     * Returns the ingredients reserved for the order to the stock.
+     * Does nothing if nothing is reserved for the order.
+     *
+     * @param order the order which does not go ahead
+     */
+    void release(Order order);
+
+    /**
+     * Forgets the reservation of the order, its ingredients have been used up.
+     * Does nothing if nothing is reserved for the order.
+     *
+     * @param order the finished order
+     */
+    void consume(Order order);
+
+    /**
+     * Adds ingredients to the stock.
+     *
+     * @param ingredient the delivered ingredient
+     * @param quantity   number of portions delivered
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    void restock(Ingredient ingredient, long quantity);
+
+    /**
+     * @param ingredient the ingredient to check
+     * @return number of portions of the ingredient which are not reserved
+     */
+    long getAvailable(Ingredient ingredient);
+
+    /**
+     * @return an inventory which never runs out of any ingredient
+     */
+    static IngredientInventory unlimited() {
+        return UnlimitedIngredientInventory.INSTANCE;
+    }
+}
@@ -0,0 +1,40 @@
+package org.pancakelab.inventory;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.Ingredient;
+
+final class UnlimitedIngredientInventory implements IngredientInventory {
+
+    static final UnlimitedIngredientInventory INSTANCE = new UnlimitedIngredientInventory();
+
+    private UnlimitedIngredientInventory() {
+    }
+
+    @Override
+    public boolean reserve(Order order) {
+        // there is always enough
+        return false;
+    }
+
+    @Override
+    public void release(Order order) {
+        // nothing is reserved
+    }
+
+    @Override
+    public void consume(Order order) {
+        // nothing is reserved
+    }
+
+    @Override
+    public void restock(Ingredient ingredient, long quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+    }
+
+    @Override
+    public long getAvailable(Ingredient ingredient) {
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,13 @@
+package org.pancakelab.inventory.exception;
+
+import org.pancakelab.model.exception.DomainException;
+
+public class OutOfStockException extends DomainException {
+    public OutOfStockException(String message) {
+        super(message);
+    }
+
+    public OutOfStockException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+}
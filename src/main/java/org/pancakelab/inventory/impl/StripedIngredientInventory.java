@@ -0,0 +1,184 @@
+package org.pancakelab.inventory.impl;
+
+import org.pancakelab.inventory.IngredientInventory;
+import org.pancakelab.inventory.exception.OutOfStockException;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Inventory keeping the stock of every ingredient in several stripes.
+ * <br/>
+ * A thread takes stock from its own stripe first and only visits the other stripes when its stripe runs short,
+ * so concurrent reservations mostly compare-and-set different counters instead of queueing on a lock.
+ * A reservation of several ingredients takes them one by one and gives everything back as soon as one of them
+ * is short. While that happens, a concurrent reservation may see less stock than there finally is and fail.
+ * <br/>
+ * Thread-safe.
+ */
+public class StripedIngredientInventory implements IngredientInventory {
+
+    private static final Ingredient[] INGREDIENTS = Ingredient.values();
+
+    private final StripedStock[] stocks = new StripedStock[INGREDIENTS.length];
+    private final ConcurrentMap<UUID, long[]> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an inventory with one stripe per available processor.
+     *
+     * @param initialStock number of portions in stock per ingredient, missing ingredients are out of stock
+     */
+    public StripedIngredientInventory(Map<Ingredient, Long> initialStock) {
+        this(initialStock, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param initialStock number of portions in stock per ingredient, missing ingredients are out of stock
+     * @param stripes      number of stripes per ingredient, rounded up to a power of two
+     * @throws IllegalArgumentException if the number of stripes is less than or equal to zero or the stock
+     *                                  is negative
+     */
+    public StripedIngredientInventory(Map<Ingredient, Long> initialStock, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be greater than zero");
+        }
+        int stripeCount = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        for (Ingredient ingredient : INGREDIENTS) {
+            stocks[ingredient.ordinal()] = new StripedStock(stripeCount);
+        }
+        initialStock.forEach(this::restock);
+    }
+
+    /**
+     * Takes the stock before registering the reservation, so a reservation is only visible once it holds all of its
+     * ingredients. A concurrent reservation of the same order which registers first wins, this one gives its stock
+     * back then.
+     */
+    @Override
+    public boolean reserve(Order order) {
+        if (reservations.containsKey(order.getId())) {
+            return false;
+        }
+        long[] demand = demand(order);
+        for (int i = 0; i < demand.length; i++) {
+            if (demand[i] > 0 && !stocks[i].tryTake(demand[i])) {
+                giveBack(demand, i);
+                throw new OutOfStockException("Sorry, we have run out of " + INGREDIENTS[i].getName(), false);
+            }
+        }
+        if (reservations.putIfAbsent(order.getId(), demand) != null) {
+            giveBack(demand, demand.length);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void release(Order order) {
+        long[] demand = reservations.remove(order.getId());
+        if (demand != null) {
+            for (int i = 0; i < demand.length; i++) {
+                stocks[i].add(demand[i]);
+            }
+        }
+    }
+
+    @Override
+    public void consume(Order order) {
+        reservations.remove(order.getId());
+    }
+
+    @Override
+    public void restock(Ingredient ingredient, long quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+        stocks[ingredient.ordinal()].add(quantity);
+    }
+
+    @Override
+    public long getAvailable(Ingredient ingredient) {
+        return stocks[ingredient.ordinal()].sum();
+    }
+
+    private void giveBack(long[] demand, int ingredients) {
+        for (int i = 0; i < ingredients; i++) {
+            stocks[i].add(demand[i]);
+        }
+    }
+
+    private static long[] demand(Order order) {
+        long[] demand = new long[INGREDIENTS.length];
+        for (Map.Entry<Pancake, Integer> line : order.getPancakes().entrySet()) {
+            for (Ingredient ingredient : line.getKey().getIngredients()) {
+                demand[ingredient.ordinal()] += line.getValue();
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Stock of a single ingredient split into stripes. Every stripe occupies its own cache line,
+     * so updates of neighbouring stripes do not invalidate each other.
+     */
+    private static final class StripedStock {
+
+        // 8 longs make 64 bytes, the usual cache line size
+        private static final int PADDING = 8;
+
+        private final AtomicLongArray cells;
+        private final int mask;
+
+        private StripedStock(int stripes) {
+            this.cells = new AtomicLongArray(stripes * PADDING);
+            this.mask = stripes - 1;
+        }
+
+        private boolean tryTake(long quantity) {
+            int home = homeStripe();
+            long taken = 0;
+            for (int i = 0; i <= mask && taken < quantity; i++) {
+                int cell = ((home + i) & mask) * PADDING;
+                long available = cells.get(cell);
+                while (available > 0) {
+                    long portion = Math.min(available, quantity - taken);
+                    long witness = cells.compareAndExchange(cell, available, available - portion);
+                    if (witness == available) {
+                        taken += portion;
+                        break;
+                    }
+                    available = witness;
+                }
+            }
+            if (taken < quantity) {
+                add(taken);
+                return false;
+            }
+            return true;
+        }
+
+        private void add(long quantity) {
+            if (quantity != 0) {
+                cells.getAndAdd(homeStripe() * PADDING, quantity);
+            }
+        }
+
+        private long sum() {
+            long sum = 0;
+            for (int i = 0; i <= mask; i++) {
+                sum += cells.get(i * PADDING);
+            }
+            return sum;
+        }
+
+        private int homeStripe() {
+            return Long.hashCode(Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) & mask;
+        }
+    }
+}
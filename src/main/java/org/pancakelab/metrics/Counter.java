@@ -0,0 +1,37 @@
+package org.pancakelab.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events, e.g. rejected requests.
+ * <br/>
+ * Backed by a {@link LongAdder}, so concurrent increments land on separate cells instead of contending.
+ * <br/>
+ * Thread-safe.
+ */
+public class Counter implements CounterMXBean {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * @param delta number of events, must not be negative
+     */
+    public void add(long delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("Counter cannot decrease");
+        }
+        count.add(delta);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,22 @@
+package org.pancakelab.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Current value read on demand from its source, e.g. the number of stored orders.
+ * <br/>
+ * Thread-safe if the source is.
+ */
+public class Gauge implements GaugeMXBean {
+
+    private final LongSupplier source;
+
+    Gauge(LongSupplier source) {
+        this.source = source;
+    }
+
+    @Override
+    public long getValue() {
+        return source.getAsLong();
+    }
+}
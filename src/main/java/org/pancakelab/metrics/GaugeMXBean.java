@@ -0,0 +1,9 @@
+package org.pancakelab.metrics;
+
+/**
+ * Management interface of a {@link Gauge}.
+ */
+public interface GaugeMXBean {
+
+    long getValue();
+}
@@ -0,0 +1,14 @@
+package org.pancakelab.metrics;
+
+import java.time.Duration;
+
+/**
+ * Percentiles of a {@link LatencyHistogram}, each accurate to about 3%.
+ *
+ * @param count number of recorded durations
+ * @param p50   median
+ * @param p99   99th percentile
+ * @param p999  99.9th percentile
+ */
+public record LatencySummary(long count, Duration p50, Duration p99, Duration p999) {
+}
@@ -0,0 +1,190 @@
+package org.pancakelab.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Named counters, gauges and timers of one component, e.g. a {@link org.pancakelab.service.PancakeService}.
+ * <br/>
+ * Metrics are created once, typically when the component is built, and then recorded to directly, so the registry
+ * itself is never on the hot path. Once {@link #registerMBeans exported}, every metric is a platform MBean named
+ * {@code org.pancakelab:type=<Counter|Gauge|Timer>,registry=<registry name>,name=<metric name>} and can be read
+ * with standard JMX tooling such as JConsole; metrics created later are exported as they are created.
+ * <br/>
+ * Thread-safe.
+ */
+public class MetricsRegistry {
+
+    private static final String DOMAIN = "org.pancakelab";
+
+    private final String name;
+    private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<>();
+    private final List<ObjectName> registeredNames = new ArrayList<>();
+    private MBeanServer mBeanServer;
+
+    private final Lock exportLock = new ReentrantLock();
+
+    /**
+     * @param name name of the registry, distinguishes its MBeans from the ones of other registries
+     * @throws IllegalArgumentException if the name is blank
+     */
+    public MetricsRegistry(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Registry name cannot be blank");
+        }
+        this.name = name;
+    }
+
+    /**
+     * @return name of the registry
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name name of the counter
+     * @return the counter with the given name, created if it does not exist yet
+     * @throws IllegalArgumentException if another kind of metric has the name
+     */
+    public Counter counter(String name) {
+        return getOrCreate(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * @param name name of the timer
+     * @return the timer with the given name, created if it does not exist yet
+     * @throws IllegalArgumentException if another kind of metric has the name
+     */
+    public Timer timer(String name) {
+        return getOrCreate(name, Timer.class, Timer::new);
+    }
+
+    /**
+     * @param name   name of the gauge
+     * @param source source of the values, called whenever the gauge is read
+     * @return the gauge with the given name, the source is ignored if the gauge exists already
+     * @throws IllegalArgumentException if another kind of metric has the name
+     */
+    public Gauge gauge(String name, LongSupplier source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Gauge source cannot be null");
+        }
+        return getOrCreate(name, Gauge.class, () -> new Gauge(source));
+    }
+
+    /**
+     * @return all metrics by name, sorted by name
+     */
+    public Map<String, Object> getMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(metrics));
+    }
+
+    /**
+     * Exports the metrics as MBeans of the platform MBean server.
+     *
+     * @throws IllegalStateException if the MBeans cannot be registered, e.g. another registry with the same name
+     *                               has been exported already
+     */
+    public void registerMBeans() {
+        registerMBeans(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Exports the metrics as MBeans of the given server. Does nothing if the metrics are exported already.
+     *
+     * @param mBeanServer the server to register the MBeans with
+     * @throws IllegalStateException if the MBeans cannot be registered
+     */
+    public void registerMBeans(MBeanServer mBeanServer) {
+        exportLock.lock();
+        try {
+            if (this.mBeanServer != null) {
+                return;
+            }
+            this.mBeanServer = mBeanServer;
+            try {
+                for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+                    register(metric.getKey(), metric.getValue());
+                }
+            } catch (RuntimeException e) {
+                unregisterMBeans();
+                throw e;
+            }
+        } finally {
+            exportLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the MBeans of the metrics from the server they were exported to.
+     */
+    public void unregisterMBeans() {
+        exportLock.lock();
+        try {
+            for (ObjectName objectName : registeredNames) {
+                try {
+                    mBeanServer.unregisterMBean(objectName);
+                } catch (JMException e) {
+                    // already gone, nothing to clean up
+                }
+            }
+            registeredNames.clear();
+            mBeanServer = null;
+        } finally {
+            exportLock.unlock();
+        }
+    }
+
+    private <T> T getOrCreate(String name, Class<T> type, Supplier<T> factory) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Metric name cannot be blank");
+        }
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            exportLock.lock();
+            try {
+                metric = metrics.get(name);
+                if (metric == null) {
+                    metric = factory.get();
+                    metrics.put(name, metric);
+                    if (mBeanServer != null) {
+                        register(name, metric);
+                    }
+                }
+            } finally {
+                exportLock.unlock();
+            }
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + metric.getClass().getSimpleName() +
+                    ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    // called under the export lock
+    private void register(String metricName, Object metric) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + metric.getClass().getSimpleName() +
+                    ",registry=" + ObjectName.quote(name) + ",name=" + ObjectName.quote(metricName));
+            mBeanServer.registerMBean(metric, objectName);
+            registeredNames.add(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot export metric " + metricName + " of registry " + name, e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.pancakelab.metrics;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.event.OrderChangeEvent;
+import org.pancakelab.repository.event.OrderChangeType;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Time orders spend in each processing state and their lead time from creation to delivery, taken from the
+ * transition timestamps of the orders of a repository's change stream.
+ * <br/>
+ * The time spent in a state is recorded when the order leaves it, e.g. the COMPLETED histogram tells how long
+ * completed orders wait for a chef. Only transitions published after subscribing are recorded. If the timings fall
+ * too far behind the change stream and are cancelled, they subscribe again; the transitions published in between
+ * are not recorded, see {@link #getResubscriptions()}.
+ * <br/>
+ * Thread-safe.
+ */
+public class OrderTimings implements Flow.Subscriber<List<OrderChangeEvent>> {
+
+    private static final Logger logger = Logger.getLogger(OrderTimings.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final LatencyHistogram[] dwellTimes = new LatencyHistogram[OrderProcessingState.values().length];
+    private final LatencyHistogram leadTimes = new LatencyHistogram();
+    private final AtomicLong resubscriptions = new AtomicLong();
+
+    /**
+     * Creates the timings and subscribes them to the changes of the repository.
+     *
+     * @param orderRepository repository whose orders are timed
+     */
+    public OrderTimings(OrderRepository orderRepository) {
+        if (orderRepository == null) {
+            throw new IllegalArgumentException("Order repository cannot be null");
+        }
+        this.orderRepository = orderRepository;
+        for (int i = 0; i < dwellTimes.length; i++) {
+            dwellTimes[i] = new LatencyHistogram();
+        }
+        orderRepository.getOrderChanges().subscribe(this);
+    }
+
+    /**
+     * @param state the processing state
+     * @return percentiles of the time orders spent in the state before moving on
+     */
+    public LatencySummary getDwellTime(OrderProcessingState state) {
+        return dwellTimes[state.ordinal()].summarize();
+    }
+
+    /**
+     * @return percentiles of the time from creating an order to delivering it
+     */
+    public LatencySummary getLeadTime() {
+        return leadTimes.summarize();
+    }
+
+    /**
+     * @return number of times the timings fell behind the change stream and had to subscribe again
+     */
+    public long getResubscriptions() {
+        return resubscriptions.get();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<OrderChangeEvent> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            OrderChangeEvent event = events.get(i);
+            if (event.type() == OrderChangeType.STATE_CHANGED) {
+                record(event.order(), event.previousState(), event.state());
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (!(throwable instanceof RejectedExecutionException)) {
+            logger.severe(() -> "Order timings stopped following order changes: " + throwable.getMessage());
+            return;
+        }
+        logger.warning(() -> "Order timings fell behind order changes, subscribing again: " + throwable.getMessage());
+        resubscriptions.incrementAndGet();
+        orderRepository.getOrderChanges().subscribe(this);
+    }
+
+    @Override
+    public void onComplete() {
+        logger.info("Order timings stopped following order changes.");
+    }
+
+    private void record(Order order, OrderProcessingState previousState, OrderProcessingState state) {
+        Instant enteredAt = order.getStateEnteredAt(state).orElse(null);
+        Instant previousEnteredAt = order.getStateEnteredAt(previousState).orElse(null);
+        if (enteredAt == null || previousEnteredAt == null) {
+            return;
+        }
+        dwellTimes[previousState.ordinal()].record(previousEnteredAt.until(enteredAt, ChronoUnit.NANOS));
+        if (state == OrderProcessingState.DELIVERED) {
+            leadTimes.record(order.getCreatedAt().until(enteredAt, ChronoUnit.NANOS));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.pancakelab.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number, total and maximum duration of timed operations.
+ * <br/>
+ * Recording is two {@link LongAdder} additions and a {@link LongAccumulator} update, all of them striped over
+ * cells, so timing an operation costs a few nanoseconds and never makes threads contend.
+ * <pre>
+ * long start = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.stop(start);
+ * }
+ * </pre>
+ * Thread-safe.
+ */
+public class Timer implements TimerMXBean {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalTimeNanos = new LongAdder();
+    private final LongAccumulator maxTimeNanos = new LongAccumulator(Math::max, 0);
+
+    Timer() {
+    }
+
+    /**
+     * @return start time of an operation to pass to {@link #stop(long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records an operation which started at the given time and has just finished.
+     *
+     * @param startNanos value returned by {@link #start()}
+     */
+    public void stop(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param nanos duration of an operation, negative durations are recorded as 0
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+        count.increment();
+        totalTimeNanos.add(duration);
+        maxTimeNanos.accumulate(duration);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getTotalTimeNanos() {
+        return totalTimeNanos.sum();
+    }
+
+    @Override
+    public long getMaxTimeNanos() {
+        return maxTimeNanos.get();
+    }
+
+    @Override
+    public double getMeanTimeNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotalTimeNanos() / count;
+    }
+}
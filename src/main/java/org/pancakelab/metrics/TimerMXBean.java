@@ -0,0 +1,15 @@
+package org.pancakelab.metrics;
+
+/**
+ * Management interface of a {@link Timer}.
+ */
+public interface TimerMXBean {
+
+    long getCount();
+
+    long getTotalTimeNanos();
+
+    long getMaxTimeNanos();
+
+    double getMeanTimeNanos();
+}
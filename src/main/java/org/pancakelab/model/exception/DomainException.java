@@ -9,4 +9,16 @@ public class DomainException extends RuntimeException {
     public DomainException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Creates an exception which does not capture a stack trace and does not accept suppressed exceptions.
+     * Such an exception is cheap to create and, as long as its message does not depend on the call,
+     * can be allocated once and thrown repeatedly.
+     *
+     * @param message            the detail message
+     * @param writableStackTrace whether the stack trace is captured
+     */
+    protected DomainException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -4,12 +4,17 @@ import org.pancakelab.model.order.exception.InvalidAddressException;
 
 public record Address(int building, int room) {
 
+    private static final InvalidAddressException INVALID_BUILDING =
+            new InvalidAddressException("Building number must be greater than 0", false);
+    private static final InvalidAddressException INVALID_ROOM =
+            new InvalidAddressException("Room number must be greater than 0", false);
+
     public Address {
         if (building <= 0) {
-            throw new InvalidAddressException("Building number must be greater than 0");
+            throw INVALID_BUILDING;
         }
         if (room <= 0) {
-            throw new InvalidAddressException("Room number must be greater than 0");
+            throw INVALID_ROOM;
         }
     }
 }
@@ -5,14 +5,25 @@ import org.pancakelab.model.pancake.Pancake;
 
 public class CancelledOrderState implements OrderState {
 
+    private static final OrderCancelledException CANNOT_ADD_PANCAKES =
+            new OrderCancelledException("Cannot add pancakes to a cancelled order.", false);
+    private static final OrderCancelledException CANNOT_REMOVE_PANCAKES =
+            new OrderCancelledException("Cannot remove pancakes from a cancelled order.", false);
+    private static final OrderCancelledException CANNOT_COMPLETE =
+            new OrderCancelledException("Cannot complete a cancelled order.", false);
+    private static final OrderCancelledException CANNOT_PREPARE =
+            new OrderCancelledException("Cannot prepare a cancelled order.", false);
+    private static final OrderCancelledException CANNOT_DELIVER =
+            new OrderCancelledException("Cannot deliver a cancelled order.", false);
+
     @Override
     public void addPancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderCancelledException("Cannot add pancakes to a cancelled order.");
+        throw CANNOT_ADD_PANCAKES;
     }
 
     @Override
     public void removePancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderCancelledException("Cannot remove pancakes from a cancelled order.");
+        throw CANNOT_REMOVE_PANCAKES;
     }
 
     @Override
@@ -22,17 +33,17 @@ public class CancelledOrderState implements OrderState {
 
     @Override
     public void markCompleted(Order order) {
-        throw new OrderCancelledException("Cannot complete a cancelled order.");
+        throw CANNOT_COMPLETE;
     }
 
     @Override
     public void markPrepared(Order order) {
-        throw new OrderCancelledException("Cannot prepare a cancelled order.");
+        throw CANNOT_PREPARE;
     }
 
     @Override
     public void markDelivered(Order order) {
-        throw new OrderCancelledException("Cannot deliver a cancelled order.");
+        throw CANNOT_DELIVER;
     }
 
     @Override
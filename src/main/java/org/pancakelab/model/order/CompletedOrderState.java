@@ -5,19 +5,28 @@ import org.pancakelab.model.pancake.Pancake;
 
 public class CompletedOrderState implements OrderState {
 
+    private static final OrderCompletedException CANNOT_ADD_PANCAKES =
+            new OrderCompletedException("Cannot add pancakes to a completed order.", false);
+    private static final OrderCompletedException CANNOT_REMOVE_PANCAKES =
+            new OrderCompletedException("Cannot remove pancakes from a completed order.", false);
+    private static final OrderCompletedException CANNOT_CANCEL =
+            new OrderCompletedException("Cannot cancel a completed order.", false);
+    private static final OrderCompletedException CANNOT_DELIVER =
+            new OrderCompletedException("Cannot deliver a completed order. Order must be prepared first.", false);
+
     @Override
     public void addPancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderCompletedException("Cannot add pancakes to a completed order.");
+        throw CANNOT_ADD_PANCAKES;
     }
 
     @Override
     public void removePancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderCompletedException("Cannot remove pancakes from a completed order.");
+        throw CANNOT_REMOVE_PANCAKES;
     }
 
     @Override
     public void markCancelled(Order order) {
-        throw new OrderCompletedException("Cannot cancel a completed order.");
+        throw CANNOT_CANCEL;
     }
 
     @Override
@@ -32,7 +41,7 @@ public class CompletedOrderState implements OrderState {
 
     @Override
     public void markDelivered(Order order) {
-        throw new OrderCompletedException("Cannot deliver a completed order. Order must be prepared first.");
+        throw CANNOT_DELIVER;
     }
 
     @Override
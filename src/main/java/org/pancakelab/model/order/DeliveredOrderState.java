@@ -5,29 +5,40 @@ import org.pancakelab.model.pancake.Pancake;
 
 public class DeliveredOrderState implements OrderState {
 
+    private static final OrderDeliveredException CANNOT_ADD_PANCAKES =
+            new OrderDeliveredException("Cannot add pancakes to a delivered order.", false);
+    private static final OrderDeliveredException CANNOT_REMOVE_PANCAKES =
+            new OrderDeliveredException("Cannot remove pancakes from a delivered order.", false);
+    private static final OrderDeliveredException CANNOT_CANCEL =
+            new OrderDeliveredException("Cannot cancel a delivered order.", false);
+    private static final OrderDeliveredException CANNOT_COMPLETE =
+            new OrderDeliveredException("Cannot complete a delivered order.", false);
+    private static final OrderDeliveredException CANNOT_PREPARE =
+            new OrderDeliveredException("Cannot prepare a delivered order.", false);
+
     @Override
     public void addPancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderDeliveredException("Cannot add pancakes to a delivered order.");
+        throw CANNOT_ADD_PANCAKES;
     }
 
     @Override
     public void removePancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderDeliveredException("Cannot remove pancakes from a delivered order.");
+        throw CANNOT_REMOVE_PANCAKES;
     }
 
     @Override
     public void markCancelled(Order order) {
-        throw new OrderDeliveredException("Cannot cancel a delivered order.");
+        throw CANNOT_CANCEL;
     }
 
     @Override
     public void markCompleted(Order order) {
-        throw new OrderDeliveredException("Cannot complete a delivered order.");
+        throw CANNOT_COMPLETE;
     }
 
     @Override
     public void markPrepared(Order order) {
-        throw new OrderDeliveredException("Cannot prepare a delivered order.");
+        throw CANNOT_PREPARE;
     }
 
     @Override
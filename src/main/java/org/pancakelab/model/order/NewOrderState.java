@@ -5,6 +5,11 @@ import org.pancakelab.model.pancake.Pancake;
 
 public class NewOrderState implements OrderState {
 
+    private static final NewOrderException CANNOT_PREPARE =
+            new NewOrderException("Cannot prepare a new order. Order must be completed first.", false);
+    private static final NewOrderException CANNOT_DELIVER =
+            new NewOrderException("Cannot deliver a new order. Order must be prepared first.", false);
+
     @Override
     public void addPancake(Order order, Pancake pancake, int quantity) {
         order.doAddPancake(pancake, quantity);
@@ -27,12 +32,12 @@ public class NewOrderState implements OrderState {
 
     @Override
     public void markPrepared(Order order) {
-        throw new NewOrderException("Cannot prepare a new order. Order must be completed first.");
+        throw CANNOT_PREPARE;
     }
 
     @Override
     public void markDelivered(Order order) {
-        throw new NewOrderException("Cannot deliver a new order. Order must be prepared first.");
+        throw CANNOT_DELIVER;
     }
 
     @Override
@@ -5,10 +5,14 @@ import org.pancakelab.model.order.exception.InvalidQuantityException;
 import org.pancakelab.model.order.exception.OrderStateException;
 import org.pancakelab.model.pancake.Pancake;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -20,29 +24,78 @@ public class Order {
 
     private static final Logger logger = Logger.getLogger(Order.class.getName());
 
+    private static final InvalidAddressException MISSING_ADDRESS =
+            new InvalidAddressException("Delivery address cannot be null", false);
+    private static final InvalidQuantityException INVALID_QUANTITY =
+            new InvalidQuantityException("Quantity must be greater than zero", false);
+    private static final OrderStateException CANNOT_COMPLETE_EMPTY_ORDER =
+            new OrderStateException("Cannot complete an order with no pancakes.", false);
+
     private final UUID id;
     private final Address deliveryAddress;
     private final List<OrderEntry> orderEntries;
+    private final Clock clock;
+    private final Instant[] stateEnteredAt;
     private OrderState state;
+    private final List<OrderListener> listeners = new CopyOnWriteArrayList<>();
 
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
     private final Lock readLock = readWriteLock.readLock();
     private final Lock writeLock = readWriteLock.writeLock();
 
     /**
-     * Creates a new order with the specified delivery address.
+     * Creates a new order with the specified delivery address, timestamped by the system clock.
      *
      * @param deliveryAddress the address where the order should be delivered
      * @throws InvalidAddressException if the delivery address is not provided
      */
     public Order(Address deliveryAddress) {
+        this(deliveryAddress, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a new order with the specified delivery address.
+     *
+     * @param deliveryAddress the address where the order should be delivered
+     * @param clock           the clock used to timestamp state transitions of the order
+     * @throws InvalidAddressException if the delivery address is not provided
+     */
+    public Order(Address deliveryAddress, Clock clock) {
         if (deliveryAddress == null) {
-            throw new InvalidAddressException("Delivery address cannot be null");
+            throw MISSING_ADDRESS;
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
         }
         this.id = UUID.randomUUID();
         this.deliveryAddress = deliveryAddress;
         this.orderEntries = new ArrayList<>();
+        this.clock = clock;
+        this.stateEnteredAt = new Instant[OrderProcessingState.values().length];
         this.state = new NewOrderState();
+        this.stateEnteredAt[OrderProcessingState.NEW.ordinal()] = clock.instant();
+        OrderCreatedEvent.emit(this);
+    }
+
+    /**
+     * Creates an order from the pancakes of a draft in a single step, see {@link OrderDraft#commit}.
+     * <br/>
+     * The order is not visible to any other thread or listener yet, so it is filled in without locking
+     * and without reporting the individual pancakes.
+     */
+    Order(Address deliveryAddress, Clock clock, Map<Pancake, Integer> pancakes, boolean completed) {
+        this(deliveryAddress, clock);
+        for (Map.Entry<Pancake, Integer> pancake : pancakes.entrySet()) {
+            orderEntries.add(new OrderEntry(pancake.getKey(), pancake.getValue()));
+        }
+        if (completed) {
+            if (orderEntries.isEmpty()) {
+                throw CANNOT_COMPLETE_EMPTY_ORDER;
+            }
+            state = new CompletedOrderState();
+            stateEnteredAt[OrderProcessingState.COMPLETED.ordinal()] = getCreatedAt();
+        }
+        logger.info(() -> "Order " + id + " committed from a draft as " + state.getState() + ".");
     }
 
     /**
@@ -54,7 +107,12 @@ public class Order {
      * @throws InvalidQuantityException if the quantity is less than or equal to zero
      */
     public void addPancake(Pancake pancake, int quantity) {
-        state.addPancake(this, pancake, quantity);
+        acquire(writeLock);
+        try {
+            state.addPancake(this, pancake, quantity);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -65,7 +123,12 @@ public class Order {
      * @throws OrderStateException if the order is not in a state that allows removing pancakes
      */
     public void removePancake(Pancake pancake, int quantity) {
-        state.removePancake(this, pancake, quantity);
+        acquire(writeLock);
+        try {
+            state.removePancake(this, pancake, quantity);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -74,7 +137,12 @@ public class Order {
      * @throws OrderStateException if the order cannot be cancelled in its current state
      */
     public void markCancelled() {
-        state.markCancelled(this);
+        acquire(writeLock);
+        try {
+            state.markCancelled(this);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -84,7 +152,35 @@ public class Order {
      * @throws OrderStateException if the order has no pancakes
      */
     public void markCompleted() {
-        state.markCompleted(this);
+        acquire(writeLock);
+        try {
+            state.markCompleted(this);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the order as completed, running the given action as part of the transition.
+     * <br/>
+     * The action runs under the order's write lock right before the order becomes completed, and only if this call
+     * completes the order: it sees exactly the pancakes the order is completed with, and it does not run if the order
+     * is already completed or cannot be completed. If the action throws, the order stays as it is.
+     *
+     * @param onCompleting the action to run when the order is being completed, e.g. reserving its ingredients
+     * @throws OrderStateException if the order cannot be completed in its current state
+     * @throws OrderStateException if the order has no pancakes
+     */
+    public void markCompleted(Consumer<Order> onCompleting) {
+        acquire(writeLock);
+        try {
+            if (state.getState() == OrderProcessingState.NEW && !orderEntries.isEmpty()) {
+                onCompleting.accept(this);
+            }
+            state.markCompleted(this);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -93,7 +189,12 @@ public class Order {
      * @throws OrderStateException if the order cannot be marked as prepared in its current state
      */
     public void markPrepared() {
-        state.markPrepared(this);
+        acquire(writeLock);
+        try {
+            state.markPrepared(this);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -102,7 +203,52 @@ public class Order {
      * @throws OrderStateException if the order cannot be marked as delivered in its current state
      */
     public void markDelivered() {
-        state.markDelivered(this);
+        acquire(writeLock);
+        try {
+            state.markDelivered(this);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a listener which is notified about every subsequent change of this order.
+     * <br/>
+     * The listener's {@link OrderListener#onAttached} is invoked with the current processing state before any
+     * later change is reported.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(OrderListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        acquire(writeLock);
+        try {
+            listeners.add(listener);
+            listener.onAttached(this, state.getState());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a listener previously added to this order. Does nothing if the listener was not added.
+     * <br/>
+     * The listener's {@link OrderListener#onDetached} is invoked with the current processing state after all
+     * earlier changes have been reported.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(OrderListener listener) {
+        acquire(writeLock);
+        try {
+            if (listeners.remove(listener)) {
+                listener.onDetached(this, state.getState());
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -123,13 +269,38 @@ public class Order {
         return deliveryAddress;
     }
 
+    /**
+     * Returns the time when this order was created.
+     *
+     * @return the creation time
+     */
+    public Instant getCreatedAt() {
+        return stateEnteredAt[OrderProcessingState.NEW.ordinal()];
+    }
+
+    /**
+     * Returns the time when this order entered the given processing state.
+     *
+     * @param state the processing state
+     * @return an Optional containing the time of the transition, or an empty Optional if the order
+     * has never been in the given state
+     */
+    public Optional<Instant> getStateEnteredAt(OrderProcessingState state) {
+        acquire(readLock);
+        try {
+            return Optional.ofNullable(stateEnteredAt[state.ordinal()]);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     /**
      * Returns the current processing state of the order.
      *
      * @return the order's current processing state
      */
     public OrderProcessingState getOrderProcessingState() {
-        readLock.lock();
+        acquire(readLock);
         try {
             return state.getState();
         } finally {
@@ -141,7 +312,7 @@ public class Order {
      * @return an unmodifiable map where keys are pancakes and values are their quantities
      */
     public Map<Pancake, Integer> getPancakes() {
-        readLock.lock();
+        acquire(readLock);
         try {
             Map<Pancake, Integer> pancakes = new HashMap<>(orderEntries.size());
             for (OrderEntry orderEntry : orderEntries) {
@@ -165,6 +336,36 @@ public class Order {
         return Objects.hashCode(id);
     }
 
+    /**
+     * Takes the lock, recording the wait in {@link OrderLockContention} and as an {@link OrderLockWaitEvent}
+     * if another thread holds it.
+     * <br/>
+     * The write lock is tried first, which grants it exactly as {@code lock()} would. The read lock is not:
+     * {@code tryLock()} of a read lock lets a reader in ahead of a waiting writer, so a steady stream of reads
+     * could starve the writers. A read is timed instead when a writer holds or waits for the lock.
+     */
+    private void acquire(Lock lock) {
+        if (lock == writeLock ? !lock.tryLock() : mayWaitForReadLock()) {
+            OrderLockWaitEvent event = new OrderLockWaitEvent();
+            event.begin();
+            long waitStart = System.nanoTime();
+            lock.lock();
+            OrderLockContention.record(System.nanoTime() - waitStart);
+            if (event.shouldCommit()) {
+                event.orderId = id.toString();
+                event.writeLock = lock == writeLock;
+                event.commit();
+            }
+        } else if (lock == readLock) {
+            lock.lock();
+        }
+    }
+
+    private boolean mayWaitForReadLock() {
+        return !readWriteLock.isWriteLockedByCurrentThread()
+                && (readWriteLock.isWriteLocked() || readWriteLock.hasQueuedThreads());
+    }
+
     // --- State dependent methods/actions
 
     void doAddPancake(Pancake pancake, int quantity) {
@@ -172,22 +373,28 @@ public class Order {
             throw new IllegalArgumentException("Pancake cannot be null");
         }
         if (quantity <= 0) {
-            throw new InvalidQuantityException("Quantity must be greater than zero");
+            throw INVALID_QUANTITY;
         }
 
-        writeLock.lock();
+        acquire(writeLock);
         try {
             OrderEntry existingOrderEntry = findExistingOrderEntryForPancake(pancake);
+            int oldQuantity = 0;
             if (existingOrderEntry != null) {
-                existingOrderEntry.setQuantity(existingOrderEntry.getQuantity() + quantity);
+                oldQuantity = existingOrderEntry.getQuantity();
+                existingOrderEntry.setQuantity(oldQuantity + quantity);
             } else {
                 orderEntries.add(new OrderEntry(pancake, quantity));
             }
+            notifyPancakesChanged(pancake, oldQuantity, oldQuantity + quantity);
         } finally {
             writeLock.unlock();
         }
-        logger.info(() -> "Added " + quantity + " pancake(s) with description '" + pancake.getDescription() + "' " +
-                "to order " + id + ".");
+        // checked up front, the hot path must not allocate a message supplier which is then discarded
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info("Added " + quantity + " pancake(s) with description '" + pancake.getDescription() + "' " +
+                    "to order " + id + ".");
+        }
     }
 
     void doRemovePancake(Pancake pancake, int quantity) {
@@ -195,19 +402,22 @@ public class Order {
             throw new IllegalArgumentException("Pancake cannot be null");
         }
         if (quantity <= 0) {
-            throw new InvalidQuantityException("Quantity must be greater than zero");
+            throw INVALID_QUANTITY;
         }
 
-        writeLock.lock();
+        acquire(writeLock);
         try {
             OrderEntry existingOrderEntry = findExistingOrderEntryForPancake(pancake);
             if (existingOrderEntry != null) {
-                int newQuantity = existingOrderEntry.getQuantity() - quantity;
+                int oldQuantity = existingOrderEntry.getQuantity();
+                int newQuantity = oldQuantity - quantity;
                 if (newQuantity <= 0) {
                     orderEntries.remove(existingOrderEntry);
+                    newQuantity = 0;
                 } else {
                     existingOrderEntry.setQuantity(newQuantity);
                 }
+                notifyPancakesChanged(pancake, oldQuantity, newQuantity);
             } else {
                 logger.warning(() -> "Attempted to remove pancake with description '" + pancake.getDescription() +
                         "' from order " + id + ", but it was not found in the order.");
@@ -220,9 +430,9 @@ public class Order {
     }
 
     void doMarkCancelled() {
-        writeLock.lock();
+        acquire(writeLock);
         try {
-            state = new CancelledOrderState();
+            changeState(new CancelledOrderState());
         } finally {
             writeLock.unlock();
         }
@@ -230,12 +440,12 @@ public class Order {
     }
 
     void doMarkCompleted() {
-        writeLock.lock();
+        acquire(writeLock);
         try {
             if (orderEntries.isEmpty()) {
-                throw new OrderStateException("Cannot complete an order with no pancakes.");
+                throw CANNOT_COMPLETE_EMPTY_ORDER;
             }
-            state = new CompletedOrderState();
+            changeState(new CompletedOrderState());
         } finally {
             writeLock.unlock();
         }
@@ -243,9 +453,9 @@ public class Order {
     }
 
     void doMarkPrepared() {
-        writeLock.lock();
+        acquire(writeLock);
         try {
-            state = new PreparedOrderState();
+            changeState(new PreparedOrderState());
         } finally {
             writeLock.unlock();
         }
@@ -253,17 +463,35 @@ public class Order {
     }
 
     void doMarkDelivered() {
-        writeLock.lock();
+        acquire(writeLock);
         try {
-            state = new DeliveredOrderState();
+            changeState(new DeliveredOrderState());
         } finally {
             writeLock.unlock();
         }
         logger.info(() -> "Order " + id + " delivered.");
     }
 
+    private void changeState(OrderState newState) {
+        OrderProcessingState oldProcessingState = state.getState();
+        state = newState;
+        stateEnteredAt[newState.getState().ordinal()] = clock.instant();
+        OrderStateChangedEvent.emit(this, oldProcessingState, newState.getState());
+        // indexed rather than iterated, listeners only change under the write lock held here
+        for (int i = 0, size = listeners.size(); i < size; i++) {
+            listeners.get(i).onStateChanged(this, oldProcessingState, newState.getState());
+        }
+    }
+
+    private void notifyPancakesChanged(Pancake pancake, int oldQuantity, int newQuantity) {
+        for (int i = 0, size = listeners.size(); i < size; i++) {
+            listeners.get(i).onPancakesChanged(this, pancake, oldQuantity, newQuantity);
+        }
+    }
+
     private OrderEntry findExistingOrderEntryForPancake(Pancake pancake) {
-        for (OrderEntry orderEntry : orderEntries) {
+        for (int i = 0, size = orderEntries.size(); i < size; i++) {
+            OrderEntry orderEntry = orderEntries.get(i);
             if (orderEntry.getPancake().equals(pancake)) {
                 return orderEntry;
             }
@@ -0,0 +1,39 @@
+package org.pancakelab.model.order;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a newly created {@link Order}, including orders committed from a draft.
+ */
+@Name("org.pancakelab.OrderCreated")
+@Label("Order Created")
+@Category({"PancakeLab", "Orders"})
+@Description("A new order has been created")
+@StackTrace(false)
+class OrderCreatedEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Building")
+    int building;
+
+    @Label("Room")
+    int room;
+
+    static void emit(Order order) {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        // the fields are filled in only while a recording is running, otherwise the event is never materialized
+        if (event.shouldCommit()) {
+            event.orderId = order.getId().toString();
+            event.building = order.getDeliveryAddress().building();
+            event.room = order.getDeliveryAddress().room();
+            event.commit();
+        }
+    }
+}
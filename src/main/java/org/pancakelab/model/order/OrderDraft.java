@@ -0,0 +1,120 @@
+package org.pancakelab.model.order;
+
+import org.pancakelab.model.order.exception.InvalidAddressException;
+import org.pancakelab.model.order.exception.InvalidQuantityException;
+import org.pancakelab.model.order.exception.OrderStateException;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Order being assembled by a single disciple before it is placed.
+ * <br/>
+ * Unlike {@link Order}, a draft has no lock, no processing state and no listeners: it is meant to be edited freely
+ * by the thread which created it and then committed to an {@link Order} in one step, so the pancakes reach the order
+ * and its listeners with a single update instead of one per change.
+ * <br/>
+ * Committing copies the pancakes, so a draft which has been committed, or whose order was rejected, can be edited
+ * and committed again.
+ * <br/>
+ * Not thread-safe.
+ */
+public class OrderDraft {
+
+    private static final InvalidAddressException MISSING_ADDRESS =
+            new InvalidAddressException("Delivery address cannot be null", false);
+    private static final InvalidQuantityException INVALID_QUANTITY =
+            new InvalidQuantityException("Quantity must be greater than zero", false);
+
+    private final Address deliveryAddress;
+    private final Map<Pancake, Integer> pancakes = new LinkedHashMap<>();
+
+    /**
+     * @param deliveryAddress the address where the order should be delivered
+     * @throws InvalidAddressException if the delivery address is not provided
+     */
+    public OrderDraft(Address deliveryAddress) {
+        if (deliveryAddress == null) {
+            throw MISSING_ADDRESS;
+        }
+        this.deliveryAddress = deliveryAddress;
+    }
+
+    /**
+     * Adds a pancake to the draft with the specified quantity.
+     *
+     * @param pancake  the pancake to be added
+     * @param quantity the quantity of the pancake to be added
+     * @throws InvalidQuantityException if the quantity is less than or equal to zero
+     */
+    public void addPancake(Pancake pancake, int quantity) {
+        checkChange(pancake, quantity);
+        pancakes.merge(pancake, quantity, Integer::sum);
+    }
+
+    /**
+     * Removes the specified quantity of a pancake from the draft. Does nothing if the draft has no such pancake.
+     *
+     * @param pancake  the pancake to be removed
+     * @param quantity the quantity to remove
+     * @throws InvalidQuantityException if the quantity is less than or equal to zero
+     */
+    public void removePancake(Pancake pancake, int quantity) {
+        checkChange(pancake, quantity);
+        pancakes.computeIfPresent(pancake, (key, oldQuantity) -> oldQuantity > quantity ? oldQuantity - quantity : null);
+    }
+
+    /**
+     * Commits the draft to a new order.
+     *
+     * @param clock the clock used to timestamp the order
+     * @return a new order with the pancakes of this draft
+     */
+    public Order commit(Clock clock) {
+        return commit(clock, false);
+    }
+
+    /**
+     * Commits the draft straight to a completed order, skipping the separate completion step.
+     *
+     * @param clock the clock used to timestamp the order
+     * @return a new completed order with the pancakes of this draft
+     * @throws OrderStateException if the draft has no pancakes
+     */
+    public Order commitCompleted(Clock clock) {
+        return commit(clock, true);
+    }
+
+    /**
+     * @return the address where the order should be delivered
+     */
+    public Address getDeliveryAddress() {
+        return deliveryAddress;
+    }
+
+    /**
+     * @return an unmodifiable view of the pancakes and their quantities, in the order they were first added
+     */
+    public Map<Pancake, Integer> getPancakes() {
+        return Collections.unmodifiableMap(pancakes);
+    }
+
+    private Order commit(Clock clock, boolean completed) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        return new Order(deliveryAddress, clock, pancakes, completed);
+    }
+
+    private void checkChange(Pancake pancake, int quantity) {
+        if (pancake == null) {
+            throw new IllegalArgumentException("Pancake cannot be null");
+        }
+        if (quantity <= 0) {
+            throw INVALID_QUANTITY;
+        }
+    }
+}
@@ -7,6 +7,9 @@ import java.util.Objects;
 
 public class OrderEntry {
 
+    private static final InvalidQuantityException INVALID_QUANTITY =
+            new InvalidQuantityException("Quantity must be greater than 0", false);
+
     private final Pancake pancake;
     private int quantity;
 
@@ -15,7 +18,7 @@ public class OrderEntry {
             throw new IllegalArgumentException("Pancake cannot be null");
         }
         if (quantity <= 0) {
-            throw new InvalidQuantityException("Quantity must be greater than 0");
+            throw INVALID_QUANTITY;
         }
         this.pancake = pancake;
         this.quantity = quantity;
@@ -0,0 +1,51 @@
+package org.pancakelab.model.order;
+
+import org.pancakelab.model.pancake.Pancake;
+
+/**
+ * Observer of changes made to an {@link Order}.
+ * <br/>
+ * All callbacks are invoked while the order's write lock is held, so a listener always sees the changes of one
+ * order in the order they were made. Implementations must be fast and must not block.
+ */
+public interface OrderListener {
+
+    /**
+     * Invoked when the listener is added to an order.
+     *
+     * @param order the observed order
+     * @param state the processing state of the order at the moment the listener was added
+     */
+    default void onAttached(Order order, OrderProcessingState state) {
+    }
+
+    /**
+     * Invoked when the listener is removed from an order.
+     *
+     * @param order the observed order
+     * @param state the processing state of the order at the moment the listener was removed
+     */
+    default void onDetached(Order order, OrderProcessingState state) {
+    }
+
+    /**
+     * Invoked when the quantity of a pancake in the order changes.
+     *
+     * @param order       the changed order
+     * @param pancake     the pancake whose quantity changed
+     * @param oldQuantity the quantity before the change, 0 if the pancake was not in the order
+     * @param newQuantity the quantity after the change, 0 if the pancake was removed from the order
+     */
+    default void onPancakesChanged(Order order, Pancake pancake, int oldQuantity, int newQuantity) {
+    }
+
+    /**
+     * Invoked when the order moves to another processing state.
+     *
+     * @param order    the changed order
+     * @param oldState the processing state before the transition
+     * @param newState the processing state after the transition
+     */
+    default void onStateChanged(Order order, OrderProcessingState oldState, OrderProcessingState newState) {
+    }
+}
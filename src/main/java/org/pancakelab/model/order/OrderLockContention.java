@@ -0,0 +1,40 @@
+package org.pancakelab.model.order;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time threads spent waiting for the read/write locks of all {@link Order orders}.
+ * <br/>
+ * Only contended acquisitions are counted: an order first tries to take its write lock without blocking, or checks
+ * that no writer holds or waits for its read lock, and reads the clock only when that fails, so uncontended locking
+ * costs nothing extra.
+ * <br/>
+ * Thread-safe.
+ */
+public final class OrderLockContention {
+
+    private static final LongAdder contendedAcquisitions = new LongAdder();
+    private static final LongAdder waitTimeNanos = new LongAdder();
+
+    private OrderLockContention() {
+    }
+
+    /**
+     * @return number of times a thread had to wait for the lock of an order
+     */
+    public static long getContendedAcquisitions() {
+        return contendedAcquisitions.sum();
+    }
+
+    /**
+     * @return total time threads have waited for the locks of orders, in nanoseconds
+     */
+    public static long getWaitTimeNanos() {
+        return waitTimeNanos.sum();
+    }
+
+    static void record(long waitNanos) {
+        contendedAcquisitions.increment();
+        waitTimeNanos.add(waitNanos);
+    }
+}
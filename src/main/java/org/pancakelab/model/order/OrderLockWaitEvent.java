@@ -0,0 +1,30 @@
+package org.pancakelab.model.order;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event of a thread waiting for the read or write lock of an {@link Order}.
+ * <br/>
+ * Only begins when the lock cannot be taken right away, so uncontended locking never touches it.
+ */
+@Name("org.pancakelab.OrderLockWait")
+@Label("Order Lock Wait")
+@Category({"PancakeLab", "Orders"})
+@Description("A thread has waited for the lock of an order held by another thread")
+@StackTrace(true)
+@Threshold("10 ms")
+class OrderLockWaitEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Write Lock")
+    @Description("Whether the thread waited for the write lock rather than the read lock")
+    boolean writeLock;
+}
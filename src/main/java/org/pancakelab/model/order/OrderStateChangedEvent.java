@@ -0,0 +1,38 @@
+package org.pancakelab.model.order;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of an {@link Order} moving from one processing state to another.
+ */
+@Name("org.pancakelab.OrderStateChanged")
+@Label("Order State Changed")
+@Category({"PancakeLab", "Orders"})
+@Description("An order has moved to another processing state")
+@StackTrace(false)
+class OrderStateChangedEvent extends Event {
+
+    @Label("Order ID")
+    String orderId;
+
+    @Label("Old State")
+    String oldState;
+
+    @Label("New State")
+    String newState;
+
+    static void emit(Order order, OrderProcessingState oldState, OrderProcessingState newState) {
+        OrderStateChangedEvent event = new OrderStateChangedEvent();
+        if (event.shouldCommit()) {
+            event.orderId = order.getId().toString();
+            event.oldState = oldState.name();
+            event.newState = newState.name();
+            event.commit();
+        }
+    }
+}
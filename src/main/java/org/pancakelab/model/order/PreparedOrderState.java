@@ -5,24 +5,33 @@ import org.pancakelab.model.pancake.Pancake;
 
 public class PreparedOrderState implements OrderState {
 
+    private static final OrderPreparedException CANNOT_ADD_PANCAKES =
+            new OrderPreparedException("Cannot add pancakes to a prepared order.", false);
+    private static final OrderPreparedException CANNOT_REMOVE_PANCAKES =
+            new OrderPreparedException("Cannot remove pancakes from a prepared order.", false);
+    private static final OrderPreparedException CANNOT_CANCEL =
+            new OrderPreparedException("Cannot cancel a prepared order.", false);
+    private static final OrderPreparedException CANNOT_COMPLETE =
+            new OrderPreparedException("Cannot complete a prepared order.", false);
+
     @Override
     public void addPancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderPreparedException("Cannot add pancakes to a prepared order.");
+        throw CANNOT_ADD_PANCAKES;
     }
 
     @Override
     public void removePancake(Order order, Pancake pancake, int quantity) {
-        throw new OrderPreparedException("Cannot remove pancakes from a prepared order.");
+        throw CANNOT_REMOVE_PANCAKES;
     }
 
     @Override
     public void markCancelled(Order order) {
-        throw new OrderPreparedException("Cannot cancel a prepared order.");
+        throw CANNOT_CANCEL;
     }
 
     @Override
     public void markCompleted(Order order) {
-        throw new OrderPreparedException("Cannot complete a prepared order.");
+        throw CANNOT_COMPLETE;
     }
 
     @Override
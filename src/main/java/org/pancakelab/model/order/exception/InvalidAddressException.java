@@ -11,4 +11,8 @@ public class InvalidAddressException extends DomainException {
     public InvalidAddressException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public InvalidAddressException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
 }
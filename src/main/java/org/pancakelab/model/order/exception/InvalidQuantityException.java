@@ -12,4 +12,8 @@ public class InvalidQuantityException extends DomainException {
         super(message, cause);
     }
 
+    public InvalidQuantityException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
 }
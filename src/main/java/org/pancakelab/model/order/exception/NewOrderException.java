@@ -10,4 +10,8 @@ public class NewOrderException extends OrderStateException {
         super(message, cause);
     }
 
+    public NewOrderException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
 }
@@ -9,4 +9,8 @@ public class OrderCancelledException extends OrderStateException {
     public OrderCancelledException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public OrderCancelledException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
 }
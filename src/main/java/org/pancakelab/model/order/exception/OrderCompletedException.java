@@ -9,4 +9,8 @@ public class OrderCompletedException extends OrderStateException {
     public OrderCompletedException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public OrderCompletedException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
 }
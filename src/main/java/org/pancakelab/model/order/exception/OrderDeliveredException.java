@@ -9,4 +9,8 @@ public class OrderDeliveredException extends OrderStateException {
     public OrderDeliveredException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public OrderDeliveredException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
 }
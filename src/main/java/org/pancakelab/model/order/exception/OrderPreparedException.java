@@ -10,4 +10,8 @@ public class OrderPreparedException extends OrderStateException {
         super(message, cause);
     }
 
+    public OrderPreparedException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
 }
@@ -11,4 +11,8 @@ public class OrderStateException extends DomainException {
     public OrderStateException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public OrderStateException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
 }
@@ -29,6 +29,13 @@ public final class Pancake {
         return description;
     }
 
+    /**
+     * @return an unmodifiable list of the pancake's ingredients in their natural order
+     */
+    public List<Ingredient> getIngredients() {
+        return ingredients;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
@@ -0,0 +1,196 @@
+package org.pancakelab.model.pancake;
+
+import org.pancakelab.model.pancake.exception.InvalidRecipeException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Rules every custom pancake has to follow, compiled into bitmasks over {@link Ingredient} ordinals.
+ * <br/>
+ * Rules are read from a local text file with one rule per line; empty lines and lines starting with {@code #}
+ * are skipped:
+ * <pre>
+ * forbidden MUSTARD MILK_CHOCOLATE
+ * max-toppings 3
+ * required-base DARK_CHOCOLATE MILK_CHOCOLATE
+ * </pre>
+ * {@code forbidden} names two ingredients which cannot be on the same pancake, {@code max-toppings} limits the number
+ * of ingredients which are not a base, {@code required-base} lists the ingredients of which every pancake needs at
+ * least one. Validation walks the ingredients once and checks the rules with a few bitwise operations.
+ * <br/>
+ * Immutable and thread-safe.
+ */
+public final class RecipeRules {
+
+    private static final Ingredient[] INGREDIENTS = Ingredient.values();
+    private static final RecipeRules NONE = new RecipeRules(new long[INGREDIENTS.length], Integer.MAX_VALUE, 0L);
+
+    // forbiddenWith[i] has the bits of all ingredients which cannot be combined with ingredient i
+    private final long[] forbiddenWith;
+    private final int maxToppings;
+    private final long baseMask;
+    // violations which do not depend on the pancake are allocated once
+    private final InvalidRecipeException tooManyToppings;
+    private final InvalidRecipeException missingBase;
+
+    private RecipeRules(long[] forbiddenWith, int maxToppings, long baseMask) {
+        this.forbiddenWith = forbiddenWith;
+        this.maxToppings = maxToppings;
+        this.baseMask = baseMask;
+        this.tooManyToppings = new InvalidRecipeException(
+                "Sorry, a pancake can have at most " + maxToppings + " topping(s)", false);
+        this.missingBase = new InvalidRecipeException("Sorry, a pancake needs a base of " + describe(baseMask), false);
+    }
+
+    /**
+     * @return rules allowing any combination of ingredients
+     */
+    public static RecipeRules none() {
+        return NONE;
+    }
+
+    /**
+     * Reads and compiles rules from a local file.
+     *
+     * @param path path of the rules file
+     * @return compiled rules
+     * @throws IllegalArgumentException if the file contains an invalid rule
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    public static RecipeRules load(Path path) {
+        try {
+            return compile(Files.readAllLines(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read recipe rules from " + path, e);
+        }
+    }
+
+    /**
+     * Compiles rules given in the format of the rules file.
+     *
+     * @param lines lines of rules
+     * @return compiled rules
+     * @throws IllegalArgumentException if one of the lines contains an invalid rule
+     */
+    public static RecipeRules compile(List<String> lines) {
+        long[] forbiddenWith = new long[INGREDIENTS.length];
+        int maxToppings = Integer.MAX_VALUE;
+        long baseMask = 0L;
+        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+            String line = lines.get(lineNumber - 1).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            switch (tokens[0]) {
+                case "forbidden" -> {
+                    if (tokens.length != 3) {
+                        throw invalidRule(lineNumber, "a forbidden pair needs exactly two ingredients");
+                    }
+                    Ingredient first = ingredient(tokens[1], lineNumber);
+                    Ingredient second = ingredient(tokens[2], lineNumber);
+                    forbiddenWith[first.ordinal()] |= bit(second);
+                    forbiddenWith[second.ordinal()] |= bit(first);
+                }
+                case "max-toppings" -> {
+                    if (tokens.length != 2) {
+                        throw invalidRule(lineNumber, "the maximum number of toppings needs a single number");
+                    }
+                    try {
+                        maxToppings = Integer.parseInt(tokens[1]);
+                    } catch (NumberFormatException e) {
+                        throw invalidRule(lineNumber, "'" + tokens[1] + "' is not a number");
+                    }
+                    if (maxToppings < 0) {
+                        throw invalidRule(lineNumber, "the maximum number of toppings cannot be negative");
+                    }
+                }
+                case "required-base" -> {
+                    if (tokens.length < 2) {
+                        throw invalidRule(lineNumber, "a required base needs at least one ingredient");
+                    }
+                    for (int i = 1; i < tokens.length; i++) {
+                        baseMask |= bit(ingredient(tokens[i], lineNumber));
+                    }
+                }
+                default -> throw invalidRule(lineNumber, "unknown rule '" + tokens[0] + "'");
+            }
+        }
+        return new RecipeRules(forbiddenWith, maxToppings, baseMask);
+    }
+
+    /**
+     * Checks the ingredients of a custom pancake against the rules.
+     *
+     * @param ingredients the ingredients of the pancake
+     * @throws InvalidRecipeException if the ingredients break one of the rules
+     */
+    public void validate(List<Ingredient> ingredients) {
+        long mask = 0L;
+        long forbidden = 0L;
+        int bases = 0;
+        for (int i = 0, size = ingredients.size(); i < size; i++) {
+            Ingredient ingredient = ingredients.get(i);
+            long bit = bit(ingredient);
+            mask |= bit;
+            forbidden |= forbiddenWith[ingredient.ordinal()];
+            if ((baseMask & bit) != 0) {
+                bases++;
+            }
+        }
+        if ((mask & forbidden) != 0) {
+            throw new InvalidRecipeException("Sorry, " + describeForbiddenPair(mask) + " cannot be on the same pancake",
+                    false);
+        }
+        if (ingredients.size() - bases > maxToppings) {
+            throw tooManyToppings;
+        }
+        if (baseMask != 0 && (mask & baseMask) == 0) {
+            throw missingBase;
+        }
+    }
+
+    // only called to build the message of a rejected recipe
+    private String describeForbiddenPair(long mask) {
+        for (Ingredient ingredient : INGREDIENTS) {
+            long conflicts = mask & forbiddenWith[ingredient.ordinal()];
+            if ((mask & bit(ingredient)) != 0 && conflicts != 0) {
+                return ingredient.getName() + " and " + INGREDIENTS[Long.numberOfTrailingZeros(conflicts)].getName();
+            }
+        }
+        throw new IllegalStateException("No forbidden pair in " + describe(mask));
+    }
+
+    private static String describe(long mask) {
+        StringBuilder description = new StringBuilder();
+        for (Ingredient ingredient : INGREDIENTS) {
+            if ((mask & bit(ingredient)) != 0) {
+                if (!description.isEmpty()) {
+                    description.append(" or ");
+                }
+                description.append(ingredient.getName());
+            }
+        }
+        return description.toString();
+    }
+
+    private static long bit(Ingredient ingredient) {
+        return 1L << ingredient.ordinal();
+    }
+
+    private static Ingredient ingredient(String name, int lineNumber) {
+        try {
+            return Ingredient.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw invalidRule(lineNumber, "unknown ingredient '" + name + "'");
+        }
+    }
+
+    private static IllegalArgumentException invalidRule(int lineNumber, String reason) {
+        return new IllegalArgumentException("Invalid recipe rule in line " + lineNumber + ": " + reason);
+    }
+}
@@ -0,0 +1,19 @@
+package org.pancakelab.model.pancake.exception;
+
+import org.pancakelab.model.exception.DomainException;
+
+public class InvalidRecipeException extends DomainException {
+
+    public InvalidRecipeException(String message) {
+        super(message);
+    }
+
+    public InvalidRecipeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidRecipeException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
+}
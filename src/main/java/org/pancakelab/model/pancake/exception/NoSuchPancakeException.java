@@ -12,4 +12,8 @@ public class NoSuchPancakeException extends DomainException {
         super(message, cause);
     }
 
+    public NoSuchPancakeException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
 }
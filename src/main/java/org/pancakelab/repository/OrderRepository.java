@@ -1,11 +1,19 @@
 package org.pancakelab.repository;
 
+import org.pancakelab.model.order.Address;
 import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.repository.event.OrderChangeEvent;
 import org.pancakelab.repository.exception.DuplicatedIdException;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Flow;
 
 /**
  * Repository interface for performing CRUD operations on Order entities.
@@ -20,6 +28,15 @@ public interface OrderRepository {
      */
     void saveOrder(Order order);
 
+    /**
+     * Saves a batch of orders to the repository in a single operation.
+     * If one of the orders cannot be saved, none of them is.
+     *
+     * @param orders the orders to save, must not be null
+     * @throws DuplicatedIdException if an order with the same ID already exists in the repository or in the batch
+     */
+    void saveOrders(Collection<Order> orders);
+
     /**
      * Finds an order by its unique identifier.
      *
@@ -35,18 +52,123 @@ public interface OrderRepository {
      */
     void removeOrder(Order order);
 
+    /**
+     * Removes a batch of orders from the repository in a single operation.
+     * Orders which are not stored in the repository are ignored.
+     *
+     * @param orders the orders to remove, must not be null
+     */
+    void removeOrders(Collection<Order> orders);
+
     /**
      * Retrieves all orders that have been completed.
      *
-     * @return a list of all completed orders, or an empty list if no orders are completed
+     * @return a list of all completed orders ordered by completion time, oldest first,
+     * or an empty list if no orders are completed
      */
     List<Order> findCompletedOrders();
 
+    /**
+     * Retrieves the completed orders which have been waiting for the longest time.
+     *
+     * @param limit the maximum number of orders to return
+     * @return a list of at most {@code limit} completed orders ordered by completion time, oldest first
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    List<Order> findOldestCompletedOrders(int limit);
+
+    /**
+     * Retrieves the completed orders which were completed before the given time.
+     *
+     * @param time the completion time limit, exclusive
+     * @return a list of completed orders ordered by completion time, oldest first
+     */
+    List<Order> findCompletedOrdersBefore(Instant time);
+
     /**
      * Retrieves all orders that have been prepared but not yet completed.
      *
-     * @return a list of all prepared orders, or an empty list if no orders are in the prepared state
+     * @return a list of all prepared orders ordered by completion time, oldest first,
+     * or an empty list if no orders are in the prepared state
      */
     List<Order> findPreparedOrders();
 
+    /**
+     * Retrieves the prepared orders which have been waiting for the longest time since their completion.
+     *
+     * @param limit the maximum number of orders to return
+     * @return a list of at most {@code limit} prepared orders ordered by completion time, oldest first
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    List<Order> findOldestPreparedOrders(int limit);
+
+    /**
+     * Retrieves the prepared orders which were completed before the given time.
+     *
+     * @param time the completion time limit, exclusive
+     * @return a list of prepared orders ordered by completion time, oldest first
+     */
+    List<Order> findPreparedOrdersCompletedBefore(Instant time);
+
+    /**
+     * Retrieves all orders to be delivered to the given address.
+     *
+     * @param address the delivery address
+     * @return a list of orders for the address, or an empty list if there are none
+     */
+    List<Order> findOrdersByAddress(Address address);
+
+    /**
+     * Retrieves all orders to be delivered to the buildings in the given range.
+     *
+     * @param fromBuilding the lowest building number, inclusive
+     * @param toBuilding   the highest building number, inclusive
+     * @return a list of orders sorted by building and room, or an empty list if there are none
+     */
+    List<Order> findOrdersByBuildings(int fromBuilding, int toBuilding);
+
+    /**
+     * Retrieves all orders with every one of the given ingredients, each in at least one of their pancakes.
+     *
+     * @param ingredients the ingredients the orders must contain
+     * @return a list of matching orders in no particular order, or an empty list if there are none
+     * or no ingredient is given
+     */
+    List<Order> findOrdersContainingAll(Set<Ingredient> ingredients);
+
+    /**
+     * Retrieves all orders with at least one of the given ingredients in at least one of their pancakes,
+     * e.g. the orders affected by a recalled batch of an ingredient.
+     *
+     * @param ingredients the ingredients the orders may contain
+     * @return a list of matching orders in no particular order, or an empty list if there are none
+     * or no ingredient is given
+     */
+    List<Order> findOrdersContainingAny(Set<Ingredient> ingredients);
+
+    /**
+     * Counts stored orders in the given processing state.
+     *
+     * @param state the processing state to count
+     * @return the number of stored orders in the given state
+     */
+    long countOrders(OrderProcessingState state);
+
+    /**
+     * Counts stored orders in the given processing state which are delivered to the given building.
+     *
+     * @param building the building number of the delivery address
+     * @param state    the processing state to count
+     * @return the number of stored orders for the building in the given state
+     */
+    long countOrders(int building, OrderProcessingState state);
+
+    /**
+     * Returns the ordered stream of changes of the stored orders: order saved, pancakes changed, processing state
+     * changed and order removed. Subscribers receive the changes made after they subscribed, in batches.
+     *
+     * @return publisher of order change batches
+     */
+    Flow.Publisher<List<OrderChangeEvent>> getOrderChanges();
+
 }
@@ -0,0 +1,26 @@
+package org.pancakelab.repository.event;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Pancake;
+
+/**
+ * A single change of an order stored in the repository.
+ *
+ * @param sequence      monotonic sequence number of the change, unique within a change stream
+ * @param type          the kind of change
+ * @param order         the changed order
+ * @param state         the processing state of the order after the change
+ * @param previousState the processing state before the change, only set for {@link OrderChangeType#STATE_CHANGED}
+ * @param pancake       the changed pancake, only set for {@link OrderChangeType#LINES_CHANGED}
+ * @param quantity      the new quantity of the pancake, 0 if it was removed from the order,
+ *                      only set for {@link OrderChangeType#LINES_CHANGED}
+ */
+public record OrderChangeEvent(long sequence,
+                               OrderChangeType type,
+                               Order order,
+                               OrderProcessingState state,
+                               OrderProcessingState previousState,
+                               Pancake pancake,
+                               int quantity) {
+}
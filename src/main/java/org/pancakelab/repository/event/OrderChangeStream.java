@@ -0,0 +1,276 @@
+package org.pancakelab.repository.event;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderListener;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Publishes changes of the orders it is attached to as an ordered stream of {@link OrderChangeEvent}s.
+ * <br/>
+ * The stream is meant to be added as an {@link OrderListener} to every order stored in a repository: attaching
+ * it to an order publishes {@link OrderChangeType#CREATED}, detaching it publishes {@link OrderChangeType#REMOVED}.
+ * <br/>
+ * Every event gets a sequence number which is unique and monotonic within the stream, and all subscribers receive
+ * events in sequence order. Events are delivered in batches of up to {@code maxBatchSize} events, one batch per
+ * requested item, on the given executor. Events are kept in a ring of the last {@code bufferCapacity} events which
+ * all subscribers read from: publishing never blocks, a subscriber which falls that far behind is cancelled with
+ * {@link RejectedExecutionException}. The ring keeps its events, and their orders, reachable until they are
+ * overwritten. Nothing is published while there are no subscribers.
+ * <br/>
+ * Publishing takes no lock: a publisher claims a sequence number, writes the event to its slot in the ring and
+ * signals the subscribers, each of which delivers the contiguous run of written events following its cursor.
+ * Changes of different orders therefore never wait for each other here.
+ * <br/>
+ * Thread-safe.
+ */
+public class OrderChangeStream implements Flow.Publisher<List<OrderChangeEvent>>, OrderListener {
+
+    private static final Logger logger = Logger.getLogger(OrderChangeStream.class.getName());
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final int DEFAULT_BUFFER_CAPACITY = Flow.defaultBufferSize() * 256;
+
+    private final Executor executor;
+    private final int maxBatchSize;
+    private final int bufferCapacity;
+    private final AtomicReferenceArray<OrderChangeEvent> ring;
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long closedAtSequence = Long.MAX_VALUE;
+
+    /**
+     * Creates a stream delivering events on the common fork-join pool with default batch size and buffer capacity.
+     */
+    public OrderChangeStream() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_BATCH_SIZE, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param executor       executor used to deliver events to subscribers
+     * @param maxBatchSize   maximum number of events in a single batch
+     * @param bufferCapacity maximum number of undelivered events per subscriber
+     * @throws IllegalArgumentException if the batch size or the buffer capacity is less than or equal to zero
+     */
+    public OrderChangeStream(Executor executor, int maxBatchSize, int bufferCapacity) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than zero");
+        }
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be greater than zero");
+        }
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+        this.bufferCapacity = bufferCapacity;
+        this.ring = new AtomicReferenceArray<>(bufferCapacity);
+    }
+
+    /**
+     * The subscriber receives the events published after it subscribed, starting with the sequence number
+     * following {@link #getLastSequence()}.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<OrderChangeEvent>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        ChangeSubscription subscription = new ChangeSubscription(subscriber, sequence.get() + 1);
+        if (!isClosed()) {
+            subscriptions.add(subscription);
+        }
+        subscriber.onSubscribe(subscription);
+        subscription.signal();
+    }
+
+    /**
+     * @return the sequence number of the last published event, 0 if nothing has been published yet
+     */
+    public long getLastSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Completes all subscriptions once they have received the events published so far.
+     * Events published after closing are dropped.
+     */
+    public void close() {
+        closedAtSequence = sequence.get();
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    @Override
+    public void onAttached(Order order, OrderProcessingState state) {
+        publish(OrderChangeType.CREATED, order, state, null, null, 0);
+    }
+
+    @Override
+    public void onDetached(Order order, OrderProcessingState state) {
+        publish(OrderChangeType.REMOVED, order, state, null, null, 0);
+    }
+
+    @Override
+    public void onPancakesChanged(Order order, Pancake pancake, int oldQuantity, int newQuantity) {
+        publish(OrderChangeType.LINES_CHANGED, order, order.getOrderProcessingState(), null, pancake, newQuantity);
+    }
+
+    @Override
+    public void onStateChanged(Order order, OrderProcessingState oldState, OrderProcessingState newState) {
+        publish(OrderChangeType.STATE_CHANGED, order, newState, oldState, null, 0);
+    }
+
+    private boolean isClosed() {
+        return closedAtSequence != Long.MAX_VALUE;
+    }
+
+    /**
+     * A claimed sequence number is always written, subscribers wait for it before delivering any later event.
+     */
+    private void publish(OrderChangeType type, Order order, OrderProcessingState state,
+                         OrderProcessingState previousState, Pancake pancake, int quantity) {
+        if (subscriptions.isEmpty() || isClosed()) {
+            return;
+        }
+        long eventSequence = sequence.incrementAndGet();
+        ring.set(slot(eventSequence),
+                new OrderChangeEvent(eventSequence, type, order, state, previousState, pancake, quantity));
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    private int slot(long eventSequence) {
+        return (int) (eventSequence % bufferCapacity);
+    }
+
+    /**
+     * Cursor and demand of a single subscriber. Delivery is serialized by the work-in-progress counter,
+     * so at most one executor task delivers to the subscriber at a time.
+     */
+    private final class ChangeSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super List<OrderChangeEvent>> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger workInProgress = new AtomicInteger();
+        // sequence number of the next event to deliver, only accessed by the delivering task
+        private long cursor;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        private ChangeSubscription(Flow.Subscriber<? super List<OrderChangeEvent>> subscriber, long cursor) {
+            this.subscriber = subscriber;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                terminate(new IllegalArgumentException("Number of requested batches must be greater than zero"));
+            } else {
+                demand.accumulateAndGet(n, (current, requested) -> {
+                    long sum = current + requested;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        private void terminate(Throwable throwable) {
+            error = throwable;
+            subscriptions.remove(this);
+        }
+
+        private void signal() {
+            if (workInProgress.getAndIncrement() == 0) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    return;
+                }
+                if (error == null && sequence.get() - cursor >= bufferCapacity) {
+                    terminate(overflow());
+                }
+                long last = closedAtSequence;
+                while (error == null && demand.get() > 0 && cursor <= last) {
+                    List<OrderChangeEvent> batch = nextBatch(last);
+                    if (batch == null) {
+                        break;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(batch);
+                    if (cancelled) {
+                        return;
+                    }
+                }
+                if (error != null) {
+                    cancelled = true;
+                    logger.warning(() -> "Order change subscriber " + subscriber + " terminated: " +
+                            error.getMessage());
+                    subscriber.onError(error);
+                    return;
+                }
+                if (cursor > last) {
+                    cancelled = true;
+                    subscriptions.remove(this);
+                    subscriber.onComplete();
+                    return;
+                }
+                missed = workInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Collects the written events following the cursor, stopping at the first slot whose event has not been
+         * written yet. Finding a later event in a slot means the ring has wrapped around past the cursor.
+         *
+         * @return the next batch, or null if the next event has not been written yet or has been overwritten
+         */
+        private List<OrderChangeEvent> nextBatch(long last) {
+            List<OrderChangeEvent> batch = null;
+            while (cursor <= last && (batch == null || batch.size() < maxBatchSize)) {
+                OrderChangeEvent event = ring.get(slot(cursor));
+                if (event == null || event.sequence() < cursor) {
+                    break;
+                }
+                if (event.sequence() > cursor) {
+                    terminate(overflow());
+                    return null;
+                }
+                if (batch == null) {
+                    batch = new ArrayList<>(maxBatchSize);
+                }
+                batch.add(event);
+                cursor++;
+            }
+            return batch;
+        }
+
+        private RejectedExecutionException overflow() {
+            return new RejectedExecutionException("Subscriber fell more than " + bufferCapacity +
+                    " events behind the order change stream");
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.pancakelab.repository.event;
+
+public enum OrderChangeType {
+    CREATED,
+    LINES_CHANGED,
+    STATE_CHANGED,
+    REMOVED
+}
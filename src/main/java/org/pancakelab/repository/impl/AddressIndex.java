@@ -0,0 +1,80 @@
+package org.pancakelab.repository.impl;
+
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderListener;
+import org.pancakelab.model.order.OrderProcessingState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary index of orders by delivery address: building &rarr; room &rarr; orders.
+ * <br/>
+ * Buildings and rooms are kept sorted to answer range queries in address order. Buckets of buildings and rooms
+ * are never removed, their number is bounded by the number of rooms in the Dojo.
+ * Orders are added and removed while this listener is attached to and detached from them, under the order's
+ * write lock, so an order is in the index exactly while the repository's listeners are attached to it.
+ * <br/>
+ * Thread-safe.
+ */
+class AddressIndex implements OrderListener {
+
+    private final ConcurrentNavigableMap<Integer, ConcurrentNavigableMap<Integer, Set<Order>>> buildings =
+            new ConcurrentSkipListMap<>();
+
+    @Override
+    public void onAttached(Order order, OrderProcessingState state) {
+        add(order);
+    }
+
+    @Override
+    public void onDetached(Order order, OrderProcessingState state) {
+        remove(order);
+    }
+
+    void add(Order order) {
+        Address address = order.getDeliveryAddress();
+        buildings.computeIfAbsent(address.building(), building -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(address.room(), room -> ConcurrentHashMap.newKeySet())
+                .add(order);
+    }
+
+    void remove(Order order) {
+        Address address = order.getDeliveryAddress();
+        Map<Integer, Set<Order>> rooms = buildings.get(address.building());
+        if (rooms != null) {
+            Set<Order> orders = rooms.get(address.room());
+            if (orders != null) {
+                orders.remove(order);
+            }
+        }
+    }
+
+    List<Order> findByAddress(Address address) {
+        Map<Integer, Set<Order>> rooms = buildings.get(address.building());
+        if (rooms == null) {
+            return List.of();
+        }
+        Set<Order> orders = rooms.get(address.room());
+        return orders == null ? List.of() : List.copyOf(orders);
+    }
+
+    List<Order> findByBuildings(int fromBuilding, int toBuilding) {
+        if (fromBuilding > toBuilding) {
+            return List.of();
+        }
+        List<Order> result = new ArrayList<>();
+        for (Map<Integer, Set<Order>> rooms : buildings.subMap(fromBuilding, true, toBuilding, true).values()) {
+            for (Set<Order> orders : rooms.values()) {
+                result.addAll(orders);
+            }
+        }
+        return result;
+    }
+}
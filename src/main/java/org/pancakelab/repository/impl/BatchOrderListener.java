@@ -0,0 +1,24 @@
+package org.pancakelab.repository.impl;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderListener;
+import org.pancakelab.model.order.OrderProcessingState;
+
+import java.util.List;
+
+/**
+ * Listener which takes the removal of a whole batch of orders in a single call, see
+ * {@link CompositeOrderListener#detachAll}.
+ */
+interface BatchOrderListener extends OrderListener {
+
+    /**
+     * Invoked instead of {@link #onDetached} once the listener has been removed from every order of a batch.
+     * Unlike the other callbacks, it is invoked without holding the locks of the orders; no order of the batch
+     * reports any change to the listener after it has been removed.
+     *
+     * @param orders the orders the listener has been removed from
+     * @param states the processing state of each order at the moment the listener was removed
+     */
+    void onDetachedAll(List<Order> orders, List<OrderProcessingState> states);
+}
@@ -0,0 +1,101 @@
+package org.pancakelab.repository.impl;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderListener;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Forwards the changes of an order to a fixed list of listeners, in the given order.
+ * <br/>
+ * Attaching the repository's listeners to an order as a single listener takes the order's write lock once
+ * instead of once per listener when the order is saved or removed. When a batch of orders is removed,
+ * {@link BatchOrderListener}s are notified once for the whole batch after the last order has been detached.
+ * <br/>
+ * Thread-safe if the listeners are.
+ */
+class CompositeOrderListener implements OrderListener {
+
+    private final OrderListener[] listeners;
+    // batch of the thread currently detaching this listener from several orders at once
+    private final ThreadLocal<DetachBatch> detachBatch = new ThreadLocal<>();
+
+    CompositeOrderListener(OrderListener... listeners) {
+        this.listeners = listeners.clone();
+    }
+
+    /**
+     * Removes this listener from all orders. Plain listeners are notified per order as usual, batch listeners
+     * once for all orders at the end.
+     *
+     * @param orders the orders to detach from
+     */
+    void detachAll(Collection<Order> orders) {
+        DetachBatch batch = new DetachBatch(orders.size());
+        detachBatch.set(batch);
+        try {
+            for (Order order : orders) {
+                order.removeListener(this);
+            }
+        } finally {
+            detachBatch.remove();
+            if (!batch.orders.isEmpty()) {
+                for (OrderListener listener : listeners) {
+                    if (listener instanceof BatchOrderListener batchListener) {
+                        batchListener.onDetachedAll(batch.orders, batch.states);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onAttached(Order order, OrderProcessingState state) {
+        for (OrderListener listener : listeners) {
+            listener.onAttached(order, state);
+        }
+    }
+
+    @Override
+    public void onDetached(Order order, OrderProcessingState state) {
+        DetachBatch batch = detachBatch.get();
+        if (batch != null) {
+            batch.orders.add(order);
+            batch.states.add(state);
+        }
+        for (OrderListener listener : listeners) {
+            if (batch == null || !(listener instanceof BatchOrderListener)) {
+                listener.onDetached(order, state);
+            }
+        }
+    }
+
+    @Override
+    public void onPancakesChanged(Order order, Pancake pancake, int oldQuantity, int newQuantity) {
+        for (OrderListener listener : listeners) {
+            listener.onPancakesChanged(order, pancake, oldQuantity, newQuantity);
+        }
+    }
+
+    @Override
+    public void onStateChanged(Order order, OrderProcessingState oldState, OrderProcessingState newState) {
+        for (OrderListener listener : listeners) {
+            listener.onStateChanged(order, oldState, newState);
+        }
+    }
+
+    private static final class DetachBatch {
+
+        private final List<Order> orders;
+        private final List<OrderProcessingState> states;
+
+        private DetachBatch(int size) {
+            this.orders = new ArrayList<>(size);
+            this.states = new ArrayList<>(size);
+        }
+    }
+}
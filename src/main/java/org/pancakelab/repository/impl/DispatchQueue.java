@@ -0,0 +1,109 @@
+package org.pancakelab.repository.impl;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderListener;
+import org.pancakelab.model.order.OrderProcessingState;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Completed and prepared orders kept in the order of their completion time, oldest first.
+ * <br/>
+ * Orders move between the queues as they change state while this listener is attached to them, so the oldest
+ * orders and the orders completed before a deadline are read straight from the head of a skip list.
+ * <br/>
+ * Thread-safe.
+ */
+class DispatchQueue implements OrderListener {
+
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final ConcurrentNavigableMap<DispatchKey, Order> completedOrders = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<DispatchKey, Order> preparedOrders = new ConcurrentSkipListMap<>();
+
+    List<Order> findAll(OrderProcessingState state) {
+        ConcurrentNavigableMap<DispatchKey, Order> queue = queueFor(state);
+        return queue == null ? List.of() : List.copyOf(queue.values());
+    }
+
+    List<Order> findOldest(OrderProcessingState state, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        ConcurrentNavigableMap<DispatchKey, Order> queue = queueFor(state);
+        if (queue == null || limit == 0) {
+            return List.of();
+        }
+        List<Order> oldestOrders = new ArrayList<>(Math.min(limit, 64));
+        for (Order order : queue.values()) {
+            oldestOrders.add(order);
+            if (oldestOrders.size() == limit) {
+                break;
+            }
+        }
+        return oldestOrders;
+    }
+
+    List<Order> findCompletedBefore(OrderProcessingState state, Instant time) {
+        ConcurrentNavigableMap<DispatchKey, Order> queue = queueFor(state);
+        return queue == null ? List.of() : List.copyOf(queue.headMap(new DispatchKey(time, LOWEST_ID)).values());
+    }
+
+    @Override
+    public void onAttached(Order order, OrderProcessingState state) {
+        enqueue(order, state);
+    }
+
+    @Override
+    public void onDetached(Order order, OrderProcessingState state) {
+        dequeue(order, state);
+    }
+
+    @Override
+    public void onStateChanged(Order order, OrderProcessingState oldState, OrderProcessingState newState) {
+        dequeue(order, oldState);
+        enqueue(order, newState);
+    }
+
+    private void enqueue(Order order, OrderProcessingState state) {
+        ConcurrentNavigableMap<DispatchKey, Order> queue = queueFor(state);
+        if (queue != null) {
+            queue.put(DispatchKey.of(order), order);
+        }
+    }
+
+    private void dequeue(Order order, OrderProcessingState state) {
+        ConcurrentNavigableMap<DispatchKey, Order> queue = queueFor(state);
+        if (queue != null) {
+            queue.remove(DispatchKey.of(order));
+        }
+    }
+
+    private ConcurrentNavigableMap<DispatchKey, Order> queueFor(OrderProcessingState state) {
+        return switch (state) {
+            case COMPLETED -> completedOrders;
+            case PREPARED -> preparedOrders;
+            default -> null;
+        };
+    }
+
+    private record DispatchKey(Instant completedAt, UUID orderId) implements Comparable<DispatchKey> {
+
+        static DispatchKey of(Order order) {
+            Instant completedAt = order.getStateEnteredAt(OrderProcessingState.COMPLETED)
+                    .orElseThrow(() -> new IllegalStateException("Order " + order.getId() + " was never completed"));
+            return new DispatchKey(completedAt, order.getId());
+        }
+
+        @Override
+        public int compareTo(DispatchKey other) {
+            int result = completedAt.compareTo(other.completedAt);
+            return result != 0 ? result : orderId.compareTo(other.orderId);
+        }
+    }
+}
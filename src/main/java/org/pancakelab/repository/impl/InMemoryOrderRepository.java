@@ -1,19 +1,47 @@
 package org.pancakelab.repository.impl;
 
+import org.pancakelab.model.order.Address;
 import org.pancakelab.model.order.Order;
 import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
 import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.event.OrderChangeEvent;
+import org.pancakelab.repository.event.OrderChangeStream;
 import org.pancakelab.repository.exception.DuplicatedIdException;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
 
 public class InMemoryOrderRepository implements OrderRepository {
 
     private final ConcurrentMap<UUID, Order> ordersStorage = new ConcurrentHashMap<>();
+    private final AddressIndex addressIndex = new AddressIndex();
+    private final OrderStateCounters orderStateCounters = new OrderStateCounters();
+    private final DispatchQueue dispatchQueue = new DispatchQueue();
+    private final IngredientIndex ingredientIndex = new IngredientIndex();
+    private final OrderChangeStream orderChangeStream;
+    private final CompositeOrderListener orderListener;
+
+    public InMemoryOrderRepository() {
+        this(new OrderChangeStream());
+    }
+
+    /**
+     * @param orderChangeStream stream publishing the changes of the stored orders
+     */
+    public InMemoryOrderRepository(OrderChangeStream orderChangeStream) {
+        this.orderChangeStream = orderChangeStream;
+        this.orderListener = new CompositeOrderListener(
+                addressIndex, orderStateCounters, dispatchQueue, ingredientIndex, orderChangeStream);
+    }
 
     @Override
     public void saveOrder(Order order) {
@@ -21,6 +49,23 @@ public class InMemoryOrderRepository implements OrderRepository {
         if (!isAdded) {
             throw new DuplicatedIdException("Order with ID " + order.getId() + " already exists.");
         }
+        attach(order);
+    }
+
+    /**
+     * Saves all orders or none of them: the IDs of the whole batch are claimed before any order is indexed.
+     */
+    @Override
+    public void saveOrders(Collection<Order> orders) {
+        List<Order> claimedOrders = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (ordersStorage.putIfAbsent(order.getId(), order) != null) {
+                claimedOrders.forEach(claimedOrder -> ordersStorage.remove(claimedOrder.getId(), claimedOrder));
+                throw new DuplicatedIdException("Order with ID " + order.getId() + " already exists.");
+            }
+            claimedOrders.add(order);
+        }
+        claimedOrders.forEach(this::attach);
     }
 
     @Override
@@ -30,20 +75,123 @@ public class InMemoryOrderRepository implements OrderRepository {
 
     @Override
     public void removeOrder(Order order) {
-        ordersStorage.remove(order.getId());
+        if (ordersStorage.remove(order.getId()) != null) {
+            detach(order);
+        }
+    }
+
+    /**
+     * Detaches the whole batch in one pass, so indexes taking a lock for a removal take it once per batch.
+     */
+    @Override
+    public void removeOrders(Collection<Order> orders) {
+        List<Order> removedOrders = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (ordersStorage.remove(order.getId()) != null) {
+                removedOrders.add(order);
+            }
+        }
+        orderListener.detachAll(removedOrders);
     }
 
     @Override
     public List<Order> findCompletedOrders() {
-        return ordersStorage.values().stream()
-                .filter(order -> order.getOrderProcessingState() == OrderProcessingState.COMPLETED)
-                .toList();
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = dispatchQueue.findAll(OrderProcessingState.COMPLETED);
+        return event.finish("findCompletedOrders", orders);
+    }
+
+    @Override
+    public List<Order> findOldestCompletedOrders(int limit) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = dispatchQueue.findOldest(OrderProcessingState.COMPLETED, limit);
+        return event.finish("findOldestCompletedOrders", orders);
+    }
+
+    @Override
+    public List<Order> findCompletedOrdersBefore(Instant time) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = dispatchQueue.findCompletedBefore(OrderProcessingState.COMPLETED, time);
+        return event.finish("findCompletedOrdersBefore", orders);
     }
 
     @Override
     public List<Order> findPreparedOrders() {
-        return ordersStorage.values().stream()
-                .filter(order -> order.getOrderProcessingState() == OrderProcessingState.PREPARED)
-                .toList();
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = dispatchQueue.findAll(OrderProcessingState.PREPARED);
+        return event.finish("findPreparedOrders", orders);
+    }
+
+    @Override
+    public List<Order> findOldestPreparedOrders(int limit) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = dispatchQueue.findOldest(OrderProcessingState.PREPARED, limit);
+        return event.finish("findOldestPreparedOrders", orders);
+    }
+
+    @Override
+    public List<Order> findPreparedOrdersCompletedBefore(Instant time) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = dispatchQueue.findCompletedBefore(OrderProcessingState.PREPARED, time);
+        return event.finish("findPreparedOrdersCompletedBefore", orders);
+    }
+
+    @Override
+    public List<Order> findOrdersByAddress(Address address) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = addressIndex.findByAddress(address);
+        return event.finish("findOrdersByAddress", orders);
+    }
+
+    @Override
+    public List<Order> findOrdersByBuildings(int fromBuilding, int toBuilding) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = addressIndex.findByBuildings(fromBuilding, toBuilding);
+        return event.finish("findOrdersByBuildings", orders);
+    }
+
+    @Override
+    public List<Order> findOrdersContainingAll(Set<Ingredient> ingredients) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = ingredientIndex.findContainingAll(ingredients);
+        return event.finish("findOrdersContainingAll", orders);
+    }
+
+    @Override
+    public List<Order> findOrdersContainingAny(Set<Ingredient> ingredients) {
+        RepositoryScanEvent event = RepositoryScanEvent.start();
+        List<Order> orders = ingredientIndex.findContainingAny(ingredients);
+        return event.finish("findOrdersContainingAny", orders);
+    }
+
+    @Override
+    public long countOrders(OrderProcessingState state) {
+        return orderStateCounters.count(state);
+    }
+
+    @Override
+    public long countOrders(int building, OrderProcessingState state) {
+        return orderStateCounters.count(building, state);
+    }
+
+    @Override
+    public Flow.Publisher<List<OrderChangeEvent>> getOrderChanges() {
+        return orderChangeStream;
+    }
+
+    /**
+     * A concurrent {@link #removeOrder} may take the order out of the storage before the listeners are attached
+     * and find nothing to detach, so the order is detached again if it is no longer stored once they are.
+     * Detaching is idempotent because the order notifies only listeners which are still attached.
+     */
+    private void attach(Order order) {
+        order.addListener(orderListener);
+        if (ordersStorage.get(order.getId()) != order) {
+            detach(order);
+        }
+    }
+
+    private void detach(Order order) {
+        order.removeListener(orderListener);
     }
 }
@@ -0,0 +1,278 @@
+package org.pancakelab.repository.impl;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inverted index of stored orders by ingredient: ingredient &rarr; {@link CompressedBitmap} of the orders with at
+ * least one pancake containing it.
+ * <br/>
+ * Every stored order gets a dense ordinal; ordinals of removed orders are reused, so the bitmaps stay as dense as
+ * the number of stored orders allows. The index keeps the number of pancakes containing each ingredient per order
+ * and flips a bit only when that number leaves or reaches zero, which makes every change of an order take constant
+ * time and lets queries combine whole bitmaps instead of looking at any order.
+ * <br/>
+ * Thread-safe. The counts of an order are only changed by the callbacks of that order, which run under the order's
+ * write lock. Every bitmap has its own lock, held only to flip a bit or to copy the bitmap, so changes of different
+ * orders do not wait for each other and queries combine and resolve their copies without holding any lock.
+ * A query checks every order it resolves against the order's current counts, so an ordinal reused while the query
+ * ran does not bring up an order without the ingredients.
+ */
+class IngredientIndex implements BatchOrderListener {
+
+    private static final Ingredient[] INGREDIENTS = Ingredient.values();
+
+    private final CompressedBitmap[] bitmaps = new CompressedBitmap[INGREDIENTS.length];
+    private final Lock[] bitmapLocks = new Lock[INGREDIENTS.length];
+    private final ConcurrentMap<Order, IndexedOrder> indexedOrders = new ConcurrentHashMap<>();
+
+    private final Lock ordinalLock = new ReentrantLock();
+    private volatile AtomicReferenceArray<Order> orders = new AtomicReferenceArray<>(64);
+    private int[] freeOrdinals = new int[16];
+    private int freeOrdinalCount;
+    private int nextOrdinal;
+
+    IngredientIndex() {
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = new CompressedBitmap();
+            bitmapLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return the orders containing every one of the ingredients, in no particular order,
+     * or an empty list if no ingredient is given
+     */
+    List<Order> findContainingAll(Set<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return List.of();
+        }
+        CompressedBitmap[] operands = snapshot(ingredients);
+        Arrays.sort(operands, Comparator.comparingInt(CompressedBitmap::cardinality));
+        CompressedBitmap result = operands[0];
+        for (int i = 1; i < operands.length && result.cardinality() > 0; i++) {
+            result = result.and(operands[i]);
+        }
+        return resolve(result, ingredients, true);
+    }
+
+    /**
+     * @return the orders containing at least one of the ingredients, in no particular order,
+     * or an empty list if no ingredient is given
+     */
+    List<Order> findContainingAny(Set<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return List.of();
+        }
+        CompressedBitmap[] operands = snapshot(ingredients);
+        CompressedBitmap result = operands[0];
+        for (int i = 1; i < operands.length; i++) {
+            result = result.or(operands[i]);
+        }
+        return resolve(result, ingredients, false);
+    }
+
+    /**
+     * Indexes the pancakes the order already has. Reading them is safe here because the order's write lock,
+     * held during the callback, also grants its read lock.
+     */
+    @Override
+    public void onAttached(Order order, OrderProcessingState state) {
+        IndexedOrder indexedOrder = new IndexedOrder(allocateOrdinal(order));
+        indexedOrders.put(order, indexedOrder);
+        for (Map.Entry<Pancake, Integer> entry : order.getPancakes().entrySet()) {
+            update(indexedOrder, entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void onDetached(Order order, OrderProcessingState state) {
+        IndexedOrder indexedOrder = indexedOrders.remove(order);
+        if (indexedOrder == null) {
+            return;
+        }
+        for (int i = 0; i < INGREDIENTS.length; i++) {
+            if (indexedOrder.counts.get(i) > 0) {
+                flip(i, indexedOrder.ordinal, false);
+            }
+        }
+        ordinalLock.lock();
+        try {
+            releaseOrdinal(indexedOrder.ordinal);
+        } finally {
+            ordinalLock.unlock();
+        }
+    }
+
+    /**
+     * Clears the bits of the whole batch with one acquisition of every bitmap lock and releases all ordinals
+     * with one acquisition of the ordinal lock.
+     */
+    @Override
+    public void onDetachedAll(List<Order> orders, List<OrderProcessingState> states) {
+        List<IndexedOrder> detached = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            IndexedOrder indexedOrder = indexedOrders.remove(order);
+            if (indexedOrder != null) {
+                detached.add(indexedOrder);
+            }
+        }
+        if (detached.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < INGREDIENTS.length; i++) {
+            bitmapLocks[i].lock();
+            try {
+                for (IndexedOrder indexedOrder : detached) {
+                    if (indexedOrder.counts.get(i) > 0) {
+                        bitmaps[i].remove(indexedOrder.ordinal);
+                    }
+                }
+            } finally {
+                bitmapLocks[i].unlock();
+            }
+        }
+        ordinalLock.lock();
+        try {
+            for (IndexedOrder indexedOrder : detached) {
+                releaseOrdinal(indexedOrder.ordinal);
+            }
+        } finally {
+            ordinalLock.unlock();
+        }
+    }
+
+    @Override
+    public void onPancakesChanged(Order order, Pancake pancake, int oldQuantity, int newQuantity) {
+        IndexedOrder indexedOrder = indexedOrders.get(order);
+        if (indexedOrder != null) {
+            update(indexedOrder, pancake, newQuantity - oldQuantity);
+        }
+    }
+
+    private CompressedBitmap[] snapshot(Set<Ingredient> ingredients) {
+        CompressedBitmap[] operands = new CompressedBitmap[ingredients.size()];
+        int i = 0;
+        for (Ingredient ingredient : ingredients) {
+            Lock bitmapLock = bitmapLocks[ingredient.ordinal()];
+            bitmapLock.lock();
+            try {
+                operands[i++] = bitmaps[ingredient.ordinal()].copy();
+            } finally {
+                bitmapLock.unlock();
+            }
+        }
+        return operands;
+    }
+
+    private List<Order> resolve(CompressedBitmap result, Set<Ingredient> ingredients, boolean containingAll) {
+        List<Order> matches = new ArrayList<>(result.cardinality());
+        AtomicReferenceArray<Order> orders = this.orders;
+        result.forEach(ordinal -> {
+            Order order = orders.get(ordinal);
+            IndexedOrder indexedOrder = order == null ? null : indexedOrders.get(order);
+            if (indexedOrder != null && indexedOrder.ordinal == ordinal
+                    && indexedOrder.contains(ingredients, containingAll)) {
+                matches.add(order);
+            }
+        });
+        return matches;
+    }
+
+    // called under the order's write lock
+    private void update(IndexedOrder indexedOrder, Pancake pancake, int delta) {
+        for (Ingredient ingredient : pancake.getIngredients()) {
+            int index = ingredient.ordinal();
+            int newCount = indexedOrder.counts.addAndGet(index, delta);
+            int oldCount = newCount - delta;
+            if (oldCount == 0 && newCount > 0) {
+                flip(index, indexedOrder.ordinal, true);
+            } else if (oldCount > 0 && newCount == 0) {
+                flip(index, indexedOrder.ordinal, false);
+            }
+        }
+    }
+
+    private void flip(int ingredient, int ordinal, boolean set) {
+        Lock bitmapLock = bitmapLocks[ingredient];
+        bitmapLock.lock();
+        try {
+            if (set) {
+                bitmaps[ingredient].add(ordinal);
+            } else {
+                bitmaps[ingredient].remove(ordinal);
+            }
+        } finally {
+            bitmapLock.unlock();
+        }
+    }
+
+    private int allocateOrdinal(Order order) {
+        ordinalLock.lock();
+        try {
+            int ordinal;
+            if (freeOrdinalCount > 0) {
+                ordinal = freeOrdinals[--freeOrdinalCount];
+            } else {
+                ordinal = nextOrdinal++;
+                if (ordinal == orders.length()) {
+                    AtomicReferenceArray<Order> grown = new AtomicReferenceArray<>(ordinal * 2);
+                    for (int i = 0; i < ordinal; i++) {
+                        grown.set(i, orders.get(i));
+                    }
+                    orders = grown;
+                }
+            }
+            orders.set(ordinal, order);
+            return ordinal;
+        } finally {
+            ordinalLock.unlock();
+        }
+    }
+
+    // called under the ordinal lock, after the bits of the ordinal have been cleared
+    private void releaseOrdinal(int ordinal) {
+        orders.set(ordinal, null);
+        if (freeOrdinalCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeOrdinalCount * 2);
+        }
+        freeOrdinals[freeOrdinalCount++] = ordinal;
+    }
+
+    /**
+     * Ordinal of a stored order and the number of its pancakes containing each ingredient.
+     */
+    private static final class IndexedOrder {
+
+        private final int ordinal;
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(INGREDIENTS.length);
+
+        private IndexedOrder(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        private boolean contains(Set<Ingredient> ingredients, boolean containingAll) {
+            for (Ingredient ingredient : ingredients) {
+                if (counts.get(ingredient.ordinal()) > 0 != containingAll) {
+                    return !containingAll;
+                }
+            }
+            return containingAll;
+        }
+    }
+}
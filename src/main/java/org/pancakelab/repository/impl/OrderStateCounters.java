@@ -0,0 +1,69 @@
+package org.pancakelab.repository.impl;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderListener;
+import org.pancakelab.model.order.OrderProcessingState;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live number of stored orders per processing state, overall and per building.
+ * <br/>
+ * Counters are updated by the orders themselves while this listener is attached to them, so reading a count
+ * never touches any order. {@link LongAdder} spreads concurrent updates over several cells, which keeps
+ * transitions of unrelated orders from contending on the same counter.
+ * <br/>
+ * Thread-safe.
+ */
+class OrderStateCounters implements OrderListener {
+
+    private static final OrderProcessingState[] STATES = OrderProcessingState.values();
+
+    private final LongAdder[] totalCounters = newCounters();
+    private final ConcurrentMap<Integer, LongAdder[]> buildingCounters = new ConcurrentHashMap<>();
+
+    long count(OrderProcessingState state) {
+        return totalCounters[state.ordinal()].sum();
+    }
+
+    long count(int building, OrderProcessingState state) {
+        LongAdder[] counters = buildingCounters.get(building);
+        return counters == null ? 0 : counters[state.ordinal()].sum();
+    }
+
+    @Override
+    public void onAttached(Order order, OrderProcessingState state) {
+        add(order, state, 1);
+    }
+
+    @Override
+    public void onDetached(Order order, OrderProcessingState state) {
+        add(order, state, -1);
+    }
+
+    @Override
+    public void onStateChanged(Order order, OrderProcessingState oldState, OrderProcessingState newState) {
+        add(order, oldState, -1);
+        add(order, newState, 1);
+    }
+
+    private void add(Order order, OrderProcessingState state, int delta) {
+        totalCounters[state.ordinal()].add(delta);
+        int building = order.getDeliveryAddress().building();
+        LongAdder[] counters = buildingCounters.get(building);
+        if (counters == null) {
+            counters = buildingCounters.computeIfAbsent(building, key -> newCounters());
+        }
+        counters[state.ordinal()].add(delta);
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[STATES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,57 @@
+package org.pancakelab.repository.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.pancakelab.model.order.Order;
+
+import java.util.List;
+
+/**
+ * Flight Recorder event of a query of the {@link InMemoryOrderRepository} which copies orders out of one of its
+ * indexes.
+ * <pre>
+ * RepositoryScanEvent event = RepositoryScanEvent.start();
+ * return event.finish("findCompletedOrders", dispatchQueue.findAll(OrderProcessingState.COMPLETED));
+ * </pre>
+ */
+@Name("org.pancakelab.RepositoryScan")
+@Label("Repository Scan")
+@Category({"PancakeLab", "Repository"})
+@Description("A query has copied orders out of the in-memory repository")
+@StackTrace(false)
+@Threshold("1 ms")
+class RepositoryScanEvent extends Event {
+
+    @Label("Query")
+    String query;
+
+    @Label("Orders Scanned")
+    int ordersScanned;
+
+    // a recording started halfway through the query must not see an event without a start time
+    private transient boolean started;
+
+    static RepositoryScanEvent start() {
+        RepositoryScanEvent event = new RepositoryScanEvent();
+        // without a recording not even the start time is taken
+        if (event.isEnabled()) {
+            event.begin();
+            event.started = true;
+        }
+        return event;
+    }
+
+    List<Order> finish(String query, List<Order> orders) {
+        if (started && shouldCommit()) {
+            this.query = query;
+            this.ordersScanned = orders.size();
+            commit();
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,243 @@
+package org.pancakelab.service;
+
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.service.exception.AdmissionRejectedException;
+import org.pancakelab.service.exception.AdmissionRejectedException.Reason;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether the service accepts a request, so a few busy rooms or a full kitchen do not slow down everyone.
+ * <br/>
+ * Every room has a token bucket which refills with {@code permits} tokens per {@code period} and holds at most
+ * {@code permits} tokens; creating an order or adding pancakes takes one token. New orders are also rejected
+ * while there are {@code maxNewOrders} orders which are not completed yet, or while {@code maxKitchenBacklog}
+ * completed orders are waiting for the kitchen. The counts come from the live counters of the repository, so
+ * a rejection costs a few reads and no locks.
+ * <br/>
+ * A token bucket is a single atomic number: the time at which the bucket will be full again. Taking a token
+ * moves that time forward by one refill interval with a compare-and-set, which the bucket refuses if the time
+ * would run further ahead of now than the bucket can hold. A bucket which is full again behaves like a new one, so
+ * once per {@code period} a request sweeps the full buckets away. Only rooms which sent a request within about the
+ * last two periods keep a bucket, however many room numbers clients make up.
+ * <br/>
+ * Thread-safe.
+ */
+public class AdmissionControl {
+
+    private static final AdmissionControl UNLIMITED = new AdmissionControl(builder(null, Clock.systemUTC()));
+    // time a bucket is set to when it is swept away, a request which still holds it looks the bucket up again
+    private static final long REMOVED = Long.MAX_VALUE;
+
+    private final OrderRepository orderRepository;
+    private final Clock clock;
+    private final long refillIntervalNanos;
+    private final long bucketCapacityNanos;
+    private final long maxNewOrders;
+    private final long maxKitchenBacklog;
+    private final ConcurrentMap<Address, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt = new AtomicLong(Long.MIN_VALUE);
+
+    private AdmissionControl(Builder builder) {
+        this.orderRepository = builder.orderRepository;
+        this.clock = builder.clock;
+        this.refillIntervalNanos = builder.permits == 0 ? 0 : builder.period.toNanos() / builder.permits;
+        this.bucketCapacityNanos = builder.period.toNanos();
+        this.maxNewOrders = builder.maxNewOrders;
+        this.maxKitchenBacklog = builder.maxKitchenBacklog;
+    }
+
+    /**
+     * @return admission control which accepts every request
+     */
+    public static AdmissionControl unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Starts configuring admission control. Limits which are not configured do not apply.
+     *
+     * @param orderRepository repository whose order counts are checked
+     * @param clock           clock to refill the token buckets with
+     * @return a new builder
+     */
+    public static Builder builder(OrderRepository orderRepository, Clock clock) {
+        return new Builder(orderRepository, clock);
+    }
+
+    /**
+     * Checks whether a new order for the address is accepted.
+     *
+     * @param address delivery address of the new order
+     * @throws AdmissionRejectedException if the order is not accepted
+     */
+    public void admitNewOrder(Address address) {
+        if (maxKitchenBacklog != Long.MAX_VALUE
+                && orderRepository.countOrders(OrderProcessingState.COMPLETED) >= maxKitchenBacklog) {
+            throw new AdmissionRejectedException(Reason.KITCHEN_OVERLOADED,
+                    "Sorry, the kitchen is too busy to take new orders right now");
+        }
+        if (maxNewOrders != Long.MAX_VALUE && orderRepository.countOrders(OrderProcessingState.NEW) >= maxNewOrders) {
+            throw new AdmissionRejectedException(Reason.TOO_MANY_NEW_ORDERS,
+                    "Sorry, there are too many open orders right now");
+        }
+        takeToken(address);
+    }
+
+    /**
+     * Checks whether a change of an order for the address is accepted.
+     *
+     * @param address delivery address of the changed order
+     * @throws AdmissionRejectedException if the change is not accepted
+     */
+    public void admitOrderChange(Address address) {
+        takeToken(address);
+    }
+
+    /**
+     * @return number of rooms which currently have a token bucket
+     */
+    int getBucketCount() {
+        return buckets.size();
+    }
+
+    private void takeToken(Address address) {
+        if (refillIntervalNanos == 0) {
+            return;
+        }
+        long now = nanos(clock.instant());
+        sweepFullBuckets(now);
+        while (true) {
+            AtomicLong bucket = buckets.get(address);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(address, key -> new AtomicLong(Long.MIN_VALUE));
+            }
+            if (takeToken(bucket, address, now)) {
+                return;
+            }
+            buckets.remove(address, bucket);
+        }
+    }
+
+    /**
+     * @return false if the bucket has been swept away and no token was taken
+     */
+    private boolean takeToken(AtomicLong bucket, Address address, long now) {
+        long fullAt = bucket.get();
+        while (fullAt != REMOVED) {
+            long nextFullAt = Math.max(fullAt, now) + refillIntervalNanos;
+            if (nextFullAt - now > bucketCapacityNanos) {
+                throw new AdmissionRejectedException(Reason.RATE_LIMITED,
+                        "Sorry, room " + address.room() + " in building " + address.building() +
+                                " sends too many requests, please try again later");
+            }
+            long witness = bucket.compareAndExchange(fullAt, nextFullAt);
+            if (witness == fullAt) {
+                return true;
+            }
+            fullAt = witness;
+        }
+        return false;
+    }
+
+    // a bucket is marked before it is removed, so a token taken concurrently either stays in it or is not taken
+    private void sweepFullBuckets(long now) {
+        long sweepAt = nextSweepAt.get();
+        if (now < sweepAt || !nextSweepAt.compareAndSet(sweepAt, now + bucketCapacityNanos)) {
+            return;
+        }
+        buckets.forEach((address, bucket) -> {
+            long fullAt = bucket.get();
+            if (fullAt <= now && bucket.compareAndSet(fullAt, REMOVED)) {
+                buckets.remove(address, bucket);
+            }
+        });
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * Builder of {@link AdmissionControl} instances.
+     */
+    public static final class Builder {
+
+        private final OrderRepository orderRepository;
+        private final Clock clock;
+        private int permits;
+        private Duration period = Duration.ZERO;
+        private long maxNewOrders = Long.MAX_VALUE;
+        private long maxKitchenBacklog = Long.MAX_VALUE;
+
+        private Builder(OrderRepository orderRepository, Clock clock) {
+            this.orderRepository = orderRepository;
+            this.clock = clock;
+        }
+
+        /**
+         * @param permits number of requests a room may send per period, also the size of a burst
+         * @param period  period the permits refill over
+         * @return this builder
+         * @throws IllegalArgumentException if the permits or the period are not positive
+         */
+        public Builder withRateLimit(int permits, Duration period) {
+            if (permits <= 0) {
+                throw new IllegalArgumentException("Number of permits must be greater than zero");
+            }
+            if (period == null || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Period must be positive");
+            }
+            this.permits = permits;
+            this.period = period;
+            return this;
+        }
+
+        /**
+         * @param maxNewOrders number of orders which are not completed yet at which new orders are rejected
+         * @return this builder
+         * @throws IllegalArgumentException if the number is less than or equal to zero
+         */
+        public Builder withMaxNewOrders(long maxNewOrders) {
+            if (maxNewOrders <= 0) {
+                throw new IllegalArgumentException("Maximum number of new orders must be greater than zero");
+            }
+            this.maxNewOrders = maxNewOrders;
+            return this;
+        }
+
+        /**
+         * @param maxKitchenBacklog number of completed orders waiting for the kitchen at which new orders
+         *                          are rejected
+         * @return this builder
+         * @throws IllegalArgumentException if the number is less than or equal to zero
+         */
+        public Builder withMaxKitchenBacklog(long maxKitchenBacklog) {
+            if (maxKitchenBacklog <= 0) {
+                throw new IllegalArgumentException("Maximum kitchen backlog must be greater than zero");
+            }
+            this.maxKitchenBacklog = maxKitchenBacklog;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if a limit on order counts is configured without an order repository
+         */
+        public AdmissionControl build() {
+            if (clock == null) {
+                throw new IllegalArgumentException("Clock cannot be null");
+            }
+            if (orderRepository == null && (maxNewOrders != Long.MAX_VALUE || maxKitchenBacklog != Long.MAX_VALUE)) {
+                throw new IllegalArgumentException("Order repository cannot be null");
+            }
+            return new AdmissionControl(this);
+        }
+    }
+}
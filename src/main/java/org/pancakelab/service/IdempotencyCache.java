@@ -0,0 +1,163 @@
+package org.pancakelab.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of requests by client idempotency keys, so a retried request returns the original result
+ * instead of being executed again.
+ * <br/>
+ * A key is remembered for {@code timeToLive} after the first request. A retry which arrives while the first request
+ * is still running waits for its result. A request which fails is forgotten, so its retry is executed again.
+ * The cache holds at most {@code maxEntries} keys: when it is full, the oldest keys whose requests have finished are
+ * forgotten before their time. Keys of running requests are never forgotten for room, so the cache may exceed its
+ * size by the number of requests running at the same time.
+ * <br/>
+ * Thread-safe.
+ */
+public class IdempotencyCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private final int maxEntries;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // entries in the order they were added, including replaced and failed ones until they reach the head,
+    // so the queue bounds the memory of the map as well
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    /**
+     * @param maxEntries maximum number of remembered keys
+     * @param timeToLive time a key is remembered for
+     * @param clock      clock to measure the time with
+     * @throws IllegalArgumentException if the number of entries is less than or equal to zero or the time to live
+     *                                  is not positive
+     */
+    public IdempotencyCache(int maxEntries, Duration timeToLive, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries must be greater than zero");
+        }
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Executes the request unless a request with the same key has been executed before.
+     *
+     * @param key     idempotency key of the request, null to execute the request unconditionally
+     * @param request the request to execute
+     * @param <T>     type of the result, must be the same for all requests with the key
+     * @return result of this request or of the earlier request with the same key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> request) {
+        if (key == null) {
+            return request.get();
+        }
+        Instant now = clock.instant();
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt.isAfter(now)) {
+                return (T) await(entry);
+            }
+            // make room for the new entry
+            evict(now);
+            Entry newEntry = new Entry(key, now.plus(timeToLive));
+            boolean isAdded = entry == null
+                    ? entries.putIfAbsent(key, newEntry) == null
+                    : entries.replace(key, entry, newEntry);
+            if (isAdded) {
+                insertionOrder.add(newEntry);
+                queueSize.incrementAndGet();
+                return (T) run(newEntry, request);
+            }
+            // another request with the key got in first, look again
+        }
+    }
+
+    /**
+     * @return number of remembered keys
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private Object run(Entry entry, Supplier<?> request) {
+        try {
+            Object result = request.get();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(entry.key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Object await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void evict(Instant now) {
+        int running = 0;
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            boolean isForgotten = !oldest.expiresAt.isAfter(now) || entries.get(oldest.key) != oldest;
+            if (!isForgotten && queueSize.get() < maxEntries) {
+                return;
+            }
+            if (!insertionOrder.remove(oldest)) {
+                // another request evicted it first
+                continue;
+            }
+            if (isForgotten || oldest.result.isDone()) {
+                queueSize.decrementAndGet();
+                entries.remove(oldest.key, oldest);
+            } else {
+                // a retry of a running request has to wait for it, so the entry moves to the tail instead
+                insertionOrder.add(oldest);
+                if (++running >= queueSize.get()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final Instant expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(String key, Instant expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,31 +1,129 @@
 package org.pancakelab.service;
 
+import org.pancakelab.analytics.OrderRate;
+import org.pancakelab.analytics.OrderRateTracker;
+import org.pancakelab.analytics.PancakePopularity;
+import org.pancakelab.analytics.Popularity;
+import org.pancakelab.analytics.RateWindow;
+import org.pancakelab.archive.OrderArchive;
+import org.pancakelab.inventory.IngredientInventory;
+import org.pancakelab.inventory.exception.OutOfStockException;
+import org.pancakelab.metrics.LatencyHistogram;
+import org.pancakelab.metrics.LatencySummary;
+import org.pancakelab.metrics.MetricsRegistry;
+import org.pancakelab.metrics.OrderTimings;
+import org.pancakelab.model.exception.DomainException;
 import org.pancakelab.model.order.Address;
 import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderDraft;
+import org.pancakelab.model.order.OrderProcessingState;
 import org.pancakelab.model.order.exception.InvalidAddressException;
 import org.pancakelab.model.pancake.exception.NoSuchPancakeException;
 import org.pancakelab.model.order.exception.OrderStateException;
 import org.pancakelab.model.pancake.Ingredient;
 import org.pancakelab.model.pancake.Pancake;
 import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.model.pancake.RecipeRules;
+import org.pancakelab.model.pancake.exception.InvalidRecipeException;
 import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.service.delivery.DeliveryRoute;
+import org.pancakelab.service.delivery.RoutePlanner;
+import org.pancakelab.service.exception.AdmissionRejectedException;
+import org.pancakelab.trace.TraceEvent;
+import org.pancakelab.trace.TraceOperation;
+import org.pancakelab.trace.TraceRecorder;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service class for managing pancake orders.
  */
-public class PancakeService {
+public class PancakeService implements AutoCloseable {
+
+    private static final NoSuchPancakeException NO_SUCH_PANCAKE =
+            new NoSuchPancakeException("Sorry, there is no such pancake in menu", false);
+    private static final LatencySummary NO_TIMINGS = new LatencyHistogram().summarize();
 
     private final OrderRepository orderRepository;
     private final PancakeMenu pancakeMenu;
+    private final OrderArchive orderArchive;
+    private final Clock clock;
+    private final RoutePlanner routePlanner;
+    private final IngredientInventory ingredientInventory;
+    private final RecipeRules recipeRules;
+    private final IdempotencyCache idempotencyCache;
+    private final AdmissionControl admissionControl;
+    private final OrderTimings orderTimings;
+    private final MetricsRegistry metricsRegistry;
+    private final ServiceMetrics metrics;
+    private final TraceRecorder traceRecorder;
+    private final PancakePopularity pancakePopularity;
+    private final OrderRateTracker orderRateTracker;
 
     public PancakeService(OrderRepository orderRepository, PancakeMenu pancakeMenu) {
-        this.orderRepository = orderRepository;
-        this.pancakeMenu = pancakeMenu;
+        this(builder(orderRepository, pancakeMenu));
+    }
+
+    /**
+     * @param orderRepository repository of orders which are not finished yet
+     * @param pancakeMenu     menu to take pancakes from
+     * @param orderArchive    archive receiving delivered and cancelled orders once they leave the repository
+     */
+    public PancakeService(OrderRepository orderRepository, PancakeMenu pancakeMenu, OrderArchive orderArchive) {
+        this(builder(orderRepository, pancakeMenu).withOrderArchive(orderArchive));
+    }
+
+    private PancakeService(Builder builder) {
+        this.orderRepository = builder.orderRepository;
+        this.pancakeMenu = builder.pancakeMenu;
+        this.orderArchive = builder.orderArchive;
+        this.clock = builder.clock;
+        this.routePlanner = builder.routePlanner;
+        this.ingredientInventory = builder.ingredientInventory;
+        this.recipeRules = builder.recipeRules;
+        this.idempotencyCache = builder.idempotencyCache != null
+                ? builder.idempotencyCache
+                : new IdempotencyCache(IdempotencyCache.DEFAULT_MAX_ENTRIES, IdempotencyCache.DEFAULT_TIME_TO_LIVE, clock);
+        this.admissionControl = builder.admissionControl;
+        this.orderTimings = !builder.isTimingOrders ? null
+                : builder.orderTimings != null ? builder.orderTimings
+                : new OrderTimings(orderRepository);
+        this.metricsRegistry = builder.metricsRegistry != null
+                ? builder.metricsRegistry
+                : new MetricsRegistry("pancake-service");
+        this.metrics = new ServiceMetrics(metricsRegistry, orderRepository);
+        this.traceRecorder = builder.traceRecorder;
+        this.pancakePopularity = builder.pancakePopularity != null
+                ? builder.pancakePopularity
+                : new PancakePopularity(clock);
+        this.orderRateTracker = builder.orderRateTracker != null
+                ? builder.orderRateTracker
+                : new OrderRateTracker(clock);
+    }
+
+    /**
+     * Starts building a service with optional collaborators. Collaborators which are not configured
+     * fall back to the same defaults as {@link #PancakeService(OrderRepository, PancakeMenu)}.
+     *
+     * @param orderRepository repository of orders which are not finished yet
+     * @param pancakeMenu     menu to take pancakes from
+     * @return a new builder
+     */
+    public static Builder builder(OrderRepository orderRepository, PancakeMenu pancakeMenu) {
+        return new Builder(orderRepository, pancakeMenu);
     }
 
     /**
@@ -34,12 +132,42 @@ public class PancakeService {
      * @param building building number for delivery
      * @param room     room number for delivery
      * @return newly created order
-     * @throws InvalidAddressException if the building or room number is invalid (e.g. less than or equal to 0)
+     * @throws InvalidAddressException    if the building or room number is invalid (e.g. less than or equal to 0)
+     * @throws AdmissionRejectedException if the service is too busy to accept the order
      */
     public Order createOrder(int building, int room) {
-        Order order = new Order(new Address(building, room));
-        orderRepository.saveOrder(order);
-        return order;
+        long start = metrics.createOrder.start();
+        Order createdOrder = null;
+        try {
+            Address address = new Address(building, room);
+            admissionControl.admitNewOrder(address);
+            Order order = new Order(address, clock);
+            orderRepository.saveOrder(order);
+            metrics.ordersCreated.increment();
+            orderRateTracker.recordCreated(address.building());
+            createdOrder = order;
+            return order;
+        } finally {
+            metrics.createOrder.stop(start);
+            traceCreatedOrder(start, createdOrder, building, room);
+        }
+    }
+
+    /**
+     * Creates a new order for the specified location once per idempotency key.
+     * A retry with the same key and address returns the order created by the first request, the same key with
+     * another address creates another order.
+     *
+     * @param idempotencyKey client key of the request, null to create an order unconditionally
+     * @param building       building number for delivery
+     * @param room           room number for delivery
+     * @return newly created order, or the order created earlier with the same key for the same address
+     * @throws InvalidAddressException    if the building or room number is invalid (e.g. less than or equal to 0)
+     * @throws AdmissionRejectedException if the service is too busy to accept the order
+     */
+    public Order createOrder(String idempotencyKey, int building, int room) {
+        return idempotencyCache.execute(requestKey("createOrder:" + building + ":" + room, idempotencyKey),
+                () -> createOrder(building, room));
     }
 
     /**
@@ -48,14 +176,31 @@ public class PancakeService {
      * @param order              order to update
      * @param pancakeDescription description of the pancake to add
      * @param count              number of pancakes to add
-     * @throws NoSuchPancakeException if the pancake description doesn't match any menu item
-     * @throws OrderStateException    if the order is not in a state that allows adding pancakes
+     * @throws NoSuchPancakeException     if the pancake description doesn't match any menu item
+     * @throws OrderStateException        if the order is not in a state that allows adding pancakes
+     * @throws AdmissionRejectedException if the room sends too many requests
      */
     public void addPancakeToOrder(Order order, String pancakeDescription, int count) {
-        Pancake pancakeFromMenu = pancakeMenu.findPancakeByDescription(pancakeDescription)
-                .orElseThrow(() -> new NoSuchPancakeException("Sorry, there is no such pancake in menu"));
+        addMenuPancake(order, pancakeDescription, count).orElseThrow();
+    }
 
-        order.addPancake(pancakeFromMenu, count);
+    /**
+     * Adds pancakes to an order by description from the menu once per idempotency key and order.
+     * A retry with the same key does not add the pancakes again.
+     *
+     * @param idempotencyKey     client key of the request, null to add the pancakes unconditionally
+     * @param order              order to update
+     * @param pancakeDescription description of the pancake to add
+     * @param count              number of pancakes to add
+     * @throws NoSuchPancakeException     if the pancake description doesn't match any menu item
+     * @throws OrderStateException        if the order is not in a state that allows adding pancakes
+     * @throws AdmissionRejectedException if the room sends too many requests
+     */
+    public void addPancakeToOrder(String idempotencyKey, Order order, String pancakeDescription, int count) {
+        idempotencyCache.execute(requestKey("addPancakeToOrder:" + order.getId(), idempotencyKey), () -> {
+            addPancakeToOrder(order, pancakeDescription, count);
+            return order;
+        });
     }
 
     /**
@@ -64,10 +209,41 @@ public class PancakeService {
      * @param order       order to update
      * @param ingredients list of ingredients for the custom pancake
      * @param count       number of pancakes to add
-     * @throws OrderStateException if the order is not in a state that allows adding pancakes
+     * @throws InvalidRecipeException     if the ingredients break one of the recipe rules
+     * @throws OrderStateException        if the order is not in a state that allows adding pancakes
+     * @throws AdmissionRejectedException if the room sends too many requests
      */
     public void addPancakeToOrder(Order order, List<Ingredient> ingredients, int count) {
-        order.addPancake(new Pancake(ingredients), count);
+        long start = metrics.addCustomPancakeToOrder.start();
+        try {
+            admissionControl.admitOrderChange(order.getDeliveryAddress());
+            Pancake pancake = new Pancake(ingredients);
+            recipeRules.validate(pancake.getIngredients());
+            order.addPancake(pancake, count);
+            pancakePopularity.record(order.getDeliveryAddress().building(), pancake, count);
+        } finally {
+            metrics.addCustomPancakeToOrder.stop(start);
+            tracePancake(TraceOperation.ADD_CUSTOM_PANCAKE, start, order, null, ingredients, count);
+        }
+    }
+
+    /**
+     * Adds custom pancakes to an order once per idempotency key and order.
+     * A retry with the same key does not add the pancakes again.
+     *
+     * @param idempotencyKey client key of the request, null to add the pancakes unconditionally
+     * @param order          order to update
+     * @param ingredients    list of ingredients for the custom pancake
+     * @param count          number of pancakes to add
+     * @throws InvalidRecipeException     if the ingredients break one of the recipe rules
+     * @throws OrderStateException        if the order is not in a state that allows adding pancakes
+     * @throws AdmissionRejectedException if the room sends too many requests
+     */
+    public void addPancakeToOrder(String idempotencyKey, Order order, List<Ingredient> ingredients, int count) {
+        idempotencyCache.execute(requestKey("addCustomPancakeToOrder:" + order.getId(), idempotencyKey), () -> {
+            addPancakeToOrder(order, ingredients, count);
+            return order;
+        });
     }
 
     /**
@@ -78,34 +254,214 @@ public class PancakeService {
      * @param count              number of pancakes to remove
      */
     public void removePancakeFromOrder(Order order, String pancakeDescription, int count) {
-        getPancakeFromOrderByDescription(order, pancakeDescription).ifPresent(pancake -> {
-            order.removePancake(pancake, count);
-        });
+        long start = metrics.removePancakeFromOrder.start();
+        try {
+            getPancakeFromOrderByDescription(order, pancakeDescription).ifPresent(pancake -> {
+                order.removePancake(pancake, count);
+            });
+        } finally {
+            metrics.removePancakeFromOrder.stop(start);
+            tracePancake(TraceOperation.REMOVE_PANCAKE, start, order, pancakeDescription, null, count);
+        }
+    }
+
+    /**
+     * Starts a draft of an order for the specified location. The draft is not stored anywhere until it is placed
+     * with {@link #placeOrder(OrderDraft)} or {@link #placeCompletedOrder(OrderDraft)}.
+     *
+     * @param building building number for delivery
+     * @param room     room number for delivery
+     * @return new empty draft, to be edited by the calling thread only
+     * @throws InvalidAddressException if the building or room number is invalid (e.g. less than or equal to 0)
+     */
+    public OrderDraft newOrderDraft(int building, int room) {
+        return new OrderDraft(new Address(building, room));
+    }
+
+    /**
+     * Adds pancakes to a draft by description from the menu.
+     *
+     * @param draft              draft to update
+     * @param pancakeDescription description of the pancake to add
+     * @param count              number of pancakes to add
+     * @throws NoSuchPancakeException if the pancake description doesn't match any menu item
+     */
+    public void addPancakeToDraft(OrderDraft draft, String pancakeDescription, int count) {
+        Pancake pancakeFromMenu = pancakeMenu.findPancakeByDescription(pancakeDescription)
+                .orElseThrow(() -> NO_SUCH_PANCAKE);
+
+        draft.addPancake(pancakeFromMenu, count);
+    }
+
+    /**
+     * Adds custom pancakes to a draft based on provided ingredients.
+     *
+     * @param draft       draft to update
+     * @param ingredients list of ingredients for the custom pancake
+     * @param count       number of pancakes to add
+     * @throws InvalidRecipeException if the ingredients break one of the recipe rules
+     */
+    public void addPancakeToDraft(OrderDraft draft, List<Ingredient> ingredients, int count) {
+        Pancake pancake = new Pancake(ingredients);
+        recipeRules.validate(pancake.getIngredients());
+        draft.addPancake(pancake, count);
+    }
+
+    /**
+     * Removes pancakes from a draft by description.
+     *
+     * @param draft              draft to update
+     * @param pancakeDescription description of the pancake to remove
+     * @param count              number of pancakes to remove
+     */
+    public void removePancakeFromDraft(OrderDraft draft, String pancakeDescription, int count) {
+        for (Pancake pancake : draft.getPancakes().keySet()) {
+            if (pancakeDescription.equals(pancake.getDescription())) {
+                draft.removePancake(pancake, count);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Places a new order with the pancakes of a draft, which can still be changed before it is completed.
+     *
+     * @param draft draft to commit
+     * @return newly created order
+     * @throws AdmissionRejectedException if the service is too busy to accept the order
+     */
+    public Order placeOrder(OrderDraft draft) {
+        long start = metrics.placeOrder.start();
+        Order placedOrder = null;
+        try {
+            admissionControl.admitNewOrder(draft.getDeliveryAddress());
+            Order order = draft.commit(clock);
+            orderRepository.saveOrder(order);
+            metrics.ordersCreated.increment();
+            orderRateTracker.recordCreated(order.getDeliveryAddress().building());
+            placedOrder = order;
+            return order;
+        } finally {
+            metrics.placeOrder.stop(start);
+            tracePlacedOrder(TraceOperation.PLACE_ORDER, start, placedOrder, draft);
+        }
     }
 
     /**
-     * Cancels an order.
+     * Places a completed order with the pancakes of a draft and reserves their ingredients. The order goes to the
+     * kitchen right away, with a single repository update instead of one per change.
+     *
+     * @param draft draft to commit
+     * @return newly created completed order
+     * @throws OrderStateException        if the draft has no pancakes
+     * @throws OutOfStockException        if there are not enough ingredients for the order, nothing is placed then
+     * @throws AdmissionRejectedException if the service is too busy to accept the order
+     */
+    public Order placeCompletedOrder(OrderDraft draft) {
+        long start = metrics.placeCompletedOrder.start();
+        Order placedOrder = null;
+        try {
+            admissionControl.admitNewOrder(draft.getDeliveryAddress());
+            Order order = draft.commitCompleted(clock);
+            ingredientInventory.reserve(order);
+            orderRepository.saveOrder(order);
+            metrics.ordersCreated.increment();
+            orderRateTracker.recordCreated(order.getDeliveryAddress().building());
+            orderRateTracker.recordCompleted(order.getDeliveryAddress().building());
+            placedOrder = order;
+            return order;
+        } finally {
+            metrics.placeCompletedOrder.stop(start);
+            tracePlacedOrder(TraceOperation.PLACE_COMPLETED_ORDER, start, placedOrder, draft);
+        }
+    }
+
+    /**
+     * Cancels an order, releases its ingredients and moves it from the repository to the archive.
      *
      * @param order order to cancel
      * @throws OrderStateException if the order cannot be cancelled in its current state
      */
     public void cancelOrder(Order order) {
-        order.markCancelled();
-        orderRepository.removeOrder(order);
+        long start = metrics.cancelOrder.start();
+        try {
+            order.markCancelled();
+            ingredientInventory.release(order);
+            orderRepository.removeOrder(order);
+            orderArchive.archive(order);
+            metrics.ordersCancelled.increment();
+        } finally {
+            metrics.cancelOrder.stop(start);
+            trace(TraceOperation.CANCEL_ORDER, start, order);
+        }
     }
 
     /**
-     * Completes an order.
+     * Completes an order and reserves the ingredients of its pancakes.
+     * The ingredients are reserved as part of the transition under the order's lock, so the reservation matches
+     * the pancakes the order is completed with, and completing an order again reserves nothing.
      *
      * @param order order to be marked as completed
+     * @throws OutOfStockException if there are not enough ingredients for the order, the order stays as it is
      * @throws OrderStateException if the order cannot be completed in its current state
      */
     public void completeOrder(Order order) {
-        order.markCompleted();
+        long start = metrics.completeOrder.start();
+        try {
+            order.markCompleted(ingredientInventory::reserve);
+            orderRateTracker.recordCompleted(order.getDeliveryAddress().building());
+        } finally {
+            metrics.completeOrder.stop(start);
+            trace(TraceOperation.COMPLETE_ORDER, start, order);
+        }
     }
 
+    /**
+     * Retrieves all orders that have been completed and are waiting to be prepared.
+     *
+     * @return list of completed orders, oldest first
+     */
     public List<Order> getCompletedOrders() {
-        return orderRepository.findCompletedOrders();
+        long start = metrics.getCompletedOrders.start();
+        try {
+            return orderRepository.findCompletedOrders();
+        } finally {
+            metrics.getCompletedOrders.stop(start);
+            traceQuery(TraceOperation.GET_COMPLETED_ORDERS, start, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Retrieves the completed orders which have been waiting to be prepared for the longest time.
+     *
+     * @param limit maximum number of orders to return
+     * @return list of completed orders, oldest first
+     */
+    public List<Order> getOldestCompletedOrders(int limit) {
+        long start = metrics.getOldestCompletedOrders.start();
+        try {
+            return orderRepository.findOldestCompletedOrders(limit);
+        } finally {
+            metrics.getOldestCompletedOrders.stop(start);
+            traceQuery(TraceOperation.GET_OLDEST_COMPLETED_ORDERS, start, 0, 0, limit);
+        }
+    }
+
+    /**
+     * Retrieves the completed orders which were completed before the given time,
+     * e.g. the orders which are about to miss their preparation deadline.
+     *
+     * @param time completion time limit, exclusive
+     * @return list of completed orders, oldest first
+     */
+    public List<Order> getCompletedOrdersBefore(Instant time) {
+        long start = metrics.getCompletedOrdersBefore.start();
+        try {
+            return orderRepository.findCompletedOrdersBefore(time);
+        } finally {
+            metrics.getCompletedOrdersBefore.stop(start);
+            traceAgeQuery(TraceOperation.GET_COMPLETED_ORDERS_BEFORE, start, time);
+        }
     }
 
     /**
@@ -115,27 +471,368 @@ public class PancakeService {
      * @throws OrderStateException if the order cannot be prepared in its current state
      */
     public void prepareOrder(Order order) {
-        order.markPrepared();
+        long start = metrics.prepareOrder.start();
+        try {
+            order.markPrepared();
+        } finally {
+            metrics.prepareOrder.stop(start);
+            trace(TraceOperation.PREPARE_ORDER, start, order);
+        }
     }
 
     /**
-     * Delivers an order.
+     * Delivers an order and moves it from the repository to the archive.
      *
      * @param order order to be marked as delivered
      * @throws OrderStateException if the order cannot be delivered in its current state
      */
     public void deliverOrder(Order order) {
-        order.markDelivered();
-        orderRepository.removeOrder(order);
+        long start = metrics.deliverOrder.start();
+        try {
+            order.markDelivered();
+            ingredientInventory.consume(order);
+            orderRepository.removeOrder(order);
+            orderArchive.archive(order);
+            metrics.ordersDelivered.increment();
+        } finally {
+            metrics.deliverOrder.stop(start);
+            trace(TraceOperation.DELIVER_ORDER, start, order);
+        }
+    }
+
+    /**
+     * Delivers a batch of orders and moves them from the repository to the archive in a single repository operation.
+     * Orders are delivered in the given order; if one of them cannot be delivered, the orders delivered before it
+     * still leave the repository and the rest of the batch stays untouched.
+     *
+     * @param orders orders to be marked as delivered, e.g. a batch handed out by a delivery dispatcher
+     * @throws OrderStateException if one of the orders cannot be delivered in its current state
+     */
+    public void deliverBatch(List<Order> orders) {
+        long start = metrics.deliverBatch.start();
+        List<Order> deliveredOrders = new ArrayList<>(orders.size());
+        try {
+            for (Order order : orders) {
+                order.markDelivered();
+                deliveredOrders.add(order);
+            }
+        } finally {
+            finishDeliveries(deliveredOrders, start);
+            metrics.deliverBatch.stop(start);
+        }
+    }
+
+    /**
+     * Prepares a batch of orders, e.g. the orders a chef has just cooked. Every order is prepared on its own,
+     * an order which cannot be prepared does not stop the rest of the batch.
+     *
+     * @param orderIds IDs of the orders to be marked as prepared, a repeated ID is prepared once
+     * @return outcome per order ID, in the order of the given IDs
+     */
+    public Map<UUID, Result<Void>> prepareOrders(Collection<UUID> orderIds) {
+        long start = metrics.prepareOrders.start();
+        try {
+            Map<UUID, Result<Void>> results = new LinkedHashMap<>(orderIds.size() * 2);
+            for (UUID orderId : new LinkedHashSet<>(orderIds)) {
+                Optional<Order> order = orderRepository.findOrderById(orderId);
+                results.put(orderId, order.isEmpty() ? noSuchOrder(orderId) : tryPrepareOrder(order.get()));
+            }
+            return results;
+        } finally {
+            metrics.prepareOrders.stop(start);
+        }
+    }
+
+    /**
+     * Delivers a batch of orders and moves the delivered ones from the repository to the archive in a single
+     * repository operation. Every order is delivered on its own, an order which cannot be delivered does not stop
+     * the rest of the batch and stays in the repository.
+     *
+     * @param orderIds IDs of the orders to be marked as delivered, a repeated ID is delivered once
+     * @return outcome per order ID, in the order of the given IDs
+     */
+    public Map<UUID, Result<Void>> deliverOrders(Collection<UUID> orderIds) {
+        long start = metrics.deliverOrders.start();
+        Map<UUID, Result<Void>> results = new LinkedHashMap<>(orderIds.size() * 2);
+        List<Order> deliveredOrders = new ArrayList<>(orderIds.size());
+        try {
+            for (UUID orderId : new LinkedHashSet<>(orderIds)) {
+                Optional<Order> order = orderRepository.findOrderById(orderId);
+                if (order.isEmpty()) {
+                    results.put(orderId, noSuchOrder(orderId));
+                    continue;
+                }
+                try {
+                    order.get().markDelivered();
+                    deliveredOrders.add(order.get());
+                    results.put(orderId, Result.ok());
+                } catch (DomainException e) {
+                    results.put(orderId, Result.failure(e));
+                }
+            }
+        } finally {
+            finishDeliveries(deliveredOrders, start);
+            metrics.deliverOrders.stop(start);
+        }
+        return results;
+    }
+
+    /**
+     * Moves delivered orders from the repository to the archive in a single repository operation.
+     */
+    private void finishDeliveries(List<Order> deliveredOrders, long start) {
+        deliveredOrders.forEach(ingredientInventory::consume);
+        orderRepository.removeOrders(deliveredOrders);
+        deliveredOrders.forEach(orderArchive::archive);
+        metrics.ordersDelivered.add(deliveredOrders.size());
+        for (Order order : deliveredOrders) {
+            trace(TraceOperation.DELIVER_ORDER, start, order);
+        }
+    }
+
+    /**
+     * Plans the order in which a courier visits the delivery addresses of the given orders.
+     *
+     * @param orders orders the courier has picked up, e.g. a delivery batch
+     * @return route starting and ending at the kitchen with one stop per delivery address
+     * @throws IllegalArgumentException if the distance to one of the delivery addresses is not known
+     */
+    public DeliveryRoute planDeliveryRoute(Collection<Order> orders) {
+        return routePlanner.plan(orders);
     }
 
     /**
      * Retrieves all orders that have been prepared and are ready for delivery.
      *
-     * @return list of prepared orders
+     * @return list of prepared orders, oldest completion first
      */
     public List<Order> getPreparedOrders() {
-        return orderRepository.findPreparedOrders();
+        long start = metrics.getPreparedOrders.start();
+        try {
+            return orderRepository.findPreparedOrders();
+        } finally {
+            metrics.getPreparedOrders.stop(start);
+            traceQuery(TraceOperation.GET_PREPARED_ORDERS, start, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Retrieves the prepared orders which have been waiting for the longest time since their completion.
+     *
+     * @param limit maximum number of orders to return
+     * @return list of prepared orders, oldest completion first
+     */
+    public List<Order> getOldestPreparedOrders(int limit) {
+        long start = metrics.getOldestPreparedOrders.start();
+        try {
+            return orderRepository.findOldestPreparedOrders(limit);
+        } finally {
+            metrics.getOldestPreparedOrders.stop(start);
+            traceQuery(TraceOperation.GET_OLDEST_PREPARED_ORDERS, start, 0, 0, limit);
+        }
+    }
+
+    /**
+     * Retrieves all open orders of a room.
+     *
+     * @param building building number of the delivery address
+     * @param room     room number of the delivery address
+     * @return list of orders for the room
+     * @throws InvalidAddressException if the building or room number is invalid (e.g. less than or equal to 0)
+     */
+    public List<Order> getOrdersForRoom(int building, int room) {
+        long start = metrics.getOrdersForRoom.start();
+        try {
+            return orderRepository.findOrdersByAddress(new Address(building, room));
+        } finally {
+            metrics.getOrdersForRoom.stop(start);
+            traceQuery(TraceOperation.GET_ORDERS_FOR_ROOM, start, building, room, 0);
+        }
+    }
+
+    /**
+     * Retrieves all open orders of a building.
+     *
+     * @param building building number of the delivery address
+     * @return list of orders for the building sorted by room
+     */
+    public List<Order> getOrdersForBuilding(int building) {
+        long start = metrics.getOrdersForBuilding.start();
+        try {
+            return orderRepository.findOrdersByBuildings(building, building);
+        } finally {
+            metrics.getOrdersForBuilding.stop(start);
+            traceQuery(TraceOperation.GET_ORDERS_FOR_BUILDING, start, building, 0, 0);
+        }
+    }
+
+    /**
+     * Retrieves all open orders with every one of the given ingredients, e.g. the orders which may contain
+     * a mix-up of two ingredients. Uses an index of ingredients instead of looking at the pancakes of every order.
+     *
+     * @param ingredients ingredients the orders must contain
+     * @return list of matching orders in no particular order
+     */
+    public List<Order> getOrdersContainingAll(Set<Ingredient> ingredients) {
+        long start = metrics.getOrdersContainingAll.start();
+        try {
+            return orderRepository.findOrdersContainingAll(ingredients);
+        } finally {
+            metrics.getOrdersContainingAll.stop(start);
+            traceIngredientQuery(TraceOperation.GET_ORDERS_CONTAINING_ALL, start, ingredients);
+        }
+    }
+
+    /**
+     * Retrieves all open orders with at least one of the given ingredients, e.g. the orders affected by a recalled
+     * batch of hazelnuts. Uses an index of ingredients instead of looking at the pancakes of every order.
+     *
+     * @param ingredients ingredients the orders may contain
+     * @return list of matching orders in no particular order
+     */
+    public List<Order> getOrdersContainingAny(Set<Ingredient> ingredients) {
+        long start = metrics.getOrdersContainingAny.start();
+        try {
+            return orderRepository.findOrdersContainingAny(ingredients);
+        } finally {
+            metrics.getOrdersContainingAny.stop(start);
+            traceIngredientQuery(TraceOperation.GET_ORDERS_CONTAINING_ANY, start, ingredients);
+        }
+    }
+
+    /**
+     * Returns the number of orders in every processing state right now.
+     * Takes constant time regardless of the number of orders.
+     *
+     * @return map of processing states to the number of orders in that state
+     */
+    public Map<OrderProcessingState, Long> getOrderCounts() {
+        Map<OrderProcessingState, Long> orderCounts = new EnumMap<>(OrderProcessingState.class);
+        for (OrderProcessingState state : OrderProcessingState.values()) {
+            orderCounts.put(state, orderRepository.countOrders(state));
+        }
+        return orderCounts;
+    }
+
+    /**
+     * Returns the number of orders for a building in every processing state right now.
+     * Takes constant time regardless of the number of orders.
+     *
+     * @param building building number of the delivery address
+     * @return map of processing states to the number of orders for the building in that state
+     */
+    public Map<OrderProcessingState, Long> getOrderCounts(int building) {
+        Map<OrderProcessingState, Long> orderCounts = new EnumMap<>(OrderProcessingState.class);
+        for (OrderProcessingState state : OrderProcessingState.values()) {
+            orderCounts.put(state, orderRepository.countOrders(building, state));
+        }
+        return orderCounts;
+    }
+
+    /**
+     * Retrieves the time orders spent in a processing state before moving on, e.g. how long completed orders
+     * wait for a chef.
+     *
+     * @param state the processing state
+     * @return median, 99th and 99.9th percentile of the time spent in the state, no orders if the service was built
+     * {@link Builder#withoutOrderTimings() without order timings}
+     */
+    public LatencySummary getDwellTime(OrderProcessingState state) {
+        return orderTimings == null ? NO_TIMINGS : orderTimings.getDwellTime(state);
+    }
+
+    /**
+     * Retrieves the time from creating an order to delivering it.
+     *
+     * @return median, 99th and 99.9th percentile of the lead time of delivered orders, no orders if the service was
+     * built {@link Builder#withoutOrderTimings() without order timings}
+     */
+    public LatencySummary getLeadTime() {
+        return orderTimings == null ? NO_TIMINGS : orderTimings.getLeadTime();
+    }
+
+    /**
+     * Retrieves the number of orders of a building created and completed within a recent window, e.g. the orders
+     * per minute during the last 5 minutes. Takes constant time regardless of the number of orders.
+     *
+     * @param building building number of the delivery address
+     * @param window   the window to count orders in
+     * @return orders created and completed within the window
+     */
+    public OrderRate getOrderRate(int building, RateWindow window) {
+        return orderRateTracker.getRate(building, window);
+    }
+
+    /**
+     * Retrieves the number of orders created and completed within a recent window for every building.
+     *
+     * @param window the window to count orders in
+     * @return orders created and completed within the window by building number
+     */
+    public Map<Integer, OrderRate> getOrderRates(RateWindow window) {
+        return orderRateTracker.getRates(window);
+    }
+
+    /**
+     * Retrieves the pancakes added to orders most often recently, e.g. custom pancakes worth adding to the menu.
+     *
+     * @param limit maximum number of pancakes to return
+     * @return pancakes with their estimated recent counts, most popular first
+     */
+    public List<Popularity<Pancake>> getPopularPancakes(int limit) {
+        return pancakePopularity.getTopPancakes(limit);
+    }
+
+    /**
+     * Retrieves the pancakes added to orders of a building most often recently.
+     *
+     * @param building building number of the delivery address
+     * @param limit    maximum number of pancakes to return
+     * @return pancakes with their estimated recent counts, most popular first
+     */
+    public List<Popularity<Pancake>> getPopularPancakes(int building, int limit) {
+        return pancakePopularity.getTopPancakes(building, limit);
+    }
+
+    /**
+     * Retrieves the ingredients of the pancakes added to orders most often recently.
+     *
+     * @param limit maximum number of ingredients to return
+     * @return ingredients with their estimated recent counts, most popular first
+     */
+    public List<Popularity<Ingredient>> getPopularIngredients(int limit) {
+        return pancakePopularity.getTopIngredients(limit);
+    }
+
+    /**
+     * Retrieves the ingredients of the pancakes added to orders of a building most often recently.
+     *
+     * @param building building number of the delivery address
+     * @param limit    maximum number of ingredients to return
+     * @return ingredients with their estimated recent counts, most popular first
+     */
+    public List<Popularity<Ingredient>> getPopularIngredients(int building, int limit) {
+        return pancakePopularity.getTopIngredients(building, limit);
+    }
+
+    /**
+     * Returns the metrics of this service: a timer per service method, counters of created, cancelled and delivered
+     * orders and gauges of the number of stored orders and of the time spent waiting for order locks.
+     * Call {@link MetricsRegistry#registerMBeans()} to read them with JMX tooling.
+     *
+     * @return registry of the service metrics
+     */
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Writes the delivered and cancelled orders the archive still buffers, so they are not lost when the process
+     * exits. Call it when shutting the service down. Collaborators given to the builder are not closed.
+     */
+    @Override
+    public void close() {
+        orderArchive.flush();
     }
 
     /**
@@ -154,6 +851,212 @@ public class PancakeService {
         return descriptionToReturn;
     }
 
+    /**
+     * Same as {@link #createOrder(int, int)}, but reports a failure as a result instead of an exception.
+     *
+     * @param building building number for delivery
+     * @param room     room number for delivery
+     * @return result with the newly created order
+     */
+    public Result<Order> tryCreateOrder(int building, int room) {
+        try {
+            return Result.ok(createOrder(building, room));
+        } catch (DomainException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Same as {@link #addPancakeToOrder(Order, String, int)}, but reports a failure as a result instead of an
+     * exception. A pancake missing from the menu is reported without throwing at all.
+     *
+     * @param order              order to update
+     * @param pancakeDescription description of the pancake to add
+     * @param count              number of pancakes to add
+     * @return result of the request
+     */
+    public Result<Void> tryAddPancakeToOrder(Order order, String pancakeDescription, int count) {
+        return addMenuPancake(order, pancakeDescription, count);
+    }
+
+    /**
+     * Shared by {@link #addPancakeToOrder(Order, String, int)} and {@link #tryAddPancakeToOrder(Order, String, int)},
+     * so a pancake missing from the menu costs no exception on the result-based path.
+     */
+    private Result<Void> addMenuPancake(Order order, String pancakeDescription, int count) {
+        long start = metrics.addPancakeToOrder.start();
+        try {
+            admissionControl.admitOrderChange(order.getDeliveryAddress());
+            Optional<Pancake> pancakeFromMenu = pancakeMenu.findPancakeByDescription(pancakeDescription);
+            if (pancakeFromMenu.isEmpty()) {
+                return Result.failure(NO_SUCH_PANCAKE);
+            }
+            order.addPancake(pancakeFromMenu.get(), count);
+            pancakePopularity.record(order.getDeliveryAddress().building(), pancakeFromMenu.get(), count);
+            return Result.ok();
+        } catch (DomainException e) {
+            return Result.failure(e);
+        } finally {
+            metrics.addPancakeToOrder.stop(start);
+            tracePancake(TraceOperation.ADD_PANCAKE, start, order, pancakeDescription, null, count);
+        }
+    }
+
+    /**
+     * Same as {@link #addPancakeToOrder(Order, List, int)}, but reports a failure as a result instead of an exception.
+     *
+     * @param order       order to update
+     * @param ingredients list of ingredients for the custom pancake
+     * @param count       number of pancakes to add
+     * @return result of the request
+     */
+    public Result<Void> tryAddPancakeToOrder(Order order, List<Ingredient> ingredients, int count) {
+        try {
+            addPancakeToOrder(order, ingredients, count);
+            return Result.ok();
+        } catch (DomainException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Same as {@link #removePancakeFromOrder(Order, String, int)}, but reports a failure as a result instead of an
+     * exception.
+     *
+     * @param order              order to update
+     * @param pancakeDescription description of the pancake to remove
+     * @param count              number of pancakes to remove
+     * @return result of the request
+     */
+    public Result<Void> tryRemovePancakeFromOrder(Order order, String pancakeDescription, int count) {
+        try {
+            removePancakeFromOrder(order, pancakeDescription, count);
+            return Result.ok();
+        } catch (DomainException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Same as {@link #cancelOrder(Order)}, but reports a failure as a result instead of an exception.
+     *
+     * @param order order to cancel
+     * @return result of the request
+     */
+    public Result<Void> tryCancelOrder(Order order) {
+        try {
+            cancelOrder(order);
+            return Result.ok();
+        } catch (DomainException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Same as {@link #completeOrder(Order)}, but reports a failure as a result instead of an exception.
+     *
+     * @param order order to be marked as completed
+     * @return result of the request
+     */
+    public Result<Void> tryCompleteOrder(Order order) {
+        try {
+            completeOrder(order);
+            return Result.ok();
+        } catch (DomainException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Same as {@link #prepareOrder(Order)}, but reports a failure as a result instead of an exception.
+     *
+     * @param order order to be marked as prepared
+     * @return result of the request
+     */
+    public Result<Void> tryPrepareOrder(Order order) {
+        try {
+            prepareOrder(order);
+            return Result.ok();
+        } catch (DomainException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Same as {@link #deliverOrder(Order)}, but reports a failure as a result instead of an exception.
+     *
+     * @param order order to be marked as delivered
+     * @return result of the request
+     */
+    public Result<Void> tryDeliverOrder(Order order) {
+        try {
+            deliverOrder(order);
+            return Result.ok();
+        } catch (DomainException e) {
+            return Result.failure(e);
+        }
+    }
+
+    // requests of different operations never share a key
+    private static String requestKey(String operation, String idempotencyKey) {
+        return idempotencyKey == null ? null : operation + ":" + idempotencyKey;
+    }
+
+    // events are built only while recording, a call with a missing order has failed before doing anything
+    private void trace(TraceOperation operation, long start, Order order) {
+        if (traceRecorder.isEnabled() && order != null) {
+            traceRecorder.record(TraceEvent.ofOrder(operation, start, order));
+        }
+    }
+
+    private void tracePancake(TraceOperation operation, long start, Order order, String pancakeDescription,
+                              List<Ingredient> ingredients, int count) {
+        if (traceRecorder.isEnabled() && order != null) {
+            traceRecorder.record(TraceEvent.ofPancake(operation, start, order, pancakeDescription, ingredients, count));
+        }
+    }
+
+    // a call which failed to create its order is recorded without an order ID, so a replay makes it as well
+    private void traceCreatedOrder(long start, Order order, int building, int room) {
+        if (traceRecorder.isEnabled()) {
+            traceRecorder.record(order != null
+                    ? TraceEvent.ofOrder(TraceOperation.CREATE_ORDER, start, order)
+                    : TraceEvent.ofFailedOrder(TraceOperation.CREATE_ORDER, start, building, room));
+        }
+    }
+
+    private void tracePlacedOrder(TraceOperation operation, long start, Order order, OrderDraft draft) {
+        if (traceRecorder.isEnabled() && draft != null) {
+            traceRecorder.record(order != null
+                    ? TraceEvent.ofPlacedOrder(operation, start, order)
+                    : TraceEvent.ofFailedDraft(operation, start, draft));
+        }
+    }
+
+    private void traceQuery(TraceOperation operation, long start, int building, int room, int limit) {
+        if (traceRecorder.isEnabled()) {
+            traceRecorder.record(TraceEvent.ofQuery(operation, start, building, room, limit));
+        }
+    }
+
+    private void traceIngredientQuery(TraceOperation operation, long start, Set<Ingredient> ingredients) {
+        if (traceRecorder.isEnabled()) {
+            traceRecorder.record(TraceEvent.ofIngredientQuery(operation, start, ingredients));
+        }
+    }
+
+    // the age is recorded instead of the time, which would not match any order of a later replay
+    private void traceAgeQuery(TraceOperation operation, long start, Instant time) {
+        if (traceRecorder.isEnabled()) {
+            traceRecorder.record(TraceEvent.ofAgeQuery(operation, start,
+                    time == null ? null : Duration.between(time, clock.instant())));
+        }
+    }
+
+    private static Result<Void> noSuchOrder(UUID orderId) {
+        return Result.failure(Result.Status.NO_SUCH_ORDER, "Order " + orderId + " does not exist or has been finished");
+    }
+
     private Optional<Pancake> getPancakeFromOrderByDescription(Order order, String pancakeDescription) {
         return order.getPancakes()
                 .keySet()
@@ -161,4 +1064,204 @@ public class PancakeService {
                 .filter(pancake -> pancakeDescription.equals(pancake.getDescription()))
                 .findFirst();
     }
+
+    /**
+     * Builder of {@link PancakeService} instances.
+     */
+    public static final class Builder {
+
+        private final OrderRepository orderRepository;
+        private final PancakeMenu pancakeMenu;
+        private OrderArchive orderArchive = OrderArchive.discarding();
+        private Clock clock = Clock.systemUTC();
+        private RoutePlanner routePlanner = new RoutePlanner();
+        private IngredientInventory ingredientInventory = IngredientInventory.unlimited();
+        private RecipeRules recipeRules = RecipeRules.none();
+        private IdempotencyCache idempotencyCache;
+        private AdmissionControl admissionControl = AdmissionControl.unlimited();
+        private MetricsRegistry metricsRegistry;
+        private TraceRecorder traceRecorder = TraceRecorder.disabled();
+        private PancakePopularity pancakePopularity;
+        private OrderRateTracker orderRateTracker;
+        private OrderTimings orderTimings;
+        private boolean isTimingOrders = true;
+
+        private Builder(OrderRepository orderRepository, PancakeMenu pancakeMenu) {
+            if (orderRepository == null) {
+                throw new IllegalArgumentException("Order repository cannot be null");
+            }
+            if (pancakeMenu == null) {
+                throw new IllegalArgumentException("Pancake menu cannot be null");
+            }
+            this.orderRepository = orderRepository;
+            this.pancakeMenu = pancakeMenu;
+        }
+
+        /**
+         * @param orderArchive archive receiving delivered and cancelled orders, discarding by default
+         * @return this builder
+         */
+        public Builder withOrderArchive(OrderArchive orderArchive) {
+            if (orderArchive == null) {
+                throw new IllegalArgumentException("Order archive cannot be null");
+            }
+            this.orderArchive = orderArchive;
+            return this;
+        }
+
+        /**
+         * @param clock clock used to timestamp orders, the system UTC clock by default
+         * @return this builder
+         */
+        public Builder withClock(Clock clock) {
+            if (clock == null) {
+                throw new IllegalArgumentException("Clock cannot be null");
+            }
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * @param routePlanner planner of delivery routes, planning for buildings standing in a row by default
+         * @return this builder
+         */
+        public Builder withRoutePlanner(RoutePlanner routePlanner) {
+            if (routePlanner == null) {
+                throw new IllegalArgumentException("Route planner cannot be null");
+            }
+            this.routePlanner = routePlanner;
+            return this;
+        }
+
+        /**
+         * @param ingredientInventory stock of ingredients reserved by completed orders, unlimited by default
+         * @return this builder
+         */
+        public Builder withIngredientInventory(IngredientInventory ingredientInventory) {
+            if (ingredientInventory == null) {
+                throw new IllegalArgumentException("Ingredient inventory cannot be null");
+            }
+            this.ingredientInventory = ingredientInventory;
+            return this;
+        }
+
+        /**
+         * @param recipeRules rules custom pancakes have to follow, any combination is allowed by default
+         * @return this builder
+         */
+        public Builder withRecipeRules(RecipeRules recipeRules) {
+            if (recipeRules == null) {
+                throw new IllegalArgumentException("Recipe rules cannot be null");
+            }
+            this.recipeRules = recipeRules;
+            return this;
+        }
+
+        /**
+         * @param idempotencyCache cache of requests with idempotency keys, by default it remembers
+         *                         {@value IdempotencyCache#DEFAULT_MAX_ENTRIES} keys for 10 minutes
+         * @return this builder
+         */
+        public Builder withIdempotencyCache(IdempotencyCache idempotencyCache) {
+            if (idempotencyCache == null) {
+                throw new IllegalArgumentException("Idempotency cache cannot be null");
+            }
+            this.idempotencyCache = idempotencyCache;
+            return this;
+        }
+
+        /**
+         * @param admissionControl rate limits and load shedding of incoming requests, accepts everything by default
+         * @return this builder
+         */
+        public Builder withAdmissionControl(AdmissionControl admissionControl) {
+            if (admissionControl == null) {
+                throw new IllegalArgumentException("Admission control cannot be null");
+            }
+            this.admissionControl = admissionControl;
+            return this;
+        }
+
+        /**
+         * @param metricsRegistry registry to record the service metrics to, by default a registry of its own which
+         *                        is not exported over JMX
+         * @return this builder
+         */
+        public Builder withMetricsRegistry(MetricsRegistry metricsRegistry) {
+            if (metricsRegistry == null) {
+                throw new IllegalArgumentException("Metrics registry cannot be null");
+            }
+            this.metricsRegistry = metricsRegistry;
+            return this;
+        }
+
+        /**
+         * @param traceRecorder recorder of the service calls, e.g. a {@link org.pancakelab.trace.FileTraceRecorder}
+         *                      capturing traffic to replay later, disabled by default
+         * @return this builder
+         */
+        public Builder withTraceRecorder(TraceRecorder traceRecorder) {
+            if (traceRecorder == null) {
+                throw new IllegalArgumentException("Trace recorder cannot be null");
+            }
+            this.traceRecorder = traceRecorder;
+            return this;
+        }
+
+        /**
+         * @param pancakePopularity tracker of trending pancakes and ingredients, by default one with a half-life of
+         *                          an hour on the service clock
+         * @return this builder
+         */
+        public Builder withPancakePopularity(PancakePopularity pancakePopularity) {
+            if (pancakePopularity == null) {
+                throw new IllegalArgumentException("Pancake popularity cannot be null");
+            }
+            this.pancakePopularity = pancakePopularity;
+            return this;
+        }
+
+        /**
+         * @param orderRateTracker tracker of the orders created and completed per building, by default one on the
+         *                         service clock
+         * @return this builder
+         */
+        public Builder withOrderRateTracker(OrderRateTracker orderRateTracker) {
+            if (orderRateTracker == null) {
+                throw new IllegalArgumentException("Order rate tracker cannot be null");
+            }
+            this.orderRateTracker = orderRateTracker;
+            return this;
+        }
+
+        /**
+         * @param orderTimings timings of the orders of the service's repository, e.g. shared by several services on
+         *                     the same repository, by default the service subscribes timings of its own
+         * @return this builder
+         */
+        public Builder withOrderTimings(OrderTimings orderTimings) {
+            if (orderTimings == null) {
+                throw new IllegalArgumentException("Order timings cannot be null");
+            }
+            this.orderTimings = orderTimings;
+            this.isTimingOrders = true;
+            return this;
+        }
+
+        /**
+         * Builds a service which does not subscribe to the change stream to time its orders, so state transitions
+         * cost nothing extra; dwell and lead times report no orders then.
+         *
+         * @return this builder
+         */
+        public Builder withoutOrderTimings() {
+            this.orderTimings = null;
+            this.isTimingOrders = false;
+            return this;
+        }
+
+        public PancakeService build() {
+            return new PancakeService(this);
+        }
+    }
 }
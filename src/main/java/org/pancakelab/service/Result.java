@@ -0,0 +1,142 @@
+package org.pancakelab.service;
+
+import org.pancakelab.inventory.exception.OutOfStockException;
+import org.pancakelab.model.exception.DomainException;
+import org.pancakelab.model.order.exception.InvalidAddressException;
+import org.pancakelab.model.order.exception.InvalidQuantityException;
+import org.pancakelab.model.order.exception.OrderStateException;
+import org.pancakelab.model.pancake.exception.InvalidRecipeException;
+import org.pancakelab.model.pancake.exception.NoSuchPancakeException;
+import org.pancakelab.service.exception.AdmissionRejectedException;
+
+/**
+ * Outcome of a request to {@link PancakeService} which reports failures as a status instead of an exception.
+ *
+ * @param <T> type of the value of a successful request
+ */
+public final class Result<T> {
+
+    /**
+     * Outcome status of a request, every failure status corresponds to a domain exception of the throwing API.
+     */
+    public enum Status {
+        OK,
+        NO_SUCH_ORDER,
+        INVALID_ADDRESS,
+        INVALID_QUANTITY,
+        NO_SUCH_PANCAKE,
+        INVALID_RECIPE,
+        INVALID_ORDER_STATE,
+        OUT_OF_STOCK,
+        REJECTED,
+        FAILED
+    }
+
+    private static final Result<?> OK = new Result<>(Status.OK, null, null, null);
+
+    private final Status status;
+    private final T value;
+    private final String message;
+    private final DomainException exception;
+
+    private Result(Status status, T value, String message, DomainException exception) {
+        this.status = status;
+        this.value = value;
+        this.message = message;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the successful result of a request without a value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Result<T> ok() {
+        return (Result<T>) OK;
+    }
+
+    public static <T> Result<T> ok(T value) {
+        return new Result<>(Status.OK, value, null, null);
+    }
+
+    /**
+     * @param exception the failure reported by the throwing API
+     * @return failed result with the status matching the exception and its message
+     */
+    public static <T> Result<T> failure(DomainException exception) {
+        return new Result<>(statusOf(exception), null, exception.getMessage(), exception);
+    }
+
+    /**
+     * @param status  the failure status
+     * @param message the description of the failure
+     * @return failed result of a request which was rejected before reaching the throwing API
+     */
+    static <T> Result<T> failure(Status status, String message) {
+        if (status == Status.OK) {
+            throw new IllegalArgumentException("Failure cannot have status " + status);
+        }
+        return new Result<>(status, null, message, null);
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the value of a successful request, null if the request failed or has no value
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return the description of the failure, null if the request succeeded
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Turns the result back into the outcome of the throwing API.
+     *
+     * @return the value of a successful request
+     * @throws DomainException the exception the failure was reported for
+     */
+    T orElseThrow() {
+        if (isOk()) {
+            return value;
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        throw new IllegalStateException(message);
+    }
+
+    @Override
+    public String toString() {
+        return isOk() ? "Result[" + status + ", " + value + "]" : "Result[" + status + ", " + message + "]";
+    }
+
+    private static Status statusOf(DomainException exception) {
+        if (exception instanceof OrderStateException) {
+            return Status.INVALID_ORDER_STATE;
+        } else if (exception instanceof InvalidQuantityException) {
+            return Status.INVALID_QUANTITY;
+        } else if (exception instanceof NoSuchPancakeException) {
+            return Status.NO_SUCH_PANCAKE;
+        } else if (exception instanceof InvalidAddressException) {
+            return Status.INVALID_ADDRESS;
+        } else if (exception instanceof InvalidRecipeException) {
+            return Status.INVALID_RECIPE;
+        } else if (exception instanceof OutOfStockException) {
+            return Status.OUT_OF_STOCK;
+        } else if (exception instanceof AdmissionRejectedException) {
+            return Status.REJECTED;
+        }
+        return Status.FAILED;
+    }
+}
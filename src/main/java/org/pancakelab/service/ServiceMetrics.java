@@ -0,0 +1,90 @@
+package org.pancakelab.service;
+
+import org.pancakelab.metrics.Counter;
+import org.pancakelab.metrics.MetricsRegistry;
+import org.pancakelab.metrics.Timer;
+import org.pancakelab.model.order.OrderLockContention;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.repository.OrderRepository;
+
+/**
+ * Metrics of a {@link PancakeService}: a timer per service method, counters of finished orders, gauges of the
+ * repository size and of the time spent waiting for order locks.
+ * <br/>
+ * The metrics are looked up once here, so recording them is a direct field access followed by a striped addition.
+ * <br/>
+ * Thread-safe.
+ */
+class ServiceMetrics {
+
+    final Timer createOrder;
+    final Timer addPancakeToOrder;
+    final Timer addCustomPancakeToOrder;
+    final Timer removePancakeFromOrder;
+    final Timer placeOrder;
+    final Timer placeCompletedOrder;
+    final Timer cancelOrder;
+    final Timer completeOrder;
+    final Timer prepareOrder;
+    final Timer prepareOrders;
+    final Timer deliverOrder;
+    final Timer deliverOrders;
+    final Timer deliverBatch;
+
+    final Timer getCompletedOrders;
+    final Timer getOldestCompletedOrders;
+    final Timer getCompletedOrdersBefore;
+    final Timer getPreparedOrders;
+    final Timer getOldestPreparedOrders;
+    final Timer getOrdersForRoom;
+    final Timer getOrdersForBuilding;
+    final Timer getOrdersContainingAll;
+    final Timer getOrdersContainingAny;
+
+    final Counter ordersCreated;
+    final Counter ordersCancelled;
+    final Counter ordersDelivered;
+
+    ServiceMetrics(MetricsRegistry registry, OrderRepository orderRepository) {
+        createOrder = registry.timer("createOrder");
+        addPancakeToOrder = registry.timer("addPancakeToOrder");
+        addCustomPancakeToOrder = registry.timer("addCustomPancakeToOrder");
+        removePancakeFromOrder = registry.timer("removePancakeFromOrder");
+        placeOrder = registry.timer("placeOrder");
+        placeCompletedOrder = registry.timer("placeCompletedOrder");
+        cancelOrder = registry.timer("cancelOrder");
+        completeOrder = registry.timer("completeOrder");
+        prepareOrder = registry.timer("prepareOrder");
+        prepareOrders = registry.timer("prepareOrders");
+        deliverOrder = registry.timer("deliverOrder");
+        deliverOrders = registry.timer("deliverOrders");
+        deliverBatch = registry.timer("deliverBatch");
+
+        getCompletedOrders = registry.timer("getCompletedOrders");
+        getOldestCompletedOrders = registry.timer("getOldestCompletedOrders");
+        getCompletedOrdersBefore = registry.timer("getCompletedOrdersBefore");
+        getPreparedOrders = registry.timer("getPreparedOrders");
+        getOldestPreparedOrders = registry.timer("getOldestPreparedOrders");
+        getOrdersForRoom = registry.timer("getOrdersForRoom");
+        getOrdersForBuilding = registry.timer("getOrdersForBuilding");
+        getOrdersContainingAll = registry.timer("getOrdersContainingAll");
+        getOrdersContainingAny = registry.timer("getOrdersContainingAny");
+
+        ordersCreated = registry.counter("ordersCreated");
+        ordersCancelled = registry.counter("ordersCancelled");
+        ordersDelivered = registry.counter("ordersDelivered");
+
+        registry.gauge("repository.orders", () -> {
+            long orders = 0;
+            for (OrderProcessingState state : OrderProcessingState.values()) {
+                orders += orderRepository.countOrders(state);
+            }
+            return orders;
+        });
+        for (OrderProcessingState state : OrderProcessingState.values()) {
+            registry.gauge("repository.orders." + state, () -> orderRepository.countOrders(state));
+        }
+        registry.gauge("orderLock.contendedAcquisitions", OrderLockContention::getContendedAcquisitions);
+        registry.gauge("orderLock.waitTimeNanos", OrderLockContention::getWaitTimeNanos);
+    }
+}
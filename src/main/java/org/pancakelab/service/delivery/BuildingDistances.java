@@ -0,0 +1,77 @@
+package org.pancakelab.service.delivery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Walking distances between the buildings of the Dojo. Building {@code 0} is the Pancake Lab kitchen where
+ * every delivery route starts and ends.
+ */
+public interface BuildingDistances {
+
+    /**
+     * @param fromBuilding building number to walk from, {@code 0} for the kitchen
+     * @param toBuilding   building number to walk to, {@code 0} for the kitchen
+     * @return the distance between the buildings, {@code 0} for the same building
+     * @throws IllegalArgumentException if the distance between the buildings is not known
+     */
+    int distance(int fromBuilding, int toBuilding);
+
+    /**
+     * @return distances of buildings standing in a row in the order of their numbers, one unit apart,
+     * with the kitchen in front of the first one
+     */
+    static BuildingDistances linear() {
+        return (fromBuilding, toBuilding) -> Math.abs(fromBuilding - toBuilding);
+    }
+
+    /**
+     * @param distances square matrix of distances where row and column {@code i} belong to building {@code i},
+     *                  the kitchen being row and column {@code 0}
+     * @return distances taken from the matrix
+     * @throws IllegalArgumentException if the matrix is not square and symmetric or contains negative distances
+     */
+    static BuildingDistances matrix(int[][] distances) {
+        return new MatrixBuildingDistances(distances);
+    }
+
+    /**
+     * Reads a distance matrix from a local text file: one row per line, distances separated by whitespace.
+     * Empty lines and lines starting with {@code #} are skipped.
+     *
+     * @param path path of the file
+     * @return distances taken from the file
+     * @throws IllegalArgumentException if the file does not contain a valid matrix
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    static BuildingDistances load(Path path) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read building distances from " + path, e);
+        }
+        List<int[]> rows = new ArrayList<>();
+        for (String line : lines) {
+            String row = line.strip();
+            if (row.isEmpty() || row.startsWith("#")) {
+                continue;
+            }
+            String[] values = row.split("\\s+");
+            int[] distances = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                try {
+                    distances[i] = Integer.parseInt(values[i]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid distance '" + values[i] + "' in " + path, e);
+                }
+            }
+            rows.add(distances);
+        }
+        return matrix(rows.toArray(int[][]::new));
+    }
+}
@@ -0,0 +1,18 @@
+package org.pancakelab.service.delivery;
+
+import org.pancakelab.model.order.Order;
+
+import java.util.List;
+
+/**
+ * Prepared orders of a single building which one courier delivers in a single walk.
+ *
+ * @param building building number of the delivery addresses
+ * @param orders   orders of the batch sorted by room
+ */
+public record DeliveryBatch(int building, List<Order> orders) {
+
+    public DeliveryBatch {
+        orders = List.copyOf(orders);
+    }
+}
@@ -0,0 +1,319 @@
+package org.pancakelab.service.delivery;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.event.OrderChangeEvent;
+import org.pancakelab.repository.event.OrderChangeType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Groups prepared orders into delivery batches per building.
+ * <br/>
+ * A building is dispatched as soon as it has {@code maxBatchSize} prepared orders, or once its oldest prepared
+ * order has been waiting for {@code maxWait}, whichever comes first. Buildings are served in the order their
+ * oldest order was prepared.
+ * Orders handed out in a batch are not handed out again while they stay prepared, so every courier gets
+ * its own batch, unless the batch is given back with {@link #returnBatch} or its orders are still not delivered
+ * after {@code dispatchTimeout}.
+ * <br/>
+ * The dispatcher follows the change stream of the repository and keeps the waiting orders of every building
+ * sorted by preparation time, so handing out a batch does not look at the orders of any other building.
+ * <br/>
+ * Thread-safe.
+ */
+public class DeliveryDispatcher implements Flow.Subscriber<List<OrderChangeEvent>> {
+
+    private static final Logger logger = Logger.getLogger(DeliveryDispatcher.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final Duration dispatchTimeout;
+    private final Clock clock;
+    private final Map<Integer, NavigableSet<WaitingOrder>> waitingOrders = new HashMap<>();
+    private final Map<UUID, WaitingOrder> waitingOrdersById = new HashMap<>();
+    private final Map<UUID, Dispatch> dispatchedOrders = new HashMap<>();
+    private final Deque<Dispatch> dispatches = new ArrayDeque<>();
+
+    private final Lock dispatchLock = new ReentrantLock();
+
+    /**
+     * Creates a dispatcher whose batches stay handed out until they are delivered or given back.
+     *
+     * @param orderRepository repository to take prepared orders from
+     * @param maxBatchSize    number of orders which makes a batch full
+     * @param maxWait         time an order may wait for its batch to fill up
+     * @param clock           clock to measure the waiting time with
+     * @throws IllegalArgumentException if the batch size is less than or equal to zero or the wait is negative
+     */
+    public DeliveryDispatcher(OrderRepository orderRepository, int maxBatchSize, Duration maxWait, Clock clock) {
+        this(orderRepository, maxBatchSize, maxWait, null, clock);
+    }
+
+    /**
+     * Creates a dispatcher and subscribes it to the changes of the repository. Orders prepared before are
+     * taken from the repository.
+     *
+     * @param orderRepository repository to take prepared orders from
+     * @param maxBatchSize    number of orders which makes a batch full
+     * @param maxWait         time an order may wait for its batch to fill up
+     * @param dispatchTimeout time after which orders of a batch which are still prepared are handed out again,
+     *                        null to keep them handed out until they are given back
+     * @param clock           clock to measure the waiting time with
+     * @throws IllegalArgumentException if the batch size is less than or equal to zero or one of the durations
+     *                                  is negative
+     */
+    public DeliveryDispatcher(OrderRepository orderRepository, int maxBatchSize, Duration maxWait,
+                              Duration dispatchTimeout, Clock clock) {
+        if (orderRepository == null) {
+            throw new IllegalArgumentException("Order repository cannot be null");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than zero");
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Maximum wait cannot be negative");
+        }
+        if (dispatchTimeout != null && dispatchTimeout.isNegative()) {
+            throw new IllegalArgumentException("Dispatch timeout cannot be negative");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.orderRepository = orderRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.dispatchTimeout = dispatchTimeout;
+        this.clock = clock;
+        subscribe();
+    }
+
+    /**
+     * Hands out the next batch which is ready for delivery.
+     * The batch is meant to be delivered with {@code PancakeService.deliverBatch}.
+     *
+     * @return the batch of the building with the oldest ready order, or empty if no building is ready yet
+     */
+    public Optional<DeliveryBatch> nextBatch() {
+        dispatchLock.lock();
+        try {
+            Instant now = clock.instant();
+            expireDispatches(now);
+            Instant waitedSince = now.minus(maxWait);
+            NavigableSet<WaitingOrder> readyBuilding = null;
+            for (NavigableSet<WaitingOrder> building : waitingOrders.values()) {
+                WaitingOrder oldest = building.first();
+                boolean ready = building.size() >= maxBatchSize || !oldest.preparedAt.isAfter(waitedSince);
+                if (ready && (readyBuilding == null || oldest.compareTo(readyBuilding.first()) < 0)) {
+                    readyBuilding = building;
+                }
+            }
+            return readyBuilding == null ? Optional.empty() : Optional.of(dispatch(readyBuilding, now));
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a batch which is not going to be delivered, e.g. because the courier is not available.
+     * Orders of the batch which are still prepared are handed out again.
+     *
+     * @param batch the batch taken with {@link #nextBatch()}
+     */
+    public void returnBatch(DeliveryBatch batch) {
+        dispatchLock.lock();
+        try {
+            for (Order order : batch.orders()) {
+                if (dispatchedOrders.remove(order.getId()) != null) {
+                    offer(order);
+                }
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of dispatches kept to be handed out again when they time out
+     */
+    int getExpiringDispatchCount() {
+        dispatchLock.lock();
+        try {
+            return dispatches.size();
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<OrderChangeEvent> events) {
+        dispatchLock.lock();
+        try {
+            for (OrderChangeEvent event : events) {
+                if (event.type() == OrderChangeType.REMOVED) {
+                    forget(event.order());
+                } else if (event.type() == OrderChangeType.STATE_CHANGED || event.type() == OrderChangeType.CREATED) {
+                    if (event.state() == OrderProcessingState.PREPARED) {
+                        offer(event.order());
+                    } else {
+                        forget(event.order());
+                    }
+                }
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    /**
+     * Subscribes again if the dispatcher fell behind the change stream.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        if (!(throwable instanceof RejectedExecutionException)) {
+            logger.severe(() -> "Delivery dispatcher stopped following order changes: " + throwable.getMessage());
+            return;
+        }
+        logger.warning(() -> "Delivery dispatcher fell behind order changes, resynchronizing: " +
+                throwable.getMessage());
+        subscribe();
+    }
+
+    @Override
+    public void onComplete() {
+        logger.info("Delivery dispatcher stopped following order changes.");
+    }
+
+    /**
+     * Subscribes and brings the waiting orders in line with the prepared orders of the repository. The dispatch
+     * lock is held meanwhile, so changes delivered to the new subscription apply on top of the loaded orders.
+     */
+    private void subscribe() {
+        dispatchLock.lock();
+        try {
+            orderRepository.getOrderChanges().subscribe(this);
+            List<Order> preparedOrders = orderRepository.findPreparedOrders();
+            Set<UUID> preparedIds = new HashSet<>(preparedOrders.size() * 2);
+            for (Order order : preparedOrders) {
+                preparedIds.add(order.getId());
+                offer(order);
+            }
+            for (UUID orderId : new ArrayList<>(waitingOrdersById.keySet())) {
+                if (!preparedIds.contains(orderId)) {
+                    forget(waitingOrdersById.get(orderId).order);
+                }
+            }
+            dispatchedOrders.keySet().retainAll(preparedIds);
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    // called under the dispatch lock
+    private void expireDispatches(Instant now) {
+        if (dispatchTimeout == null) {
+            return;
+        }
+        Instant dispatchedBefore = now.minus(dispatchTimeout);
+        Dispatch dispatch;
+        while ((dispatch = dispatches.peekFirst()) != null && !dispatch.dispatchedAt.isAfter(dispatchedBefore)) {
+            dispatches.removeFirst();
+            if (dispatchedOrders.remove(dispatch.order.getId(), dispatch)) {
+                offer(dispatch.order);
+            }
+        }
+    }
+
+    // called under the dispatch lock
+    private DeliveryBatch dispatch(NavigableSet<WaitingOrder> building, Instant now) {
+        List<Order> batch = new ArrayList<>(Math.min(maxBatchSize, building.size()));
+        int buildingNumber = building.first().order.getDeliveryAddress().building();
+        while (batch.size() < maxBatchSize && !building.isEmpty()) {
+            WaitingOrder waitingOrder = building.pollFirst();
+            waitingOrdersById.remove(waitingOrder.order.getId());
+            Dispatch dispatch = new Dispatch(waitingOrder.order, now);
+            dispatchedOrders.put(waitingOrder.order.getId(), dispatch);
+            if (dispatchTimeout != null) {
+                // only drained by expireDispatches, which does nothing without a timeout
+                dispatches.addLast(dispatch);
+            }
+            batch.add(waitingOrder.order);
+        }
+        if (building.isEmpty()) {
+            waitingOrders.remove(buildingNumber);
+        }
+        batch.sort(Comparator.comparingInt(order -> order.getDeliveryAddress().room()));
+        return new DeliveryBatch(buildingNumber, batch);
+    }
+
+    // called under the dispatch lock
+    private void offer(Order order) {
+        if (waitingOrdersById.containsKey(order.getId()) || dispatchedOrders.containsKey(order.getId())) {
+            return;
+        }
+        Optional<Instant> preparedAt = order.getStateEnteredAt(OrderProcessingState.PREPARED);
+        if (preparedAt.isEmpty() || order.getOrderProcessingState() != OrderProcessingState.PREPARED) {
+            return;
+        }
+        WaitingOrder waitingOrder = new WaitingOrder(order, preparedAt.get());
+        waitingOrdersById.put(order.getId(), waitingOrder);
+        waitingOrders.computeIfAbsent(order.getDeliveryAddress().building(), building -> new TreeSet<>())
+                .add(waitingOrder);
+    }
+
+    // called under the dispatch lock
+    private void forget(Order order) {
+        dispatchedOrders.remove(order.getId());
+        WaitingOrder waitingOrder = waitingOrdersById.remove(order.getId());
+        if (waitingOrder != null) {
+            int building = order.getDeliveryAddress().building();
+            NavigableSet<WaitingOrder> orders = waitingOrders.get(building);
+            orders.remove(waitingOrder);
+            if (orders.isEmpty()) {
+                waitingOrders.remove(building);
+            }
+        }
+    }
+
+    /**
+     * Prepared order which has not been handed out, ordered by preparation time.
+     */
+    private record WaitingOrder(Order order, Instant preparedAt) implements Comparable<WaitingOrder> {
+
+        @Override
+        public int compareTo(WaitingOrder other) {
+            int result = preparedAt.compareTo(other.preparedAt);
+            return result != 0 ? result : order.getId().compareTo(other.order.getId());
+        }
+    }
+
+    /**
+     * Order handed out in a batch at the given time. Dispatches are kept in the order they were made,
+     * so expired ones are taken from the head.
+     */
+    private static final class Dispatch {
+
+        private final Order order;
+        private final Instant dispatchedAt;
+
+        private Dispatch(Order order, Instant dispatchedAt) {
+            this.order = order;
+            this.dispatchedAt = dispatchedAt;
+        }
+    }
+}
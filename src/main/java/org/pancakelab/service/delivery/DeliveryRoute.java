@@ -0,0 +1,16 @@
+package org.pancakelab.service.delivery;
+
+import java.util.List;
+
+/**
+ * Sequence of stops a courier visits, starting and ending at the kitchen.
+ *
+ * @param stops    stops in visiting order
+ * @param distance total distance of the route including the way back to the kitchen
+ */
+public record DeliveryRoute(List<DeliveryStop> stops, long distance) {
+
+    public DeliveryRoute {
+        stops = List.copyOf(stops);
+    }
+}
@@ -0,0 +1,19 @@
+package org.pancakelab.service.delivery;
+
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+
+import java.util.List;
+
+/**
+ * A room on a delivery route together with the orders to hand over there.
+ *
+ * @param address delivery address of the orders
+ * @param orders  orders to deliver to the address
+ */
+public record DeliveryStop(Address address, List<Order> orders) {
+
+    public DeliveryStop {
+        orders = List.copyOf(orders);
+    }
+}
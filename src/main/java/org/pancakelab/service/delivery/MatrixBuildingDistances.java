@@ -0,0 +1,44 @@
+package org.pancakelab.service.delivery;
+
+final class MatrixBuildingDistances implements BuildingDistances {
+
+    private final int[][] distances;
+
+    MatrixBuildingDistances(int[][] distances) {
+        if (distances.length == 0) {
+            throw new IllegalArgumentException("Distance matrix must contain at least the kitchen");
+        }
+        this.distances = new int[distances.length][];
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i].length != distances.length) {
+                throw new IllegalArgumentException("Distance matrix must be square, row " + i + " has " +
+                        distances[i].length + " distances instead of " + distances.length);
+            }
+            for (int distance : distances[i]) {
+                if (distance < 0) {
+                    throw new IllegalArgumentException("Distances cannot be negative, row " + i + " has " + distance);
+                }
+            }
+            this.distances[i] = distances[i].clone();
+        }
+        for (int i = 0; i < distances.length; i++) {
+            for (int j = i + 1; j < distances.length; j++) {
+                if (distances[i][j] != distances[j][i]) {
+                    throw new IllegalArgumentException("Distance matrix must be symmetric, distance from " + i +
+                            " to " + j + " differs from the way back");
+                }
+            }
+        }
+    }
+
+    @Override
+    public int distance(int fromBuilding, int toBuilding) {
+        if (fromBuilding < 0 || fromBuilding >= distances.length) {
+            throw new IllegalArgumentException("Unknown building " + fromBuilding);
+        }
+        if (toBuilding < 0 || toBuilding >= distances.length) {
+            throw new IllegalArgumentException("Unknown building " + toBuilding);
+        }
+        return distances[fromBuilding][toBuilding];
+    }
+}
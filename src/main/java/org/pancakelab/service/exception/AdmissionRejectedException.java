@@ -0,0 +1,40 @@
+package org.pancakelab.service.exception;
+
+import org.pancakelab.model.exception.DomainException;
+
+/**
+ * Thrown when the service is too busy to accept a request. The request has had no effect and can be retried later.
+ * <br/>
+ * Rejections are part of normal operation under load, so the exception does not capture a stack trace.
+ */
+public class AdmissionRejectedException extends DomainException {
+
+    /**
+     * Why a request has been rejected.
+     */
+    public enum Reason {
+        /**
+         * The room sends requests faster than its rate limit allows.
+         */
+        RATE_LIMITED,
+        /**
+         * There are too many orders which are not completed yet.
+         */
+        TOO_MANY_NEW_ORDERS,
+        /**
+         * The kitchen has too many completed orders waiting to be prepared.
+         */
+        KITCHEN_OVERLOADED
+    }
+
+    private final Reason reason;
+
+    public AdmissionRejectedException(Reason reason, String message) {
+        super(message, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,29 @@
+package org.pancakelab.service.kitchen;
+
+import org.pancakelab.model.pancake.Pancake;
+
+import java.util.List;
+
+/**
+ * Identical pancakes cooked together on the griddle for one or more orders.
+ *
+ * @param pancake  the pancake to cook
+ * @param portions the orders the pancakes go to, oldest order first
+ */
+public record CookingBatch(Pancake pancake, List<CookingPortion> portions) {
+
+    public CookingBatch {
+        portions = List.copyOf(portions);
+    }
+
+    /**
+     * @return total number of pancakes to cook in the batch
+     */
+    public int quantity() {
+        int quantity = 0;
+        for (CookingPortion portion : portions) {
+            quantity += portion.quantity();
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,12 @@
+package org.pancakelab.service.kitchen;
+
+import org.pancakelab.model.order.Order;
+
+/**
+ * Part of a cooking batch which goes to a single order.
+ *
+ * @param order    the order the pancakes are cooked for
+ * @param quantity number of pancakes of the batch which belong to the order
+ */
+public record CookingPortion(Order order, int quantity) {
+}
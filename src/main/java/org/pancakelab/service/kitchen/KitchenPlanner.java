@@ -0,0 +1,345 @@
+package org.pancakelab.service.kitchen;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.order.exception.OrderStateException;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.event.OrderChangeEvent;
+import org.pancakelab.repository.event.OrderChangeType;
+
+import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Plans the work of the kitchen: identical pancakes of all completed orders are cooked together in batches
+ * of up to {@code griddleCapacity} pancakes.
+ * <br/>
+ * The planner follows the change stream of the repository, so pancakes of an order are added to the plan when
+ * the order is completed and leave the plan when the order is prepared by other means or removed. Orders
+ * completed before the planner subscribed are not planned. Batches are handed out for the pancake which has been
+ * waiting for the longest time; once a batch is cooked, every order whose pancakes are all cooked is marked
+ * as prepared. A batch which is not going to be cooked has to be given back with {@link #abandonBatch}, otherwise
+ * its orders stay planned until they leave the plan by other means.
+ * <br/>
+ * If the planner falls too far behind the change stream and is cancelled, it subscribes again and brings the plan
+ * in line with the completed orders of the repository, see {@link #getResubscriptions()}.
+ * <br/>
+ * Thread-safe.
+ */
+public class KitchenPlanner implements Flow.Subscriber<List<OrderChangeEvent>> {
+
+    private static final Logger logger = Logger.getLogger(KitchenPlanner.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final int griddleCapacity;
+    private final Map<Pancake, Deque<PendingPancakes>> pendingPancakes = new HashMap<>();
+    private final Map<UUID, Order> plannedOrders = new HashMap<>();
+    private final Map<UUID, Integer> uncookedQuantities = new HashMap<>();
+    private final Map<UUID, Long> planSequences = new HashMap<>();
+    private long sequence;
+    private final AtomicLong resubscriptions = new AtomicLong();
+
+    private final Lock planLock = new ReentrantLock();
+
+    /**
+     * Creates a planner and subscribes it to the changes of the repository.
+     *
+     * @param orderRepository repository whose completed orders are planned
+     * @param griddleCapacity maximum number of pancakes cooked at once
+     * @throws IllegalArgumentException if the griddle capacity is less than or equal to zero
+     */
+    public KitchenPlanner(OrderRepository orderRepository, int griddleCapacity) {
+        if (orderRepository == null) {
+            throw new IllegalArgumentException("Order repository cannot be null");
+        }
+        if (griddleCapacity <= 0) {
+            throw new IllegalArgumentException("Griddle capacity must be greater than zero");
+        }
+        this.orderRepository = orderRepository;
+        this.griddleCapacity = griddleCapacity;
+        orderRepository.getOrderChanges().subscribe(this);
+    }
+
+    /**
+     * Takes the next batch to cook off the plan.
+     *
+     * @return batch of the pancake which has been waiting for the longest time, or empty if there is nothing to cook
+     */
+    public Optional<CookingBatch> nextBatch() {
+        planLock.lock();
+        try {
+            Pancake pancake = null;
+            long oldestSequence = Long.MAX_VALUE;
+            for (Map.Entry<Pancake, Deque<PendingPancakes>> entry : pendingPancakes.entrySet()) {
+                long headSequence = entry.getValue().getFirst().sequence;
+                if (headSequence < oldestSequence) {
+                    oldestSequence = headSequence;
+                    pancake = entry.getKey();
+                }
+            }
+            if (pancake == null) {
+                return Optional.empty();
+            }
+
+            Deque<PendingPancakes> queue = pendingPancakes.get(pancake);
+            List<CookingPortion> portions = new ArrayList<>();
+            int capacity = griddleCapacity;
+            while (capacity > 0 && !queue.isEmpty()) {
+                PendingPancakes pending = queue.getFirst();
+                int quantity = Math.min(capacity, pending.quantity);
+                portions.add(new CookingPortion(pending.order, quantity));
+                capacity -= quantity;
+                pending.quantity -= quantity;
+                if (pending.quantity == 0) {
+                    queue.removeFirst();
+                }
+            }
+            if (queue.isEmpty()) {
+                pendingPancakes.remove(pancake);
+            }
+            return Optional.of(new CookingBatch(pancake, portions));
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    /**
+     * Reports a batch as cooked and marks every order whose pancakes are all cooked as prepared.
+     *
+     * @param batch the batch taken with {@link #nextBatch()}
+     * @return orders which have been prepared
+     */
+    public List<Order> completeBatch(CookingBatch batch) {
+        List<Order> coveredOrders = new ArrayList<>();
+        planLock.lock();
+        try {
+            for (CookingPortion portion : batch.portions()) {
+                UUID orderId = portion.order().getId();
+                Integer uncooked = uncookedQuantities.get(orderId);
+                if (uncooked == null) {
+                    // the order left the plan while the batch was cooked
+                    continue;
+                }
+                if (uncooked > portion.quantity()) {
+                    uncookedQuantities.put(orderId, uncooked - portion.quantity());
+                } else {
+                    uncookedQuantities.remove(orderId);
+                    planSequences.remove(orderId);
+                    coveredOrders.add(plannedOrders.remove(orderId));
+                }
+            }
+        } finally {
+            planLock.unlock();
+        }
+
+        List<Order> preparedOrders = new ArrayList<>(coveredOrders.size());
+        // orders are marked outside the plan lock, their change events come back to this planner
+        for (Order order : coveredOrders) {
+            try {
+                order.markPrepared();
+                preparedOrders.add(order);
+            } catch (OrderStateException e) {
+                logger.warning(() -> "Cooked pancakes for order " + order.getId() + " which cannot be prepared: " +
+                        e.getMessage());
+            }
+        }
+        return preparedOrders;
+    }
+
+    /**
+     * Gives back a batch which is not going to be cooked. Its pancakes are planned again ahead of the pancakes
+     * of orders completed later, so the batch is handed out again next if it was the oldest one.
+     * Portions of orders which left the plan meanwhile are dropped.
+     *
+     * @param batch the batch taken with {@link #nextBatch()}
+     */
+    public void abandonBatch(CookingBatch batch) {
+        planLock.lock();
+        try {
+            for (CookingPortion portion : batch.portions()) {
+                Long orderSequence = planSequences.get(portion.order().getId());
+                if (orderSequence != null) {
+                    replan(batch.pancake(), orderSequence, portion);
+                }
+            }
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of pancakes waiting to be cooked per pancake, not counting batches being cooked
+     */
+    public Map<Pancake, Integer> getPendingQuantities() {
+        planLock.lock();
+        try {
+            Map<Pancake, Integer> pendingQuantities = new HashMap<>();
+            for (Map.Entry<Pancake, Deque<PendingPancakes>> entry : pendingPancakes.entrySet()) {
+                int quantity = 0;
+                for (PendingPancakes pending : entry.getValue()) {
+                    quantity += pending.quantity;
+                }
+                pendingQuantities.put(entry.getKey(), quantity);
+            }
+            return pendingQuantities;
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of times the planner fell behind the change stream and had to subscribe again
+     */
+    public long getResubscriptions() {
+        return resubscriptions.get();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<OrderChangeEvent> events) {
+        planLock.lock();
+        try {
+            for (OrderChangeEvent event : events) {
+                if (event.type() == OrderChangeType.REMOVED) {
+                    unplan(event.order());
+                } else if (event.type() == OrderChangeType.STATE_CHANGED || event.type() == OrderChangeType.CREATED) {
+                    if (event.state() == OrderProcessingState.COMPLETED) {
+                        plan(event.order());
+                    } else {
+                        unplan(event.order());
+                    }
+                }
+            }
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    /**
+     * Subscribes again if the planner fell behind the change stream. The plan lock is held while subscribing and
+     * resynchronizing, so changes delivered to the new subscription apply on top of the resynchronized plan.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        if (!(throwable instanceof RejectedExecutionException)) {
+            logger.severe(() -> "Kitchen planner stopped following order changes: " + throwable.getMessage());
+            return;
+        }
+        logger.warning(() -> "Kitchen planner fell behind order changes, resynchronizing: " + throwable.getMessage());
+        resubscriptions.incrementAndGet();
+        planLock.lock();
+        try {
+            orderRepository.getOrderChanges().subscribe(this);
+            resynchronize();
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        logger.info("Kitchen planner stopped following order changes.");
+    }
+
+    // called under the plan lock
+    private void resynchronize() {
+        for (Order order : new ArrayList<>(plannedOrders.values())) {
+            if (order.getOrderProcessingState() != OrderProcessingState.COMPLETED
+                    || orderRepository.findOrderById(order.getId()).isEmpty()) {
+                unplan(order);
+            }
+        }
+        for (Order order : orderRepository.findCompletedOrders()) {
+            plan(order);
+        }
+    }
+
+    // called under the plan lock
+    private void plan(Order order) {
+        if (plannedOrders.putIfAbsent(order.getId(), order) != null) {
+            return;
+        }
+        int uncooked = 0;
+        long orderSequence = ++sequence;
+        for (Map.Entry<Pancake, Integer> line : order.getPancakes().entrySet()) {
+            pendingPancakes.computeIfAbsent(line.getKey(), pancake -> new ArrayDeque<>())
+                    .addLast(new PendingPancakes(orderSequence, order, line.getValue()));
+            uncooked += line.getValue();
+        }
+        if (uncooked == 0) {
+            plannedOrders.remove(order.getId());
+            return;
+        }
+        uncookedQuantities.put(order.getId(), uncooked);
+        planSequences.put(order.getId(), orderSequence);
+    }
+
+    // called under the plan lock
+    private void replan(Pancake pancake, long orderSequence, CookingPortion portion) {
+        Deque<PendingPancakes> queue = pendingPancakes.computeIfAbsent(pancake, key -> new ArrayDeque<>());
+        for (PendingPancakes pending : queue) {
+            if (pending.order == portion.order()) {
+                // the rest of the line did not fit into the batch
+                pending.quantity += portion.quantity();
+                return;
+            }
+        }
+        PendingPancakes pending = new PendingPancakes(orderSequence, portion.order(), portion.quantity());
+        if (queue.isEmpty() || queue.getFirst().sequence > orderSequence) {
+            queue.addFirst(pending);
+            return;
+        }
+        List<PendingPancakes> ordered = new ArrayList<>(queue);
+        int index = 0;
+        while (index < ordered.size() && ordered.get(index).sequence < orderSequence) {
+            index++;
+        }
+        ordered.add(index, pending);
+        queue.clear();
+        queue.addAll(ordered);
+    }
+
+    // called under the plan lock
+    private void unplan(Order order) {
+        if (plannedOrders.remove(order.getId()) == null) {
+            return;
+        }
+        uncookedQuantities.remove(order.getId());
+        planSequences.remove(order.getId());
+        for (Pancake pancake : order.getPancakes().keySet()) {
+            Deque<PendingPancakes> queue = pendingPancakes.get(pancake);
+            if (queue != null) {
+                queue.removeIf(pending -> pending.order == order);
+                if (queue.isEmpty()) {
+                    pendingPancakes.remove(pancake);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pancakes of an order line which are not in any batch yet.
+     */
+    private static final class PendingPancakes {
+
+        private final long sequence;
+        private final Order order;
+        private int quantity;
+
+        private PendingPancakes(long sequence, Order order, int quantity) {
+            this.sequence = sequence;
+            this.order = order;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.pancakelab.trace;
+
+final class DisabledTraceRecorder implements TraceRecorder {
+
+    static final DisabledTraceRecorder INSTANCE = new DisabledTraceRecorder();
+
+    private DisabledTraceRecorder() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void record(TraceEvent event) {
+        // just do nothing
+    }
+}
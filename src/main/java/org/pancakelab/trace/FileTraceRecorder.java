@@ -0,0 +1,149 @@
+package org.pancakelab.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Recorder writing calls to a binary trace file, which {@link TraceReplayer} can replay later.
+ * <br/>
+ * Recording only offers the event to a bounded queue, a background thread encodes and writes the events in
+ * batches. When the writer falls behind and the queue is full, events are dropped and counted rather than
+ * slowing down the recorded calls. Events are written in the order they were queued, which may differ slightly
+ * from the order of their times.
+ * <br/>
+ * Thread-safe.
+ */
+public class FileTraceRecorder implements TraceRecorder, Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64 * 1024;
+
+    private static final Logger logger = Logger.getLogger(FileTraceRecorder.class.getName());
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final TraceEvent END_OF_TRACE = TraceEvent.ofQuery(TraceOperation.GET_COMPLETED_ORDERS, 0, 0, 0, 0);
+
+    private final Path file;
+    private final BlockingQueue<TraceEvent> queue;
+    private final TraceWriter traceWriter;
+    private final Thread writerThread;
+    private final LongAdder recordedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private volatile boolean enabled = true;
+    private volatile IOException writeFailure;
+
+    /**
+     * Creates the trace file, replacing an existing one, and starts recording to it.
+     *
+     * @param file the trace file
+     * @throws IOException if the file cannot be created
+     */
+    public FileTraceRecorder(Path file) throws IOException {
+        this(file, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param file          the trace file
+     * @param queueCapacity maximum number of events waiting to be written, later events are dropped
+     * @throws IOException if the file cannot be created
+     */
+    public FileTraceRecorder(Path file, int queueCapacity) throws IOException {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.traceWriter = new TraceWriter(Files.newOutputStream(file));
+        this.writerThread = new Thread(this::writeEvents, "trace-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void record(TraceEvent event) {
+        if (enabled && queue.offer(event)) {
+            recordedEvents.increment();
+        } else {
+            droppedEvents.increment();
+        }
+    }
+
+    /**
+     * @return number of events queued for writing
+     */
+    public long getRecordedEvents() {
+        return recordedEvents.sum();
+    }
+
+    /**
+     * @return number of events dropped because the queue was full or the recorder was closed
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Stops recording, writes the events queued so far and closes the trace file.
+     *
+     * @throws IOException if writing the trace has failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (enabled) {
+            enabled = false;
+            try {
+                // the writer may have stopped on a failure and no longer empty the queue
+                boolean queued = false;
+                while (!queued && writerThread.isAlive()) {
+                    queued = queue.offer(END_OF_TRACE, 100, TimeUnit.MILLISECONDS);
+                }
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while closing trace " + file, e);
+            }
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private void writeEvents() {
+        List<TraceEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try (traceWriter) {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                for (TraceEvent event : batch) {
+                    if (event == END_OF_TRACE) {
+                        return;
+                    }
+                    traceWriter.write(event);
+                }
+                batch.clear();
+                if (queue.isEmpty()) {
+                    traceWriter.flush();
+                }
+            }
+        } catch (IOException e) {
+            writeFailure = e;
+            enabled = false;
+            logger.severe(() -> "Trace " + file + " stopped recording: " + e.getMessage());
+        } catch (InterruptedException e) {
+            enabled = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.pancakelab.trace;
+
+import org.pancakelab.metrics.LatencySummary;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of one {@link TraceReplayer#replay replay} of a trace.
+ *
+ * @param calls     number of replayed calls
+ * @param failures  number of calls which threw an exception, e.g. because the recorded call failed as well
+ * @param skipped   number of calls on orders which were created before the trace started
+ * @param elapsed   wall-clock time of the whole replay
+ * @param latencies latency of the calls per operation
+ */
+public record ReplayReport(long calls, long failures, long skipped, Duration elapsed,
+                           Map<TraceOperation, LatencySummary> latencies) {
+
+    /**
+     * @return replayed calls per second
+     */
+    public double throughput() {
+        return elapsed.isZero() ? 0 : calls * 1e9 / elapsed.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d calls (%d failed, %d skipped) in %d ms, %.0f calls/s%n",
+                calls, failures, skipped, elapsed.toMillis(), throughput()));
+        report.append(String.format("%-28s %10s %12s %12s %12s%n",
+                "operation", "count", "p50 us", "p99 us", "p99.9 us"));
+        latencies.forEach((operation, latency) -> report.append(String.format("%-28s %10d %12.1f %12.1f %12.1f%n",
+                operation, latency.count(), micros(latency.p50()), micros(latency.p99()), micros(latency.p999()))));
+        return report.toString();
+    }
+
+    private static double micros(Duration duration) {
+        return duration.toNanos() / 1e3;
+    }
+}
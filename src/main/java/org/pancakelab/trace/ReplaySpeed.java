@@ -0,0 +1,44 @@
+package org.pancakelab.trace;
+
+/**
+ * Pace at which a {@link TraceReplayer} issues the recorded calls.
+ *
+ * @param multiplier how many times faster than recorded the calls are issued, 0 for as fast as possible
+ */
+public record ReplaySpeed(double multiplier) {
+
+    public ReplaySpeed {
+        if (!(multiplier >= 0) || Double.isInfinite(multiplier)) {
+            throw new IllegalArgumentException("Multiplier must be a non-negative number");
+        }
+    }
+
+    /**
+     * @return speed keeping the recorded gaps between calls
+     */
+    public static ReplaySpeed original() {
+        return new ReplaySpeed(1);
+    }
+
+    /**
+     * @return speed issuing every call as soon as the previous call of the same recorded thread has finished
+     */
+    public static ReplaySpeed maximum() {
+        return new ReplaySpeed(0);
+    }
+
+    /**
+     * @param multiplier how many times faster than recorded the calls are issued, e.g. 10 for ten times the load
+     * @return speed shrinking the recorded gaps between calls by the multiplier
+     */
+    public static ReplaySpeed times(double multiplier) {
+        if (multiplier <= 0) {
+            throw new IllegalArgumentException("Multiplier must be positive");
+        }
+        return new ReplaySpeed(multiplier);
+    }
+
+    boolean isPaced() {
+        return multiplier > 0;
+    }
+}
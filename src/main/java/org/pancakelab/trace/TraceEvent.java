@@ -0,0 +1,123 @@
+package org.pancakelab.trace;
+
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderDraft;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One recorded {@link org.pancakelab.service.PancakeService} call, with its arguments as they were passed, even
+ * invalid ones, so that a replay fails the same way. Only the arguments of the recorded operation are set, the
+ * other fields are null or 0:
+ * <ul>
+ *     <li>{@code orderId} - the order the call worked on, or the order it created, null if creating it failed</li>
+ *     <li>{@code building} and {@code room} - the address of a created order or of a query</li>
+ *     <li>{@code pancakeDescription} - a pancake added from the menu or removed from the order</li>
+ *     <li>{@code ingredients} - a custom pancake added to the order, or the ingredients of a query</li>
+ *     <li>{@code count} - number of pancakes added or removed, or the limit of a query</li>
+ *     <li>{@code pancakes} - ingredients and quantities of the pancakes of a placed draft</li>
+ *     <li>{@code age} - how long before the call the orders a query by completion time asks for were completed,
+ *     so a replay asks for orders of the same age</li>
+ * </ul>
+ *
+ * @param operation the recorded operation
+ * @param timeNanos start of the call, as {@link System#nanoTime()} of the recording process
+ * @param threadId  ID of the thread which made the call
+ */
+public record TraceEvent(TraceOperation operation, long timeNanos, long threadId, UUID orderId, int building,
+                         int room, String pancakeDescription, List<Ingredient> ingredients, int count,
+                         Map<List<Ingredient>, Integer> pancakes, Duration age) {
+
+    public TraceEvent {
+        if (operation == null) {
+            throw new IllegalArgumentException("Operation cannot be null");
+        }
+    }
+
+    /**
+     * @return event of a call changing or creating the given order
+     */
+    public static TraceEvent ofOrder(TraceOperation operation, long timeNanos, Order order) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), order.getId(),
+                order.getDeliveryAddress().building(), order.getDeliveryAddress().room(), null, null, 0, null, null);
+    }
+
+    /**
+     * @return event of a call adding or removing pancakes of the given order
+     */
+    public static TraceEvent ofPancake(TraceOperation operation, long timeNanos, Order order,
+                                       String pancakeDescription, List<Ingredient> ingredients, int count) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), order.getId(), 0, 0,
+                pancakeDescription, ingredients == null ? null : Collections.unmodifiableList(new ArrayList<>(ingredients)),
+                count, null, null);
+    }
+
+    /**
+     * @return event of a draft committed to the given order, with the pancakes of the order
+     */
+    public static TraceEvent ofPlacedOrder(TraceOperation operation, long timeNanos, Order order) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), order.getId(),
+                order.getDeliveryAddress().building(), order.getDeliveryAddress().room(), null, null, 0,
+                ingredientsOf(order.getPancakes()), null);
+    }
+
+    /**
+     * @return event of a call which failed to create an order for the given address
+     */
+    public static TraceEvent ofFailedOrder(TraceOperation operation, long timeNanos, int building, int room) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), null, building, room, null,
+                null, 0, null, null);
+    }
+
+    /**
+     * @return event of a draft which could not be committed, with the pancakes of the draft
+     */
+    public static TraceEvent ofFailedDraft(TraceOperation operation, long timeNanos, OrderDraft draft) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), null,
+                draft.getDeliveryAddress().building(), draft.getDeliveryAddress().room(), null, null, 0,
+                ingredientsOf(draft.getPancakes()), null);
+    }
+
+    /**
+     * @return event of a query, with the address or limit it was called with
+     */
+    public static TraceEvent ofQuery(TraceOperation operation, long timeNanos, int building, int room, int limit) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), null, building, room, null,
+                null, limit, null, null);
+    }
+
+    /**
+     * @return event of a query by ingredients, with the ingredients it was called with
+     */
+    public static TraceEvent ofIngredientQuery(TraceOperation operation, long timeNanos,
+                                               Collection<Ingredient> ingredients) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), null, 0, 0, null,
+                ingredients == null ? null : Collections.unmodifiableList(new ArrayList<>(ingredients)), 0, null,
+                null);
+    }
+
+    /**
+     * @return event of a query by completion time, with the age of the orders it asked for
+     */
+    public static TraceEvent ofAgeQuery(TraceOperation operation, long timeNanos, Duration age) {
+        return new TraceEvent(operation, timeNanos, Thread.currentThread().getId(), null, 0, 0, null, null, 0, null,
+                age);
+    }
+
+    private static Map<List<Ingredient>, Integer> ingredientsOf(Map<Pancake, Integer> pancakes) {
+        Map<List<Ingredient>, Integer> ingredients = new HashMap<>();
+        for (Map.Entry<Pancake, Integer> pancake : pancakes.entrySet()) {
+            ingredients.put(pancake.getKey().getIngredients(), pancake.getValue());
+        }
+        return Collections.unmodifiableMap(ingredients);
+    }
+}
@@ -0,0 +1,28 @@
+package org.pancakelab.trace;
+
+/**
+ * {@link org.pancakelab.service.PancakeService} calls which are recorded to a trace and replayed from it.
+ * <br/>
+ * The ordinal of an operation is its code in the binary trace format, so new operations are only ever appended.
+ */
+public enum TraceOperation {
+    CREATE_ORDER,
+    ADD_PANCAKE,
+    ADD_CUSTOM_PANCAKE,
+    REMOVE_PANCAKE,
+    PLACE_ORDER,
+    PLACE_COMPLETED_ORDER,
+    CANCEL_ORDER,
+    COMPLETE_ORDER,
+    PREPARE_ORDER,
+    DELIVER_ORDER,
+    GET_COMPLETED_ORDERS,
+    GET_OLDEST_COMPLETED_ORDERS,
+    GET_PREPARED_ORDERS,
+    GET_OLDEST_PREPARED_ORDERS,
+    GET_ORDERS_FOR_ROOM,
+    GET_ORDERS_FOR_BUILDING,
+    GET_COMPLETED_ORDERS_BEFORE,
+    GET_ORDERS_CONTAINING_ALL,
+    GET_ORDERS_CONTAINING_ANY
+}
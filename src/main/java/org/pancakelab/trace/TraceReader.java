@@ -0,0 +1,192 @@
+package org.pancakelab.trace;
+
+import org.pancakelab.model.pancake.Ingredient;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decoder of traces written by a {@link FileTraceRecorder}, see {@link TraceWriter} for the format.
+ * <br/>
+ * Not thread-safe.
+ */
+public class TraceReader implements Closeable {
+
+    private static final TraceOperation[] OPERATIONS = TraceOperation.values();
+    private static final Ingredient[] INGREDIENTS = Ingredient.values();
+
+    private final DataInputStream input;
+    private long previousTimeNanos;
+
+    /**
+     * @param input stream positioned at the start of a trace
+     * @throws IOException if the stream does not start with a trace header of a supported version
+     */
+    public TraceReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        if (this.input.readInt() != TraceWriter.MAGIC) {
+            throw new IOException("Not a trace file");
+        }
+        short version = this.input.readShort();
+        if (version != TraceWriter.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+    }
+
+    /**
+     * Reads a whole trace file.
+     *
+     * @param file the trace file
+     * @return the events in the order they were written, which is not necessarily the order of their times
+     * @throws IOException if the file cannot be read or is not a trace
+     */
+    public static List<TraceEvent> readAll(Path file) throws IOException {
+        List<TraceEvent> events = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(Files.newInputStream(file))) {
+            TraceEvent event;
+            while ((event = reader.read()) != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @return next event of the trace, null at the end of the trace
+     * @throws IOException if the trace cannot be read or ends in the middle of an event
+     */
+    public TraceEvent read() throws IOException {
+        int code = input.read();
+        if (code < 0) {
+            return null;
+        }
+        if (code >= OPERATIONS.length) {
+            throw new IOException("Unknown trace operation " + code);
+        }
+        TraceOperation operation = OPERATIONS[code];
+        long timeNanos = previousTimeNanos + readVarLong();
+        previousTimeNanos = timeNanos;
+        long threadId = readVarLong();
+        UUID orderId = null;
+        int building = 0;
+        int room = 0;
+        String pancakeDescription = null;
+        List<Ingredient> ingredients = null;
+        int count = 0;
+        Map<List<Ingredient>, Integer> pancakes = null;
+        Duration age = null;
+        switch (operation) {
+            case CREATE_ORDER -> {
+                orderId = readUuid();
+                building = readVarInt();
+                room = readVarInt();
+            }
+            case ADD_PANCAKE, REMOVE_PANCAKE -> {
+                orderId = readUuid();
+                pancakeDescription = readString();
+                count = readVarInt();
+            }
+            case ADD_CUSTOM_PANCAKE -> {
+                orderId = readUuid();
+                ingredients = readIngredients();
+                count = readVarInt();
+            }
+            case PLACE_ORDER, PLACE_COMPLETED_ORDER -> {
+                orderId = readUuid();
+                building = readVarInt();
+                room = readVarInt();
+                int size = readVarInt();
+                pancakes = new HashMap<>(size * 2);
+                for (int i = 0; i < size; i++) {
+                    pancakes.put(readIngredients(), readVarInt());
+                }
+            }
+            case CANCEL_ORDER, COMPLETE_ORDER, PREPARE_ORDER, DELIVER_ORDER -> orderId = readUuid();
+            case GET_COMPLETED_ORDERS, GET_PREPARED_ORDERS -> {
+                // no arguments
+            }
+            case GET_OLDEST_COMPLETED_ORDERS, GET_OLDEST_PREPARED_ORDERS -> count = readVarInt();
+            case GET_ORDERS_FOR_ROOM -> {
+                building = readVarInt();
+                room = readVarInt();
+            }
+            case GET_ORDERS_FOR_BUILDING -> building = readVarInt();
+            case GET_COMPLETED_ORDERS_BEFORE -> age = readDuration();
+            case GET_ORDERS_CONTAINING_ALL, GET_ORDERS_CONTAINING_ANY -> ingredients = readIngredients();
+        }
+        return new TraceEvent(operation, timeNanos, threadId, orderId, building, room, pancakeDescription,
+                ingredients, count, pancakes, age);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private UUID readUuid() throws IOException {
+        long mostSignificantBits = input.readLong();
+        long leastSignificantBits = input.readLong();
+        return mostSignificantBits == 0 && leastSignificantBits == 0
+                ? null
+                : new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    private String readString() throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private List<Ingredient> readIngredients() throws IOException {
+        int size = readVarInt();
+        if (size < 0) {
+            return null;
+        }
+        List<Ingredient> ingredients = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int ordinal = input.readUnsignedByte();
+            if (ordinal == TraceWriter.NULL_INGREDIENT) {
+                ingredients.add(null);
+            } else if (ordinal < INGREDIENTS.length) {
+                ingredients.add(INGREDIENTS[ordinal]);
+            } else {
+                throw new IOException("Unknown ingredient " + ordinal);
+            }
+        }
+        return Collections.unmodifiableList(ingredients);
+    }
+
+    private Duration readDuration() throws IOException {
+        return input.readBoolean() ? Duration.ofSeconds(readVarLong(), readVarLong()) : null;
+    }
+
+    private int readVarInt() throws IOException {
+        return Math.toIntExact(readVarLong());
+    }
+
+    private long readVarLong() throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.read();
+            if (b < 0) {
+                throw new EOFException("Trace ends in the middle of an event");
+            }
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Malformed number in trace");
+    }
+}
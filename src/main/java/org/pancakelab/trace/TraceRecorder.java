@@ -0,0 +1,28 @@
+package org.pancakelab.trace;
+
+/**
+ * Sink of recorded {@link org.pancakelab.service.PancakeService} calls.
+ * <br/>
+ * Recording must never block or fail the recorded call: implementations drop events they cannot keep up with.
+ */
+public interface TraceRecorder {
+
+    /**
+     * Callers check this before building an event, so a disabled recorder costs a single call.
+     *
+     * @return true if events passed to {@link #record} are kept
+     */
+    boolean isEnabled();
+
+    /**
+     * @param event the recorded call
+     */
+    void record(TraceEvent event);
+
+    /**
+     * @return a recorder which keeps nothing
+     */
+    static TraceRecorder disabled() {
+        return DisabledTraceRecorder.INSTANCE;
+    }
+}
@@ -0,0 +1,230 @@
+package org.pancakelab.trace;
+
+import org.pancakelab.metrics.LatencyHistogram;
+import org.pancakelab.metrics.LatencySummary;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderDraft;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.service.PancakeService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-drives a recorded trace against a {@link PancakeService}, e.g. one built on another
+ * {@link org.pancakelab.repository.OrderRepository} implementation.
+ * <br/>
+ * The calls of every recorded thread are replayed in their recorded order on one of a fixed number of replay
+ * threads, the calls of different recorded threads run concurrently. Orders are matched by the ID they had while
+ * recording: a call on an order waits until the replayed call which created that order has finished. Calls on
+ * orders which were created before the trace started are skipped. A query by completion time asks for orders of
+ * the recorded age, measured from the system clock when the query is replayed.
+ * <br/>
+ * Thread-safe, every replay works on its own state.
+ */
+public class TraceReplayer {
+
+    private static final int MAX_REPLAY_THREADS = 64;
+
+    private final List<TraceEvent> events;
+
+    /**
+     * Loads a trace file.
+     *
+     * @param trace the trace file written by a {@link FileTraceRecorder}
+     * @throws IOException if the file cannot be read or is not a trace
+     */
+    public TraceReplayer(Path trace) throws IOException {
+        this(TraceReader.readAll(trace));
+    }
+
+    /**
+     * @param events the recorded events, in any order
+     */
+    public TraceReplayer(List<TraceEvent> events) {
+        List<TraceEvent> sortedEvents = new ArrayList<>(events);
+        sortedEvents.sort(Comparator.comparingLong(TraceEvent::timeNanos));
+        this.events = List.copyOf(sortedEvents);
+    }
+
+    /**
+     * Replays the whole trace and waits until every call has finished.
+     *
+     * @param pancakeService service to send the calls to
+     * @param speed          pace of the calls
+     * @return throughput and latency of the replayed calls
+     */
+    public ReplayReport replay(PancakeService pancakeService, ReplaySpeed speed) {
+        Replay replay = new Replay(pancakeService);
+        List<ExecutorService> lanes = new ArrayList<>();
+        Map<Long, ExecutorService> laneByThread = new HashMap<>();
+        long replayStart = System.nanoTime();
+        try {
+            long traceStart = events.isEmpty() ? 0 : events.get(0).timeNanos();
+            for (TraceEvent event : events) {
+                if (speed.isPaced()) {
+                    long due = replayStart + (long) ((event.timeNanos() - traceStart) / speed.multiplier());
+                    for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                ExecutorService lane = laneByThread.computeIfAbsent(event.threadId(), threadId -> {
+                    if (lanes.size() < MAX_REPLAY_THREADS) {
+                        lanes.add(Executors.newSingleThreadExecutor(
+                                runnable -> new Thread(runnable, "trace-replay-" + lanes.size())));
+                    }
+                    return lanes.get(Math.floorMod(threadId, lanes.size()));
+                });
+                replay.expectOrder(event);
+                lane.execute(() -> replay.call(event));
+            }
+        } finally {
+            lanes.forEach(ExecutorService::shutdown);
+            for (ExecutorService lane : lanes) {
+                awaitTermination(lane);
+            }
+        }
+        return replay.report(Duration.ofNanos(System.nanoTime() - replayStart));
+    }
+
+    private static void awaitTermination(ExecutorService lane) {
+        try {
+            while (!lane.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting, a replay ends only when every call has finished
+            }
+        } catch (InterruptedException e) {
+            lane.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * State of one replay: the replayed orders by their recorded IDs and the measurements.
+     */
+    private static class Replay {
+
+        private final PancakeService pancakeService;
+        private final ConcurrentMap<UUID, CompletableFuture<Order>> orders = new ConcurrentHashMap<>();
+        private final Map<TraceOperation, LatencyHistogram> latencies = new EnumMap<>(TraceOperation.class);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+
+        Replay(PancakeService pancakeService) {
+            this.pancakeService = pancakeService;
+            for (TraceOperation operation : TraceOperation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+            }
+        }
+
+        // registered in trace order by the dispatching thread, so later calls always find the order they wait for
+        void expectOrder(TraceEvent event) {
+            if (createsOrder(event.operation()) && event.orderId() != null) {
+                orders.put(event.orderId(), new CompletableFuture<>());
+            }
+        }
+
+        void call(TraceEvent event) {
+            Order order = null;
+            if (event.orderId() != null && !createsOrder(event.operation())) {
+                CompletableFuture<Order> createdOrder = orders.get(event.orderId());
+                order = createdOrder == null ? null : createdOrder.exceptionally(e -> null).join();
+                if (order == null) {
+                    skipped.increment();
+                    return;
+                }
+            }
+            long start = System.nanoTime();
+            try {
+                Order createdOrder = invoke(event, order);
+                if (createdOrder != null && event.orderId() != null) {
+                    orders.get(event.orderId()).complete(createdOrder);
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (createsOrder(event.operation()) && event.orderId() != null) {
+                    orders.get(event.orderId()).completeExceptionally(e);
+                }
+            } finally {
+                latencies.get(event.operation()).record(System.nanoTime() - start);
+                calls.increment();
+            }
+        }
+
+        ReplayReport report(Duration elapsed) {
+            Map<TraceOperation, LatencySummary> summaries = new EnumMap<>(TraceOperation.class);
+            latencies.forEach((operation, histogram) -> {
+                LatencySummary summary = histogram.summarize();
+                if (summary.count() > 0) {
+                    summaries.put(operation, summary);
+                }
+            });
+            return new ReplayReport(calls.sum(), failures.sum(), skipped.sum(), elapsed, summaries);
+        }
+
+        private Order invoke(TraceEvent event, Order order) {
+            switch (event.operation()) {
+                case CREATE_ORDER -> {
+                    return pancakeService.createOrder(event.building(), event.room());
+                }
+                case PLACE_ORDER, PLACE_COMPLETED_ORDER -> {
+                    OrderDraft draft = pancakeService.newOrderDraft(event.building(), event.room());
+                    for (Map.Entry<List<Ingredient>, Integer> pancake : event.pancakes().entrySet()) {
+                        pancakeService.addPancakeToDraft(draft, pancake.getKey(), pancake.getValue());
+                    }
+                    return event.operation() == TraceOperation.PLACE_ORDER
+                            ? pancakeService.placeOrder(draft)
+                            : pancakeService.placeCompletedOrder(draft);
+                }
+                case ADD_PANCAKE -> pancakeService.addPancakeToOrder(order, event.pancakeDescription(), event.count());
+                case ADD_CUSTOM_PANCAKE -> pancakeService.addPancakeToOrder(order, event.ingredients(), event.count());
+                case REMOVE_PANCAKE ->
+                        pancakeService.removePancakeFromOrder(order, event.pancakeDescription(), event.count());
+                case CANCEL_ORDER -> pancakeService.cancelOrder(order);
+                case COMPLETE_ORDER -> pancakeService.completeOrder(order);
+                case PREPARE_ORDER -> pancakeService.prepareOrder(order);
+                case DELIVER_ORDER -> pancakeService.deliverOrder(order);
+                case GET_COMPLETED_ORDERS -> pancakeService.getCompletedOrders();
+                case GET_OLDEST_COMPLETED_ORDERS -> pancakeService.getOldestCompletedOrders(event.count());
+                case GET_PREPARED_ORDERS -> pancakeService.getPreparedOrders();
+                case GET_OLDEST_PREPARED_ORDERS -> pancakeService.getOldestPreparedOrders(event.count());
+                case GET_ORDERS_FOR_ROOM -> pancakeService.getOrdersForRoom(event.building(), event.room());
+                case GET_ORDERS_FOR_BUILDING -> pancakeService.getOrdersForBuilding(event.building());
+                case GET_COMPLETED_ORDERS_BEFORE -> pancakeService.getCompletedOrdersBefore(
+                        event.age() == null ? null : Instant.now().minus(event.age()));
+                case GET_ORDERS_CONTAINING_ALL -> pancakeService.getOrdersContainingAll(ingredientSet(event));
+                case GET_ORDERS_CONTAINING_ANY -> pancakeService.getOrdersContainingAny(ingredientSet(event));
+            }
+            return null;
+        }
+
+        private static Set<Ingredient> ingredientSet(TraceEvent event) {
+            return event.ingredients() == null ? null : new HashSet<>(event.ingredients());
+        }
+
+        private static boolean createsOrder(TraceOperation operation) {
+            return operation == TraceOperation.CREATE_ORDER
+                    || operation == TraceOperation.PLACE_ORDER
+                    || operation == TraceOperation.PLACE_COMPLETED_ORDER;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.pancakelab.trace;
+
+import org.pancakelab.model.pancake.Ingredient;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encoder of the binary trace format, read back by {@link TraceReader}.
+ * <br/>
+ * A trace starts with the magic number and the format version, followed by one record per event: the operation
+ * code, the time since the previous event and the thread ID, then the arguments of the operation. Numbers are
+ * zig-zag varints, so a typical call takes 20-30 bytes. Missing arguments are encoded as well, since calls are
+ * recorded with whatever they were passed. A missing order ID, of a call which failed to create its order, is
+ * written as the nil UUID, which is never the ID of an order.
+ * <br/>
+ * Not thread-safe.
+ */
+class TraceWriter implements Closeable {
+
+    static final int MAGIC = 0x504C5452; // "PLTR"
+    static final short VERSION = 1;
+    static final int NULL_INGREDIENT = 0xFF;
+
+    private final DataOutputStream output;
+    private long previousTimeNanos;
+
+    TraceWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+        this.output.writeInt(MAGIC);
+        this.output.writeShort(VERSION);
+    }
+
+    void write(TraceEvent event) throws IOException {
+        output.writeByte(event.operation().ordinal());
+        writeVarLong(event.timeNanos() - previousTimeNanos);
+        previousTimeNanos = event.timeNanos();
+        writeVarLong(event.threadId());
+        switch (event.operation()) {
+            case CREATE_ORDER -> {
+                writeUuid(event.orderId());
+                writeVarLong(event.building());
+                writeVarLong(event.room());
+            }
+            case ADD_PANCAKE, REMOVE_PANCAKE -> {
+                writeUuid(event.orderId());
+                writeString(event.pancakeDescription());
+                writeVarLong(event.count());
+            }
+            case ADD_CUSTOM_PANCAKE -> {
+                writeUuid(event.orderId());
+                writeIngredients(event.ingredients());
+                writeVarLong(event.count());
+            }
+            case PLACE_ORDER, PLACE_COMPLETED_ORDER -> {
+                writeUuid(event.orderId());
+                writeVarLong(event.building());
+                writeVarLong(event.room());
+                writeVarLong(event.pancakes().size());
+                for (Map.Entry<List<Ingredient>, Integer> pancake : event.pancakes().entrySet()) {
+                    writeIngredients(pancake.getKey());
+                    writeVarLong(pancake.getValue());
+                }
+            }
+            case CANCEL_ORDER, COMPLETE_ORDER, PREPARE_ORDER, DELIVER_ORDER -> writeUuid(event.orderId());
+            case GET_COMPLETED_ORDERS, GET_PREPARED_ORDERS -> {
+                // no arguments
+            }
+            case GET_OLDEST_COMPLETED_ORDERS, GET_OLDEST_PREPARED_ORDERS -> writeVarLong(event.count());
+            case GET_ORDERS_FOR_ROOM -> {
+                writeVarLong(event.building());
+                writeVarLong(event.room());
+            }
+            case GET_ORDERS_FOR_BUILDING -> writeVarLong(event.building());
+            case GET_COMPLETED_ORDERS_BEFORE -> writeDuration(event.age());
+            case GET_ORDERS_CONTAINING_ALL, GET_ORDERS_CONTAINING_ANY -> writeIngredients(event.ingredients());
+        }
+    }
+
+    void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeUuid(UUID uuid) throws IOException {
+        output.writeLong(uuid == null ? 0 : uuid.getMostSignificantBits());
+        output.writeLong(uuid == null ? 0 : uuid.getLeastSignificantBits());
+    }
+
+    private void writeString(String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private void writeIngredients(List<Ingredient> ingredients) throws IOException {
+        if (ingredients == null) {
+            writeVarLong(-1);
+            return;
+        }
+        writeVarLong(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            output.writeByte(ingredient == null ? NULL_INGREDIENT : ingredient.ordinal());
+        }
+    }
+
+    private void writeDuration(Duration duration) throws IOException {
+        output.writeBoolean(duration != null);
+        if (duration != null) {
+            writeVarLong(duration.getSeconds());
+            writeVarLong(duration.getNano());
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            output.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        output.writeByte((int) zigZag);
+    }
+}
@@ -0,0 +1,58 @@
+package org.pancakelab;
+
+import org.junit.jupiter.api.Assumptions;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the heap allocated by the current thread while running an operation many times.
+ * <br/>
+ * The operation is warmed up first, so the measurement sees the compiled code with escape analysis applied,
+ * the same code the operation runs in a busy service.
+ */
+public class AllocationMeter {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+
+    // held strongly, a logger which is only configured and then dropped loses its level
+    private static final Logger APPLICATION_LOGGER = Logger.getLogger("org.pancakelab");
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    public AllocationMeter() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Thread allocation counters are not available on this JVM");
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(),
+                "Thread allocation counters are not supported on this JVM");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Runs the operation with application logging lowered to WARNING, every order change is logged at INFO level
+     * and the log records would dominate the measurement.
+     *
+     * @param operation the operation to measure
+     * @return average number of bytes allocated by one run of the operation
+     */
+    public double bytesPerOperation(Runnable operation) {
+        Level level = APPLICATION_LOGGER.getLevel();
+        APPLICATION_LOGGER.setLevel(Level.WARNING);
+        try {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                operation.run();
+            }
+            long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                operation.run();
+            }
+            long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            return (double) allocated / MEASURED_ITERATIONS;
+        } finally {
+            APPLICATION_LOGGER.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.pancakelab;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock which only moves when a test advances it.
+ */
+public class TestClock extends Clock {
+
+    private volatile Instant instant;
+
+    public TestClock() {
+        this(Instant.parse("2024-01-01T08:00:00Z"));
+    }
+
+    public TestClock(Instant instant) {
+        this.instant = instant;
+    }
+
+    public void advance(Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -0,0 +1,52 @@
+package org.pancakelab;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Flight recording of the given events with no threshold, read back once it is stopped.
+ */
+public class TestRecording implements AutoCloseable {
+
+    private final Recording recording = new Recording();
+
+    public TestRecording(String... eventNames) {
+        for (String eventName : eventNames) {
+            recording.enable(eventName).withThreshold(Duration.ZERO).withStackTrace();
+        }
+        recording.start();
+    }
+
+    /**
+     * @return recorded events, oldest first
+     */
+    public List<RecordedEvent> stop() {
+        recording.stop();
+        try {
+            Path file = Files.createTempFile("pancakelab", ".jfr");
+            try {
+                recording.dump(file);
+                return RecordingFile.readAllEvents(file).stream()
+                        .sorted((first, second) -> first.getStartTime().compareTo(second.getStartTime()))
+                        .toList();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
@@ -0,0 +1,64 @@
+package org.pancakelab;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+/**
+ * Subscriber which records everything it receives. Requests nothing on its own unless created with initial demand.
+ */
+public class TestSubscriber<T> implements Flow.Subscriber<T> {
+
+    private final long initialDemand;
+    private final List<T> items = new CopyOnWriteArrayList<>();
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+    private volatile boolean completed;
+
+    public TestSubscriber(long initialDemand) {
+        this.initialDemand = initialDemand;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (initialDemand > 0) {
+            subscription.request(initialDemand);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+        completed = true;
+    }
+
+    public void request(long n) {
+        subscription.request(n);
+    }
+
+    public void cancel() {
+        subscription.cancel();
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+}
@@ -0,0 +1,139 @@
+package org.pancakelab.analytics;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderRateTrackerTest {
+
+    private final TestClock clock = new TestClock();
+    private final OrderRateTracker testInstance = new OrderRateTracker(clock);
+
+    @Nested
+    class GetRate {
+
+        @Test
+        void ShouldCountOrdersPerWindow_WhenOrdersAreSpreadOverTime() {
+            // given
+            testInstance.recordCreated(1);
+            clock.advance(Duration.ofMinutes(4));
+            testInstance.recordCreated(1);
+            testInstance.recordCompleted(1);
+            clock.advance(Duration.ofSeconds(30));
+            testInstance.recordCreated(1);
+
+            // when
+            OrderRate lastMinute = testInstance.getRate(1, RateWindow.ONE_MINUTE);
+            OrderRate lastFiveMinutes = testInstance.getRate(1, RateWindow.FIVE_MINUTES);
+
+            // then
+            assertThat(lastMinute).isEqualTo(new OrderRate(RateWindow.ONE_MINUTE, 2, 1, Duration.ofSeconds(50)));
+            assertThat(lastFiveMinutes)
+                    .isEqualTo(new OrderRate(RateWindow.FIVE_MINUTES, 3, 1, Duration.ofSeconds(290)));
+        }
+
+        @Test
+        void ShouldAverageOverCoveredTime_WhenCurrentBucketHasJustStarted() {
+            // given
+            for (int i = 0; i < 10; i++) {
+                clock.advance(Duration.ofSeconds(5));
+                testInstance.recordCreated(1);
+            }
+            clock.advance(Duration.ofSeconds(5));
+
+            // when
+            OrderRate lastMinute = testInstance.getRate(1, RateWindow.ONE_MINUTE);
+
+            // then
+            assertThat(lastMinute.coveredTime()).isEqualTo(Duration.ofSeconds(55));
+            assertThat(lastMinute.createdPerMinute()).isCloseTo(10 / 55.0 * 60, within(1e-9));
+            assertThat(lastMinute.completedPerMinute()).isZero();
+        }
+
+        @Test
+        void ShouldForgetOrders_WhenTheyFallOutOfLongestWindow() {
+            // given
+            testInstance.recordCreated(1);
+            clock.advance(Duration.ofMinutes(14));
+            testInstance.recordCreated(1);
+
+            // when
+            clock.advance(Duration.ofMinutes(2));
+            testInstance.recordCreated(1);
+
+            // then
+            assertThat(testInstance.getRate(1, RateWindow.FIFTEEN_MINUTES).createdOrders()).isEqualTo(2);
+            clock.advance(Duration.ofHours(1));
+            assertThat(testInstance.getRate(1, RateWindow.FIFTEEN_MINUTES).createdOrders()).isZero();
+        }
+
+        @Test
+        void ShouldReportEveryBuilding_WhenRatesOfAllBuildingsAreRequested() {
+            // given
+            testInstance.recordCreated(2);
+            testInstance.recordCreated(1);
+            testInstance.recordCompleted(2);
+
+            // when
+            Map<Integer, OrderRate> rates = testInstance.getRates(RateWindow.ONE_MINUTE);
+
+            // then
+            assertThat(rates).containsExactly(
+                    Map.entry(1, new OrderRate(RateWindow.ONE_MINUTE, 1, 0, Duration.ofSeconds(50))),
+                    Map.entry(2, new OrderRate(RateWindow.ONE_MINUTE, 1, 1, Duration.ofSeconds(50))));
+            assertThat(testInstance.getRate(3, RateWindow.ONE_MINUTE).createdOrders()).isZero();
+        }
+
+        @Test
+        void ShouldCountEveryOrder_WhenOrdersAreRecordedConcurrently() throws InterruptedException {
+            // given
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+
+            // when
+            for (int i = 0; i < 10_000; i++) {
+                executor.execute(() -> testInstance.recordCreated(1));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(testInstance.getRate(1, RateWindow.ONE_MINUTE).createdOrders()).isEqualTo(10_000);
+        }
+    }
+
+    @Nested
+    class PancakeServiceRates {
+
+        @Test
+        void ShouldCountCreatedAndCompletedOrders_WhenServiceProcessesOrders() {
+            // given
+            PancakeService pancakeService = PancakeService.builder(new InMemoryOrderRepository(), new PancakeMenu())
+                    .withClock(clock)
+                    .withOrderRateTracker(testInstance)
+                    .build();
+            Order order = pancakeService.createOrder(5, 1);
+            pancakeService.createOrder(5, 2);
+            pancakeService.addPancakeToOrder(order, "Delicious pancake with dark chocolate!", 1);
+
+            // when
+            pancakeService.completeOrder(order);
+
+            // then
+            assertThat(pancakeService.getOrderRate(5, RateWindow.FIFTEEN_MINUTES))
+                    .isEqualTo(new OrderRate(RateWindow.FIFTEEN_MINUTES, 2, 1, Duration.ofSeconds(890)));
+        }
+    }
+}
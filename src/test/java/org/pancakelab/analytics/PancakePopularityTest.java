@@ -0,0 +1,231 @@
+package org.pancakelab.analytics;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class PancakePopularityTest {
+
+    private static final Pancake DARK_CHOCOLATE = new Pancake(List.of(Ingredient.DARK_CHOCOLATE));
+    private static final Pancake NUTTY = new Pancake(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS));
+    private static final Pancake MUSTARD = new Pancake(List.of(Ingredient.MUSTARD));
+
+    private final TestClock clock = new TestClock();
+    private final PancakePopularity testInstance = new PancakePopularity(clock, Duration.ofMinutes(10), 1024, 4);
+
+    @Nested
+    class TopPancakes {
+
+        @Test
+        void ShouldReportMostOrderedPancakesFirst_WhenPancakesAreRecorded() {
+            // given
+            testInstance.record(1, DARK_CHOCOLATE, 5);
+            testInstance.record(1, NUTTY, 8);
+            testInstance.record(2, MUSTARD, 1);
+
+            // when
+            List<Popularity<Pancake>> topPancakes = testInstance.getTopPancakes(2);
+
+            // then
+            assertThat(topPancakes).containsExactly(new Popularity<>(NUTTY, 8), new Popularity<>(DARK_CHOCOLATE, 5));
+        }
+
+        @Test
+        void ShouldReportPancakesOfBuildingOnly_WhenBuildingIsGiven() {
+            // given
+            testInstance.record(1, DARK_CHOCOLATE, 5);
+            testInstance.record(2, MUSTARD, 1);
+            testInstance.record(2, DARK_CHOCOLATE, 2);
+
+            // when
+            List<Popularity<Pancake>> topPancakes = testInstance.getTopPancakes(2, 10);
+
+            // then
+            assertThat(topPancakes).containsExactly(new Popularity<>(DARK_CHOCOLATE, 2), new Popularity<>(MUSTARD, 1));
+            assertThat(testInstance.getTopPancakes(3, 10)).isEmpty();
+        }
+
+        @Test
+        void ShouldFindHeavyHitters_WhenManyMorePancakesAreOrderedThanTracked() {
+            // given
+            List<Pancake> rarePancakes = new ArrayList<>();
+            for (int size = 2; size < 8; size++) {
+                for (Ingredient ingredient : Ingredient.values()) {
+                    rarePancakes.add(new Pancake(Collections.nCopies(size, ingredient)));
+                }
+            }
+
+            // when
+            for (int round = 0; round < 20; round++) {
+                rarePancakes.forEach(pancake -> testInstance.record(1, pancake, 1));
+                testInstance.record(1, DARK_CHOCOLATE, 5);
+                testInstance.record(1, NUTTY, 3);
+            }
+
+            // then
+            assertThat(testInstance.getTopPancakes(2)).extracting(Popularity::item)
+                    .containsExactly(DARK_CHOCOLATE, NUTTY);
+        }
+
+        @Test
+        void ShouldLetNewFavouriteOvertakeOldOne_WhenCountsDecay() {
+            // given
+            testInstance.record(1, DARK_CHOCOLATE, 40);
+
+            // when
+            clock.advance(Duration.ofMinutes(30));
+            testInstance.record(1, NUTTY, 10);
+
+            // then
+            assertThat(testInstance.getTopPancakes(2))
+                    .containsExactly(new Popularity<>(NUTTY, 10), new Popularity<>(DARK_CHOCOLATE, 5));
+        }
+    }
+
+    @Nested
+    class TopIngredients {
+
+        @Test
+        void ShouldCountIngredientsOfAllPancakes_WhenPancakesAreRecorded() {
+            // given
+            testInstance.record(1, NUTTY, 2);
+            testInstance.record(1, new Pancake(List.of(Ingredient.HAZELNUTS, Ingredient.WHIPPED_CREAM)), 1);
+
+            // when
+            List<Popularity<Ingredient>> topIngredients = testInstance.getTopIngredients(1, 2);
+
+            // then
+            assertThat(topIngredients).containsExactly(
+                    new Popularity<>(Ingredient.HAZELNUTS, 3), new Popularity<>(Ingredient.MILK_CHOCOLATE, 2));
+        }
+
+        @Test
+        void ShouldFeedPopularity_WhenPancakesAreAddedToOrders() {
+            // given
+            PancakeService pancakeService = PancakeService.builder(new InMemoryOrderRepository(), new PancakeMenu())
+                    .withPancakePopularity(testInstance)
+                    .build();
+            Order order = pancakeService.createOrder(4, 1);
+
+            // when
+            pancakeService.addPancakeToOrder(order, "Delicious pancake with dark chocolate!", 2);
+            pancakeService.addPancakeToOrder(order, List.of(Ingredient.HAZELNUTS, Ingredient.DARK_CHOCOLATE), 1);
+
+            // then
+            assertThat(pancakeService.getPopularIngredients(4, 1))
+                    .containsExactly(new Popularity<>(Ingredient.DARK_CHOCOLATE, 3));
+            assertThat(pancakeService.getPopularPancakes(1)).containsExactly(new Popularity<>(DARK_CHOCOLATE, 2));
+        }
+    }
+
+    @Nested
+    class Candidates {
+
+        @RepeatedTest(10)
+        void ShouldNotExceedCapacity_WhenNewKeysAreOfferedConcurrently() throws InterruptedException {
+            // given
+            HeavyHitters<Long> heavyHitters = new HeavyHitters<>(4);
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+            CyclicBarrier startingPoint = new CyclicBarrier(8);
+
+            // when
+            for (long thread = 0; thread < 8; thread++) {
+                long firstKey = thread * 1_000;
+                executorService.execute(() -> {
+                    try {
+                        startingPoint.await();
+                    } catch (InterruptedException | BrokenBarrierException e) {
+                        throw new RuntimeException(e);
+                    }
+                    for (long key = firstKey; key < firstKey + 1_000; key++) {
+                        heavyHitters.offer(key, key, 0, (candidate, epoch) -> candidate);
+                    }
+                });
+            }
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(heavyHitters.getCandidates()).hasSize(4);
+        }
+    }
+
+    @Nested
+    class Sketch {
+
+        @Test
+        void ShouldNeverUnderestimate_WhenKeysCollide() {
+            // given
+            DecayingCountMinSketch sketch = new DecayingCountMinSketch(16);
+
+            // when
+            for (long key = 0; key < 1000; key++) {
+                sketch.add(key, key % 7 + 1, 0);
+            }
+
+            // then
+            for (long key = 0; key < 1000; key++) {
+                assertThat(sketch.estimate(key, 0)).isGreaterThanOrEqualTo(key % 7 + 1);
+            }
+        }
+
+        @Test
+        void ShouldHalveCounts_WhenEpochsPass() {
+            // given
+            DecayingCountMinSketch sketch = new DecayingCountMinSketch(1024);
+            sketch.add(42, 100, 3);
+
+            // when
+            long estimate = sketch.add(42, 1, 5);
+
+            // then
+            assertThat(estimate).isEqualTo(26);
+            assertThat(sketch.estimate(42, 100)).isZero();
+        }
+
+        @Test
+        void ShouldNotCountAgain_WhenSixteenBitsOfEpochsPass() {
+            // given
+            DecayingCountMinSketch sketch = new DecayingCountMinSketch(1024);
+            sketch.add(42, 100, 3);
+
+            // when
+            long estimate = sketch.estimate(42, 3 + 65_536);
+
+            // then
+            assertThat(estimate).isZero();
+        }
+    }
+
+    @Test
+    void ShouldThrowException_WhenHalfLifeIsShorterThanSecond() {
+        // when
+        Exception exception = catchException(() ->
+                new PancakePopularity(clock, Duration.ofMillis(999), 1024, 4));
+
+        // then
+        assertThat(exception)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Half-life must be at least a second");
+    }
+}
@@ -0,0 +1,292 @@
+package org.pancakelab.archive.impl;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pancakelab.TestSamples;
+import org.pancakelab.archive.ArchiveColumn;
+import org.pancakelab.archive.ArchivedOrder;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class ColumnarOrderArchiveTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T10:15:30Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    class Archive {
+
+        @Test
+        void ShouldThrowException_WhenOrderIsNotFinished() {
+            // given
+            Order order = TestSamples.completedOrder();
+
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                // when
+                Exception exception = catchException(() -> testInstance.archive(order));
+
+                // then
+                assertThat(exception)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("Only delivered or cancelled orders can be archived");
+            }
+        }
+
+        @Test
+        void ShouldNotExposeBufferedOrders_WhenBlockIsNotFlushed() {
+            // given
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                testInstance.archive(TestSamples.deliveredOrder());
+
+                // when
+                List<UUID> orderIds = scanOrderIds(testInstance);
+
+                // then
+                assertThat(orderIds).isEmpty();
+            }
+        }
+
+        @Test
+        void ShouldWriteBufferedOrders_WhenServiceIsClosed() {
+            // given
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                PancakeService pancakeService = PancakeService.builder(new InMemoryOrderRepository(), new PancakeMenu())
+                        .withOrderArchive(testInstance)
+                        .build();
+                Order order = pancakeService.createOrder(1, 1);
+                pancakeService.cancelOrder(order);
+
+                // when
+                pancakeService.close();
+
+                // then
+                assertThat(scanOrderIds(testInstance)).containsExactly(order.getId());
+            }
+        }
+    }
+
+    @Nested
+    class Scan {
+
+        @Test
+        void ShouldReadAllColumns_WhenOrdersAreFlushed() {
+            // given
+            Order deliveredOrder = new Order(new Address(7, 12));
+            deliveredOrder.addPancake(TestSamples.pancake(), 2);
+            deliveredOrder.markCompleted();
+            deliveredOrder.markPrepared();
+            deliveredOrder.markDelivered();
+
+            Order cancelledOrder = TestSamples.cancelledOrder();
+
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                testInstance.archive(deliveredOrder);
+                testInstance.archive(cancelledOrder);
+                testInstance.flush();
+
+                // when
+                List<String> rows = new ArrayList<>();
+                testInstance.scan(EnumSet.allOf(ArchiveColumn.class), archivedOrder ->
+                        rows.add(archivedOrder.getOrderId() + " " + archivedOrder.getArchivedAt() + " " +
+                                archivedOrder.getState() + " " + archivedOrder.getBuilding() + "/" +
+                                archivedOrder.getRoom() + " " + pancakesOf(archivedOrder)));
+
+                // then
+                assertThat(rows).containsExactly(
+                        deliveredOrder.getId() + " " + NOW.toEpochMilli() + " DELIVERED 7/12 " +
+                                Map.of(TestSamples.pancake(), 2),
+                        cancelledOrder.getId() + " " + NOW.toEpochMilli() + " CANCELLED 1/1 " +
+                                Map.of(TestSamples.pancake(), 1)
+                );
+            }
+        }
+
+        @Test
+        void ShouldReadPancakes_WhenOrdersAreFlushed() {
+            // given
+            Pancake hazelnutPancake = new Pancake(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS));
+            Order order = new Order(new Address(7, 12));
+            order.addPancake(TestSamples.pancake(), 2);
+            order.addPancake(hazelnutPancake, 3);
+            order.markCancelled();
+
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                testInstance.archive(order);
+                testInstance.flush();
+
+                // when
+                List<Map<Pancake, Integer>> pancakes = new ArrayList<>();
+                testInstance.scan(EnumSet.of(ArchiveColumn.PANCAKES), archivedOrder ->
+                        pancakes.add(pancakesOf(archivedOrder)));
+
+                // then
+                assertThat(pancakes).containsExactly(Map.of(
+                        TestSamples.pancake(), 2,
+                        hazelnutPancake, 3
+                ));
+            }
+        }
+
+        @Test
+        void ShouldThrowException_WhenReadingColumnWhichWasNotRequested() {
+            // given
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                testInstance.archive(TestSamples.deliveredOrder());
+                testInstance.flush();
+
+                // when
+                List<Exception> exceptions = new ArrayList<>();
+                testInstance.scan(EnumSet.of(ArchiveColumn.BUILDING), archivedOrder ->
+                        exceptions.add(catchException(archivedOrder::getOrderId)));
+
+                // then
+                assertThat(exceptions).hasSize(1);
+                assertThat(exceptions.get(0))
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessageContaining("Column ORDER_ID was not requested for this scan");
+            }
+        }
+
+        @Test
+        void ShouldReadOrdersInArchivingOrder_WhenOrdersSpanMultipleBlocks() {
+            // given
+            List<UUID> archivedOrderIds = new ArrayList<>();
+            try (ColumnarOrderArchive testInstance = newArchive(2)) {
+                for (int i = 0; i < 5; i++) {
+                    Order order = TestSamples.deliveredOrder();
+                    testInstance.archive(order);
+                    archivedOrderIds.add(order.getId());
+                }
+                testInstance.flush();
+
+                // when
+                List<UUID> orderIds = scanOrderIds(testInstance);
+
+                // then
+                assertThat(orderIds).containsExactlyElementsOf(archivedOrderIds);
+            }
+        }
+
+        @Test
+        void ShouldReadPreviouslyArchivedOrders_WhenArchiveIsReopened() throws Exception {
+            // given
+            Order firstOrder = TestSamples.deliveredOrder();
+            try (ColumnarOrderArchive archive = newArchive(10)) {
+                archive.archive(firstOrder);
+            }
+            Order secondOrder = TestSamples.cancelledOrder();
+
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                testInstance.archive(secondOrder);
+                testInstance.flush();
+
+                // when
+                List<UUID> orderIds = scanOrderIds(testInstance);
+
+                // then
+                assertThat(orderIds).containsExactly(firstOrder.getId(), secondOrder.getId());
+            }
+        }
+
+        @Test
+        void ShouldDropIncompleteBlock_WhenArchiveIsReopenedAfterCrash() throws Exception {
+            // given
+            Path file = tempDir.resolve("orders.archive");
+            Order firstOrder = TestSamples.deliveredOrder();
+            try (ColumnarOrderArchive archive = newArchive(10)) {
+                archive.archive(firstOrder);
+            }
+            long completeSize = Files.size(file);
+            try (ColumnarOrderArchive archive = newArchive(10)) {
+                archive.archive(TestSamples.cancelledOrder());
+            }
+            byte[] content = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(content, content.length - 3));
+            Order secondOrder = TestSamples.cancelledOrder();
+
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                testInstance.archive(secondOrder);
+                testInstance.flush();
+
+                // when
+                List<UUID> orderIds = scanOrderIds(testInstance);
+
+                // then
+                assertThat(orderIds).containsExactly(firstOrder.getId(), secondOrder.getId());
+                assertThat(Files.size(file)).isGreaterThan(completeSize);
+            }
+        }
+
+        @Test
+        void ShouldDropIncompleteBlockHeader_WhenArchiveIsReopenedAfterCrash() throws Exception {
+            // given
+            Path file = tempDir.resolve("orders.archive");
+            Order order = TestSamples.deliveredOrder();
+            try (ColumnarOrderArchive archive = newArchive(10)) {
+                archive.archive(order);
+            }
+            long completeSize = Files.size(file);
+            Files.write(file, new byte[]{0, 0}, StandardOpenOption.APPEND);
+
+            // when
+            try (ColumnarOrderArchive testInstance = newArchive(10)) {
+                List<UUID> orderIds = scanOrderIds(testInstance);
+
+                // then
+                assertThat(orderIds).containsExactly(order.getId());
+                assertThat(Files.size(file)).isEqualTo(completeSize);
+            }
+        }
+
+        @Test
+        void ShouldThrowException_WhenFileIsNotAnArchive() throws Exception {
+            // given
+            Path file = tempDir.resolve("not-an-archive.bin");
+            Files.writeString(file, "pancakes");
+
+            // when
+            Exception exception = catchException(() -> new ColumnarOrderArchive(file));
+
+            // then
+            assertThat(exception).hasMessageContaining("Cannot open order archive");
+        }
+    }
+
+    private ColumnarOrderArchive newArchive(int blockSize) {
+        return new ColumnarOrderArchive(tempDir.resolve("orders.archive"), blockSize,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static List<UUID> scanOrderIds(ColumnarOrderArchive archive) {
+        List<UUID> orderIds = new ArrayList<>();
+        archive.scan(EnumSet.of(ArchiveColumn.ORDER_ID), archivedOrder -> orderIds.add(archivedOrder.getOrderId()));
+        return orderIds;
+    }
+
+    private static Map<Pancake, Integer> pancakesOf(ArchivedOrder archivedOrder) {
+        Map<Pancake, Integer> pancakes = new HashMap<>();
+        for (int i = 0; i < archivedOrder.getPancakeCount(); i++) {
+            pancakes.put(archivedOrder.getPancake(i), archivedOrder.getQuantity(i));
+        }
+        return pancakes;
+    }
+}
@@ -0,0 +1,229 @@
+package org.pancakelab.inventory.impl;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.inventory.exception.OutOfStockException;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class StripedIngredientInventoryTest {
+
+    private static final Pancake DARK_CHOCOLATE_HAZELNUTS =
+            new Pancake(List.of(Ingredient.DARK_CHOCOLATE, Ingredient.HAZELNUTS));
+
+    private final StripedIngredientInventory testInstance = new StripedIngredientInventory(Map.of(
+            Ingredient.DARK_CHOCOLATE, 10L,
+            Ingredient.HAZELNUTS, 3L
+    ), 4);
+
+    @Nested
+    class Reserve {
+
+        @Test
+        void ShouldTakeIngredientsFromStock_WhenEnoughInStock() {
+            // given
+            Order order = order(DARK_CHOCOLATE_HAZELNUTS, 2);
+
+            // when
+            boolean reserved = testInstance.reserve(order);
+
+            // then
+            assertThat(reserved).isTrue();
+            assertThat(testInstance.getAvailable(Ingredient.DARK_CHOCOLATE)).isEqualTo(8);
+            assertThat(testInstance.getAvailable(Ingredient.HAZELNUTS)).isEqualTo(1);
+        }
+
+        @Test
+        void ShouldReserveOnce_WhenOrderIsReservedTwice() {
+            // given
+            Order order = order(DARK_CHOCOLATE_HAZELNUTS, 1);
+            testInstance.reserve(order);
+
+            // when
+            boolean reserved = testInstance.reserve(order);
+
+            // then
+            assertThat(reserved).isFalse();
+            assertThat(testInstance.getAvailable(Ingredient.DARK_CHOCOLATE)).isEqualTo(9);
+        }
+
+        @Test
+        void ShouldReserveNothing_WhenOneIngredientIsShort() {
+            // given
+            Order order = order(DARK_CHOCOLATE_HAZELNUTS, 4);
+
+            // when
+            Exception exception = catchException(() -> testInstance.reserve(order));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(OutOfStockException.class)
+                    .hasMessageContaining("hazelnuts");
+            assertThat(testInstance.getAvailable(Ingredient.DARK_CHOCOLATE)).isEqualTo(10);
+            assertThat(testInstance.getAvailable(Ingredient.HAZELNUTS)).isEqualTo(3);
+        }
+
+        @RepeatedTest(10)
+        void ShouldNeverOverdrawStock_WhenReservingConcurrently() throws InterruptedException {
+            // given
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+            AtomicInteger reservedOrders = new AtomicInteger();
+            Pancake darkChocolate = new Pancake(List.of(Ingredient.DARK_CHOCOLATE));
+
+            // when
+            IntStream.range(0, 100).forEach(i -> executorService.execute(() -> {
+                try {
+                    testInstance.reserve(order(darkChocolate, 1));
+                    reservedOrders.incrementAndGet();
+                } catch (OutOfStockException e) {
+                    // expected for most of the orders
+                }
+            }));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(reservedOrders.get()).isLessThanOrEqualTo(10);
+            assertThat(testInstance.getAvailable(Ingredient.DARK_CHOCOLATE)).isEqualTo(10 - reservedOrders.get());
+        }
+    }
+
+    @Nested
+    class Release {
+
+        @Test
+        void ShouldReturnIngredientsToStock_WhenOrderIsReserved() {
+            // given
+            Order order = order(DARK_CHOCOLATE_HAZELNUTS, 3);
+            testInstance.reserve(order);
+
+            // when
+            testInstance.release(order);
+            testInstance.release(order);
+
+            // then
+            assertThat(testInstance.getAvailable(Ingredient.DARK_CHOCOLATE)).isEqualTo(10);
+            assertThat(testInstance.getAvailable(Ingredient.HAZELNUTS)).isEqualTo(3);
+        }
+
+        @Test
+        void ShouldKeepStock_WhenReservationIsConsumed() {
+            // given
+            Order order = order(DARK_CHOCOLATE_HAZELNUTS, 3);
+            testInstance.reserve(order);
+
+            // when
+            testInstance.consume(order);
+            testInstance.release(order);
+
+            // then
+            assertThat(testInstance.getAvailable(Ingredient.HAZELNUTS)).isZero();
+        }
+    }
+
+    @Nested
+    class CompleteOrder {
+
+        private final PancakeService pancakeService =
+                PancakeService.builder(new InMemoryOrderRepository(), new PancakeMenu())
+                        .withIngredientInventory(testInstance)
+                        .build();
+
+        @Test
+        void ShouldKeepOrderNew_WhenIngredientsAreOutOfStock() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, List.of(Ingredient.HAZELNUTS), 4);
+
+            // when
+            Exception exception = catchException(() -> pancakeService.completeOrder(order));
+
+            // then
+            assertThat(exception).isInstanceOf(OutOfStockException.class);
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.NEW);
+            assertThat(testInstance.getAvailable(Ingredient.HAZELNUTS)).isEqualTo(3);
+        }
+
+        @Test
+        void ShouldReserveNothing_WhenOrderCannotBeCompleted() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, List.of(Ingredient.HAZELNUTS), 1);
+            pancakeService.cancelOrder(order);
+
+            // when
+            Exception exception = catchException(() -> pancakeService.completeOrder(order));
+
+            // then
+            assertThat(exception).isNotNull();
+            assertThat(testInstance.getAvailable(Ingredient.HAZELNUTS)).isEqualTo(3);
+        }
+
+        @Test
+        void ShouldConsumeReservation_WhenOrderIsDelivered() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, List.of(Ingredient.HAZELNUTS), 2);
+
+            // when
+            pancakeService.completeOrder(order);
+            pancakeService.prepareOrder(order);
+            pancakeService.deliverOrder(order);
+
+            // then
+            assertThat(testInstance.getAvailable(Ingredient.HAZELNUTS)).isEqualTo(1);
+        }
+
+        @RepeatedTest(10)
+        void ShouldReserveCompletedPancakesOnce_WhenCompletingWhilePancakesAreAdded() throws InterruptedException {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, List.of(Ingredient.DARK_CHOCOLATE), 1);
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+            // when
+            IntStream.range(0, 16).forEach(i -> executorService.execute(() -> {
+                try {
+                    if (i % 2 == 0) {
+                        pancakeService.completeOrder(order);
+                    } else {
+                        pancakeService.addPancakeToOrder(order, List.of(Ingredient.DARK_CHOCOLATE), 1);
+                    }
+                } catch (RuntimeException e) {
+                    // expected for pancakes added after the order has been completed
+                }
+            }));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            int completedQuantity = order.getPancakes().values().iterator().next();
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.COMPLETED);
+            assertThat(testInstance.getAvailable(Ingredient.DARK_CHOCOLATE)).isEqualTo(10 - completedQuantity);
+        }
+    }
+
+    private static Order order(Pancake pancake, int quantity) {
+        Order order = new Order(new Address(1, 1));
+        order.addPancake(pancake, quantity);
+        return order;
+    }
+}
@@ -0,0 +1,78 @@
+package org.pancakelab.metrics;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram testInstance = new LatencyHistogram();
+
+    @Nested
+    class Buckets {
+
+        @ParameterizedTest
+        @ValueSource(longs = {0, 1, 31, 32, 33, 1_000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE})
+        void ShouldReportValueWithinThreePercent_WhenValueIsRecorded(long value) {
+            // when
+            long reported = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+
+            // then
+            assertThat(reported).isGreaterThanOrEqualTo(value);
+            assertThat((double) reported).isCloseTo(value, within(value * 0.032));
+        }
+    }
+
+    @Nested
+    class Summarize {
+
+        @Test
+        void ShouldReportZeros_WhenNothingIsRecorded() {
+            // when
+            LatencySummary summary = testInstance.summarize();
+
+            // then
+            assertThat(summary).isEqualTo(new LatencySummary(0, Duration.ZERO, Duration.ZERO, Duration.ZERO));
+        }
+
+        @Test
+        void ShouldReportPercentiles_WhenDurationsAreRecorded() {
+            // given
+            IntStream.rangeClosed(1, 1000).forEach(i -> testInstance.record(TimeUnit.MICROSECONDS.toNanos(i)));
+
+            // when
+            LatencySummary summary = testInstance.summarize();
+
+            // then
+            assertThat(summary.count()).isEqualTo(1000);
+            assertThat((double) summary.p50().toNanos()).isCloseTo(500_000, within(500_000 * 0.032));
+            assertThat((double) summary.p99().toNanos()).isCloseTo(990_000, within(990_000 * 0.032));
+            assertThat((double) summary.p999().toNanos()).isCloseTo(999_000, within(999_000 * 0.032));
+        }
+
+        @Test
+        void ShouldCountEveryDuration_WhenRecordedConcurrently() throws InterruptedException {
+            // given
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+            // when
+            IntStream.range(0, 8).forEach(thread -> executorService.execute(() ->
+                    IntStream.range(0, 10_000).forEach(i -> testInstance.record(i))));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(testInstance.count()).isEqualTo(80_000);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.pancakelab.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class MetricsRegistryTest {
+
+    private static final String DARK_CHOCOLATE_PANCAKE_DESCRIPTION = "Delicious pancake with dark chocolate!";
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final MetricsRegistry testInstance = new MetricsRegistry("test-" + System.nanoTime());
+
+    @AfterEach
+    void unregisterMBeans() {
+        testInstance.unregisterMBeans();
+    }
+
+    @Nested
+    class Record {
+
+        @Test
+        void ShouldReturnSameMetric_WhenNameIsRequestedAgain() {
+            // given
+            Counter counter = testInstance.counter("requests");
+
+            // when
+            testInstance.counter("requests").add(2);
+            counter.increment();
+
+            // then
+            assertThat(testInstance.counter("requests")).isSameAs(counter);
+            assertThat(counter.getCount()).isEqualTo(3);
+        }
+
+        @Test
+        void ShouldSummarizeDurations_WhenTimerRecordsOperations() {
+            // given
+            Timer timer = testInstance.timer("operation");
+
+            // when
+            timer.record(100);
+            timer.record(300);
+            timer.record(-5);
+
+            // then
+            assertThat(timer.getCount()).isEqualTo(3);
+            assertThat(timer.getTotalTimeNanos()).isEqualTo(400);
+            assertThat(timer.getMaxTimeNanos()).isEqualTo(300);
+            assertThat(timer.getMeanTimeNanos()).isEqualTo(400 / 3.0);
+        }
+
+        @Test
+        void ShouldReadSourceOnDemand_WhenGaugeIsRead() {
+            // given
+            AtomicLong source = new AtomicLong(1);
+            Gauge gauge = testInstance.gauge("size", source::get);
+
+            // when
+            source.set(42);
+
+            // then
+            assertThat(gauge.getValue()).isEqualTo(42);
+        }
+
+        @Test
+        void ShouldThrowException_WhenNameBelongsToAnotherKindOfMetric() {
+            // given
+            testInstance.counter("requests");
+
+            // when
+            Exception exception = catchException(() -> testInstance.timer("requests"));
+
+            // then
+            assertThat(exception).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Export {
+
+        @Test
+        void ShouldExposeMetricsAsPlatformMBeans_WhenRegistered() throws Exception {
+            // given
+            testInstance.counter("requests").add(5);
+
+            // when
+            testInstance.registerMBeans();
+            testInstance.timer("operation").record(10);
+
+            // then
+            assertThat(mBeanServer.getAttribute(objectName("Counter", "requests"), "Count")).isEqualTo(5L);
+            assertThat(mBeanServer.getAttribute(objectName("Timer", "operation"), "MaxTimeNanos")).isEqualTo(10L);
+        }
+
+        @Test
+        void ShouldRemoveMBeans_WhenUnregistered() throws Exception {
+            // given
+            testInstance.counter("requests");
+            testInstance.registerMBeans();
+
+            // when
+            testInstance.unregisterMBeans();
+
+            // then
+            assertThat(mBeanServer.isRegistered(objectName("Counter", "requests"))).isFalse();
+        }
+
+        private ObjectName objectName(String type, String name) throws Exception {
+            return new ObjectName("org.pancakelab:type=" + type + ",registry=" + ObjectName.quote(testInstance.getName()) +
+                    ",name=" + ObjectName.quote(name));
+        }
+    }
+
+    @Nested
+    class PancakeServiceMetrics {
+
+        private final InMemoryOrderRepository orderRepository = new InMemoryOrderRepository();
+        private final PancakeService pancakeService = PancakeService.builder(orderRepository, new PancakeMenu())
+                .withMetricsRegistry(testInstance)
+                .build();
+
+        @Test
+        void ShouldTimeServiceMethodsAndCountOrders_WhenOrdersAreProcessed() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+            pancakeService.completeOrder(order);
+
+            // when
+            pancakeService.getCompletedOrders();
+            pancakeService.prepareOrder(order);
+            long storedOrders = gauge("repository.orders");
+            pancakeService.deliverOrder(order);
+
+            // then
+            assertThat(testInstance.timer("createOrder").getCount()).isEqualTo(1);
+            assertThat(testInstance.timer("addPancakeToOrder").getCount()).isEqualTo(1);
+            assertThat(testInstance.timer("getCompletedOrders").getCount()).isEqualTo(1);
+            assertThat(testInstance.timer("deliverOrder").getTotalTimeNanos()).isPositive();
+            assertThat(testInstance.counter("ordersCreated").getCount()).isEqualTo(1);
+            assertThat(testInstance.counter("ordersDelivered").getCount()).isEqualTo(1);
+            assertThat(storedOrders).isEqualTo(1);
+            assertThat(gauge("repository.orders")).isZero();
+        }
+
+        private long gauge(String name) {
+            return ((Gauge) testInstance.getMetrics().get(name)).getValue();
+        }
+    }
+}
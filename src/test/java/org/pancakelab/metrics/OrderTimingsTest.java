@@ -0,0 +1,126 @@
+package org.pancakelab.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.event.OrderChangeStream;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderTimingsTest {
+
+    private static final String DARK_CHOCOLATE_PANCAKE_DESCRIPTION = "Delicious pancake with dark chocolate!";
+
+    private final TestClock clock = new TestClock();
+    private final OrderRepository orderRepository =
+            new InMemoryOrderRepository(new OrderChangeStream(Runnable::run, 16, 1024));
+    private final PancakeService pancakeService = PancakeService.builder(orderRepository, new PancakeMenu())
+            .withClock(clock)
+            .build();
+
+    @Test
+    void ShouldRecordDwellTimes_WhenOrdersMoveThroughStates() {
+        // given
+        Order order = pancakeService.createOrder(1, 1);
+        pancakeService.addPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+
+        // when
+        clock.advance(Duration.ofMinutes(2));
+        pancakeService.completeOrder(order);
+        clock.advance(Duration.ofMinutes(5));
+        pancakeService.prepareOrder(order);
+        clock.advance(Duration.ofMinutes(10));
+        pancakeService.deliverOrder(order);
+
+        // then
+        assertDuration(pancakeService.getDwellTime(OrderProcessingState.NEW).p50(), Duration.ofMinutes(2));
+        assertDuration(pancakeService.getDwellTime(OrderProcessingState.COMPLETED).p99(), Duration.ofMinutes(5));
+        assertDuration(pancakeService.getDwellTime(OrderProcessingState.PREPARED).p999(), Duration.ofMinutes(10));
+        assertThat(pancakeService.getDwellTime(OrderProcessingState.DELIVERED).count()).isZero();
+        assertThat(pancakeService.getLeadTime().count()).isEqualTo(1);
+        assertDuration(pancakeService.getLeadTime().p50(), Duration.ofMinutes(17));
+    }
+
+    @Test
+    void ShouldNotRecordLeadTime_WhenOrderIsCancelled() {
+        // given
+        Order order = pancakeService.createOrder(1, 1);
+        clock.advance(Duration.ofSeconds(30));
+
+        // when
+        pancakeService.cancelOrder(order);
+
+        // then
+        assertDuration(pancakeService.getDwellTime(OrderProcessingState.NEW).p50(), Duration.ofSeconds(30));
+        assertThat(pancakeService.getLeadTime().count()).isZero();
+    }
+
+    @Test
+    void ShouldNotFollowChangeStream_WhenServiceIsBuiltWithoutOrderTimings() {
+        // given
+        OrderChangeStream changeStream = new OrderChangeStream(Runnable::run, 16, 1024);
+        PancakeService untimedService = PancakeService.builder(new InMemoryOrderRepository(changeStream),
+                        new PancakeMenu())
+                .withClock(clock)
+                .withoutOrderTimings()
+                .build();
+        Order order = untimedService.createOrder(1, 1);
+        untimedService.addPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+
+        // when
+        untimedService.completeOrder(order);
+
+        // then
+        assertThat(changeStream.getLastSequence()).isZero();
+        assertThat(untimedService.getDwellTime(OrderProcessingState.NEW).count()).isZero();
+        assertThat(untimedService.getLeadTime().count()).isZero();
+    }
+
+    @Test
+    void ShouldRecordLaterTransitions_WhenTimingsFellBehindChangeStream() {
+        // given
+        Queue<Runnable> deliveries = new ArrayDeque<>();
+        OrderRepository laggingRepository = new InMemoryOrderRepository(new OrderChangeStream(deliveries::add, 16, 2));
+        OrderTimings orderTimings = new OrderTimings(laggingRepository);
+        Order order = new Order(new Address(1, 1), clock);
+        laggingRepository.saveOrder(order);
+        order.addPancake(new Pancake(List.of(Ingredient.DARK_CHOCOLATE)), 1);
+        order.markCompleted();
+        deliverAll(deliveries);
+
+        // when
+        clock.advance(Duration.ofMinutes(3));
+        order.markPrepared();
+        deliverAll(deliveries);
+
+        // then
+        assertThat(orderTimings.getResubscriptions()).isEqualTo(1);
+        assertThat(orderTimings.getDwellTime(OrderProcessingState.NEW).count()).isZero();
+        assertDuration(orderTimings.getDwellTime(OrderProcessingState.COMPLETED).p50(), Duration.ofMinutes(3));
+    }
+
+    private static void deliverAll(Queue<Runnable> deliveries) {
+        Runnable delivery;
+        while ((delivery = deliveries.poll()) != null) {
+            delivery.run();
+        }
+    }
+
+    private static void assertDuration(Duration actual, Duration expected) {
+        assertThat((double) actual.toNanos()).isCloseTo(expected.toNanos(), within(expected.toNanos() * 0.032));
+    }
+}
@@ -0,0 +1,45 @@
+package org.pancakelab.model.order;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.AllocationMeter;
+import org.pancakelab.TestSamples;
+import org.pancakelab.model.pancake.Pancake;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation budgets of the hot paths of an order, in bytes per operation.
+ */
+class OrderAllocationTest {
+
+    private static final double ADD_PANCAKE_BUDGET = 16;
+    private static final double GET_ORDER_PROCESSING_STATE_BUDGET = 1;
+
+    private final AllocationMeter allocationMeter = new AllocationMeter();
+
+    @Test
+    void ShouldStayWithinBudget_WhenAddingPancakeWhichIsAlreadyInOrder() {
+        // given
+        Pancake pancake = TestSamples.pancake();
+        Order order = TestSamples.newEmptyOrder();
+        order.addPancake(pancake, 1);
+
+        // when
+        double bytesPerOperation = allocationMeter.bytesPerOperation(() -> order.doAddPancake(pancake, 1));
+
+        // then
+        assertThat(bytesPerOperation).isLessThanOrEqualTo(ADD_PANCAKE_BUDGET);
+    }
+
+    @Test
+    void ShouldStayWithinBudget_WhenReadingOrderProcessingState() {
+        // given
+        Order order = TestSamples.completedOrder();
+
+        // when
+        double bytesPerOperation = allocationMeter.bytesPerOperation(order::getOrderProcessingState);
+
+        // then
+        assertThat(bytesPerOperation).isLessThanOrEqualTo(GET_ORDER_PROCESSING_STATE_BUDGET);
+    }
+}
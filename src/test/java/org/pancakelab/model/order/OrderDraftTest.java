@@ -0,0 +1,202 @@
+package org.pancakelab.model.order;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.TestSamples;
+import org.pancakelab.TestSubscriber;
+import org.pancakelab.inventory.exception.OutOfStockException;
+import org.pancakelab.inventory.impl.StripedIngredientInventory;
+import org.pancakelab.model.order.exception.InvalidQuantityException;
+import org.pancakelab.model.order.exception.OrderStateException;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.event.OrderChangeEvent;
+import org.pancakelab.repository.event.OrderChangeStream;
+import org.pancakelab.repository.event.OrderChangeType;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class OrderDraftTest {
+
+    private static final String DARK_CHOCOLATE_PANCAKE_DESCRIPTION = "Delicious pancake with dark chocolate!";
+
+    private final TestClock clock = new TestClock();
+    private final OrderDraft testInstance = new OrderDraft(new Address(1, 1));
+
+    @Nested
+    class EditDraft {
+
+        @Test
+        void ShouldMergeQuantities_WhenSamePancakeIsAddedTwice() {
+            // given
+            Pancake pancake = TestSamples.pancake();
+
+            // when
+            testInstance.addPancake(pancake, 1);
+            testInstance.addPancake(pancake, 2);
+
+            // then
+            assertThat(testInstance.getPancakes()).containsExactly(Map.entry(pancake, 3));
+        }
+
+        @Test
+        void ShouldRemovePancakeCompletely_WhenRemovingMoreThanExist() {
+            // given
+            Pancake pancake = TestSamples.pancake();
+            testInstance.addPancake(pancake, 2);
+
+            // when
+            testInstance.removePancake(pancake, 1);
+            Map<Pancake, Integer> afterPartialRemoval = Map.copyOf(testInstance.getPancakes());
+            testInstance.removePancake(pancake, 5);
+
+            // then
+            assertThat(afterPartialRemoval).containsExactly(Map.entry(pancake, 1));
+            assertThat(testInstance.getPancakes()).isEmpty();
+        }
+
+        @Test
+        void ShouldThrowException_WhenQuantityIsInvalid() {
+            // when
+            Exception exception = catchException(() -> testInstance.addPancake(TestSamples.pancake(), 0));
+
+            // then
+            assertThat(exception).isInstanceOf(InvalidQuantityException.class);
+        }
+    }
+
+    @Nested
+    class Commit {
+
+        @Test
+        void ShouldCreateNewOrderWithDraftPancakes_WhenCommitted() {
+            // given
+            Pancake pancake = TestSamples.pancake();
+            testInstance.addPancake(pancake, 2);
+
+            // when
+            Order order = testInstance.commit(clock);
+
+            // then
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.NEW);
+            assertThat(order.getDeliveryAddress()).isEqualTo(new Address(1, 1));
+            assertThat(order.getPancakes()).containsExactly(Map.entry(pancake, 2));
+            assertThat(order.getCreatedAt()).isEqualTo(clock.instant());
+        }
+
+        @Test
+        void ShouldCreateCompletedOrder_WhenCommittedAsCompleted() {
+            // given
+            testInstance.addPancake(TestSamples.pancake(), 1);
+
+            // when
+            Order order = testInstance.commitCompleted(clock);
+
+            // then
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.COMPLETED);
+            assertThat(order.getStateEnteredAt(OrderProcessingState.COMPLETED)).contains(order.getCreatedAt());
+        }
+
+        @Test
+        void ShouldThrowException_WhenCommittingEmptyDraftAsCompleted() {
+            // when
+            Exception exception = catchException(() -> testInstance.commitCompleted(clock));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(OrderStateException.class)
+                    .hasMessageContaining("Cannot complete an order with no pancakes");
+        }
+
+        @Test
+        void ShouldNotChangeOrder_WhenDraftIsEditedAfterCommit() {
+            // given
+            Pancake pancake = TestSamples.pancake();
+            testInstance.addPancake(pancake, 1);
+            Order order = testInstance.commit(clock);
+
+            // when
+            testInstance.addPancake(pancake, 1);
+
+            // then
+            assertThat(order.getPancakes()).containsExactly(Map.entry(pancake, 1));
+            assertThat(testInstance.commit(clock)).isNotEqualTo(order);
+        }
+    }
+
+    @Nested
+    class PlaceOrder {
+
+        private final OrderChangeStream changeStream = new OrderChangeStream(Runnable::run, 16, 1024);
+        private final OrderRepository orderRepository = new InMemoryOrderRepository(changeStream);
+        private final PancakeService pancakeService = PancakeService.builder(orderRepository, new PancakeMenu())
+                .withClock(clock)
+                .withIngredientInventory(new StripedIngredientInventory(Map.of(Ingredient.DARK_CHOCOLATE, 2L)))
+                .build();
+
+        @Test
+        void ShouldPublishSingleChange_WhenCompletedOrderIsPlaced() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            changeStream.subscribe(subscriber);
+            OrderDraft draft = pancakeService.newOrderDraft(1, 1);
+            pancakeService.addPancakeToDraft(draft, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 3);
+            pancakeService.removePancakeFromDraft(draft, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+
+            // when
+            Order order = pancakeService.placeCompletedOrder(draft);
+
+            // then
+            assertThat(subscriber.getItems().stream().flatMap(List::stream)).singleElement().satisfies(event -> {
+                assertThat(event.type()).isEqualTo(OrderChangeType.CREATED);
+                assertThat(event.state()).isEqualTo(OrderProcessingState.COMPLETED);
+            });
+            assertThat(pancakeService.getCompletedOrders()).containsExactly(order);
+            assertThat(pancakeService.viewOrder(order)).containsExactly(Map.entry(DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 2));
+        }
+
+        @Test
+        void ShouldNotStoreOrder_WhenIngredientsAreOutOfStock() {
+            // given
+            OrderDraft draft = pancakeService.newOrderDraft(1, 1);
+            pancakeService.addPancakeToDraft(draft, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 3);
+
+            // when
+            Exception exception = catchException(() -> pancakeService.placeCompletedOrder(draft));
+
+            // then
+            assertThat(exception).isInstanceOf(OutOfStockException.class);
+            assertThat(pancakeService.getCompletedOrders()).isEmpty();
+
+            // when
+            pancakeService.removePancakeFromDraft(draft, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+            Order order = pancakeService.placeCompletedOrder(draft);
+
+            // then
+            assertThat(pancakeService.getCompletedOrders()).containsExactly(order);
+        }
+
+        @Test
+        void ShouldStoreNewOrder_WhenDraftIsPlaced() {
+            // given
+            OrderDraft draft = pancakeService.newOrderDraft(2, 3);
+            pancakeService.addPancakeToDraft(draft, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+
+            // when
+            Order order = pancakeService.placeOrder(draft);
+
+            // then
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.NEW);
+            assertThat(pancakeService.getOrdersForRoom(2, 3)).containsExactly(order);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.pancakelab.model.order;
+
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestRecording;
+import org.pancakelab.TestSamples;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderEventsTest {
+
+    @Test
+    void ShouldRecordCreationAndEveryTransition_WhenOrderMovesThroughWorkflow() {
+        // given
+        List<RecordedEvent> events;
+        Order order;
+        try (TestRecording recording = new TestRecording("org.pancakelab.OrderCreated",
+                "org.pancakelab.OrderStateChanged")) {
+
+            // when
+            order = new Order(new Address(3, 7));
+            order.addPancake(TestSamples.pancake(), 1);
+            order.markCompleted();
+            order.markPrepared();
+            order.markDelivered();
+            events = eventsOf(recording.stop(), order);
+        }
+
+        // then
+        assertThat(events).extracting(event -> event.getEventType().getName()).containsExactly(
+                "org.pancakelab.OrderCreated",
+                "org.pancakelab.OrderStateChanged",
+                "org.pancakelab.OrderStateChanged",
+                "org.pancakelab.OrderStateChanged");
+        assertThat(events.get(0).getInt("building")).isEqualTo(3);
+        assertThat(events.get(0).getInt("room")).isEqualTo(7);
+        assertThat(events.subList(1, 4)).extracting(event -> event.getString("newState"))
+                .containsExactly("COMPLETED", "PREPARED", "DELIVERED");
+        assertThat(events.get(1).getString("oldState")).isEqualTo("NEW");
+    }
+
+    @Test
+    void ShouldRecordLockWait_WhenAnotherThreadHoldsWriteLock() throws Exception {
+        // given
+        Order order = TestSamples.newEmptyOrder();
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // listeners are attached under the write lock, so a blocking listener keeps it held
+        Thread holder = new Thread(() -> order.addListener(new OrderListener() {
+            @Override
+            public void onAttached(Order order, OrderProcessingState state) {
+                lockHeld.countDown();
+                awaitUninterruptibly(release);
+            }
+        }));
+        long contendedAcquisitions = OrderLockContention.getContendedAcquisitions();
+        List<RecordedEvent> events;
+        try (TestRecording recording = new TestRecording("org.pancakelab.OrderLockWait")) {
+            holder.start();
+            assertThat(lockHeld.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // when
+            Thread reader = new Thread(order::getOrderProcessingState);
+            reader.start();
+            while (reader.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            reader.join();
+            holder.join();
+            events = eventsOf(recording.stop(), order);
+        }
+
+        // then
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getBoolean("writeLock")).isFalse();
+            assertThat(event.getDuration()).isPositive();
+            assertThat(event.getStackTrace()).isNotNull();
+        });
+        assertThat(OrderLockContention.getContendedAcquisitions()).isGreaterThan(contendedAcquisitions);
+    }
+
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, Order order) {
+        return events.stream()
+                .filter(event -> order.getId().toString().equals(event.getString("orderId")))
+                .toList();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
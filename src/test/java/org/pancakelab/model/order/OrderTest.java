@@ -5,11 +5,15 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.pancakelab.TestClock;
 import org.pancakelab.TestSamples;
 import org.pancakelab.model.order.exception.*;
 import org.pancakelab.model.pancake.Ingredient;
 import org.pancakelab.model.pancake.Pancake;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
@@ -408,6 +412,21 @@ class OrderTest {
                     .hasMessageContaining("Cannot complete an order with no pancakes");
         }
 
+        @Test
+        void ShouldThrowPreallocatedExceptionWithoutStackTrace_WhenTransitionIsRejected() {
+            // given
+            Order order = TestSamples.cancelledOrder();
+            Order otherOrder = TestSamples.cancelledOrder();
+
+            // when
+            Exception exception = catchException(order::markCompleted);
+            Exception otherException = catchException(otherOrder::markCompleted);
+
+            // then
+            assertThat(exception).isInstanceOf(OrderCancelledException.class).isSameAs(otherException);
+            assertThat(exception.getStackTrace()).isEmpty();
+        }
+
         @Test
         void ShouldThrowException_WhenOrderIsCancelled() {
             // given
@@ -553,6 +572,155 @@ class OrderTest {
         }
     }
 
+    @Nested
+    class Listeners {
+
+        @Test
+        void ShouldNotifyListener_WhenOrderChanges() {
+            // given
+            Order order = TestSamples.newEmptyOrder();
+            Pancake pancake = TestSamples.pancake();
+            List<String> notifications = new ArrayList<>();
+            OrderListener listener = recordingListener(notifications);
+
+            // when
+            order.addListener(listener);
+            order.addPancake(pancake, 2);
+            order.removePancake(pancake, 1);
+            order.markCompleted();
+            order.removeListener(listener);
+
+            // then
+            assertThat(notifications).containsExactly(
+                    "attached NEW",
+                    "pancakes 0 -> 2",
+                    "pancakes 2 -> 1",
+                    "state NEW -> COMPLETED",
+                    "detached COMPLETED"
+            );
+        }
+
+        @Test
+        void ShouldNotifyListenerAboutRemovedPancake_WhenRemovingMoreThanExist() {
+            // given
+            Order order = TestSamples.newOrderWithPancake();
+            List<String> notifications = new ArrayList<>();
+            order.addListener(recordingListener(notifications));
+
+            // when
+            order.removePancake(TestSamples.pancake(), 5);
+
+            // then
+            assertThat(notifications).containsExactly("attached NEW", "pancakes 1 -> 0");
+        }
+
+        @Test
+        void ShouldNotNotifyListener_WhenTransitionIsRejected() {
+            // given
+            Order order = TestSamples.newEmptyOrder();
+            List<String> notifications = new ArrayList<>();
+            order.addListener(recordingListener(notifications));
+
+            // when
+            catchException(order::markCompleted);
+            catchException(order::markDelivered);
+
+            // then
+            assertThat(notifications).containsExactly("attached NEW");
+        }
+
+        @Test
+        void ShouldStopNotifyingListener_WhenListenerIsRemoved() {
+            // given
+            Order order = TestSamples.newEmptyOrder();
+            List<String> notifications = new ArrayList<>();
+            OrderListener listener = recordingListener(notifications);
+            order.addListener(listener);
+            order.removeListener(listener);
+
+            // when
+            order.addPancake(TestSamples.pancake(), 1);
+
+            // then
+            assertThat(notifications).containsExactly("attached NEW", "detached NEW");
+        }
+
+        private static OrderListener recordingListener(List<String> notifications) {
+            return new OrderListener() {
+                @Override
+                public void onAttached(Order order, OrderProcessingState state) {
+                    notifications.add("attached " + state);
+                }
+
+                @Override
+                public void onDetached(Order order, OrderProcessingState state) {
+                    notifications.add("detached " + state);
+                }
+
+                @Override
+                public void onPancakesChanged(Order order, Pancake pancake, int oldQuantity, int newQuantity) {
+                    notifications.add("pancakes " + oldQuantity + " -> " + newQuantity);
+                }
+
+                @Override
+                public void onStateChanged(Order order, OrderProcessingState oldState,
+                                           OrderProcessingState newState) {
+                    notifications.add("state " + oldState + " -> " + newState);
+                }
+            };
+        }
+    }
+
+    @Nested
+    class Timestamps {
+
+        private final TestClock clock = new TestClock();
+
+        @Test
+        void ShouldRecordCreationTime_WhenOrderIsCreated() {
+            // when
+            Order order = new Order(new Address(1, 1), clock);
+
+            // then
+            assertThat(order.getCreatedAt()).isEqualTo(clock.instant());
+            assertThat(order.getStateEnteredAt(OrderProcessingState.NEW)).hasValue(clock.instant());
+            assertThat(order.getStateEnteredAt(OrderProcessingState.COMPLETED)).isEmpty();
+        }
+
+        @Test
+        void ShouldRecordTimeOfEveryTransition_WhenOrderMovesThroughStates() {
+            // given
+            Order order = new Order(new Address(1, 1), clock);
+            Instant createdAt = clock.instant();
+            order.addPancake(TestSamples.pancake(), 1);
+
+            // when
+            clock.advance(Duration.ofMinutes(1));
+            order.markCompleted();
+            clock.advance(Duration.ofMinutes(2));
+            order.markPrepared();
+
+            // then
+            assertThat(order.getCreatedAt()).isEqualTo(createdAt);
+            assertThat(order.getStateEnteredAt(OrderProcessingState.COMPLETED))
+                    .hasValue(createdAt.plus(Duration.ofMinutes(1)));
+            assertThat(order.getStateEnteredAt(OrderProcessingState.PREPARED))
+                    .hasValue(createdAt.plus(Duration.ofMinutes(3)));
+            assertThat(order.getStateEnteredAt(OrderProcessingState.DELIVERED)).isEmpty();
+        }
+
+        @Test
+        void ShouldThrowException_WhenClockIsNull() {
+            // when
+            Exception exception = catchException(() -> new Order(new Address(1, 1), null));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Clock cannot be null");
+        }
+    }
+
     private static void await(CyclicBarrier startingPoint) {
         try {
             startingPoint.await();
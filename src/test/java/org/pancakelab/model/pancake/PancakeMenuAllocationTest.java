@@ -0,0 +1,44 @@
+package org.pancakelab.model.pancake;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.AllocationMeter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation budgets of menu lookups, in bytes per operation.
+ */
+class PancakeMenuAllocationTest {
+
+    // a single Optional, unless the caller lets escape analysis remove it
+    private static final double FIND_PANCAKE_BUDGET = 16;
+
+    private final AllocationMeter allocationMeter = new AllocationMeter();
+    private final PancakeMenu pancakeMenu = new PancakeMenu();
+
+    @Test
+    void ShouldStayWithinBudget_WhenFindingPancakeByDescription() {
+        // given
+        String description = "Delicious pancake with dark chocolate!";
+
+        // when
+        double bytesPerOperation =
+                allocationMeter.bytesPerOperation(() -> pancakeMenu.findPancakeByDescription(description));
+
+        // then
+        assertThat(bytesPerOperation).isLessThanOrEqualTo(FIND_PANCAKE_BUDGET);
+    }
+
+    @Test
+    void ShouldStayWithinBudget_WhenPancakeIsNotInMenu() {
+        // given
+        String description = "Delicious pancake with mustard!";
+
+        // when
+        double bytesPerOperation =
+                allocationMeter.bytesPerOperation(() -> pancakeMenu.findPancakeByDescription(description));
+
+        // then
+        assertThat(bytesPerOperation).isLessThanOrEqualTo(FIND_PANCAKE_BUDGET);
+    }
+}
@@ -0,0 +1,124 @@
+package org.pancakelab.model.pancake;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pancakelab.model.pancake.exception.InvalidRecipeException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class RecipeRulesTest {
+
+    private final RecipeRules testInstance = RecipeRules.compile(List.of(
+            "# Dr. Fu Man Chu's favourite",
+            "forbidden MUSTARD MILK_CHOCOLATE",
+            "forbidden MUSTARD WHIPPED_CREAM",
+            "",
+            "max-toppings 2",
+            "required-base DARK_CHOCOLATE MILK_CHOCOLATE"
+    ));
+
+    @Nested
+    class Validate {
+
+        @Test
+        void ShouldAcceptPancake_WhenAllRulesAreMet() {
+            // when
+            Exception exception = catchException(() -> testInstance.validate(List.of(
+                    Ingredient.DARK_CHOCOLATE, Ingredient.WHIPPED_CREAM, Ingredient.HAZELNUTS)));
+
+            // then
+            assertThat(exception).isNull();
+        }
+
+        @Test
+        void ShouldRejectPancake_WhenIngredientsAreForbiddenTogether() {
+            // when
+            Exception exception = catchException(() -> testInstance.validate(List.of(
+                    Ingredient.MILK_CHOCOLATE, Ingredient.MUSTARD, Ingredient.WHIPPED_CREAM)));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(InvalidRecipeException.class)
+                    .hasMessageContaining("cannot be on the same pancake")
+                    .hasMessageContaining("mustard");
+        }
+
+        @Test
+        void ShouldRejectPancake_WhenThereAreTooManyToppings() {
+            // when
+            Exception exception = catchException(() -> testInstance.validate(List.of(
+                    Ingredient.DARK_CHOCOLATE, Ingredient.HAZELNUTS, Ingredient.HAZELNUTS,
+                    Ingredient.WHIPPED_CREAM)));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(InvalidRecipeException.class)
+                    .hasMessageContaining("at most 2 topping(s)");
+        }
+
+        @Test
+        void ShouldRejectPancake_WhenBaseIsMissing() {
+            // when
+            Exception exception = catchException(() -> testInstance.validate(List.of(Ingredient.HAZELNUTS)));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(InvalidRecipeException.class)
+                    .hasMessageContaining("needs a base of dark chocolate or milk chocolate");
+        }
+
+        @Test
+        void ShouldAcceptAnyPancake_WhenThereAreNoRules() {
+            // when
+            Exception exception = catchException(() -> RecipeRules.none().validate(List.of(
+                    Ingredient.MILK_CHOCOLATE, Ingredient.MUSTARD, Ingredient.WHIPPED_CREAM)));
+
+            // then
+            assertThat(exception).isNull();
+        }
+    }
+
+    @Nested
+    class Load {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        void ShouldCompileRules_WhenFileIsValid() throws IOException {
+            // given
+            Path file = directory.resolve("recipe-rules.txt");
+            Files.writeString(file, "forbidden MUSTARD MILK_CHOCOLATE\n");
+
+            // when
+            RecipeRules rules = RecipeRules.load(file);
+
+            // then
+            assertThat(catchException(() -> rules.validate(List.of(Ingredient.MUSTARD, Ingredient.MILK_CHOCOLATE))))
+                    .isInstanceOf(InvalidRecipeException.class);
+        }
+
+        @Test
+        void ShouldThrowException_WhenIngredientIsUnknown() throws IOException {
+            // given
+            Path file = directory.resolve("recipe-rules.txt");
+            Files.writeString(file, "# rules\nforbidden MUSTARD KETCHUP\n");
+
+            // when
+            Exception exception = catchException(() -> RecipeRules.load(file));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("line 2")
+                    .hasMessageContaining("unknown ingredient 'KETCHUP'");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.pancakelab.repository.event;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestSamples;
+import org.pancakelab.TestSubscriber;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderChangeStreamTest {
+
+    private final OrderChangeStream testInstance = new OrderChangeStream(Runnable::run, 2, 10);
+
+    @Nested
+    class Publish {
+
+        @Test
+        void ShouldDeliverEventsInBatches_WhenSubscriberRequestsBatches() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            testInstance.subscribe(subscriber);
+            Order order = TestSamples.newEmptyOrder();
+
+            // when
+            order.addListener(testInstance);
+            order.addPancake(TestSamples.pancake(), 1);
+            order.markCompleted();
+
+            // then
+            assertThat(subscriber.getItems()).hasSize(3);
+            assertThat(subscriber.getItems().stream().flatMap(List::stream).map(OrderChangeEvent::type))
+                    .containsExactly(OrderChangeType.CREATED, OrderChangeType.LINES_CHANGED,
+                            OrderChangeType.STATE_CHANGED);
+            assertThat(subscriber.getItems().stream().flatMap(List::stream).map(OrderChangeEvent::sequence))
+                    .containsExactly(1L, 2L, 3L);
+        }
+
+        @Test
+        void ShouldCarryStateTransition_WhenOrderStateChanges() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            testInstance.subscribe(subscriber);
+            Order order = TestSamples.newOrderWithPancake();
+            order.addListener(testInstance);
+
+            // when
+            order.markCompleted();
+
+            // then
+            assertThat(subscriber.getItems().get(1)).singleElement().satisfies(event -> {
+                assertThat(event.type()).isEqualTo(OrderChangeType.STATE_CHANGED);
+                assertThat(event.order()).isEqualTo(order);
+                assertThat(event.previousState()).isEqualTo(OrderProcessingState.NEW);
+                assertThat(event.state()).isEqualTo(OrderProcessingState.COMPLETED);
+            });
+        }
+
+        @Test
+        void ShouldBufferEvents_WhenSubscriberHasNoDemand() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(0);
+            testInstance.subscribe(subscriber);
+            Order order = TestSamples.newEmptyOrder();
+            order.addListener(testInstance);
+            order.addPancake(TestSamples.pancake(), 1);
+            order.addPancake(TestSamples.pancake(), 1);
+            assertThat(subscriber.getItems()).isEmpty();
+
+            // when
+            subscriber.request(1);
+
+            // then
+            assertThat(subscriber.getItems()).singleElement().satisfies(batch ->
+                    assertThat(batch).extracting(OrderChangeEvent::sequence).containsExactly(1L, 2L));
+        }
+
+        @Test
+        void ShouldTerminateSubscriber_WhenBufferOverflows() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> slowSubscriber = new TestSubscriber<>(0);
+            TestSubscriber<List<OrderChangeEvent>> fastSubscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            testInstance.subscribe(slowSubscriber);
+            testInstance.subscribe(fastSubscriber);
+            Order order = TestSamples.newEmptyOrder();
+            order.addListener(testInstance);
+
+            // when
+            IntStream.range(0, 10).forEach(i -> order.addPancake(TestSamples.pancake(), 1));
+
+            // then
+            assertThat(slowSubscriber.getError()).isInstanceOf(RejectedExecutionException.class);
+            assertThat(fastSubscriber.getError()).isNull();
+            assertThat(fastSubscriber.getItems().stream().mapToLong(List::size).sum()).isEqualTo(11);
+        }
+
+        @Test
+        void ShouldStopDelivering_WhenSubscriptionIsCancelled() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            testInstance.subscribe(subscriber);
+            Order order = TestSamples.newEmptyOrder();
+            order.addListener(testInstance);
+
+            // when
+            subscriber.cancel();
+            order.addPancake(TestSamples.pancake(), 1);
+
+            // then
+            assertThat(subscriber.getItems()).hasSize(1);
+        }
+
+        @Test
+        void ShouldNotPublish_WhenThereAreNoSubscribers() {
+            // given
+            Order order = TestSamples.newEmptyOrder();
+
+            // when
+            order.addListener(testInstance);
+            order.addPancake(TestSamples.pancake(), 1);
+
+            // then
+            assertThat(testInstance.getLastSequence()).isZero();
+        }
+
+        @RepeatedTest(10)
+        void ShouldDeliverEventsInSequenceOrder_WhenPublishedConcurrently() throws InterruptedException {
+            // given
+            OrderChangeStream stream = new OrderChangeStream(Executors.newSingleThreadExecutor(), 16, 100_000);
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            stream.subscribe(subscriber);
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+            // when
+            IntStream.range(0, 100).forEach(i -> executorService.execute(() -> {
+                Order order = TestSamples.newEmptyOrder();
+                order.addListener(stream);
+                order.addPancake(TestSamples.pancake(), 1);
+                order.markCompleted();
+            }));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            stream.close();
+
+            // then
+            awaitCompletion(subscriber);
+            List<Long> sequences = subscriber.getItems().stream()
+                    .flatMap(List::stream)
+                    .map(OrderChangeEvent::sequence)
+                    .toList();
+            assertThat(sequences).hasSize(300).isSorted().doesNotHaveDuplicates();
+        }
+    }
+
+    @Nested
+    class Close {
+
+        @Test
+        void ShouldCompleteSubscriber_WhenBufferedEventsAreDelivered() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(0);
+            testInstance.subscribe(subscriber);
+            TestSamples.newEmptyOrder().addListener(testInstance);
+
+            // when
+            testInstance.close();
+
+            // then
+            assertThat(subscriber.isCompleted()).isFalse();
+
+            // when
+            subscriber.request(1);
+
+            // then
+            assertThat(subscriber.getItems()).hasSize(1);
+            assertThat(subscriber.isCompleted()).isTrue();
+        }
+
+        @Test
+        void ShouldCompleteSubscriberImmediately_WhenSubscribingToClosedStream() {
+            // given
+            testInstance.close();
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(0);
+
+            // when
+            testInstance.subscribe(subscriber);
+
+            // then
+            assertThat(subscriber.isCompleted()).isTrue();
+        }
+    }
+
+    private static void awaitCompletion(TestSubscriber<?> subscriber) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!subscriber.isCompleted() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(subscriber.isCompleted()).isTrue();
+    }
+}
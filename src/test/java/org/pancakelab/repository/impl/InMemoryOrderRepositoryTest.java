@@ -1,21 +1,45 @@
 package org.pancakelab.repository.impl;
 
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.TestRecording;
 import org.pancakelab.TestSamples;
+import org.pancakelab.TestSubscriber;
+import org.pancakelab.model.order.Address;
 import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.repository.event.OrderChangeEvent;
+import org.pancakelab.repository.event.OrderChangeStream;
+import org.pancakelab.repository.event.OrderChangeType;
 import org.pancakelab.repository.exception.DuplicatedIdException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchException;
 
 class InMemoryOrderRepositoryTest {
 
-    private final InMemoryOrderRepository testInstance = new InMemoryOrderRepository();
+    private final InMemoryOrderRepository testInstance =
+            new InMemoryOrderRepository(new OrderChangeStream(Runnable::run, 16, 1024));
 
     @Nested
     class SaveOrder {
@@ -109,6 +133,112 @@ class InMemoryOrderRepositoryTest {
             assertThat(testInstance.findOrderById(unsavedOrder.getId())).isEmpty();
         }
 
+        @RepeatedTest(10)
+        void ShouldNotKeepIndexEntries_WhenOrderIsRemovedWhileBeingSaved() throws InterruptedException {
+            // given
+            List<Order> orders = IntStream.range(0, 1_000)
+                    .mapToObj(i -> TestSamples.newEmptyOrder())
+                    .toList();
+            ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+            // when
+            for (Order order : orders) {
+                executorService.execute(() -> testInstance.saveOrder(order));
+                executorService.execute(() -> testInstance.removeOrder(order));
+            }
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            List<Order> storedOrders = orders.stream()
+                    .filter(order -> testInstance.findOrderById(order.getId()).isPresent())
+                    .toList();
+            assertThat(testInstance.findOrdersByAddress(new Address(1, 1)))
+                    .containsExactlyInAnyOrderElementsOf(storedOrders);
+            assertThat(testInstance.countOrders(OrderProcessingState.NEW)).isEqualTo(storedOrders.size());
+        }
+
+    }
+
+    @Nested
+    class SaveOrders {
+
+        @Test
+        void ShouldSaveAndIndexAllOrders_WhenIdsAreUnique() {
+            // given
+            Order order1 = TestSamples.newEmptyOrder();
+            Order order2 = TestSamples.completedOrder();
+
+            // when
+            testInstance.saveOrders(List.of(order1, order2));
+
+            // then
+            assertThat(testInstance.findOrderById(order1.getId())).contains(order1);
+            assertThat(testInstance.findOrdersByAddress(new Address(1, 1))).containsExactlyInAnyOrder(order1, order2);
+            assertThat(testInstance.findCompletedOrders()).containsExactly(order2);
+            assertThat(testInstance.countOrders(OrderProcessingState.NEW)).isEqualTo(1);
+        }
+
+        @Test
+        void ShouldSaveNoOrder_WhenBatchContainsDuplicatedId() {
+            // given
+            Order existingOrder = TestSamples.newEmptyOrder();
+            Order newOrder = TestSamples.newEmptyOrder();
+            testInstance.saveOrder(existingOrder);
+
+            // when
+            Exception exception = catchException(() -> testInstance.saveOrders(List.of(newOrder, existingOrder)));
+
+            // then
+            assertThat(exception).isInstanceOf(DuplicatedIdException.class);
+            assertThat(testInstance.findOrderById(newOrder.getId())).isEmpty();
+            assertThat(testInstance.findOrderById(existingOrder.getId())).contains(existingOrder);
+            assertThat(testInstance.countOrders(OrderProcessingState.NEW)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class RemoveOrders {
+
+        @Test
+        void ShouldRemoveAllStoredOrders_WhenBatchContainsUnsavedOrder() {
+            // given
+            Order order1 = TestSamples.preparedOrder();
+            Order order2 = TestSamples.preparedOrder();
+            Order unsavedOrder = TestSamples.preparedOrder();
+            Order remainingOrder = TestSamples.preparedOrder();
+            testInstance.saveOrder(order1);
+            testInstance.saveOrder(order2);
+            testInstance.saveOrder(remainingOrder);
+
+            // when
+            testInstance.removeOrders(List.of(order1, unsavedOrder, order2));
+
+            // then
+            assertThat(testInstance.findOrderById(order1.getId())).isEmpty();
+            assertThat(testInstance.findOrderById(order2.getId())).isEmpty();
+            assertThat(testInstance.findPreparedOrders()).containsExactly(remainingOrder);
+            assertThat(testInstance.countOrders(OrderProcessingState.PREPARED)).isEqualTo(1);
+        }
+
+        @Test
+        void ShouldDetachRemovedOrders_WhenBatchIsRemoved() {
+            // given
+            Order order1 = TestSamples.newOrderWithPancake();
+            Order order2 = TestSamples.newOrderWithPancake();
+            Order remainingOrder = TestSamples.newOrderWithPancake();
+            testInstance.saveOrders(List.of(order1, order2, remainingOrder));
+
+            // when
+            testInstance.removeOrders(List.of(order1, order2));
+            order1.addPancake(TestSamples.pancake(), 1);
+
+            // then
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.DARK_CHOCOLATE)))
+                    .containsExactly(remainingOrder);
+            assertThat(testInstance.findOrdersByAddress(new Address(1, 1))).containsExactly(remainingOrder);
+            assertThat(testInstance.countOrders(OrderProcessingState.NEW)).isEqualTo(1);
+        }
     }
 
     @Nested
@@ -174,4 +304,501 @@ class InMemoryOrderRepositoryTest {
             assertThat(preparedOrders).containsExactly(order1);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class DispatchOrder {
+
+        private final TestClock clock = new TestClock();
+
+        @Test
+        void ShouldReturnCompletedOrdersOldestFirst_WhenOrdersAreCompletedAtDifferentTimes() {
+            // given
+            Order order1 = savedOrder();
+            Order order2 = savedOrder();
+            Order order3 = savedOrder();
+            complete(order2);
+            complete(order3);
+            complete(order1);
+
+            // when
+            List<Order> completedOrders = testInstance.findCompletedOrders();
+
+            // then
+            assertThat(completedOrders).containsExactly(order2, order3, order1);
+        }
+
+        @Test
+        void ShouldReturnPreparedOrdersByCompletionTime_WhenOrdersArePreparedInDifferentOrder() {
+            // given
+            Order order1 = savedOrder();
+            Order order2 = savedOrder();
+            complete(order1);
+            complete(order2);
+            order2.markPrepared();
+            order1.markPrepared();
+
+            // when
+            List<Order> preparedOrders = testInstance.findPreparedOrders();
+
+            // then
+            assertThat(preparedOrders).containsExactly(order1, order2);
+            assertThat(testInstance.findCompletedOrders()).isEmpty();
+        }
+
+        @Test
+        void ShouldReturnOldestOrdersOnly_WhenLimitIsLessThanNumberOfOrders() {
+            // given
+            Order order1 = savedOrder();
+            Order order2 = savedOrder();
+            Order order3 = savedOrder();
+            complete(order1);
+            complete(order2);
+            complete(order3);
+            order2.markPrepared();
+
+            // when
+            List<Order> oldestCompletedOrders = testInstance.findOldestCompletedOrders(1);
+            List<Order> oldestPreparedOrders = testInstance.findOldestPreparedOrders(5);
+
+            // then
+            assertThat(oldestCompletedOrders).containsExactly(order1);
+            assertThat(oldestPreparedOrders).containsExactly(order2);
+        }
+
+        @Test
+        void ShouldReturnOrdersCompletedBeforeTime_WhenTimeIsBetweenCompletions() {
+            // given
+            Order order1 = savedOrder();
+            Order order2 = savedOrder();
+            Order order3 = savedOrder();
+            complete(order1);
+            complete(order2);
+            Instant deadline = clock.instant().plusMillis(500);
+            complete(order3);
+            order1.markPrepared();
+
+            // when
+            List<Order> completedOrders = testInstance.findCompletedOrdersBefore(deadline);
+            List<Order> preparedOrders = testInstance.findPreparedOrdersCompletedBefore(deadline);
+
+            // then
+            assertThat(completedOrders).containsExactly(order2);
+            assertThat(preparedOrders).containsExactly(order1);
+        }
+
+        @Test
+        void ShouldForgetOrder_WhenOrderIsRemoved() {
+            // given
+            Order order = savedOrder();
+            complete(order);
+
+            // when
+            testInstance.removeOrder(order);
+
+            // then
+            assertThat(testInstance.findCompletedOrders()).isEmpty();
+            assertThat(testInstance.findOldestCompletedOrders(1)).isEmpty();
+        }
+
+        @Test
+        void ShouldThrowException_WhenLimitIsNegative() {
+            // when
+            Exception exception = catchException(() -> testInstance.findOldestCompletedOrders(-1));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Limit cannot be negative");
+        }
+
+        private Order savedOrder() {
+            Order order = new Order(new Address(1, 1), clock);
+            order.addPancake(TestSamples.pancake(), 1);
+            testInstance.saveOrder(order);
+            return order;
+        }
+
+        private void complete(Order order) {
+            clock.advance(Duration.ofSeconds(1));
+            order.markCompleted();
+        }
+    }
+
+    @Nested
+    class FindOrdersByAddress {
+
+        @Test
+        void ShouldReturnOnlyOrdersOfTheRoom_WhenBuildingHasSeveralRooms() {
+            // given
+            Order order1 = new Order(new Address(7, 12));
+            Order order2 = new Order(new Address(7, 12));
+            testInstance.saveOrder(order1);
+            testInstance.saveOrder(order2);
+            testInstance.saveOrder(new Order(new Address(7, 13)));
+            testInstance.saveOrder(new Order(new Address(8, 12)));
+
+            // when
+            List<Order> orders = testInstance.findOrdersByAddress(new Address(7, 12));
+
+            // then
+            assertThat(orders).containsExactlyInAnyOrder(order1, order2);
+        }
+
+        @Test
+        void ShouldNotReturnOrder_WhenOrderIsRemoved() {
+            // given
+            Order order = new Order(new Address(7, 12));
+            testInstance.saveOrder(order);
+            testInstance.removeOrder(order);
+
+            // when
+            List<Order> orders = testInstance.findOrdersByAddress(new Address(7, 12));
+
+            // then
+            assertThat(orders).isEmpty();
+        }
+    }
+
+    @Nested
+    class FindOrdersByBuildings {
+
+        @Test
+        void ShouldReturnOrdersSortedByAddress_WhenBuildingsAreInRange() {
+            // given
+            Order order1 = new Order(new Address(9, 1));
+            Order order2 = new Order(new Address(7, 20));
+            Order order3 = new Order(new Address(7, 3));
+            Order outOfRangeOrder = new Order(new Address(10, 1));
+            List.of(order1, order2, order3, outOfRangeOrder).forEach(testInstance::saveOrder);
+
+            // when
+            List<Order> orders = testInstance.findOrdersByBuildings(7, 9);
+
+            // then
+            assertThat(orders).containsExactly(order3, order2, order1);
+        }
+
+        @Test
+        void ShouldReturnEmptyList_WhenRangeIsEmpty() {
+            // given
+            testInstance.saveOrder(new Order(new Address(7, 1)));
+
+            // when
+            List<Order> orders = testInstance.findOrdersByBuildings(8, 7);
+
+            // then
+            assertThat(orders).isEmpty();
+        }
+
+        @Test
+        void ShouldRecordScanEvent_WhenFlightRecordingIsRunning() {
+            // given
+            List.of(new Order(new Address(7, 1)), new Order(new Address(8, 2))).forEach(testInstance::saveOrder);
+            List<RecordedEvent> events;
+
+            // when
+            try (TestRecording recording = new TestRecording("org.pancakelab.RepositoryScan")) {
+                testInstance.findOrdersByBuildings(7, 8);
+                events = recording.stop();
+            }
+
+            // then
+            assertThat(events).singleElement().satisfies(event -> {
+                assertThat(event.getString("query")).isEqualTo("findOrdersByBuildings");
+                assertThat(event.getInt("ordersScanned")).isEqualTo(2);
+            });
+        }
+    }
+
+    @Nested
+    class FindOrdersByIngredients {
+
+        private final Pancake hazelnutPancake = new Pancake(List.of(Ingredient.HAZELNUTS));
+        private final Pancake chocolateHazelnutPancake =
+                new Pancake(List.of(Ingredient.DARK_CHOCOLATE, Ingredient.HAZELNUTS));
+        private final Pancake chocolatePancake = new Pancake(List.of(Ingredient.MILK_CHOCOLATE));
+
+        @Test
+        void ShouldFindMatchingOrders_WhenIngredientsAreCombinedWithAndOrOr() {
+            // given
+            Order hazelnutOrder = orderWith(hazelnutPancake);
+            Order chocolateHazelnutOrder = orderWith(chocolateHazelnutPancake);
+            Order chocolateOrder = orderWith(chocolatePancake);
+            List.of(hazelnutOrder, chocolateHazelnutOrder, chocolateOrder).forEach(testInstance::saveOrder);
+
+            // when/then
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.HAZELNUTS)))
+                    .containsExactlyInAnyOrder(hazelnutOrder, chocolateHazelnutOrder);
+            assertThat(testInstance.findOrdersContainingAny(
+                    Set.of(Ingredient.DARK_CHOCOLATE, Ingredient.MILK_CHOCOLATE)))
+                    .containsExactlyInAnyOrder(chocolateHazelnutOrder, chocolateOrder);
+            assertThat(testInstance.findOrdersContainingAll(Set.of(Ingredient.DARK_CHOCOLATE, Ingredient.HAZELNUTS)))
+                    .containsExactly(chocolateHazelnutOrder);
+            assertThat(testInstance.findOrdersContainingAll(Set.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS)))
+                    .isEmpty();
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.MUSTARD))).isEmpty();
+            assertThat(testInstance.findOrdersContainingAny(Set.of())).isEmpty();
+        }
+
+        @Test
+        void ShouldKeepOrder_WhileAnotherPancakeContainsIngredient() {
+            // given
+            Order order = TestSamples.newEmptyOrder();
+            testInstance.saveOrder(order);
+            order.addPancake(hazelnutPancake, 2);
+            order.addPancake(chocolateHazelnutPancake, 1);
+
+            // when
+            order.removePancake(hazelnutPancake, 2);
+
+            // then
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.HAZELNUTS))).containsExactly(order);
+            order.removePancake(chocolateHazelnutPancake, 1);
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.HAZELNUTS))).isEmpty();
+        }
+
+        @Test
+        void ShouldNotFindOrder_WhenOrderIsRemoved() {
+            // given
+            Order removedOrder = orderWith(hazelnutPancake);
+            testInstance.saveOrder(removedOrder);
+            testInstance.removeOrder(removedOrder);
+
+            // when
+            Order order = orderWith(chocolatePancake);
+            testInstance.saveOrder(order);
+
+            // then
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.HAZELNUTS))).isEmpty();
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.MILK_CHOCOLATE))).containsExactly(order);
+            removedOrder.addPancake(chocolatePancake, 1);
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.MILK_CHOCOLATE))).containsExactly(order);
+        }
+
+        @Test
+        void ShouldMatchFullScan_WhenManyOrdersAreStoredAndRemoved() {
+            // given
+            Random random = new Random(42);
+            Ingredient[] ingredients = Ingredient.values();
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 150_000; i++) {
+                List<Ingredient> recipe = new ArrayList<>();
+                for (Ingredient ingredient : ingredients) {
+                    if (random.nextInt(4) == 0) {
+                        recipe.add(ingredient);
+                    }
+                }
+                orders.add(orderWith(new Pancake(recipe)));
+            }
+            testInstance.saveOrders(orders);
+
+            // when
+            testInstance.removeOrders(orders.subList(0, 100_000).stream()
+                    .filter(order -> random.nextBoolean())
+                    .toList());
+            List<Order> storedOrders = orders.stream()
+                    .filter(order -> testInstance.findOrderById(order.getId()).isPresent())
+                    .toList();
+
+            // then
+            Set<Ingredient> recalled = Set.of(Ingredient.HAZELNUTS, Ingredient.WHIPPED_CREAM);
+            assertThat(testInstance.findOrdersContainingAny(recalled)).containsExactlyInAnyOrderElementsOf(
+                    storedOrders.stream().filter(order -> ingredientsOf(order).stream().anyMatch(recalled::contains))
+                            .toList());
+            assertThat(testInstance.findOrdersContainingAll(recalled)).containsExactlyInAnyOrderElementsOf(
+                    storedOrders.stream().filter(order -> ingredientsOf(order).containsAll(recalled)).toList());
+        }
+
+        @RepeatedTest(10)
+        void ShouldBeThreadSafe() throws InterruptedException {
+            // given
+            List<Order> orders = IntStream.range(0, 100)
+                    .mapToObj(i -> TestSamples.newEmptyOrder())
+                    .peek(testInstance::saveOrder)
+                    .toList();
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+            // when
+            orders.forEach(order -> executorService.execute(() -> order.addPancake(hazelnutPancake, 1)));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.HAZELNUTS)))
+                    .containsExactlyInAnyOrderElementsOf(orders);
+        }
+
+        @RepeatedTest(10)
+        void ShouldOnlyFindMatchingOrders_WhenOrdinalsAreReusedDuringQueries() throws InterruptedException {
+            // given
+            ExecutorService executorService = Executors.newFixedThreadPool(4);
+            List<Order> mismatches = new CopyOnWriteArrayList<>();
+
+            // when
+            for (int writer = 0; writer < 2; writer++) {
+                executorService.execute(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        Order hazelnutOrder = orderWith(hazelnutPancake);
+                        testInstance.saveOrder(hazelnutOrder);
+                        testInstance.removeOrder(hazelnutOrder);
+                        testInstance.saveOrder(orderWith(chocolatePancake));
+                    }
+                });
+            }
+            for (int reader = 0; reader < 2; reader++) {
+                executorService.execute(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        testInstance.findOrdersContainingAny(Set.of(Ingredient.HAZELNUTS)).stream()
+                                .filter(order -> !ingredientsOf(order).contains(Ingredient.HAZELNUTS))
+                                .forEach(mismatches::add);
+                    }
+                });
+            }
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(mismatches).isEmpty();
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.HAZELNUTS))).isEmpty();
+            assertThat(testInstance.findOrdersContainingAny(Set.of(Ingredient.MILK_CHOCOLATE))).hasSize(4_000);
+        }
+
+        private static Order orderWith(Pancake pancake) {
+            Order order = TestSamples.newEmptyOrder();
+            order.addPancake(pancake, 1);
+            return order;
+        }
+
+        private static Set<Ingredient> ingredientsOf(Order order) {
+            return order.getPancakes().keySet().stream()
+                    .flatMap(pancake -> pancake.getIngredients().stream())
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    @Nested
+    class CountOrders {
+
+        @Test
+        void ShouldCountOrdersPerState_WhenOrdersAreSaved() {
+            // given
+            testInstance.saveOrder(TestSamples.newEmptyOrder());
+            testInstance.saveOrder(TestSamples.completedOrder());
+            testInstance.saveOrder(TestSamples.completedOrder());
+
+            // when/then
+            assertThat(testInstance.countOrders(OrderProcessingState.NEW)).isEqualTo(1);
+            assertThat(testInstance.countOrders(OrderProcessingState.COMPLETED)).isEqualTo(2);
+            assertThat(testInstance.countOrders(OrderProcessingState.PREPARED)).isZero();
+        }
+
+        @Test
+        void ShouldMoveCount_WhenStoredOrderChangesState() {
+            // given
+            Order order = TestSamples.completedOrder();
+            testInstance.saveOrder(order);
+
+            // when
+            order.markPrepared();
+
+            // then
+            assertThat(testInstance.countOrders(OrderProcessingState.COMPLETED)).isZero();
+            assertThat(testInstance.countOrders(OrderProcessingState.PREPARED)).isEqualTo(1);
+        }
+
+        @Test
+        void ShouldDecreaseCount_WhenOrderIsRemoved() {
+            // given
+            Order order = TestSamples.preparedOrder();
+            testInstance.saveOrder(order);
+            order.markDelivered();
+
+            // when
+            testInstance.removeOrder(order);
+
+            // then
+            assertThat(testInstance.countOrders(OrderProcessingState.DELIVERED)).isZero();
+            assertThat(testInstance.countOrders(OrderProcessingState.PREPARED)).isZero();
+        }
+
+        @Test
+        void ShouldCountOrdersPerBuilding_WhenOrdersHaveDifferentAddresses() {
+            // given
+            testInstance.saveOrder(new Order(new Address(7, 1)));
+            testInstance.saveOrder(new Order(new Address(7, 2)));
+            testInstance.saveOrder(new Order(new Address(8, 1)));
+
+            // when/then
+            assertThat(testInstance.countOrders(7, OrderProcessingState.NEW)).isEqualTo(2);
+            assertThat(testInstance.countOrders(8, OrderProcessingState.NEW)).isEqualTo(1);
+            assertThat(testInstance.countOrders(9, OrderProcessingState.NEW)).isZero();
+        }
+
+        @RepeatedTest(10)
+        void ShouldBeThreadSafe() throws InterruptedException {
+            // given
+            List<Order> orders = IntStream.range(0, 100)
+                    .mapToObj(i -> TestSamples.completedOrder())
+                    .peek(testInstance::saveOrder)
+                    .toList();
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+            // when
+            orders.forEach(order -> executorService.execute(order::markPrepared));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(testInstance.countOrders(OrderProcessingState.COMPLETED)).isZero();
+            assertThat(testInstance.countOrders(1, OrderProcessingState.PREPARED)).isEqualTo(100);
+        }
+    }
+
+    @Nested
+    class GetOrderChanges {
+
+        @Test
+        void ShouldPublishOrderLifecycle_WhenOrderIsSavedChangedAndRemoved() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            testInstance.getOrderChanges().subscribe(subscriber);
+            Order order = TestSamples.newEmptyOrder();
+
+            // when
+            testInstance.saveOrder(order);
+            order.addPancake(TestSamples.pancake(), 1);
+            order.markCompleted();
+            order.markPrepared();
+            order.markDelivered();
+            testInstance.removeOrder(order);
+
+            // then
+            assertThat(subscriber.getItems().stream().flatMap(List::stream).map(OrderChangeEvent::type))
+                    .containsExactly(
+                            OrderChangeType.CREATED,
+                            OrderChangeType.LINES_CHANGED,
+                            OrderChangeType.STATE_CHANGED,
+                            OrderChangeType.STATE_CHANGED,
+                            OrderChangeType.STATE_CHANGED,
+                            OrderChangeType.REMOVED
+                    );
+        }
+
+        @Test
+        void ShouldNotPublishChanges_WhenOrderIsRemoved() {
+            // given
+            TestSubscriber<List<OrderChangeEvent>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            testInstance.getOrderChanges().subscribe(subscriber);
+            Order order = TestSamples.newEmptyOrder();
+            testInstance.saveOrder(order);
+            testInstance.removeOrder(order);
+
+            // when
+            order.addPancake(TestSamples.pancake(), 1);
+
+            // then
+            assertThat(subscriber.getItems().stream().flatMap(List::stream).map(OrderChangeEvent::type))
+                    .containsExactly(OrderChangeType.CREATED, OrderChangeType.REMOVED);
+        }
+    }
+}
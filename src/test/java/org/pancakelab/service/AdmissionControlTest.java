@@ -0,0 +1,206 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.TestSamples;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.exception.AdmissionRejectedException;
+import org.pancakelab.service.exception.AdmissionRejectedException.Reason;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class AdmissionControlTest {
+
+    private static final Address ADDRESS = new Address(1, 1);
+
+    private final TestClock clock = new TestClock();
+    private final OrderRepository orderRepository = new InMemoryOrderRepository();
+
+    @Nested
+    class RateLimit {
+
+        private final AdmissionControl testInstance = AdmissionControl.builder(orderRepository, clock)
+                .withRateLimit(3, Duration.ofSeconds(3))
+                .build();
+
+        @Test
+        void ShouldAcceptBurst_WhenRoomHasTokensLeft() {
+            // when
+            IntStream.range(0, 3).forEach(i -> testInstance.admitOrderChange(ADDRESS));
+            Exception exception = catchException(() -> testInstance.admitOrderChange(ADDRESS));
+
+            // then
+            assertThat(exception).isInstanceOfSatisfying(AdmissionRejectedException.class, rejection -> {
+                assertThat(rejection.getReason()).isEqualTo(Reason.RATE_LIMITED);
+                assertThat(rejection.getStackTrace()).isEmpty();
+            });
+        }
+
+        @Test
+        void ShouldAcceptAgain_WhenBucketHasRefilled() {
+            // given
+            IntStream.range(0, 3).forEach(i -> testInstance.admitOrderChange(ADDRESS));
+
+            // when
+            clock.advance(Duration.ofSeconds(1));
+            Exception exception = catchException(() -> testInstance.admitOrderChange(ADDRESS));
+
+            // then
+            assertThat(exception).isNull();
+            assertThat(catchException(() -> testInstance.admitOrderChange(ADDRESS)))
+                    .isInstanceOf(AdmissionRejectedException.class);
+        }
+
+        @Test
+        void ShouldLimitRoomsSeparately_WhenOneRoomIsRateLimited() {
+            // given
+            IntStream.range(0, 3).forEach(i -> testInstance.admitOrderChange(ADDRESS));
+
+            // when
+            Exception exception = catchException(() -> testInstance.admitNewOrder(new Address(1, 2)));
+
+            // then
+            assertThat(exception).isNull();
+        }
+
+        @Test
+        void ShouldRemoveFullBuckets_WhenRoomsStopSendingRequests() {
+            // given
+            IntStream.rangeClosed(1, 100).forEach(room -> testInstance.admitOrderChange(new Address(1, room)));
+            clock.advance(Duration.ofSeconds(3));
+
+            // when
+            testInstance.admitOrderChange(ADDRESS);
+
+            // then
+            assertThat(testInstance.getBucketCount()).isEqualTo(1);
+        }
+
+        @Test
+        void ShouldKeepLimitingRoom_WhenFullBucketsAreSwept() {
+            // given
+            testInstance.admitOrderChange(new Address(1, 2));
+            clock.advance(Duration.ofSeconds(3));
+            IntStream.range(0, 3).forEach(i -> testInstance.admitOrderChange(ADDRESS));
+
+            // when
+            Exception exception = catchException(() -> testInstance.admitOrderChange(ADDRESS));
+
+            // then
+            assertThat(exception).isInstanceOf(AdmissionRejectedException.class);
+        }
+
+        @RepeatedTest(10)
+        void ShouldNeverAcceptMoreThanBurst_WhenRequestsArriveConcurrently() throws InterruptedException {
+            // given
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+            AtomicInteger acceptedRequests = new AtomicInteger();
+
+            // when
+            IntStream.range(0, 100).forEach(i -> executorService.execute(() -> {
+                try {
+                    testInstance.admitOrderChange(ADDRESS);
+                    acceptedRequests.incrementAndGet();
+                } catch (AdmissionRejectedException e) {
+                    // expected for most of the requests
+                }
+            }));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(acceptedRequests).hasValue(3);
+        }
+    }
+
+    @Nested
+    class LoadShedding {
+
+        @Test
+        void ShouldRejectNewOrder_WhenThereAreTooManyNewOrders() {
+            // given
+            AdmissionControl testInstance = AdmissionControl.builder(orderRepository, clock)
+                    .withMaxNewOrders(2)
+                    .build();
+            orderRepository.saveOrder(TestSamples.newEmptyOrder());
+            orderRepository.saveOrder(TestSamples.newEmptyOrder());
+
+            // when
+            Exception exception = catchException(() -> testInstance.admitNewOrder(ADDRESS));
+
+            // then
+            assertThat(exception).isInstanceOfSatisfying(AdmissionRejectedException.class, rejection ->
+                    assertThat(rejection.getReason()).isEqualTo(Reason.TOO_MANY_NEW_ORDERS));
+            assertThat(catchException(() -> testInstance.admitOrderChange(ADDRESS))).isNull();
+        }
+
+        @Test
+        void ShouldRejectNewOrder_WhenKitchenBacklogIsFull() {
+            // given
+            AdmissionControl testInstance = AdmissionControl.builder(orderRepository, clock)
+                    .withMaxKitchenBacklog(1)
+                    .build();
+            orderRepository.saveOrder(TestSamples.completedOrder());
+
+            // when
+            Exception exception = catchException(() -> testInstance.admitNewOrder(ADDRESS));
+
+            // then
+            assertThat(exception).isInstanceOfSatisfying(AdmissionRejectedException.class, rejection ->
+                    assertThat(rejection.getReason()).isEqualTo(Reason.KITCHEN_OVERLOADED));
+        }
+    }
+
+    @Nested
+    class PancakeServiceRequests {
+
+        private final PancakeService pancakeService = PancakeService.builder(orderRepository, new PancakeMenu())
+                .withAdmissionControl(AdmissionControl.builder(orderRepository, clock)
+                        .withRateLimit(2, Duration.ofMinutes(1))
+                        .withMaxNewOrders(5)
+                        .build())
+                .build();
+
+        @Test
+        void ShouldRejectRequestWithoutSideEffects_WhenRoomSendsTooManyRequests() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, "Delicious pancake with dark chocolate!", 1);
+
+            // when
+            Exception exception = catchException(() ->
+                    pancakeService.addPancakeToOrder(order, "Delicious pancake with dark chocolate!", 1));
+
+            // then
+            assertThat(exception).isInstanceOf(AdmissionRejectedException.class);
+            assertThat(order.getPancakes()).containsValue(1);
+        }
+
+        @Test
+        void ShouldNotStoreOrder_WhenNewOrderIsRejected() {
+            // given
+            IntStream.rangeClosed(1, 5).forEach(room -> pancakeService.createOrder(2, room));
+
+            // when
+            Exception exception = catchException(() -> pancakeService.createOrder(2, 6));
+
+            // then
+            assertThat(exception).isInstanceOf(AdmissionRejectedException.class);
+            assertThat(pancakeService.getOrdersForBuilding(2)).hasSize(5);
+        }
+    }
+}
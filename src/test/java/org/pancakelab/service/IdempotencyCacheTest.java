@@ -0,0 +1,219 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class IdempotencyCacheTest {
+
+    private final TestClock clock = new TestClock();
+    private final IdempotencyCache testInstance = new IdempotencyCache(3, Duration.ofMinutes(1), clock);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Nested
+    class Execute {
+
+        @Test
+        void ShouldReturnOriginalResult_WhenRequestIsRetriedWithSameKey() {
+            // given
+            Integer firstResult = testInstance.execute("key", executions::incrementAndGet);
+
+            // when
+            Integer retryResult = testInstance.execute("key", executions::incrementAndGet);
+
+            // then
+            assertThat(retryResult).isEqualTo(firstResult).isEqualTo(1);
+            assertThat(executions).hasValue(1);
+        }
+
+        @Test
+        void ShouldExecuteEveryRequest_WhenKeyIsNull() {
+            // when
+            testInstance.execute(null, executions::incrementAndGet);
+            testInstance.execute(null, executions::incrementAndGet);
+
+            // then
+            assertThat(executions).hasValue(2);
+            assertThat(testInstance.size()).isZero();
+        }
+
+        @Test
+        void ShouldExecuteAgain_WhenKeyHasExpired() {
+            // given
+            testInstance.execute("key", executions::incrementAndGet);
+
+            // when
+            clock.advance(Duration.ofMinutes(1));
+            Integer result = testInstance.execute("key", executions::incrementAndGet);
+
+            // then
+            assertThat(result).isEqualTo(2);
+        }
+
+        @Test
+        void ShouldExecuteAgain_WhenFirstRequestFailed() {
+            // given
+            Exception exception = catchException(() -> testInstance.execute("key", () -> {
+                throw new IllegalStateException("Kiosk timeout");
+            }));
+            assertThat(exception).isInstanceOf(IllegalStateException.class);
+
+            // when
+            Integer result = testInstance.execute("key", executions::incrementAndGet);
+
+            // then
+            assertThat(result).isEqualTo(1);
+        }
+
+        @Test
+        void ShouldForgetOldestKeys_WhenCacheIsFull() {
+            // given
+            IntStream.range(0, 10).forEach(i -> testInstance.execute("key-" + i, executions::incrementAndGet));
+
+            // when
+            Integer result = testInstance.execute("key-9", executions::incrementAndGet);
+
+            // then
+            assertThat(testInstance.size()).isEqualTo(3);
+            assertThat(result).isEqualTo(10);
+            assertThat(testInstance.execute("key-0", executions::incrementAndGet)).isEqualTo(11);
+        }
+
+        @Test
+        void ShouldKeepRunningRequest_WhenCacheFillsUpWhileItRuns() {
+            // given
+            Integer result = testInstance.execute("running", () -> {
+                IntStream.range(0, 10).forEach(i -> testInstance.execute("key-" + i, executions::incrementAndGet));
+                return executions.incrementAndGet();
+            });
+
+            // when
+            Integer retriedResult = testInstance.execute("running", executions::incrementAndGet);
+
+            // then
+            assertThat(retriedResult).isEqualTo(result).isEqualTo(11);
+            assertThat(executions).hasValue(11);
+        }
+
+        @RepeatedTest(10)
+        void ShouldExecuteOnce_WhenSameKeyIsRetriedConcurrently() throws InterruptedException {
+            // given
+            ExecutorService executorService = Executors.newFixedThreadPool(8);
+            CyclicBarrier startingPoint = new CyclicBarrier(8);
+            List<Integer> results = new CopyOnWriteArrayList<>();
+
+            // when
+            IntStream.range(0, 8).forEach(i -> executorService.execute(() -> {
+                try {
+                    startingPoint.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    throw new RuntimeException(e);
+                }
+                results.add(testInstance.execute("key", executions::incrementAndGet));
+            }));
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(executions).hasValue(1);
+            assertThat(results).hasSize(8).containsOnly(1);
+        }
+    }
+
+    @Nested
+    class PancakeServiceRequests {
+
+        private final OrderRepository orderRepository = new InMemoryOrderRepository();
+        private final PancakeService pancakeService = PancakeService.builder(orderRepository, new PancakeMenu())
+                .withIdempotencyCache(testInstance)
+                .build();
+
+        @Test
+        void ShouldCreateSingleOrder_WhenCreateOrderIsRetried() {
+            // given
+            Order order = pancakeService.createOrder("kiosk-1", 1, 2);
+
+            // when
+            Order retriedOrder = pancakeService.createOrder("kiosk-1", 1, 2);
+
+            // then
+            assertThat(retriedOrder).isSameAs(order);
+            assertThat(orderRepository.countOrders(OrderProcessingState.NEW)).isEqualTo(1);
+        }
+
+        @Test
+        void ShouldCreateOrderForEachAddress_WhenSameKeyIsUsedForAnotherAddress() {
+            // given
+            Order order = pancakeService.createOrder("kiosk-5", 1, 2);
+
+            // when
+            Order otherOrder = pancakeService.createOrder("kiosk-5", 1, 3);
+
+            // then
+            assertThat(otherOrder).isNotSameAs(order);
+            assertThat(otherOrder.getDeliveryAddress()).isEqualTo(new Address(1, 3));
+            assertThat(orderRepository.countOrders(OrderProcessingState.NEW)).isEqualTo(2);
+        }
+
+        @Test
+        void ShouldAddPancakesOnce_WhenAddPancakeToOrderIsRetried() {
+            // given
+            Order order = pancakeService.createOrder(1, 2);
+            String description = "Delicious pancake with dark chocolate!";
+
+            // when
+            pancakeService.addPancakeToOrder("kiosk-2", order, description, 2);
+            pancakeService.addPancakeToOrder("kiosk-2", order, description, 2);
+
+            // then
+            assertThat(pancakeService.viewOrder(order)).containsExactly(Map.entry(description, 2));
+        }
+
+        @Test
+        void ShouldAddPancakes_WhenSameKeyIsUsedForAnotherOrder() {
+            // given
+            Order order1 = pancakeService.createOrder(1, 2);
+            Order order2 = pancakeService.createOrder(1, 3);
+            String description = "Delicious pancake with dark chocolate!";
+
+            // when
+            pancakeService.addPancakeToOrder("kiosk-3", order1, description, 1);
+            pancakeService.addPancakeToOrder("kiosk-3", order2, description, 1);
+
+            // then
+            assertThat(pancakeService.viewOrder(order2)).containsExactly(Map.entry(description, 1));
+        }
+
+        @Test
+        void ShouldAddBothPancakes_WhenSameKeyIsUsedForMenuAndCustomPancake() {
+            // given
+            Order order = pancakeService.createOrder(1, 2);
+            String description = "Delicious pancake with dark chocolate!";
+
+            // when
+            pancakeService.addPancakeToOrder("kiosk-4", order, description, 1);
+            pancakeService.addPancakeToOrder("kiosk-4", order, List.of(Ingredient.MILK_CHOCOLATE), 1);
+
+            // then
+            assertThat(pancakeService.viewOrder(order)).hasSize(2);
+        }
+    }
+}
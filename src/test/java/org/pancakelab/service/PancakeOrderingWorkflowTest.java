@@ -88,6 +88,9 @@ public class PancakeOrderingWorkflowTest {
         // then
         List<Order> completedOrdersOrders = pancakeService.getCompletedOrders();
         assertThat(completedOrdersOrders).contains(order);
+
+        assertThat(pancakeService.getOrderCounts()).containsEntry(OrderProcessingState.COMPLETED, 1L);
+        assertThat(pancakeService.getOrderCounts(10)).containsEntry(OrderProcessingState.COMPLETED, 1L);
     }
 
     @Test
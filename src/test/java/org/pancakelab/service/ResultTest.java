@@ -0,0 +1,257 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.model.pancake.RecipeRules;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.Result.Status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultTest {
+
+    private static final String DARK_CHOCOLATE_PANCAKE_DESCRIPTION = "Delicious pancake with dark chocolate!";
+
+    private final OrderRepository orderRepository = new InMemoryOrderRepository();
+    private final PancakeService pancakeService = PancakeService.builder(orderRepository, new PancakeMenu())
+            .withRecipeRules(RecipeRules.compile(List.of("max-toppings 1")))
+            .build();
+
+    @Nested
+    class TryCreateOrder {
+
+        @Test
+        void ShouldReturnOrder_WhenAddressIsValid() {
+            // when
+            Result<Order> result = pancakeService.tryCreateOrder(1, 2);
+
+            // then
+            assertThat(result.isOk()).isTrue();
+            assertThat(result.getStatus()).isEqualTo(Status.OK);
+            assertThat(result.getValue().getDeliveryAddress().room()).isEqualTo(2);
+            assertThat(result.getMessage()).isNull();
+            assertThat(orderRepository.findOrderById(result.getValue().getId())).isPresent();
+        }
+
+        @Test
+        void ShouldReturnFailure_WhenAddressIsInvalid() {
+            // when
+            Result<Order> result = pancakeService.tryCreateOrder(0, 2);
+
+            // then
+            assertThat(result.isOk()).isFalse();
+            assertThat(result.getStatus()).isEqualTo(Status.INVALID_ADDRESS);
+            assertThat(result.getValue()).isNull();
+            assertThat(result.getMessage()).isNotBlank();
+        }
+    }
+
+    @Nested
+    class TryAddPancakeToOrder {
+
+        @Test
+        void ShouldAddPancake_WhenPancakeIsInMenu() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+
+            // when
+            Result<Void> result = pancakeService.tryAddPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 2);
+
+            // then
+            assertThat(result).isSameAs(Result.ok());
+            assertThat(pancakeService.viewOrder(order)).containsEntry(DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 2);
+        }
+
+        @Test
+        void ShouldReturnFailure_WhenPancakeIsNotInMenu() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+
+            // when
+            Result<Void> result = pancakeService.tryAddPancakeToOrder(order, "Pancake with pickles", 1);
+
+            // then
+            assertThat(result.getStatus()).isEqualTo(Status.NO_SUCH_PANCAKE);
+            assertThat(order.getPancakes()).isEmpty();
+        }
+
+        @Test
+        void ShouldReturnFailure_WhenQuantityIsInvalid() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+
+            // when
+            Result<Void> result = pancakeService.tryAddPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 0);
+
+            // then
+            assertThat(result.getStatus()).isEqualTo(Status.INVALID_QUANTITY);
+        }
+
+        @Test
+        void ShouldReturnFailure_WhenRecipeIsInvalid() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+
+            // when
+            Result<Void> result = pancakeService.tryAddPancakeToOrder(order,
+                    List.of(Ingredient.DARK_CHOCOLATE, Ingredient.WHIPPED_CREAM, Ingredient.HAZELNUTS), 1);
+
+            // then
+            assertThat(result.getStatus()).isEqualTo(Status.INVALID_RECIPE);
+            assertThat(order.getPancakes()).isEmpty();
+        }
+    }
+
+    @Nested
+    class TryChangeOrderState {
+
+        @Test
+        void ShouldMoveOrderThroughWorkflow_WhenEveryStepIsAllowed() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+
+            // when
+            List<Result<Void>> results = List.of(
+                    pancakeService.tryCompleteOrder(order),
+                    pancakeService.tryPrepareOrder(order),
+                    pancakeService.tryDeliverOrder(order));
+
+            // then
+            assertThat(results).allMatch(Result::isOk);
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.DELIVERED);
+            assertThat(orderRepository.findOrderById(order.getId())).isEmpty();
+        }
+
+        @Test
+        void ShouldReturnFailure_WhenTransitionIsNotAllowed() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+            pancakeService.completeOrder(order);
+
+            // when
+            Result<Void> cancelResult = pancakeService.tryCancelOrder(order);
+            Result<Void> removeResult = pancakeService.tryRemovePancakeFromOrder(order,
+                    DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+            Result<Void> deliverResult = pancakeService.tryDeliverOrder(order);
+
+            // then
+            assertThat(cancelResult.getStatus()).isEqualTo(Status.INVALID_ORDER_STATE);
+            assertThat(removeResult.getStatus()).isEqualTo(Status.INVALID_ORDER_STATE);
+            assertThat(deliverResult.getStatus()).isEqualTo(Status.INVALID_ORDER_STATE);
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.COMPLETED);
+        }
+
+        @Test
+        void ShouldReturnFailure_WhenOrderIsNotCompleted() {
+            // given
+            Order order = pancakeService.createOrder(1, 1);
+
+            // when
+            Result<Void> result = pancakeService.tryPrepareOrder(order);
+
+            // then
+            assertThat(result.getStatus()).isEqualTo(Status.INVALID_ORDER_STATE);
+            assertThat(result.getMessage()).isNotBlank();
+        }
+    }
+
+    @Nested
+    class BulkTransitions {
+
+        @Test
+        void ShouldReportOutcomePerOrder_WhenPreparingOrders() {
+            // given
+            Order completedOrder = completedOrder();
+            Order newOrder = pancakeService.createOrder(1, 1);
+            UUID unknownOrderId = UUID.randomUUID();
+
+            // when
+            Map<UUID, Result<Void>> results = pancakeService.prepareOrders(
+                    List.of(newOrder.getId(), unknownOrderId, completedOrder.getId()));
+
+            // then
+            assertThat(results.keySet()).containsExactly(newOrder.getId(), unknownOrderId, completedOrder.getId());
+            assertThat(results.get(newOrder.getId()).getStatus()).isEqualTo(Status.INVALID_ORDER_STATE);
+            assertThat(results.get(unknownOrderId).getStatus()).isEqualTo(Status.NO_SUCH_ORDER);
+            assertThat(results.get(completedOrder.getId()).isOk()).isTrue();
+            assertThat(completedOrder.getOrderProcessingState()).isEqualTo(OrderProcessingState.PREPARED);
+        }
+
+        @Test
+        void ShouldRemoveOnlyDeliveredOrders_WhenSomeOrdersCannotBeDelivered() {
+            // given
+            Order preparedOrder1 = completedOrder();
+            Order completedOrder = completedOrder();
+            Order preparedOrder2 = completedOrder();
+            pancakeService.prepareOrders(List.of(preparedOrder1.getId(), preparedOrder2.getId()));
+
+            // when
+            Map<UUID, Result<Void>> results = pancakeService.deliverOrders(
+                    List.of(preparedOrder1.getId(), completedOrder.getId(), preparedOrder2.getId()));
+
+            // then
+            assertThat(results.get(preparedOrder1.getId()).isOk()).isTrue();
+            assertThat(results.get(completedOrder.getId()).getStatus()).isEqualTo(Status.INVALID_ORDER_STATE);
+            assertThat(results.get(preparedOrder2.getId()).isOk()).isTrue();
+            assertThat(orderRepository.findOrderById(preparedOrder1.getId())).isEmpty();
+            assertThat(orderRepository.findOrderById(preparedOrder2.getId())).isEmpty();
+            assertThat(pancakeService.getCompletedOrders()).containsExactly(completedOrder);
+        }
+
+        @Test
+        void ShouldReportSuccess_WhenPreparedOrderIdIsRepeated() {
+            // given
+            Order order = completedOrder();
+
+            // when
+            Map<UUID, Result<Void>> results = pancakeService.prepareOrders(List.of(order.getId(), order.getId()));
+
+            // then
+            assertThat(results).hasSize(1);
+            assertThat(results.get(order.getId()).isOk()).isTrue();
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.PREPARED);
+        }
+
+        @Test
+        void ShouldReportSuccess_WhenDeliveredOrderIdIsRepeated() {
+            // given
+            Order order = completedOrder();
+            pancakeService.prepareOrder(order);
+
+            // when
+            Map<UUID, Result<Void>> results = pancakeService.deliverOrders(List.of(order.getId(), order.getId()));
+
+            // then
+            assertThat(results).hasSize(1);
+            assertThat(results.get(order.getId()).isOk()).isTrue();
+            assertThat(orderRepository.findOrderById(order.getId())).isEmpty();
+        }
+
+        @Test
+        void ShouldReturnNoResults_WhenNoOrdersAreGiven() {
+            // when
+            Map<UUID, Result<Void>> results = pancakeService.deliverOrders(List.of());
+
+            // then
+            assertThat(results).isEmpty();
+        }
+
+        private Order completedOrder() {
+            Order order = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+            pancakeService.completeOrder(order);
+            return order;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.pancakelab.service.delivery;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.TestClock;
+import org.pancakelab.TestSamples;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.order.exception.OrderStateException;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.event.OrderChangeStream;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class DeliveryDispatcherTest {
+
+    private final TestClock clock = new TestClock();
+    private final OrderRepository orderRepository = new InMemoryOrderRepository(new OrderChangeStream(Runnable::run, 16, 1024));
+    private final PancakeService pancakeService = PancakeService.builder(orderRepository, new PancakeMenu())
+            .withClock(clock)
+            .build();
+    private final DeliveryDispatcher testInstance =
+            new DeliveryDispatcher(orderRepository, 3, Duration.ofMinutes(5), Duration.ofMinutes(30), clock);
+
+    @Nested
+    class NextBatch {
+
+        @Test
+        void ShouldReturnEmpty_WhenBatchIsNotFullAndOrdersHaveNotWaitedLongEnough() {
+            // given
+            preparedOrder(1, 1);
+            preparedOrder(1, 2);
+            clock.advance(Duration.ofMinutes(4));
+
+            // when
+            Optional<DeliveryBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).isEmpty();
+        }
+
+        @Test
+        void ShouldReturnFullBatchSortedByRoom_WhenBuildingHasEnoughOrders() {
+            // given
+            Order order1 = preparedOrder(2, 30);
+            Order order2 = preparedOrder(2, 10);
+            Order order3 = preparedOrder(2, 20);
+            Order order4 = preparedOrder(2, 5);
+            preparedOrder(1, 1);
+
+            // when
+            Optional<DeliveryBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).hasValueSatisfying(actualBatch -> {
+                assertThat(actualBatch.building()).isEqualTo(2);
+                assertThat(actualBatch.orders()).containsExactly(order2, order3, order1);
+            });
+            assertThat(testInstance.nextBatch()).isEmpty();
+            assertThat(order4.getOrderProcessingState()).isEqualTo(OrderProcessingState.PREPARED);
+        }
+
+        @Test
+        void ShouldReturnPartialBatch_WhenOldestOrderHasWaitedLongEnough() {
+            // given
+            Order order1 = preparedOrder(1, 1);
+            clock.advance(Duration.ofMinutes(2));
+            Order order2 = preparedOrder(1, 2);
+            preparedOrder(2, 1);
+            clock.advance(Duration.ofMinutes(3));
+
+            // when
+            Optional<DeliveryBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).hasValueSatisfying(actualBatch -> {
+                assertThat(actualBatch.building()).isEqualTo(1);
+                assertThat(actualBatch.orders()).containsExactly(order1, order2);
+            });
+            assertThat(testInstance.nextBatch()).isEmpty();
+        }
+
+        @Test
+        void ShouldNotHandOutOrderAgain_WhenOrderIsAlreadyInBatch() {
+            // given
+            preparedOrder(1, 1);
+            clock.advance(Duration.ofMinutes(5));
+            assertThat(testInstance.nextBatch()).isPresent();
+            Order laterOrder = preparedOrder(1, 2);
+
+            // when
+            clock.advance(Duration.ofMinutes(5));
+            Optional<DeliveryBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).hasValueSatisfying(actualBatch ->
+                    assertThat(actualBatch.orders()).containsExactly(laterOrder));
+        }
+
+        @Test
+        void ShouldHandOutOrdersPreparedBefore_WhenDispatcherIsCreated() {
+            // given
+            Order order = preparedOrder(3, 1);
+            DeliveryDispatcher dispatcher = new DeliveryDispatcher(orderRepository, 1, Duration.ofMinutes(5), clock);
+
+            // when
+            Optional<DeliveryBatch> batch = dispatcher.nextBatch();
+
+            // then
+            assertThat(batch).hasValueSatisfying(actualBatch ->
+                    assertThat(actualBatch.orders()).containsExactly(order));
+        }
+
+        @Test
+        void ShouldHandOutOrderAgain_WhenDispatchTimedOut() {
+            // given
+            Order order = preparedOrder(1, 1);
+            clock.advance(Duration.ofMinutes(5));
+            assertThat(testInstance.nextBatch()).isPresent();
+            clock.advance(Duration.ofMinutes(29));
+            assertThat(testInstance.nextBatch()).isEmpty();
+
+            // when
+            clock.advance(Duration.ofMinutes(1));
+            Optional<DeliveryBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).hasValueSatisfying(actualBatch ->
+                    assertThat(actualBatch.orders()).containsExactly(order));
+        }
+
+        @Test
+        void ShouldNotKeepDispatches_WhenDispatcherHasNoTimeout() {
+            // given
+            DeliveryDispatcher dispatcher = new DeliveryDispatcher(orderRepository, 1, Duration.ZERO, clock);
+            for (int i = 1; i <= 50; i++) {
+                preparedOrder(i, 1);
+            }
+
+            // when
+            int batches = 0;
+            while (dispatcher.nextBatch().isPresent()) {
+                batches++;
+            }
+
+            // then
+            assertThat(batches).isEqualTo(50);
+            assertThat(dispatcher.getExpiringDispatchCount()).isZero();
+        }
+
+        @Test
+        void ShouldNotHandOutOrder_WhenOrderIsNoLongerPrepared() {
+            // given
+            Order order = preparedOrder(1, 1);
+            clock.advance(Duration.ofMinutes(5));
+            pancakeService.deliverOrder(order);
+
+            // when
+            Optional<DeliveryBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).isEmpty();
+        }
+
+        @Test
+        void ShouldThrowException_WhenBatchSizeIsNotPositive() {
+            // when
+            Exception exception = catchException(() ->
+                    new DeliveryDispatcher(orderRepository, 0, Duration.ZERO, clock));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Batch size must be greater than zero");
+        }
+    }
+
+    @Nested
+    class ReturnBatch {
+
+        @Test
+        void ShouldHandOutOrdersAgain_WhenBatchIsReturned() {
+            // given
+            Order order1 = preparedOrder(1, 1);
+            Order order2 = preparedOrder(1, 2);
+            clock.advance(Duration.ofMinutes(5));
+            DeliveryBatch batch = testInstance.nextBatch().orElseThrow();
+
+            // when
+            testInstance.returnBatch(batch);
+
+            // then
+            assertThat(testInstance.nextBatch()).hasValueSatisfying(actualBatch ->
+                    assertThat(actualBatch.orders()).containsExactly(order1, order2));
+        }
+
+        @Test
+        void ShouldNotHandOutDeliveredOrders_WhenBatchIsReturnedAfterPartialDelivery() {
+            // given
+            Order order1 = preparedOrder(1, 1);
+            Order order2 = preparedOrder(1, 2);
+            clock.advance(Duration.ofMinutes(5));
+            DeliveryBatch batch = testInstance.nextBatch().orElseThrow();
+            pancakeService.deliverOrder(order1);
+
+            // when
+            testInstance.returnBatch(batch);
+
+            // then
+            assertThat(testInstance.nextBatch()).hasValueSatisfying(actualBatch ->
+                    assertThat(actualBatch.orders()).containsExactly(order2));
+        }
+    }
+
+    @Nested
+    class DeliverOrders {
+
+        @Test
+        void ShouldDeliverAndRemoveWholeBatch_WhenBatchIsDispatched() {
+            // given
+            preparedOrder(1, 1);
+            preparedOrder(1, 2);
+            preparedOrder(1, 3);
+            DeliveryBatch batch = testInstance.nextBatch().orElseThrow();
+
+            // when
+            pancakeService.deliverBatch(batch.orders());
+
+            // then
+            assertThat(batch.orders()).allSatisfy(order ->
+                    assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.DELIVERED));
+            assertThat(orderRepository.findPreparedOrders()).isEmpty();
+            assertThat(orderRepository.countOrders(OrderProcessingState.PREPARED)).isZero();
+        }
+
+        @Test
+        void ShouldRemoveOrdersDeliveredBeforeFailure_WhenOrderCannotBeDelivered() {
+            // given
+            Order preparedOrder = preparedOrder(1, 1);
+            Order completedOrder = pancakeService.createOrder(1, 2);
+            completedOrder.addPancake(TestSamples.pancake(), 1);
+            pancakeService.completeOrder(completedOrder);
+
+            // when
+            Exception exception = catchException(() ->
+                    pancakeService.deliverBatch(List.of(preparedOrder, completedOrder)));
+
+            // then
+            assertThat(exception).isInstanceOf(OrderStateException.class);
+            assertThat(orderRepository.findOrderById(preparedOrder.getId())).isEmpty();
+            assertThat(orderRepository.findOrderById(completedOrder.getId())).hasValue(completedOrder);
+            assertThat(completedOrder.getOrderProcessingState()).isEqualTo(OrderProcessingState.COMPLETED);
+        }
+    }
+
+    private Order preparedOrder(int building, int room) {
+        clock.advance(Duration.ofSeconds(1));
+        Order order = pancakeService.createOrder(building, room);
+        order.addPancake(TestSamples.pancake(), 1);
+        pancakeService.completeOrder(order);
+        pancakeService.prepareOrder(order);
+        return order;
+    }
+}
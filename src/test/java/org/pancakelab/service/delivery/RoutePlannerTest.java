@@ -0,0 +1,187 @@
+package org.pancakelab.service.delivery;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pancakelab.TestSamples;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class RoutePlannerTest {
+
+    @Nested
+    class Plan {
+
+        @Test
+        void ShouldReturnEmptyRoute_WhenThereAreNoOrders() {
+            // when
+            DeliveryRoute route = new RoutePlanner().plan(List.of());
+
+            // then
+            assertThat(route.stops()).isEmpty();
+            assertThat(route.distance()).isZero();
+        }
+
+        @Test
+        void ShouldVisitBuildingsInRow_WhenBuildingsAreGivenOutOfOrder() {
+            // given
+            Order order1 = order(3, 1);
+            Order order2 = order(1, 1);
+            Order order3 = order(2, 1);
+
+            // when
+            DeliveryRoute route = new RoutePlanner().plan(List.of(order1, order2, order3));
+
+            // then
+            assertThat(route.stops()).extracting(DeliveryStop::address)
+                    .containsExactly(new Address(1, 1), new Address(2, 1), new Address(3, 1));
+            assertThat(route.distance()).isEqualTo(12);
+        }
+
+        @Test
+        void ShouldMakeSingleStop_WhenOrdersGoToSameRoom() {
+            // given
+            Order order1 = order(1, 5);
+            Order order2 = order(1, 5);
+
+            // when
+            DeliveryRoute route = new RoutePlanner().plan(List.of(order1, order2));
+
+            // then
+            assertThat(route.stops()).singleElement().satisfies(stop ->
+                    assertThat(stop.orders()).containsExactly(order1, order2));
+        }
+
+        @Test
+        void ShouldFollowDistanceMatrix_WhenBuildingNumbersDoNotReflectDistances() {
+            // given
+            // kitchen - 3 - 1 - 2 in a row
+            BuildingDistances distances = BuildingDistances.matrix(new int[][]{
+                    {0, 2, 3, 1},
+                    {2, 0, 1, 1},
+                    {3, 1, 0, 2},
+                    {1, 1, 2, 0}
+            });
+            RoutePlanner testInstance = new RoutePlanner(distances, 0);
+
+            // when
+            DeliveryRoute route = testInstance.plan(List.of(order(1, 1), order(2, 1), order(3, 1)));
+
+            // then
+            assertThat(route.stops()).extracting(stop -> stop.address().building()).containsExactly(3, 1, 2);
+            assertThat(route.distance()).isEqualTo(6);
+        }
+
+        @Test
+        void ShouldThrowException_WhenBuildingIsMissingInDistanceMatrix() {
+            // given
+            RoutePlanner testInstance = new RoutePlanner(BuildingDistances.matrix(new int[][]{{0, 1}, {1, 0}}), 1);
+
+            // when
+            Exception exception = catchException(() -> testInstance.plan(List.of(order(2, 1))));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Unknown building 2");
+        }
+
+        @Test
+        void ShouldPlanRouteInMilliseconds_WhenBatchHasTwoHundredStops() {
+            // given
+            Random random = new Random(42);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                orders.add(order(1 + random.nextInt(50), 1 + random.nextInt(40)));
+            }
+            RoutePlanner testInstance = new RoutePlanner();
+            testInstance.plan(orders);
+
+            // when
+            long start = System.nanoTime();
+            DeliveryRoute route = testInstance.plan(orders);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // then
+            assertThat(elapsedMillis).isLessThan(500);
+            assertThat(route.stops().stream().mapToInt(stop -> stop.orders().size()).sum()).isEqualTo(200);
+            assertThat(route.stops()).extracting(DeliveryStop::address).doesNotHaveDuplicates();
+            // visiting the buildings in a row is optimal on a linear layout when every room costs the same
+            assertThat(route.distance()).isLessThanOrEqualTo(sweepDistance(orders));
+        }
+
+        private static long sweepDistance(List<Order> orders) {
+            SortedMap<Integer, SortedSet<Integer>> rooms = new TreeMap<>();
+            for (Order order : orders) {
+                rooms.computeIfAbsent(order.getDeliveryAddress().building(), building -> new TreeSet<>())
+                        .add(order.getDeliveryAddress().room());
+            }
+            long distance = 0;
+            int building = 0;
+            int room = 0;
+            for (Map.Entry<Integer, SortedSet<Integer>> entry : rooms.entrySet()) {
+                distance += entry.getKey() - building + room + entry.getValue().first();
+                distance += entry.getValue().last() - entry.getValue().first();
+                building = entry.getKey();
+                room = entry.getValue().last();
+            }
+            return distance + building + room;
+        }
+    }
+
+    @Nested
+    class LoadBuildingDistances {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        void ShouldReadMatrix_WhenFileContainsCommentsAndRows() throws IOException {
+            // given
+            Path file = directory.resolve("distances.txt");
+            Files.writeString(file, """
+                    # kitchen, building 1, building 2
+                    0 4 7
+
+                    4 0 3
+                    7 3 0
+                    """);
+
+            // when
+            BuildingDistances distances = BuildingDistances.load(file);
+
+            // then
+            assertThat(distances.distance(0, 2)).isEqualTo(7);
+            assertThat(distances.distance(2, 1)).isEqualTo(3);
+        }
+
+        @Test
+        void ShouldThrowException_WhenMatrixIsNotSymmetric() throws IOException {
+            // given
+            Path file = directory.resolve("distances.txt");
+            Files.writeString(file, "0 1\n2 0\n");
+
+            // when
+            Exception exception = catchException(() -> BuildingDistances.load(file));
+
+            // then
+            assertThat(exception)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Distance matrix must be symmetric");
+        }
+    }
+
+    private static Order order(int building, int room) {
+        Order order = new Order(new Address(building, room));
+        order.addPancake(TestSamples.pancake(), 1);
+        return order;
+    }
+}
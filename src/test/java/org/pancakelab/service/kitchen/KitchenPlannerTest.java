@@ -0,0 +1,270 @@
+package org.pancakelab.service.kitchen;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.Pancake;
+import org.pancakelab.repository.event.OrderChangeStream;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class KitchenPlannerTest {
+
+    private static final Pancake DARK_CHOCOLATE = new Pancake(List.of(Ingredient.DARK_CHOCOLATE));
+    private static final Pancake MILK_CHOCOLATE = new Pancake(List.of(Ingredient.MILK_CHOCOLATE));
+
+    private final InMemoryOrderRepository orderRepository =
+            new InMemoryOrderRepository(new OrderChangeStream(Runnable::run, 16, 1024));
+    private final KitchenPlanner testInstance = new KitchenPlanner(orderRepository, 4);
+
+    @Nested
+    class Aggregation {
+
+        @Test
+        void ShouldAggregateIdenticalPancakes_WhenOrdersAreCompleted() {
+            // given
+            completedOrder(Map.of(DARK_CHOCOLATE, 2, MILK_CHOCOLATE, 1));
+            completedOrder(Map.of(DARK_CHOCOLATE, 3));
+
+            // when
+            Map<Pancake, Integer> pendingQuantities = testInstance.getPendingQuantities();
+
+            // then
+            assertThat(pendingQuantities).containsOnly(Map.entry(DARK_CHOCOLATE, 5), Map.entry(MILK_CHOCOLATE, 1));
+        }
+
+        @Test
+        void ShouldIgnoreOrder_WhenOrderIsNotCompleted() {
+            // given
+            Order order = new Order(new Address(1, 1));
+            orderRepository.saveOrder(order);
+
+            // when
+            order.addPancake(DARK_CHOCOLATE, 2);
+
+            // then
+            assertThat(testInstance.getPendingQuantities()).isEmpty();
+            assertThat(testInstance.nextBatch()).isEmpty();
+        }
+
+        @Test
+        void ShouldDropOrder_WhenOrderIsPreparedOutsideOfPlan() {
+            // given
+            Order order = completedOrder(Map.of(DARK_CHOCOLATE, 2));
+
+            // when
+            order.markPrepared();
+
+            // then
+            assertThat(testInstance.getPendingQuantities()).isEmpty();
+        }
+    }
+
+    @Nested
+    class NextBatch {
+
+        @Test
+        void ShouldFillBatchUpToGriddleCapacity_WhenSeveralOrdersContainSamePancake() {
+            // given
+            Order order1 = completedOrder(Map.of(DARK_CHOCOLATE, 3));
+            Order order2 = completedOrder(Map.of(DARK_CHOCOLATE, 3));
+
+            // when
+            Optional<CookingBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).hasValueSatisfying(actualBatch -> {
+                assertThat(actualBatch.pancake()).isEqualTo(DARK_CHOCOLATE);
+                assertThat(actualBatch.quantity()).isEqualTo(4);
+                assertThat(actualBatch.portions())
+                        .containsExactly(new CookingPortion(order1, 3), new CookingPortion(order2, 1));
+            });
+            assertThat(testInstance.getPendingQuantities()).containsOnly(Map.entry(DARK_CHOCOLATE, 2));
+        }
+
+        @Test
+        void ShouldStartWithOldestPancake_WhenSeveralPancakesAreWaiting() {
+            // given
+            completedOrder(Map.of(MILK_CHOCOLATE, 1));
+            completedOrder(Map.of(DARK_CHOCOLATE, 4));
+
+            // when
+            Optional<CookingBatch> batch = testInstance.nextBatch();
+
+            // then
+            assertThat(batch).map(CookingBatch::pancake).hasValue(MILK_CHOCOLATE);
+        }
+    }
+
+    @Nested
+    class CompleteBatch {
+
+        @Test
+        void ShouldPrepareOnlyFullyCoveredOrders_WhenBatchIsCooked() {
+            // given
+            Order order1 = completedOrder(Map.of(DARK_CHOCOLATE, 3));
+            Order order2 = completedOrder(Map.of(DARK_CHOCOLATE, 3));
+            CookingBatch batch = testInstance.nextBatch().orElseThrow();
+
+            // when
+            List<Order> preparedOrders = testInstance.completeBatch(batch);
+
+            // then
+            assertThat(preparedOrders).containsExactly(order1);
+            assertThat(order1.getOrderProcessingState()).isEqualTo(OrderProcessingState.PREPARED);
+            assertThat(order2.getOrderProcessingState()).isEqualTo(OrderProcessingState.COMPLETED);
+
+            // when
+            List<Order> nextPreparedOrders = testInstance.completeBatch(testInstance.nextBatch().orElseThrow());
+
+            // then
+            assertThat(nextPreparedOrders).containsExactly(order2);
+            assertThat(orderRepository.findCompletedOrders()).isEmpty();
+            assertThat(testInstance.nextBatch()).isEmpty();
+        }
+
+        @Test
+        void ShouldWaitForAllPancakes_WhenOrderContainsDifferentPancakes() {
+            // given
+            Order order = completedOrder(Map.of(DARK_CHOCOLATE, 1, MILK_CHOCOLATE, 1));
+
+            // when
+            List<Order> firstPrepared = testInstance.completeBatch(testInstance.nextBatch().orElseThrow());
+            List<Order> secondPrepared = testInstance.completeBatch(testInstance.nextBatch().orElseThrow());
+
+            // then
+            assertThat(firstPrepared).isEmpty();
+            assertThat(secondPrepared).containsExactly(order);
+        }
+
+        @Test
+        void ShouldSkipOrder_WhenOrderLeftPlanWhileBatchWasCooked() {
+            // given
+            Order order = completedOrder(Map.of(DARK_CHOCOLATE, 1));
+            CookingBatch batch = testInstance.nextBatch().orElseThrow();
+            orderRepository.removeOrder(order);
+
+            // when
+            List<Order> preparedOrders = testInstance.completeBatch(batch);
+
+            // then
+            assertThat(preparedOrders).isEmpty();
+            assertThat(order.getOrderProcessingState()).isEqualTo(OrderProcessingState.COMPLETED);
+        }
+    }
+
+    @Nested
+    class AbandonBatch {
+
+        @Test
+        void ShouldHandOutSamePancakesAgain_WhenBatchIsAbandoned() {
+            // given
+            Order order1 = completedOrder(Map.of(DARK_CHOCOLATE, 3));
+            Order order2 = completedOrder(Map.of(DARK_CHOCOLATE, 3, MILK_CHOCOLATE, 1));
+            CookingBatch batch = testInstance.nextBatch().orElseThrow();
+
+            // when
+            testInstance.abandonBatch(batch);
+
+            // then
+            assertThat(testInstance.getPendingQuantities())
+                    .containsOnly(Map.entry(DARK_CHOCOLATE, 6), Map.entry(MILK_CHOCOLATE, 1));
+            CookingBatch nextBatch = testInstance.nextBatch().orElseThrow();
+            assertThat(nextBatch.portions())
+                    .containsExactly(new CookingPortion(order1, 3), new CookingPortion(order2, 1));
+            assertThat(testInstance.completeBatch(nextBatch)).containsExactly(order1);
+        }
+
+        @Test
+        void ShouldDropPortion_WhenOrderLeftPlanBeforeBatchWasAbandoned() {
+            // given
+            Order order = completedOrder(Map.of(DARK_CHOCOLATE, 2));
+            CookingBatch batch = testInstance.nextBatch().orElseThrow();
+            orderRepository.removeOrder(order);
+
+            // when
+            testInstance.abandonBatch(batch);
+
+            // then
+            assertThat(testInstance.getPendingQuantities()).isEmpty();
+            assertThat(testInstance.nextBatch()).isEmpty();
+        }
+    }
+
+    @Nested
+    class Resubscribe {
+
+        private final Queue<Runnable> deliveries = new ArrayDeque<>();
+        private final InMemoryOrderRepository laggingRepository =
+                new InMemoryOrderRepository(new OrderChangeStream(deliveries::add, 16, 4));
+        private final KitchenPlanner laggingPlanner = new KitchenPlanner(laggingRepository, 4);
+
+        @Test
+        void ShouldResynchronizePlan_WhenPlannerFallsBehindChangeStream() {
+            // given
+            deliverAll();
+            Order preparedOrder = completedOrder(Map.of(MILK_CHOCOLATE, 1));
+            preparedOrder.markPrepared();
+            Order completedOrder = completedOrder(Map.of(DARK_CHOCOLATE, 3));
+
+            // when
+            deliverAll();
+
+            // then
+            assertThat(laggingPlanner.getResubscriptions()).isEqualTo(1);
+            assertThat(laggingPlanner.getPendingQuantities()).containsOnly(Map.entry(DARK_CHOCOLATE, 3));
+
+            // when
+            completedOrder.markPrepared();
+            deliverAll();
+
+            // then
+            assertThat(laggingPlanner.getPendingQuantities()).isEmpty();
+        }
+
+        private Order completedOrder(Map<Pancake, Integer> pancakes) {
+            Order order = new Order(new Address(1, 1));
+            laggingRepository.saveOrder(order);
+            pancakes.forEach(order::addPancake);
+            order.markCompleted();
+            return order;
+        }
+
+        private void deliverAll() {
+            Runnable delivery;
+            while ((delivery = deliveries.poll()) != null) {
+                delivery.run();
+            }
+        }
+    }
+
+    @Test
+    void ShouldThrowException_WhenGriddleCapacityIsNotPositive() {
+        // when
+        Exception exception = catchException(() -> new KitchenPlanner(orderRepository, 0));
+
+        // then
+        assertThat(exception)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Griddle capacity must be greater than zero");
+    }
+
+    private Order completedOrder(Map<Pancake, Integer> pancakes) {
+        Order order = new Order(new Address(1, 1));
+        orderRepository.saveOrder(order);
+        pancakes.forEach(order::addPancake);
+        order.markCompleted();
+        return order;
+    }
+}
@@ -0,0 +1,233 @@
+package org.pancakelab.trace;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pancakelab.model.order.Address;
+import org.pancakelab.model.order.Order;
+import org.pancakelab.model.order.OrderDraft;
+import org.pancakelab.model.order.OrderProcessingState;
+import org.pancakelab.model.pancake.Ingredient;
+import org.pancakelab.model.pancake.PancakeMenu;
+import org.pancakelab.repository.OrderRepository;
+import org.pancakelab.repository.impl.InMemoryOrderRepository;
+import org.pancakelab.service.PancakeService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchException;
+
+class TraceReplayerTest {
+
+    private static final String DARK_CHOCOLATE_PANCAKE_DESCRIPTION = "Delicious pancake with dark chocolate!";
+
+    @TempDir
+    private Path tempDir;
+
+    @Nested
+    class Record {
+
+        @Test
+        void ShouldReadBackEveryEvent_WhenTraceIsWritten() throws IOException {
+            // given
+            Order order = new Order(new Address(2, 5));
+            List<TraceEvent> events = List.of(
+                    TraceEvent.ofOrder(TraceOperation.CREATE_ORDER, 1_000, order),
+                    TraceEvent.ofPancake(TraceOperation.ADD_CUSTOM_PANCAKE, 900, order, null,
+                            Arrays.asList(Ingredient.HAZELNUTS, null), 3),
+                    TraceEvent.ofPancake(TraceOperation.REMOVE_PANCAKE, 5_000, order, null, null, 1),
+                    TraceEvent.ofQuery(TraceOperation.GET_ORDERS_FOR_ROOM, 7_000, 2, 5, 0),
+                    TraceEvent.ofFailedOrder(TraceOperation.CREATE_ORDER, 7_500, 0, -1),
+                    TraceEvent.ofAgeQuery(TraceOperation.GET_COMPLETED_ORDERS_BEFORE, 8_000, Duration.ofMillis(1_500)),
+                    TraceEvent.ofAgeQuery(TraceOperation.GET_COMPLETED_ORDERS_BEFORE, 8_500, null),
+                    TraceEvent.ofIngredientQuery(TraceOperation.GET_ORDERS_CONTAINING_ANY, 9_000,
+                            List.of(Ingredient.HAZELNUTS)));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            // when
+            try (TraceWriter writer = new TraceWriter(output)) {
+                for (TraceEvent event : events) {
+                    writer.write(event);
+                }
+            }
+            Path file = Files.write(tempDir.resolve("trace.bin"), output.toByteArray());
+
+            // then
+            assertThat(TraceReader.readAll(file)).isEqualTo(events);
+        }
+
+        @Test
+        void ShouldRecordServiceCalls_WhenRecorderIsConfigured() throws IOException {
+            // given
+            Path file = tempDir.resolve("trace.bin");
+            PancakeService pancakeService;
+            try (FileTraceRecorder recorder = new FileTraceRecorder(file)) {
+                pancakeService = service(new InMemoryOrderRepository(), recorder);
+
+                // when
+                Order order = pancakeService.createOrder(1, 1);
+                pancakeService.addPancakeToOrder(order, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 2);
+                catchException(() -> pancakeService.prepareOrder(order));
+                pancakeService.getOrdersForBuilding(1);
+                pancakeService.getCompletedOrdersBefore(Instant.now());
+                pancakeService.getOrdersContainingAll(Set.of(Ingredient.DARK_CHOCOLATE));
+                pancakeService.getOrdersContainingAny(Set.of(Ingredient.HAZELNUTS));
+            }
+
+            // then
+            assertThat(TraceReader.readAll(file)).extracting(TraceEvent::operation).containsExactly(
+                    TraceOperation.CREATE_ORDER,
+                    TraceOperation.ADD_PANCAKE,
+                    TraceOperation.PREPARE_ORDER,
+                    TraceOperation.GET_ORDERS_FOR_BUILDING,
+                    TraceOperation.GET_COMPLETED_ORDERS_BEFORE,
+                    TraceOperation.GET_ORDERS_CONTAINING_ALL,
+                    TraceOperation.GET_ORDERS_CONTAINING_ANY);
+        }
+
+        @Test
+        void ShouldRecordFailedCallsWithoutOrderId_WhenOrderCannotBeCreated() throws IOException {
+            // given
+            Path file = tempDir.resolve("trace.bin");
+            try (FileTraceRecorder recorder = new FileTraceRecorder(file)) {
+                PancakeService pancakeService = service(new InMemoryOrderRepository(), recorder);
+
+                // when
+                catchException(() -> pancakeService.createOrder(0, 1));
+                OrderDraft emptyDraft = pancakeService.newOrderDraft(3, 4);
+                catchException(() -> pancakeService.placeCompletedOrder(emptyDraft));
+            }
+
+            // then
+            assertThat(TraceReader.readAll(file)).satisfiesExactly(
+                    event -> {
+                        assertThat(event.operation()).isEqualTo(TraceOperation.CREATE_ORDER);
+                        assertThat(event.orderId()).isNull();
+                        assertThat(event.building()).isZero();
+                        assertThat(event.room()).isEqualTo(1);
+                    },
+                    event -> {
+                        assertThat(event.operation()).isEqualTo(TraceOperation.PLACE_COMPLETED_ORDER);
+                        assertThat(event.orderId()).isNull();
+                        assertThat(event.pancakes()).isEmpty();
+                    });
+        }
+
+        @Test
+        void ShouldThrowException_WhenFileIsNotTrace() throws IOException {
+            // given
+            Path file = Files.writeString(tempDir.resolve("orders.csv"), "id,building,room");
+
+            // when
+            Exception exception = catchException(() -> TraceReader.readAll(file));
+
+            // then
+            assertThat(exception).isInstanceOf(IOException.class).hasMessage("Not a trace file");
+        }
+    }
+
+    @Nested
+    class Replay {
+
+        @Test
+        void ShouldReproduceRecordedState_WhenReplayedAgainstAnotherRepository() throws IOException {
+            // given
+            Path file = tempDir.resolve("trace.bin");
+            OrderRepository recordedRepository = new InMemoryOrderRepository();
+            try (FileTraceRecorder recorder = new FileTraceRecorder(file)) {
+                recordTraffic(service(recordedRepository, recorder));
+            }
+            OrderRepository replayedRepository = new InMemoryOrderRepository();
+
+            // when
+            ReplayReport report = new TraceReplayer(file)
+                    .replay(service(replayedRepository, TraceRecorder.disabled()), ReplaySpeed.maximum());
+
+            // then
+            assertThat(report.calls()).isEqualTo(TraceReader.readAll(file).size());
+            assertThat(report.failures()).isEqualTo(2);
+            assertThat(report.skipped()).isZero();
+            assertThat(report.throughput()).isPositive();
+            assertThat(report.latencies()).containsKeys(TraceOperation.CREATE_ORDER, TraceOperation.DELIVER_ORDER);
+            for (OrderProcessingState state : OrderProcessingState.values()) {
+                assertThat(replayedRepository.countOrders(state)).isEqualTo(recordedRepository.countOrders(state));
+            }
+        }
+
+        @Test
+        void ShouldKeepRecordedGaps_WhenReplayedAtMultipliedSpeed() {
+            // given
+            long second = Duration.ofSeconds(1).toNanos();
+            List<TraceEvent> events = List.of(
+                    TraceEvent.ofQuery(TraceOperation.GET_COMPLETED_ORDERS, 0, 0, 0, 0),
+                    TraceEvent.ofQuery(TraceOperation.GET_PREPARED_ORDERS, second, 0, 0, 0));
+            TraceReplayer testInstance = new TraceReplayer(events);
+
+            // when
+            ReplayReport report = testInstance.replay(
+                    service(new InMemoryOrderRepository(), TraceRecorder.disabled()), ReplaySpeed.times(10));
+
+            // then
+            assertThat(report.calls()).isEqualTo(2);
+            assertThat(report.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        }
+
+        @Test
+        void ShouldSkipCalls_WhenOrderWasCreatedBeforeTraceStarted() {
+            // given
+            Order order = new Order(new Address(1, 1));
+            TraceReplayer testInstance = new TraceReplayer(List.of(
+                    TraceEvent.ofOrder(TraceOperation.CANCEL_ORDER, 0, order)));
+
+            // when
+            ReplayReport report = testInstance.replay(
+                    service(new InMemoryOrderRepository(), TraceRecorder.disabled()), ReplaySpeed.original());
+
+            // then
+            assertThat(report.skipped()).isEqualTo(1);
+            assertThat(report.calls()).isZero();
+        }
+
+        private void recordTraffic(PancakeService pancakeService) {
+            Order delivered = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakeToOrder(delivered, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 2);
+            pancakeService.addPancakeToOrder(delivered, List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS), 1);
+            pancakeService.removePancakeFromOrder(delivered, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 1);
+            pancakeService.completeOrder(delivered);
+            pancakeService.prepareOrder(delivered);
+            pancakeService.deliverOrder(delivered);
+
+            Order cancelled = pancakeService.createOrder(2, 1);
+            pancakeService.cancelOrder(cancelled);
+            catchException(() -> pancakeService.completeOrder(cancelled));
+
+            OrderDraft draft = pancakeService.newOrderDraft(3, 4);
+            pancakeService.addPancakeToDraft(draft, DARK_CHOCOLATE_PANCAKE_DESCRIPTION, 3);
+            Order placed = pancakeService.placeCompletedOrder(draft);
+            pancakeService.prepareOrders(List.of(placed.getId(), UUID.randomUUID()));
+
+            pancakeService.createOrder(3, 5);
+            catchException(() -> pancakeService.createOrder(3, 0));
+            pancakeService.getOldestPreparedOrders(10);
+            pancakeService.getOrdersForRoom(3, 5);
+            pancakeService.getCompletedOrdersBefore(Instant.now());
+            pancakeService.getOrdersContainingAny(Set.of(Ingredient.HAZELNUTS));
+        }
+    }
+
+    private static PancakeService service(OrderRepository orderRepository, TraceRecorder traceRecorder) {
+        return PancakeService.builder(orderRepository, new PancakeMenu())
+                .withTraceRecorder(traceRecorder)
+                .build();
+    }
+}